@@ -1,11 +1,35 @@
 package com.mystartup.rssaggregator.configuration;
 
 import com.mystartup.rssaggregator.model.CustomTagAdapter;
+import com.mystartup.rssaggregator.model.SearchProjection;
+import com.mystartup.rssaggregator.service.ConcurrentRssUrlServiceImpl;
 import com.mystartup.rssaggregator.service.DefaultRssReaderServiceImpl;
-import com.mystartup.rssaggregator.service.DefaultRssUrlServiceImpl;
 import com.mystartup.rssaggregator.service.RssReaderService;
 import com.mystartup.rssaggregator.service.RssUrlService;
 import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import com.mystartup.rssaggregator.service.fetch.ConditionalGetCache;
+import com.mystartup.rssaggregator.service.fetch.FeedFetcher;
+import com.mystartup.rssaggregator.service.fetch.HttpClientFeedFetcher;
+import com.mystartup.rssaggregator.service.fetch.ParallelFeedReader;
+import com.mystartup.rssaggregator.service.index.Analyzer;
+import com.mystartup.rssaggregator.service.index.Bm25Ranking;
+import com.mystartup.rssaggregator.service.index.ItemIndex;
+import com.mystartup.rssaggregator.service.ingest.FeedCanonicalizer;
+import com.mystartup.rssaggregator.service.ingest.FeedIngestor;
+import com.mystartup.rssaggregator.service.ingest.ItemDeduplicator;
+import com.mystartup.rssaggregator.service.ingest.NewItemPublisher;
+import com.mystartup.rssaggregator.service.ingest.OverflowPolicy;
+import com.mystartup.rssaggregator.service.ingest.StandingQueries;
+import com.mystartup.rssaggregator.service.ingest.StringInterner;
+import com.mystartup.rssaggregator.service.metrics.AggregatorMetrics;
+import com.mystartup.rssaggregator.service.metrics.DefaultAggregatorMetricsImpl;
+import com.mystartup.rssaggregator.service.metrics.MetricsReporter;
+import com.mystartup.rssaggregator.service.scheduling.FeedHealthTracker;
+import com.mystartup.rssaggregator.service.scheduling.FeedPoller;
+import com.mystartup.rssaggregator.service.scheduling.FixedRefreshPolicy;
+import com.mystartup.rssaggregator.service.scheduling.HostPoliteness;
+import com.mystartup.rssaggregator.service.scheduling.PollExecutionMode;
+import com.mystartup.rssaggregator.service.scheduling.RefreshPolicy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
@@ -17,7 +41,6 @@ import org.springframework.security.config.annotation.method.configuration.Globa
 
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
 
 @Configuration
 @ComponentScan("com.mystartup.rssaggregator")
@@ -26,12 +49,131 @@ public class RssAggregatorConfig extends GlobalMethodSecurityConfiguration {
 
     @Bean
     public RssReaderService rssReaderService() throws URISyntaxException, RssAggregatorException, MalformedURLException {
-        return new DefaultRssReaderServiceImpl(rssUrlService(), unmarshaller());
+        return rssReaderServiceBuilder().build();
+    }
+
+    /**
+     * The reader service wired with the beans of this configuration. A configuration overriding
+     * {@link #rssReaderService()} adds the optional parts to it, e.g. a state store.
+     */
+    protected DefaultRssReaderServiceImpl.Builder rssReaderServiceBuilder()
+            throws URISyntaxException, RssAggregatorException, MalformedURLException {
+        return DefaultRssReaderServiceImpl.builder(rssUrlService(), unmarshaller())
+                .parallelFeedReader(parallelFeedReader())
+                .conditionalGetCache(conditionalGetCache())
+                .itemIndex(itemIndex())
+                .feedPoller(feedPoller())
+                .feedIngestor(feedIngestor())
+                .metrics(aggregatorMetrics())
+                .feedFetcher(feedFetcher())
+                .feedCanonicalizer(feedCanonicalizer());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ParallelFeedReader parallelFeedReader() throws RssAggregatorException {
+        return new ParallelFeedReader(ParallelFeedReader.DEFAULT_PARALLELISM, ParallelFeedReader.DEFAULT_FEED_TIMEOUT_MILLIS);
+    }
+
+    @Bean
+    public FeedFetcher feedFetcher() throws RssAggregatorException {
+        return new HttpClientFeedFetcher(HttpClientFeedFetcher.DEFAULT_CONNECT_TIMEOUT_MILLIS,
+                HttpClientFeedFetcher.DEFAULT_READ_TIMEOUT_MILLIS);
     }
 
     @Bean
     public RssUrlService rssUrlService() throws RssAggregatorException, MalformedURLException, URISyntaxException {
-        return new DefaultRssUrlServiceImpl(new ArrayList<>());
+        return new ConcurrentRssUrlServiceImpl();
+    }
+
+    @Bean
+    public ConditionalGetCache conditionalGetCache() {
+        return new ConditionalGetCache();
+    }
+
+    @Bean
+    public ItemIndex itemIndex() {
+        return new ItemIndex(searchProjection(), analyzer(), bm25Ranking());
+    }
+
+    @Bean
+    public Analyzer analyzer() {
+        return new Analyzer();
+    }
+
+    @Bean
+    public Bm25Ranking bm25Ranking() {
+        return new Bm25Ranking();
+    }
+
+    @Bean
+    public SearchProjection searchProjection() {
+        return new SearchProjection();
+    }
+
+    @Bean(destroyMethod = "stop")
+    public FeedPoller feedPoller() throws RssAggregatorException {
+        return feedPollerBuilder().build();
+    }
+
+    /**
+     * The poller wired with the beans of this configuration. A configuration overriding {@link #feedPoller()}
+     * changes its values on it, e.g. the execution mode.
+     */
+    protected FeedPoller.Builder feedPollerBuilder() throws RssAggregatorException {
+        return FeedPoller.builder()
+                .maxConcurrentPolls(FeedPoller.DEFAULT_WORKER_THREADS)
+                .reconcileIntervalMillis(FeedPoller.DEFAULT_RECONCILE_INTERVAL_MILLIS)
+                .refreshPolicy(refreshPolicy())
+                .metrics(aggregatorMetrics())
+                .executionMode(PollExecutionMode.PLATFORM_THREADS)
+                .politeness(hostPoliteness())
+                .healthTracker(feedHealthTracker());
+    }
+
+    @Bean
+    public FeedHealthTracker feedHealthTracker() {
+        return new FeedHealthTracker();
+    }
+
+    @Bean
+    public HostPoliteness hostPoliteness() {
+        return new HostPoliteness();
+    }
+
+    @Bean
+    public FeedIngestor feedIngestor() throws RssAggregatorException {
+        return new FeedIngestor(new ItemDeduplicator(), newItemPublisher(), null, standingQueries());
+    }
+
+    @Bean
+    public StandingQueries standingQueries() {
+        return new StandingQueries(searchProjection());
+    }
+
+    @Bean
+    public FeedCanonicalizer feedCanonicalizer() throws RssAggregatorException {
+        return new FeedCanonicalizer(new StringInterner(StringInterner.DEFAULT_MAX_SIZE, StringInterner.DEFAULT_MAX_LENGTH));
+    }
+
+    @Bean(destroyMethod = "close")
+    public NewItemPublisher newItemPublisher() throws RssAggregatorException {
+        return new NewItemPublisher(NewItemPublisher.DEFAULT_BUFFER_CAPACITY, OverflowPolicy.DROP,
+                NewItemPublisher.DEFAULT_BLOCK_TIMEOUT_MILLIS);
+    }
+
+    @Bean
+    public RefreshPolicy refreshPolicy() {
+        return new FixedRefreshPolicy();
+    }
+
+    @Bean
+    public AggregatorMetrics aggregatorMetrics() {
+        return new DefaultAggregatorMetricsImpl();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public MetricsReporter metricsReporter() throws RssAggregatorException {
+        return new MetricsReporter(aggregatorMetrics(), MetricsReporter.DEFAULT_REPORT_INTERVAL_MILLIS);
     }
 
     @Bean
@@ -1,9 +1,12 @@
 package com.mystartup.rssaggregator.model;
 
+import com.mystartup.rssaggregator.service.parsing.FeedDates;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlElement;
@@ -36,11 +39,23 @@ public class Channel {
     private List<String> categories;
 
     @XmlElement(name = "lastBuildDate")
+    @Setter(AccessLevel.NONE)
     private String lastBuildDate;
 
     @XmlElement(name = "pubDate")
+    @Setter(AccessLevel.NONE)
     private String pubDate;
 
+    /**
+     * The lastBuildDate and pubDate in milliseconds since the epoch, parsed once when they are set or unmarshalled.
+     * {@link FeedDates#UNKNOWN} when missing or unreadable.
+     */
+    @Setter(AccessLevel.NONE)
+    private long lastBuildDateMillis = FeedDates.UNKNOWN;
+
+    @Setter(AccessLevel.NONE)
+    private long pubDateMillis = FeedDates.UNKNOWN;
+
     @XmlElement(name = "webMaster")
     private String webMaster;
 
@@ -50,4 +65,22 @@ public class Channel {
     @XmlElement(name = "item")
     private List<Item> items;
 
+    public void setLastBuildDate(final String lastBuildDate) {
+        this.lastBuildDate = lastBuildDate;
+        this.lastBuildDateMillis = FeedDates.parse(lastBuildDate);
+    }
+
+    public void setPubDate(final String pubDate) {
+        this.pubDate = pubDate;
+        this.pubDateMillis = FeedDates.parse(pubDate);
+    }
+
+    /**
+     * JAXB callback, JAXB sets the fields directly.
+     */
+    @SuppressWarnings("unused")
+    private void afterUnmarshal(final Unmarshaller unmarshaller, final Object parent) {
+        lastBuildDateMillis = FeedDates.parse(lastBuildDate);
+        pubDateMillis = FeedDates.parse(pubDate);
+    }
 }
@@ -0,0 +1,20 @@
+package com.mystartup.rssaggregator.model;
+
+/**
+ * State of the circuit breaker of a polled feed.
+ */
+public enum CircuitState {
+    /**
+     * The feed is polled normally. After a failure it is polled again with an exponential backoff.
+     */
+    CLOSED,
+    /**
+     * The feed failed too many times in a row and is not polled until the end of its backoff.
+     */
+    OPEN,
+    /**
+     * The backoff of an open circuit is over and a single trial poll is allowed: success closes the circuit,
+     * failure opens it again with a longer backoff.
+     */
+    HALF_OPEN
+}
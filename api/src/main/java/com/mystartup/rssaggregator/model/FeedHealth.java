@@ -0,0 +1,26 @@
+package com.mystartup.rssaggregator.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.net.URI;
+import java.time.Instant;
+
+/**
+ * Health of a polled feed which failed since its last successful poll.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class FeedHealth {
+    private final URI uri;
+    private final CircuitState state;
+    private final int consecutiveFailures;
+    private final String lastError;
+    private final Instant lastFailureAt;
+    /**
+     * Time before which the feed is not polled again.
+     */
+    private final Instant nextAttemptAt;
+}
@@ -0,0 +1,25 @@
+package com.mystartup.rssaggregator.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Snapshot of the metrics of a single feed.
+ * The fetch latency goes from sending the request until the whole body has been received, the parse time is the
+ * time spent unmarshalling the received body afterwards.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class FeedMetricsSnapshot {
+    private final URI uri;
+    private final HistogramSnapshot fetchLatency;
+    private final long bytesDownloaded;
+    private final HistogramSnapshot parseTime;
+    private final long itemsParsed;
+    private final Map<String, Long> errorsByType;
+}
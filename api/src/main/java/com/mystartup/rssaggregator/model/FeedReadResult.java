@@ -0,0 +1,33 @@
+package com.mystartup.rssaggregator.model;
+
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of reading a set of configured RSS URLs.
+ * Successfully read feeds are kept in the order of the configuration, failures are kept per RSS URL
+ * so one broken source does not discard the feeds already read.
+ */
+@Getter
+@ToString
+public class FeedReadResult {
+
+    private final List<RssFeed> feeds;
+    private final Map<RssUrl, RssAggregatorException> failures;
+
+    public FeedReadResult(final List<RssFeed> feeds, final Map<RssUrl, RssAggregatorException> failures) {
+        this.feeds = Collections.unmodifiableList(new ArrayList<>(feeds));
+        this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+}
@@ -0,0 +1,20 @@
+package com.mystartup.rssaggregator.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Snapshot of a latency histogram. Values are in microseconds, percentiles are accurate to about 3%.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class HistogramSnapshot {
+    private final long count;
+    private final long meanMicros;
+    private final long p50Micros;
+    private final long p90Micros;
+    private final long p99Micros;
+    private final long maxMicros;
+}
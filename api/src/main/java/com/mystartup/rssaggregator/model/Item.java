@@ -1,14 +1,19 @@
 package com.mystartup.rssaggregator.model;
 
+import com.mystartup.rssaggregator.service.parsing.FeedDates;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAnyElement;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -39,8 +44,17 @@ public class Item {
     private List<String> category;
 
     @XmlElement(name = "pubDate")
+    @Setter(AccessLevel.NONE)
     private String pubDate;
 
+    /**
+     * The pubDate in milliseconds since the epoch, parsed once when the pubDate is set or unmarshalled.
+     * {@link FeedDates#UNKNOWN} when the pubDate is missing or unreadable.
+     */
+    @XmlTransient
+    @Setter(AccessLevel.NONE)
+    private long pubDateMillis = FeedDates.UNKNOWN;
+
     @XmlElement(name = "enclosure")
     private String enclosure;
 
@@ -53,14 +67,61 @@ public class Item {
     @XmlAnyElement
     private List<CustomTag> customTags;
 
+    /**
+     * Case-folded searchable values, cached by the {@link SearchProjection} which built them.
+     */
+    @XmlTransient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private volatile CachedSearchText cachedSearchText;
+
+    private static final class CachedSearchText {
+        private final SearchProjection projection;
+        private final String searchText;
+
+        private CachedSearchText(final SearchProjection projection, final String searchText) {
+            this.projection = projection;
+            this.searchText = searchText;
+        }
+    }
+
+    public void setPubDate(final String pubDate) {
+        this.pubDate = pubDate;
+        this.pubDateMillis = FeedDates.parse(pubDate);
+    }
+
+    /**
+     * JAXB callback, JAXB sets the fields directly.
+     */
+    @SuppressWarnings("unused")
+    private void afterUnmarshal(final Unmarshaller unmarshaller, final Object parent) {
+        pubDateMillis = FeedDates.parse(pubDate);
+    }
+
+    /**
+     * @return the searchable values of the given projection, or null when they were not cached yet.
+     */
+    String getCachedSearchText(final SearchProjection projection) {
+        CachedSearchText cached = cachedSearchText;
+        return cached != null && projection.hasSameFields(cached.projection) ? cached.searchText : null;
+    }
+
+    void cacheSearchText(final SearchProjection projection, final String searchText) {
+        cachedSearchText = new CachedSearchText(projection, searchText);
+    }
+
     /**
      * Used to retrieve the String containing the searchable values.
      * This can be used to exclude/include a specific value
      *
      * @return the string containing the item's searchable values.
+     * @deprecated built again on every call, searches use the cached {@link SearchProjection#project(Item)}.
      */
+    @Deprecated
     public String getSearchValues() {
-        List<String> customTagValues = getCustomTags().stream().map(CustomTag::getValue).collect(Collectors.toList());
+        List<String> customTagValues = getCustomTags() == null ? Collections.emptyList()
+                : getCustomTags().stream().map(CustomTag::getValue).collect(Collectors.toList());
 
         Stream<String> valuesIncludedForSearch = Stream.of(getTitle(), getDescription(), getGuid(), getLink(),
                 getAuthor(), String.valueOf(getCategory()), getPubDate(), getEnclosure(), String.valueOf(getComments()),
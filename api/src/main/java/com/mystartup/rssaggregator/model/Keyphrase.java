@@ -0,0 +1,61 @@
+package com.mystartup.rssaggregator.model;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A search keyphrase and the rule telling whether searchable values contain it, shared by the keyphrase searches
+ * (searchFeeds, the item store, the standing queries): the keyphrase case-folded with
+ * {@link SearchProjection#fold(String)} must be found as is in the case-folded values ({@link SearchProjection}).
+ * Words do not have to be whole, "ai" is found in "said", like the scan searchFeeds always did.
+ * The keyphrase is folded and encoded once, matching it against any number of values allocates nothing.
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public final class Keyphrase {
+
+    @Getter
+    @ToString.Include
+    private final String folded;
+    private final byte[] utf8;
+
+    /**
+     * @param keyphrase a non-empty word or phrase, case is ignored.
+     */
+    public Keyphrase(final String keyphrase) {
+        this.folded = SearchProjection.fold(keyphrase);
+        this.utf8 = folded.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param searchText case-folded searchable values, as given by {@link SearchProjection#project(Item)}.
+     * @return true when the values contain the keyphrase.
+     */
+    public boolean isFoundIn(final String searchText) {
+        return searchText.contains(folded);
+    }
+
+    /**
+     * Same as {@link #isFoundIn(String)} for values encoded in UTF-8, matched in place. A UTF-8 sequence never
+     * starts inside another one, so the bytes of the keyphrase are found exactly where the keyphrase is.
+     *
+     * @param buffer the buffer holding the encoded values, its position is left untouched.
+     * @param start  the index of the first byte of the values.
+     * @param length the number of bytes of the values.
+     */
+    public boolean isFoundIn(final ByteBuffer buffer, final int start, final int length) {
+        int lastStart = start + length - utf8.length;
+        for (int position = start; position <= lastStart; position++) {
+            int matched = 0;
+            while (matched < utf8.length && buffer.get(position + matched) == utf8[matched]) {
+                matched++;
+            }
+            if (matched == utf8.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,22 @@
+package com.mystartup.rssaggregator.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Snapshot of the metrics of the aggregator: per feed metrics, errors of all feeds by type, the lag of the
+ * periodic polls behind their planned time and the search latency.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class MetricsSnapshot {
+    private final Map<URI, FeedMetricsSnapshot> feeds;
+    private final Map<String, Long> errorsByType;
+    private final HistogramSnapshot schedulerLag;
+    private final HistogramSnapshot searchLatency;
+}
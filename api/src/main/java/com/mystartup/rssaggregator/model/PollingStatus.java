@@ -0,0 +1,27 @@
+package com.mystartup.rssaggregator.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Snapshot of the state of the periodic feed polling. With virtual threads, workerThreads is the maximum number
+ * of polls in flight. pollsWaitingForHost counts the due polls waiting for a connection to their host,
+ * rateLimitedHosts the hosts not polled until the end of their Retry-After delay, trippedFeeds the feeds whose
+ * circuit breaker is open or half-open.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PollingStatus {
+    private final boolean running;
+    private final int workerThreads;
+    private final int scheduledFeeds;
+    private final int pollsInFlight;
+    private final long pollsCompleted;
+    private final long pollsFailed;
+    private final boolean virtualThreads;
+    private final int pollsWaitingForHost;
+    private final int rateLimitedHosts;
+    private final int trippedFeeds;
+}
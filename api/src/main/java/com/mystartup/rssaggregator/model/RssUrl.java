@@ -17,8 +17,31 @@ public class RssUrl {
         this.refreshIntervalMinutes = validatedRefreshInterval(refreshIntervalMinutes);
     }
 
+    /**
+     * Configuration with bounds for the adaptive refresh policy, which adapts the interval of the feed between
+     * the given minimum and maximum. Either bound can be null to use the policy default.
+     */
+    public RssUrl(URI uri, Integer refreshIntervalMinutes, Integer minRefreshIntervalMinutes,
+                  Integer maxRefreshIntervalMinutes) throws RssAggregatorException {
+        this(uri, refreshIntervalMinutes);
+        if (minRefreshIntervalMinutes != null) {
+            validatedRefreshInterval(minRefreshIntervalMinutes);
+        }
+        if (maxRefreshIntervalMinutes != null) {
+            validatedRefreshInterval(maxRefreshIntervalMinutes);
+        }
+        if (minRefreshIntervalMinutes != null && maxRefreshIntervalMinutes != null
+                && minRefreshIntervalMinutes > maxRefreshIntervalMinutes) {
+            throw new RssAggregatorException("Invalid refresh interval bounds. The minimum cannot be greater than the maximum");
+        }
+        this.minRefreshIntervalMinutes = minRefreshIntervalMinutes;
+        this.maxRefreshIntervalMinutes = maxRefreshIntervalMinutes;
+    }
+
     private URI uri;
     private Integer refreshIntervalMinutes;
+    private Integer minRefreshIntervalMinutes;
+    private Integer maxRefreshIntervalMinutes;
 
     public RssUrl(URI uri) {
         this.uri = uri;
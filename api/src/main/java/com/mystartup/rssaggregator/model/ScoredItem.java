@@ -0,0 +1,20 @@
+package com.mystartup.rssaggregator.model;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * An item found by the ranked search, with its relevance score: the higher, the more relevant.
+ */
+@Getter
+@ToString
+public class ScoredItem {
+
+    private final Item item;
+    private final double score;
+
+    public ScoredItem(final Item item, final double score) {
+        this.item = item;
+        this.score = score;
+    }
+}
@@ -0,0 +1,101 @@
+package com.mystartup.rssaggregator.model;
+
+import java.util.List;
+
+/**
+ * Field of an item which can be part of its searchable values, see {@link SearchProjection}.
+ */
+public enum SearchField {
+    TITLE,
+    DESCRIPTION,
+    GUID,
+    LINK,
+    AUTHOR,
+    /**
+     * Every category of the item.
+     */
+    CATEGORY,
+    PUB_DATE,
+    ENCLOSURE,
+    /**
+     * Every comments value of the item.
+     */
+    COMMENTS,
+    /**
+     * Title, link and description of the channel nested in the item, not its items.
+     */
+    CHANNEL,
+    /**
+     * Values of the custom tags of the item, their names are not searchable.
+     */
+    CUSTOM_TAGS;
+
+    private static final char SEPARATOR = '\n';
+
+    /**
+     * Appends the non-empty values of this field of the item, each one on a new line when the text is not empty.
+     */
+    public void appendValues(final Item item, final StringBuilder text) {
+        switch (this) {
+            case TITLE:
+                append(text, item.getTitle());
+                break;
+            case DESCRIPTION:
+                append(text, item.getDescription());
+                break;
+            case GUID:
+                append(text, item.getGuid());
+                break;
+            case LINK:
+                append(text, item.getLink());
+                break;
+            case AUTHOR:
+                append(text, item.getAuthor());
+                break;
+            case CATEGORY:
+                appendAll(text, item.getCategory());
+                break;
+            case PUB_DATE:
+                append(text, item.getPubDate());
+                break;
+            case ENCLOSURE:
+                append(text, item.getEnclosure());
+                break;
+            case COMMENTS:
+                appendAll(text, item.getComments());
+                break;
+            case CHANNEL:
+                if (item.getChannel() != null) {
+                    append(text, item.getChannel().getTitle());
+                    append(text, item.getChannel().getLink());
+                    append(text, item.getChannel().getDescription());
+                }
+                break;
+            case CUSTOM_TAGS:
+                if (item.getCustomTags() != null) {
+                    for (CustomTag customTag : item.getCustomTags()) {
+                        append(text, customTag == null ? null : customTag.getValue());
+                    }
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown search field " + this);
+        }
+    }
+
+    private static void appendAll(final StringBuilder text, final List<String> values) {
+        if (values != null) {
+            values.forEach(value -> append(text, value));
+        }
+    }
+
+    private static void append(final StringBuilder text, final String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        if (text.length() > 0) {
+            text.append(SEPARATOR);
+        }
+        text.append(value);
+    }
+}
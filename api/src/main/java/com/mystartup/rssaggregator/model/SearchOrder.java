@@ -0,0 +1,15 @@
+package com.mystartup.rssaggregator.model;
+
+/**
+ * Order of the items returned by a paginated search.
+ */
+public enum SearchOrder {
+    /**
+     * Items in the order they were indexed, i.e. the order of the feeds as they were read and of the items in each feed.
+     */
+    INDEX_ORDER,
+    /**
+     * Most recently published items first, by parsed pubDate. Items without a readable pubDate come last.
+     */
+    NEWEST_FIRST
+}
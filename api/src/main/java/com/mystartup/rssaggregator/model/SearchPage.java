@@ -0,0 +1,29 @@
+package com.mystartup.rssaggregator.model;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of search results. When more items match, the next page token is given back to the search to continue
+ * right after the last item of this page; it is null on the last page.
+ */
+@Getter
+@ToString
+public class SearchPage {
+
+    private final List<Item> items;
+    private final String nextPageToken;
+
+    public SearchPage(final List<Item> items, final String nextPageToken) {
+        this.items = Collections.unmodifiableList(new ArrayList<>(items));
+        this.nextPageToken = nextPageToken;
+    }
+
+    public boolean hasNextPage() {
+        return nextPageToken != null;
+    }
+}
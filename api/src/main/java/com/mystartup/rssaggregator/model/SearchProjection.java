@@ -0,0 +1,77 @@
+package com.mystartup.rssaggregator.model;
+
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Searchable values of the items: the values of the selected fields, case-folded and joined with new lines so
+ * a keyphrase does not match across two values. The projection of an item is built once, the first time it is
+ * needed (when the item is indexed), and cached on the item, the items of the feeds are not modified once read.
+ * Searches fold the keyphrase once ({@link Keyphrase}) and match it against the cached projections without
+ * allocating anything per item.
+ * The nested channel of an item is not searchable by default, most feeds do not have one.
+ */
+@Getter
+@ToString
+public final class SearchProjection {
+
+    public static final Set<SearchField> DEFAULT_FIELDS =
+            Collections.unmodifiableSet(EnumSet.complementOf(EnumSet.of(SearchField.CHANNEL)));
+
+    private final Set<SearchField> fields;
+
+    public SearchProjection() {
+        this.fields = DEFAULT_FIELDS;
+    }
+
+    public SearchProjection(final Set<SearchField> fields) throws RssAggregatorException {
+        if (fields == null || fields.isEmpty()) {
+            throw new RssAggregatorException("Invalid search fields. Please give at least one field");
+        }
+        this.fields = Collections.unmodifiableSet(EnumSet.copyOf(fields));
+    }
+
+    /**
+     * Folds the case of a value the same way as the projections, e.g. a keyphrase.
+     */
+    public static String fold(final String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the case-folded searchable values of the item, cached on the item.
+     */
+    public String project(final Item item) {
+        String searchText = item.getCachedSearchText(this);
+        if (searchText == null) {
+            searchText = fold(build(item));
+            item.cacheSearchText(this, searchText);
+        }
+        return searchText;
+    }
+
+    /**
+     * @return true when the searchable values of the item contain the keyphrase.
+     */
+    public boolean matches(final Item item, final Keyphrase keyphrase) {
+        return keyphrase.isFoundIn(project(item));
+    }
+
+    boolean hasSameFields(final SearchProjection other) {
+        return other == this || other.fields.equals(fields);
+    }
+
+    private String build(final Item item) {
+        StringBuilder text = new StringBuilder();
+        for (SearchField field : fields) {
+            field.appendValues(item, text);
+        }
+        return text.toString();
+    }
+}
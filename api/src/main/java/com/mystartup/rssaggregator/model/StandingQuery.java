@@ -0,0 +1,20 @@
+package com.mystartup.rssaggregator.model;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A keyword or phrase registered to be matched against every new item found by the periodic reading.
+ */
+@Getter
+@ToString
+public class StandingQuery {
+
+    private final long id;
+    private final String keyphrase;
+
+    public StandingQuery(final long id, final String keyphrase) {
+        this.id = id;
+        this.keyphrase = keyphrase;
+    }
+}
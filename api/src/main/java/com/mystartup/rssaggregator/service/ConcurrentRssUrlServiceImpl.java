@@ -0,0 +1,165 @@
+package com.mystartup.rssaggregator.service;
+
+import com.mystartup.rssaggregator.model.RssUrl;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe in-memory RSS URL configurations, indexed by normalized URL for constant time lookups.
+ * Reads never lock: get is a hash lookup and getAll returns an immutable snapshot of the configurations in
+ * insertion order. Changes are serialized, each one builds and publishes the next snapshot.
+ * URLs are matched case insensitively, like in the default implementation, after removing dot segments and
+ * default ports (e.g. http://Host:80/a/../rss and http://host/rss are the same configuration).
+ */
+@Slf4j
+public final class ConcurrentRssUrlServiceImpl implements RssUrlService {
+
+    private final Object writeLock = new Object();
+    private final ConcurrentHashMap<String, RssUrl> rssUrlsByKey = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, RssUrl> orderedRssUrls = new LinkedHashMap<>();
+    private volatile List<RssUrl> snapshot = Collections.emptyList();
+
+    public ConcurrentRssUrlServiceImpl() {
+        this(Collections.emptyList());
+    }
+
+    public ConcurrentRssUrlServiceImpl(@NonNull final Collection<RssUrl> rssUrls) {
+        synchronized (writeLock) {
+            for (RssUrl rssUrl : rssUrls) {
+                if (rssUrl != null && rssUrl.getUri() != null) {
+                    String key = normalizedKey(rssUrl.getUri());
+                    orderedRssUrls.put(key, rssUrl);
+                    rssUrlsByKey.put(key, rssUrl);
+                }
+            }
+            publishSnapshot();
+        }
+    }
+
+    /**
+     * @return an immutable snapshot of the configurations.
+     */
+    @Override
+    public List<RssUrl> getAll() {
+        return snapshot;
+    }
+
+    @Override
+    public RssUrl get(final String url) throws RssAggregatorException {
+        RssUrl rssUrl = url == null ? null : rssUrlsByKey.get(normalizedKey(url));
+        if (rssUrl == null) {
+            throw new RssAggregatorException("URL could not be found in current configuration.");
+        }
+        return rssUrl;
+    }
+
+    @Override
+    public void addOrUpdate(final RssUrl rssUrl) throws RssAggregatorException {
+        if (rssUrl == null || rssUrl.getUri() == null) {
+            String errorMessage = "Add RSS url configuration cannot be called with null!";
+            log.error(errorMessage);
+            throw new RssAggregatorException(errorMessage);
+        }
+        String key = normalizedKey(rssUrl.getUri());
+        synchronized (writeLock) {
+            if (rssUrlsByKey.containsKey(key)) {
+                log.info("Url already existing in current configuration. Will update");
+            } else {
+                log.info("Adding URL to list");
+            }
+            put(key, rssUrl);
+        }
+    }
+
+    @Override
+    public void delete(final String rssUrl) throws RssAggregatorException {
+        if (rssUrl == null) {
+            String errorMessage = "Delete RSS url configuration cannot be called with null!";
+            log.error(errorMessage);
+            throw new RssAggregatorException(errorMessage);
+        }
+        try {
+            new URL(rssUrl);
+        } catch (MalformedURLException e) {
+            throw new RssAggregatorException(String.format("Invalid URL! The provided url %s is invalid", rssUrl));
+        }
+
+        log.info("Deleting URL if existing in current configuration.");
+
+        String key = normalizedKey(rssUrl);
+        synchronized (writeLock) {
+            if (orderedRssUrls.remove(key) == null) {
+                throw new RssAggregatorException(String.format("Error while deleting %s, it is not a known configuration", rssUrl));
+            }
+            rssUrlsByKey.remove(key);
+            publishSnapshot();
+        }
+    }
+
+    private void put(final String key, final RssUrl rssUrl) {
+        synchronized (writeLock) {
+            orderedRssUrls.put(key, rssUrl);
+            rssUrlsByKey.put(key, rssUrl);
+            publishSnapshot();
+        }
+    }
+
+    /**
+     * Called with the write lock held.
+     */
+    private void publishSnapshot() {
+        snapshot = Collections.unmodifiableList(new ArrayList<>(orderedRssUrls.values()));
+    }
+
+    static String normalizedKey(final String url) {
+        try {
+            return normalizedKey(new URI(url));
+        } catch (URISyntaxException e) {
+            return url.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * @return the normalized form of the URL: lower case, without dot segments and default port.
+     */
+    public static String normalizedKey(final URI uri) {
+        URI normalizedUri = uri.normalize();
+        if (normalizedUri.isOpaque() || normalizedUri.getHost() == null) {
+            return normalizedUri.toString().toLowerCase(Locale.ROOT);
+        }
+        String scheme = normalizedUri.getScheme() == null ? "" : normalizedUri.getScheme().toLowerCase(Locale.ROOT);
+        int port = normalizedUri.getPort();
+        boolean defaultPort = port == 80 && "http".equals(scheme) || port == 443 && "https".equals(scheme);
+        StringBuilder key = new StringBuilder(scheme).append("://");
+        if (normalizedUri.getRawUserInfo() != null) {
+            key.append(normalizedUri.getRawUserInfo()).append('@');
+        }
+        key.append(normalizedUri.getHost());
+        if (port != -1 && !defaultPort) {
+            key.append(':').append(port);
+        }
+        String path = normalizedUri.getRawPath();
+        key.append(path == null || path.isEmpty() ? "/" : path);
+        if (normalizedUri.getRawQuery() != null) {
+            key.append('?').append(normalizedUri.getRawQuery());
+        }
+        if (normalizedUri.getRawFragment() != null) {
+            key.append('#').append(normalizedUri.getRawFragment());
+        }
+        return key.toString().toLowerCase(Locale.ROOT);
+    }
+}
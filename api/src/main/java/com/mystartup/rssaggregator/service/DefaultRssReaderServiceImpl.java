@@ -1,25 +1,55 @@
 package com.mystartup.rssaggregator.service;
 
+import com.mystartup.rssaggregator.model.Channel;
+import com.mystartup.rssaggregator.model.FeedHealth;
+import com.mystartup.rssaggregator.model.FeedReadResult;
 import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.MetricsSnapshot;
+import com.mystartup.rssaggregator.model.PollingStatus;
 import com.mystartup.rssaggregator.model.RssFeed;
 import com.mystartup.rssaggregator.model.RssUrl;
+import com.mystartup.rssaggregator.model.ScoredItem;
+import com.mystartup.rssaggregator.model.SearchOrder;
+import com.mystartup.rssaggregator.model.SearchPage;
+import com.mystartup.rssaggregator.model.StandingQuery;
+import com.mystartup.rssaggregator.service.cluster.ClusterNode;
+import com.mystartup.rssaggregator.service.exceptions.RateLimitedException;
 import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import com.mystartup.rssaggregator.service.fetch.ConditionalGetCache;
+import com.mystartup.rssaggregator.service.fetch.FeedFetcher;
+import com.mystartup.rssaggregator.service.fetch.FetchResponse;
+import com.mystartup.rssaggregator.service.fetch.HttpClientFeedFetcher;
+import com.mystartup.rssaggregator.service.fetch.ParallelFeedReader;
+import com.mystartup.rssaggregator.service.fetch.RetryAfterException;
+import com.mystartup.rssaggregator.service.index.ItemIndex;
+import com.mystartup.rssaggregator.service.ingest.FeedCanonicalizer;
+import com.mystartup.rssaggregator.service.ingest.FeedIngestor;
+import com.mystartup.rssaggregator.service.ingest.StandingQueryListener;
+import com.mystartup.rssaggregator.service.ingest.StringInterner;
+import com.mystartup.rssaggregator.service.metrics.AggregatorMetrics;
+import com.mystartup.rssaggregator.service.metrics.DefaultAggregatorMetricsImpl;
+import com.mystartup.rssaggregator.service.parsing.IncrementalFeedParser;
+import com.mystartup.rssaggregator.service.persistence.LocalStateStore;
+import com.mystartup.rssaggregator.service.scheduling.FeedPoller;
+import com.mystartup.rssaggregator.service.scheduling.PollOutcome;
+import com.mystartup.rssaggregator.service.store.ItemStore;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.oxm.Unmarshaller;
 import org.springframework.oxm.XmlMappingException;
 
-import javax.activation.DataSource;
-import javax.activation.URLDataSource;
-import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.util.ArrayList;
+import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -30,9 +60,188 @@ public final class DefaultRssReaderServiceImpl implements RssReaderService {
 
     Unmarshaller unmarshaller;
 
+    ParallelFeedReader parallelFeedReader;
+
+    ConditionalGetCache conditionalGetCache;
+
+    ItemIndex itemIndex;
+
+    FeedPoller feedPoller;
+
+    FeedIngestor feedIngestor;
+
+    AggregatorMetrics metrics;
+
+    FeedFetcher feedFetcher;
+
+    FeedCanonicalizer feedCanonicalizer;
+
+    LocalStateStore stateStore;
+
+    ClusterNode clusterNode;
+
+    IncrementalFeedParser incrementalFeedParser;
+
     public DefaultRssReaderServiceImpl(@Autowired RssUrlService rssUrlService, @Autowired Unmarshaller unmarshaller) {
-        this.rssUrlService = rssUrlService;
-        this.unmarshaller = unmarshaller;
+        this(builder(rssUrlService, unmarshaller));
+    }
+
+    private DefaultRssReaderServiceImpl(final Builder builder) {
+        this.rssUrlService = builder.rssUrlService;
+        this.unmarshaller = builder.unmarshaller;
+        this.metrics = builder.metrics != null ? builder.metrics : new DefaultAggregatorMetricsImpl();
+        this.parallelFeedReader = builder.parallelFeedReader != null ? builder.parallelFeedReader : new ParallelFeedReader();
+        this.conditionalGetCache = builder.conditionalGetCache != null
+                ? builder.conditionalGetCache : new ConditionalGetCache();
+        this.itemIndex = builder.itemIndex != null ? builder.itemIndex : new ItemIndex();
+        this.feedPoller = builder.feedPoller != null ? builder.feedPoller : new FeedPoller(metrics);
+        this.feedIngestor = builder.feedIngestor != null ? builder.feedIngestor : new FeedIngestor();
+        this.feedFetcher = builder.feedFetcher != null ? builder.feedFetcher : new HttpClientFeedFetcher();
+        this.feedCanonicalizer = builder.feedCanonicalizer != null
+                ? builder.feedCanonicalizer : new FeedCanonicalizer(new StringInterner());
+        this.stateStore = builder.stateStore;
+        this.clusterNode = builder.clusterNode;
+        this.incrementalFeedParser = builder.incrementalFeedParser;
+    }
+
+    /**
+     * @return a builder of a reader service reading the RSS URLs of the given service with the given unmarshaller.
+     */
+    public static Builder builder(final RssUrlService rssUrlService, final Unmarshaller unmarshaller) {
+        return new Builder(rssUrlService, unmarshaller);
+    }
+
+    /**
+     * Builds a reader service. The parts which are not given get their defaults, the ones of
+     * {@link #DefaultRssReaderServiceImpl(RssUrlService, Unmarshaller)}. The state store, the cluster node and the
+     * incremental feed parser are optional, the service goes without them when they are not given.
+     */
+    public static final class Builder {
+        private final RssUrlService rssUrlService;
+        private final Unmarshaller unmarshaller;
+        private ParallelFeedReader parallelFeedReader;
+        private ConditionalGetCache conditionalGetCache;
+        private ItemIndex itemIndex;
+        private FeedPoller feedPoller;
+        private FeedIngestor feedIngestor;
+        private AggregatorMetrics metrics;
+        private FeedFetcher feedFetcher;
+        private FeedCanonicalizer feedCanonicalizer;
+        private LocalStateStore stateStore;
+        private ClusterNode clusterNode;
+        private IncrementalFeedParser incrementalFeedParser;
+
+        private Builder(final RssUrlService rssUrlService, final Unmarshaller unmarshaller) {
+            this.rssUrlService = rssUrlService;
+            this.unmarshaller = unmarshaller;
+        }
+
+        public Builder parallelFeedReader(final ParallelFeedReader parallelFeedReader) {
+            this.parallelFeedReader = parallelFeedReader;
+            return this;
+        }
+
+        public Builder conditionalGetCache(final ConditionalGetCache conditionalGetCache) {
+            this.conditionalGetCache = conditionalGetCache;
+            return this;
+        }
+
+        public Builder itemIndex(final ItemIndex itemIndex) {
+            this.itemIndex = itemIndex;
+            return this;
+        }
+
+        public Builder feedPoller(final FeedPoller feedPoller) {
+            this.feedPoller = feedPoller;
+            return this;
+        }
+
+        public Builder feedIngestor(final FeedIngestor feedIngestor) {
+            this.feedIngestor = feedIngestor;
+            return this;
+        }
+
+        public Builder metrics(final AggregatorMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public Builder feedFetcher(final FeedFetcher feedFetcher) {
+            this.feedFetcher = feedFetcher;
+            return this;
+        }
+
+        public Builder feedCanonicalizer(final FeedCanonicalizer feedCanonicalizer) {
+            this.feedCanonicalizer = feedCanonicalizer;
+            return this;
+        }
+
+        /**
+         * @param stateStore the store saving the read feeds for a warm start, none keeps no state between runs.
+         */
+        public Builder stateStore(final LocalStateStore stateStore) {
+            this.stateStore = stateStore;
+            return this;
+        }
+
+        /**
+         * @param clusterNode the node of this aggregator in a sharded deployment, the periodic reading then only
+         *                    polls the feeds owned by this node. None polls every configured feed.
+         */
+        public Builder clusterNode(final ClusterNode clusterNode) {
+            this.clusterNode = clusterNode;
+            return this;
+        }
+
+        /**
+         * @param incrementalFeedParser parses the feeds read before incrementally, instead of the unmarshaller. None
+         *                              parses every document in full with the unmarshaller.
+         */
+        public Builder incrementalFeedParser(final IncrementalFeedParser incrementalFeedParser) {
+            this.incrementalFeedParser = incrementalFeedParser;
+            return this;
+        }
+
+        public DefaultRssReaderServiceImpl build() {
+            return new DefaultRssReaderServiceImpl(this);
+        }
+    }
+
+    /**
+     * Restores the feeds saved in the state store by a previous run: they are indexed, so searches are served right
+     * away, their validators are used by the next conditional requests and their items are not ingested again as new.
+     * The saved RSS URLs are then read again in the background. Does nothing without a state store.
+     *
+     * @return the background read of the saved RSS URLs.
+     */
+    public CompletableFuture<FeedReadResult> warmStart() {
+        if (stateStore == null) {
+            return CompletableFuture.completedFuture(new FeedReadResult(Collections.emptyList(), Collections.emptyMap()));
+        }
+        long start = System.nanoTime();
+        List<LocalStateStore.StoredFeed> storedFeeds = stateStore.getFeeds();
+        for (LocalStateStore.StoredFeed storedFeed : storedFeeds) {
+            RssFeed rssFeed = feedCanonicalizer.canonicalize(storedFeed.getFeed());
+            itemIndex.index(storedFeed.getUri(), rssFeed);
+            conditionalGetCache.put(storedFeed.getUri(), storedFeed.getETag(), storedFeed.getLastModified(), rssFeed);
+            feedIngestor.restore(storedFeed.getUri(), rssFeed);
+            if (incrementalFeedParser != null) {
+                incrementalFeedParser.restore(storedFeed.getUri(), rssFeed);
+            }
+        }
+        log.info(String.format("Warm start: %d feeds restored in %d ms, refreshing in the background", storedFeeds.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        List<RssUrl> rssUrls = stateStore.getRssUrls();
+        CompletableFuture<FeedReadResult> refresh = new CompletableFuture<>();
+        new NamedDaemonThreadFactory("rss-warm-start").newThread(() -> {
+            try {
+                refresh.complete(parallelFeedReader.readAllAsync(rssUrls,
+                        (rssUrl, parseExecutor) -> readFeedAsync(rssUrl.getUri(), parseExecutor)));
+            } catch (RuntimeException e) {
+                refresh.completeExceptionally(e);
+            }
+        }).start();
+        return refresh;
     }
 
     @Override
@@ -42,24 +251,27 @@ public final class DefaultRssReaderServiceImpl implements RssReaderService {
             log.error(errorMessage);
             throw new RssAggregatorException(errorMessage);
         }
+        RssUrl configuredRssUrl = rssUrlService.get(feedUri.toString());
         try {
-            RssUrl configuredRssUrl = rssUrlService.get(feedUri.toString());
-            return (RssFeed) unmarshaller.unmarshal(getSource(configuredRssUrl.getUri()));
-        } catch (IOException | IllegalArgumentException e) {
-            String errorMessage = "Provided invalid URL!";
-            log.error(errorMessage, e);
-            throw new RssAggregatorException(errorMessage);
-        } catch (XmlMappingException e) {
-            String errorMessage = "Could not read correctly from URL!";
-            log.error(errorMessage, e);
-            throw new RssAggregatorException(errorMessage);
+            return readFeedAsync(configuredRssUrl.getUri(), Runnable::run).join();
+        } catch (CompletionException e) {
+            throw (RssAggregatorException) e.getCause();
         }
-
     }
 
     @Override
     public List<RssFeed> readFeeds() throws RssAggregatorException {
-        List<RssFeed> feeds = new ArrayList<>();
+        FeedReadResult result = readAllFeeds();
+        result.getFailures().forEach((rssUrl, e) ->
+                log.debug(String.format("Issue while reading feed from url %s: %s", rssUrl, e.getMessage())));
+        if (result.getFeeds().isEmpty() && result.hasFailures()) {
+            throw result.getFailures().values().iterator().next();
+        }
+        return result.getFeeds();
+    }
+
+    @Override
+    public FeedReadResult readAllFeeds() throws RssAggregatorException {
         List<RssUrl> urls = rssUrlService.getAll();
 
         if (urls.isEmpty()) {
@@ -67,51 +279,277 @@ public final class DefaultRssReaderServiceImpl implements RssReaderService {
             log.debug(errorMessage);
             throw new RssAggregatorException(errorMessage);
         }
-        for (RssUrl rssUrl : urls) {
-            try {
-                feeds.add(this.readFeed(rssUrl.getUri()));
-            } catch (RssAggregatorException e) {
-                log.debug(String.format("Issue while reading feed from url %s", rssUrl));
-                throw e;
-            }
-        }
-        return feeds;
+        FeedReadResult result = parallelFeedReader.readAllAsync(urls,
+                (rssUrl, parseExecutor) -> readFeedAsync(rssUrl.getUri(), parseExecutor));
+        List<URI> uris = urls.stream().map(RssUrl::getUri).collect(Collectors.toList());
+        itemIndex.retainFeeds(uris);
+        metrics.retainFeeds(uris);
+        return result;
     }
 
     @Override
     public List<Item> searchFeeds(final String keyphrase) throws RssAggregatorException {
-        if (keyphrase == null || keyphrase.isEmpty()) {
-            String errorMessage = "Search string cannot be null or empty!";
+        return searchFeeds(keyphrase, false);
+    }
+
+    @Override
+    public List<Item> searchFeeds(final String keyphrase, final boolean forceRefresh) throws RssAggregatorException {
+        validateKeyphrase(keyphrase);
+        if (forceRefresh || itemIndex.isEmpty()) {
+            readFeeds();
+        }
+        long start = System.nanoTime();
+        List<Item> items = itemIndex.search(keyphrase);
+        metrics.recordSearch(System.nanoTime() - start, items.size());
+        return items;
+    }
+
+    @Override
+    public SearchPage searchFeeds(final String keyphrase, final SearchOrder order, final int limit,
+                                  final String pageToken) throws RssAggregatorException {
+        validateKeyphrase(keyphrase);
+        if (order == null) {
+            String errorMessage = "Search order cannot be null!";
             log.error(errorMessage);
             throw new RssAggregatorException(errorMessage);
         }
-        List<RssFeed> feeds = readFeeds();
-        return feeds.stream().flatMap((RssFeed rssFeed) ->
-                rssFeed.getChannel().getItems().stream()
-                        .filter(Objects::nonNull)
-                        .filter(item -> item.getSearchValues().toLowerCase().contains(keyphrase.toLowerCase()))).collect(Collectors.toList());
+        validateLimit(limit, "page size");
+        if (itemIndex.isEmpty()) {
+            readFeeds();
+        }
+        long start = System.nanoTime();
+        SearchPage page = itemIndex.search(keyphrase, order, limit, pageToken);
+        metrics.recordSearch(System.nanoTime() - start, page.getItems().size());
+        return page;
+    }
+
+    @Override
+    public List<ScoredItem> searchRanked(final String query, final int limit) throws RssAggregatorException {
+        validateKeyphrase(query);
+        validateLimit(limit, "number of items");
+        if (itemIndex.isEmpty()) {
+            readFeeds();
+        }
+        long start = System.nanoTime();
+        List<ScoredItem> scoredItems = itemIndex.searchRanked(query, limit);
+        metrics.recordSearch(System.nanoTime() - start, scoredItems.size());
+        return scoredItems;
+    }
+
+    @Override
+    public List<Item> getNewestItems(final int limit) throws RssAggregatorException {
+        validateLimit(limit, "number of items");
+        if (itemIndex.isEmpty()) {
+            readFeeds();
+        }
+        return itemIndex.newest(limit);
+    }
+
+    @Override
+    public List<Item> getItemsPublishedBetween(final Instant from, final Instant to, final int limit)
+            throws RssAggregatorException {
+        if (from == null || to == null || !from.isBefore(to)) {
+            String errorMessage = "Invalid time range. Please give a start before the end";
+            log.error(errorMessage);
+            throw new RssAggregatorException(errorMessage);
+        }
+        validateLimit(limit, "number of items");
+        if (itemIndex.isEmpty()) {
+            readFeeds();
+        }
+        return itemIndex.publishedBetween(from.toEpochMilli(), to.toEpochMilli(), limit);
+    }
+
+    @Override
+    public List<Item> searchStoredItems(final String keyphrase, final int limit) throws RssAggregatorException {
+        validateKeyphrase(keyphrase);
+        validateLimit(limit, "number of items");
+        ItemStore itemStore = feedIngestor.getItemStore();
+        if (itemStore == null) {
+            String errorMessage = "No item store configured!";
+            log.error(errorMessage);
+            throw new RssAggregatorException(errorMessage);
+        }
+        long start = System.nanoTime();
+        List<Item> items = itemStore.search(keyphrase, limit);
+        metrics.recordSearch(System.nanoTime() - start, items.size());
+        return items;
     }
 
     @Override
     public void readPeriodically() {
-        List<RssUrl> rssUrlList = rssUrlService.getAll();
-        ScheduledExecutorService executor = Executors.newScheduledThreadPool(rssUrlList.size());
-        rssUrlList.forEach(rssUrl -> {
-            Runnable task = () -> {
-                try {
-                    RssFeed rssFeed = readFeed(rssUrl.getUri());
-                    log.info(String.format("Read URL configuration: %s, retrieved RSS feed: %s", rssUrl, rssFeed.toString()));
-                } catch (RssAggregatorException e) {
-                    log.error(String.format("Error reading URL: %s", rssUrl), e);
+        if (clusterNode == null) {
+            feedPoller.start(rssUrlService::getAll, this::pollFeed, this::forgetFeed);
+            return;
+        }
+        clusterNode.start(feedPoller::reconcileNow);
+        feedPoller.start(() -> clusterNode.ownedFeeds(rssUrlService.getAll()), this::pollFeed, this::forgetFeed);
+    }
+
+    @Override
+    public void stopReadingPeriodically() {
+        feedPoller.stop();
+        if (clusterNode != null) {
+            clusterNode.stop();
+        }
+    }
+
+    @Override
+    public PollingStatus getPollingStatus() {
+        return feedPoller.status();
+    }
+
+    @Override
+    public List<FeedHealth> getFeedHealth() {
+        return feedPoller.feedHealth();
+    }
+
+    @Override
+    public MetricsSnapshot getMetrics() {
+        return metrics.snapshot();
+    }
+
+    @Override
+    public Flow.Publisher<Item> getNewItemPublisher() {
+        return feedIngestor.getNewItemPublisher();
+    }
+
+    @Override
+    public StandingQuery registerStandingQuery(final String keyphrase, final StandingQueryListener listener)
+            throws RssAggregatorException {
+        return feedIngestor.getStandingQueries().register(keyphrase, listener);
+    }
+
+    @Override
+    public boolean unregisterStandingQuery(final StandingQuery standingQuery) {
+        return feedIngestor.getStandingQueries().unregister(standingQuery);
+    }
+
+    private static void validateKeyphrase(String keyphrase) throws RssAggregatorException {
+        if (keyphrase == null || keyphrase.isEmpty()) {
+            String errorMessage = "Search string cannot be null or empty!";
+            log.error(errorMessage);
+            throw new RssAggregatorException(errorMessage);
+        }
+    }
+
+    private static void validateLimit(int limit, String name) throws RssAggregatorException {
+        if (limit <= 0) {
+            String errorMessage = String.format("Invalid %s. Please give a integer value greater than 0", name);
+            log.error(errorMessage);
+            throw new RssAggregatorException(errorMessage);
+        }
+    }
+
+    private PollOutcome pollFeed(RssUrl rssUrl) throws RssAggregatorException {
+        RssFeed rssFeed = readFeed(rssUrl.getUri());
+        List<Item> newItems = feedIngestor.ingest(rssUrl.getUri(), rssFeed);
+        log.info(String.format("Read URL configuration: %s, %d new items", rssUrl, newItems.size()));
+        newItems.forEach(item -> log.debug(String.format("New item from %s: %s", rssUrl.getUri(), item)));
+        Channel channel = rssFeed.getChannel();
+        return PollOutcome.of(!newItems.isEmpty(), channel == null ? null : channel.getTtl());
+    }
+
+    /**
+     * Drops the state kept for a feed no longer polled by this aggregator, deleted or owned by another node, so its
+     * cached feed is released and a feed added again is fetched and ingested from scratch.
+     */
+    private void forgetFeed(URI feedUri) {
+        feedIngestor.forget(feedUri);
+        conditionalGetCache.evict(feedUri);
+        if (incrementalFeedParser != null) {
+            incrementalFeedParser.forget(feedUri);
+        }
+    }
+
+    /**
+     * Fetches the feed with the feed fetcher and unmarshals it with the given executor. Requests are made
+     * conditional when validators of a previous response are known; on 304 Not Modified the previously parsed
+     * feed is returned as is. The read feed is indexed for the search.
+     * The fetch latency, bytes downloaded, parse time and item count are recorded in the metrics.
+     *
+     * @return the feed, or a future failed with a RssAggregatorException.
+     */
+    private CompletableFuture<RssFeed> readFeedAsync(URI feedUri, Executor parseExecutor) {
+        long start = System.nanoTime();
+        Optional<ConditionalGetCache.CachedFeed> cachedFeed = conditionalGetCache.get(feedUri);
+        CompletableFuture<FetchResponse> fetch;
+        try {
+            fetch = feedFetcher.fetch(feedUri, cachedFeed.map(ConditionalGetCache.CachedFeed::getETag).orElse(null),
+                    cachedFeed.map(ConditionalGetCache.CachedFeed::getLastModified).orElse(null));
+        } catch (IllegalArgumentException e) {
+            fetch = CompletableFuture.failedFuture(e);
+        }
+        return fetch.handleAsync((response, error) -> {
+            try {
+                if (error != null) {
+                    throw error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
                 }
-            };
-            executor.scheduleWithFixedDelay(task, 0, rssUrl.getRefreshIntervalMinutes(), TimeUnit.MINUTES);
-        });
+                RssFeed rssFeed = toFeed(feedUri, response, cachedFeed, start);
+                itemIndex.index(feedUri, rssFeed);
+                return rssFeed;
+            } catch (Throwable e) {
+                throw new CompletionException(toReadException(feedUri, e));
+            }
+        }, parseExecutor);
+    }
+
+    private RssFeed toFeed(URI feedUri, FetchResponse response, Optional<ConditionalGetCache.CachedFeed> cachedFeed,
+                           long start) throws IOException {
+        long fetched = System.nanoTime();
+        metrics.recordFetch(feedUri, fetched - start, response.getBody().length);
+        if (response.isNotModified() && cachedFeed.isPresent()) {
+            log.debug(String.format("Feed %s not modified, serving cached feed", feedUri));
+            return cachedFeed.get().getFeed();
+        }
+        RssFeed rssFeed;
+        if (incrementalFeedParser != null) {
+            rssFeed = incrementalFeedParser.parse(feedUri, response::openBody, feedCanonicalizer::canonicalize);
+        } else {
+            try (InputStream inputStream = response.openBody()) {
+                rssFeed = feedCanonicalizer.canonicalize((RssFeed) unmarshaller.unmarshal(new StreamSource(inputStream)));
+            }
+        }
+        metrics.recordParse(feedUri, System.nanoTime() - fetched, itemCount(rssFeed));
+        conditionalGetCache.put(feedUri, response.getETag(), response.getLastModified(), rssFeed);
+        saveState(feedUri, response, rssFeed);
+        return rssFeed;
+    }
+
+    private void saveState(URI feedUri, FetchResponse response, RssFeed rssFeed) {
+        if (stateStore == null) {
+            return;
+        }
+        try {
+            stateStore.saveFeed(feedUri, response.getETag(), response.getLastModified(), rssFeed);
+        } catch (RssAggregatorException e) {
+            log.error(String.format("Could not save the state of feed %s: %s", feedUri, e.getMessage()));
+        }
+    }
+
+    private RssAggregatorException toReadException(URI feedUri, Throwable error) {
+        String errorMessage;
+        if (error instanceof RetryAfterException) {
+            metrics.recordError(feedUri, error.getClass().getSimpleName());
+            errorMessage = String.format("Rate limited by the server of url %s", feedUri);
+            log.warn(String.format("%s: %s", errorMessage, error.getMessage()));
+            return new RateLimitedException(errorMessage, ((RetryAfterException) error).getRetryAfterMillis());
+        }
+        if (error instanceof IOException || error instanceof IllegalArgumentException) {
+            errorMessage = "Provided invalid URL!";
+        } else if (error instanceof XmlMappingException) {
+            errorMessage = "Could not read correctly from URL!";
+        } else {
+            errorMessage = String.format("Unexpected error while reading feed from url %s", feedUri);
+        }
+        metrics.recordError(feedUri, error.getClass().getSimpleName());
+        log.error(errorMessage, error);
+        return new RssAggregatorException(errorMessage);
     }
 
-    private Source getSource(URI feedUri) throws IOException {
-        DataSource source = new URLDataSource(feedUri.toURL());
-        return new StreamSource(source.getInputStream());
+    private static int itemCount(RssFeed rssFeed) {
+        Channel channel = rssFeed == null ? null : rssFeed.getChannel();
+        return channel == null || channel.getItems() == null ? 0 : channel.getItems().size();
     }
 
 }
@@ -0,0 +1,67 @@
+package com.mystartup.rssaggregator.service;
+
+import com.mystartup.rssaggregator.model.RssUrl;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import com.mystartup.rssaggregator.service.persistence.LocalStateStore;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * RSS URL configurations kept in memory like in {@link ConcurrentRssUrlServiceImpl} and saved to a
+ * {@link LocalStateStore}, so they survive a restart. The configurations saved by the previous run are loaded on creation.
+ */
+@Slf4j
+public final class PersistentRssUrlServiceImpl implements RssUrlService {
+
+    private final LocalStateStore stateStore;
+    private final ConcurrentRssUrlServiceImpl rssUrls;
+    private final Object writeLock = new Object();
+
+    public PersistentRssUrlServiceImpl(@NonNull final LocalStateStore stateStore) {
+        this.stateStore = stateStore;
+        this.rssUrls = new ConcurrentRssUrlServiceImpl(stateStore.getRssUrls());
+    }
+
+    @Override
+    public List<RssUrl> getAll() {
+        return rssUrls.getAll();
+    }
+
+    @Override
+    public RssUrl get(final String url) throws RssAggregatorException {
+        return rssUrls.get(url);
+    }
+
+    @Override
+    public void addOrUpdate(final RssUrl rssUrl) throws RssAggregatorException {
+        synchronized (writeLock) {
+            RssUrl previous = rssUrl == null || rssUrl.getUri() == null ? null : find(rssUrl.getUri().toString());
+            rssUrls.addOrUpdate(rssUrl);
+            if (previous != null && !previous.getUri().equals(rssUrl.getUri())) {
+                stateStore.deleteRssUrl(previous.getUri());
+            }
+            stateStore.saveRssUrl(rssUrl);
+        }
+    }
+
+    @Override
+    public void delete(final String rssUrl) throws RssAggregatorException {
+        synchronized (writeLock) {
+            RssUrl deleted = rssUrl == null ? null : find(rssUrl);
+            rssUrls.delete(rssUrl);
+            if (deleted != null) {
+                stateStore.deleteRssUrl(deleted.getUri());
+            }
+        }
+    }
+
+    private RssUrl find(final String url) {
+        try {
+            return rssUrls.get(url);
+        } catch (RssAggregatorException e) {
+            return null;
+        }
+    }
+}
@@ -1,14 +1,25 @@
 package com.mystartup.rssaggregator.service;
 
+import com.mystartup.rssaggregator.model.FeedHealth;
+import com.mystartup.rssaggregator.model.FeedReadResult;
 import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.MetricsSnapshot;
+import com.mystartup.rssaggregator.model.PollingStatus;
 import com.mystartup.rssaggregator.model.RssFeed;
+import com.mystartup.rssaggregator.model.ScoredItem;
+import com.mystartup.rssaggregator.model.SearchOrder;
+import com.mystartup.rssaggregator.model.SearchPage;
+import com.mystartup.rssaggregator.model.StandingQuery;
 import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import com.mystartup.rssaggregator.service.ingest.StandingQueryListener;
 import lombok.NonNull;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 
 import java.net.URI;
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.Flow;
 
 /**
  * Interface providing the RSS Aggregator functionalities to interact with the configured RSS URLs
@@ -34,15 +45,27 @@ public interface RssReaderService {
 
     /**
      * Reads all the configured RSS URLs and returns a list of deserialized feeds.
+     * Feeds are read concurrently. Feeds that could not be read are logged and left out of the result.
      * @return the list of RSS feeds read.
-     * @throws RssAggregatorException when there are no URLs configured, or when issues while
-     * reading/deserializing from existing URLs
+     * @throws RssAggregatorException when there are no URLs configured, or when none of the configured URLs
+     * could be read/deserialized
      */
     List<RssFeed> readFeeds() throws RssAggregatorException;
 
+    /**
+     * Reads all the configured RSS URLs concurrently, with a bounded parallelism and a per-feed timeout.
+     * A failing feed does not abort the read of the others.
+     * @return the feeds read successfully and the failure of each RSS URL that could not be read.
+     * @throws RssAggregatorException when there are no URLs configured
+     */
+    FeedReadResult readAllFeeds() throws RssAggregatorException;
+
     /**
      * Searches for a specific keyphrase in the items of each feed/channel. Custom keys are searched as well.
-     * The search triggers a new read of all the feeds.
+     * Items are indexed when feeds are read (readFeed, readFeeds, readPeriodically) and the search is answered
+     * from this index. Only the first search, when nothing was indexed yet, triggers a read of all the feeds.
+     * The keyphrase must be contained in the item, ignoring case, words do not have to be whole: "ai" is found
+     * in "said".
      *
      * @param keyphrase a non-null string to be searched.
      * @return a list of Items which contain the keyphrase.
@@ -51,12 +74,149 @@ public interface RssReaderService {
      */
     List<Item> searchFeeds(@NonNull final String keyphrase) throws RssAggregatorException;
 
+    /**
+     * Same as {@link #searchFeeds(String)}, optionally forcing a fresh read of all the feeds before searching.
+     *
+     * @param keyphrase    a non-null string to be searched.
+     * @param forceRefresh when true, all the feeds are read again before the search.
+     * @return a list of Items which contain the keyphrase.
+     * @throws RssAggregatorException when there are validation errors on the keyphrase, no URLs configured,
+     * or when issues while reading/deserializing from existing URLs
+     */
+    List<Item> searchFeeds(@NonNull final String keyphrase, final boolean forceRefresh) throws RssAggregatorException;
+
+    /**
+     * Same as {@link #searchFeeds(String)}, returning one page of the matching items at a time. The search stops
+     * collecting items once the page is full, so broad keyphrases do not materialize every matching item.
+     * To get the following page, call the search again with the same keyphrase and order and the next page token
+     * of the current page.
+     *
+     * @param keyphrase a non-null string to be searched.
+     * @param order     the order of the items: in indexing order, or the most recently published first.
+     * @param limit     the maximum number of items in the page.
+     * @param pageToken the next page token of the previous page, null for the first page.
+     * @return the page of Items which contain the keyphrase and the token of the next page, if any.
+     * @throws RssAggregatorException when there are validation errors on the parameters, no URLs configured,
+     * or when issues while reading/deserializing from existing URLs
+     */
+    SearchPage searchFeeds(@NonNull final String keyphrase, @NonNull final SearchOrder order, final int limit,
+                           final String pageToken) throws RssAggregatorException;
+
+    /**
+     * Ranked full-text search in the items of the indexed feeds. Unlike searchFeeds, the words of the query are
+     * optional and the items come back by relevance (BM25): items containing more of the words, rarer words and
+     * words of their title rank first. Case, accents and English inflections are ignored, common words such as
+     * "the" are dropped and quoted phrases must be found word after word. Like the search, only the first call when
+     * nothing was indexed yet triggers a read of all the feeds.
+     *
+     * @param query words and quoted phrases, e.g. {@code "climate change" policy}.
+     * @param limit the maximum number of items returned.
+     * @return the most relevant items with their score, best first.
+     * @throws RssAggregatorException when there are validation errors on the parameters, no URLs configured,
+     * or when issues while reading/deserializing from existing URLs
+     */
+    List<ScoredItem> searchRanked(@NonNull final String query, final int limit) throws RssAggregatorException;
+
+    /**
+     * Retrieves the most recently published items of the indexed feeds, by pubDate. Items without a readable pubDate
+     * come last. Like the search, only the first call when nothing was indexed yet triggers a read of all the feeds.
+     *
+     * @param limit the maximum number of items returned.
+     * @return the newest items, newest first.
+     * @throws RssAggregatorException when the limit is invalid, no URLs configured, or when issues while
+     * reading/deserializing from existing URLs
+     */
+    List<Item> getNewestItems(final int limit) throws RssAggregatorException;
+
+    /**
+     * Retrieves the items of the indexed feeds published in a time range, by pubDate. Like the search, only the first
+     * call when nothing was indexed yet triggers a read of all the feeds.
+     *
+     * @param from  start of the time range, inclusive.
+     * @param to    end of the time range, exclusive.
+     * @param limit the maximum number of items returned.
+     * @return the items published in the time range, newest first.
+     * @throws RssAggregatorException when the time range or the limit are invalid, no URLs configured, or when
+     * issues while reading/deserializing from existing URLs
+     */
+    List<Item> getItemsPublishedBetween(@NonNull final Instant from, @NonNull final Instant to, final int limit)
+            throws RssAggregatorException;
+
+    /**
+     * Searches for a keyphrase in the history of the items found by the periodic reading, kept in the item store
+     * when one is configured. Unlike searchFeeds, the items of feeds no longer configured or no longer in their feed
+     * are found as well. The store is scanned from the most recently stored item until enough items are found.
+     *
+     * @param keyphrase a non-null string to be searched.
+     * @param limit     the maximum number of items returned.
+     * @return the stored Items which contain the keyphrase, most recently stored first.
+     * @throws RssAggregatorException when there are validation errors on the parameters or no item store configured
+     */
+    List<Item> searchStoredItems(@NonNull final String keyphrase, final int limit) throws RssAggregatorException;
+
+    /**
+     * Registers a standing query: every new item found by the periodic reading which contains the keyphrase is
+     * given to the listener, without searching the feeds again. Like searchFeeds, the keyphrase is matched ignoring
+     * case and words do not have to be whole. All the standing queries are matched in a single pass over the text of each new item,
+     * so thousands of them can be registered.
+     *
+     * @param keyphrase a non-empty word or phrase.
+     * @param listener  called on the ingesting thread with each matching new item, it should return quickly.
+     * @return the standing query, to unregister it.
+     * @throws RssAggregatorException when the keyphrase is empty or the listener null
+     */
+    StandingQuery registerStandingQuery(@NonNull final String keyphrase, @NonNull final StandingQueryListener listener)
+            throws RssAggregatorException;
+
+    /**
+     * Stops matching a standing query against the new items.
+     *
+     * @param standingQuery a standing query returned by registerStandingQuery.
+     * @return true when the standing query was registered.
+     */
+    boolean unregisterStandingQuery(@NonNull final StandingQuery standingQuery);
+
     /**
      * Helper method to implement the logic of periodically reading information from the configured RSS URLs
-     * A separate thread is created for each configuration. Each thread is polling constantly at the refresh
-     * rate configured in each RSSUrl individually.
+     * A single polling engine with a small pool of worker threads reads all the configurations. Each feed is
+     * polled at the refresh rate configured in each RSSUrl individually, added/updated/deleted configurations
+     * are picked up while polling. Calling it again while polling only refreshes the configurations.
+     * In a sharded deployment (cluster node configured) only the feeds owned by this node are polled.
      * Default Implementation is to output the result in the log.
      */
     @PreAuthorize("hasRole('ADMIN')")
     void readPeriodically();
+
+    /**
+     * Stops the periodic reading started by readPeriodically. Does nothing when it is not running.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    void stopReadingPeriodically();
+
+    /**
+     * @return the current state of the periodic reading (running, number of feeds scheduled, polls in flight,
+     * completed and failed polls).
+     */
+    PollingStatus getPollingStatus();
+
+    /**
+     * @return the health of the feeds which failed since their last successful periodic poll, most failures first:
+     * circuit breaker state, consecutive failures, last error and time of the next attempt.
+     */
+    List<FeedHealth> getFeedHealth();
+
+    /**
+     * @return the current metrics: per feed fetch latency, bytes downloaded, parse time, item and error counts,
+     * the lag of the periodic polls behind their planned time and the search latency.
+     */
+    MetricsSnapshot getMetrics();
+
+    /**
+     * Publisher of the new items found by the periodic reading, only items not seen in previous polls of their feed
+     * are emitted. Subscribers receive the items as they request them; each one has a bounded buffer and items
+     * overflowing it are dropped for that subscriber (after waiting for room, depending on the configured policy).
+     *
+     * @return the publisher to subscribe to.
+     */
+    Flow.Publisher<Item> getNewItemPublisher();
 }
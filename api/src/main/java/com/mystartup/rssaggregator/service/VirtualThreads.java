@@ -0,0 +1,64 @@
+package com.mystartup.rssaggregator.service;
+
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to the virtual threads of Java 21 and later. The api is built for Java 11, so they are looked up by
+ * reflection and are only available when running on a recent enough Java runtime.
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = method(Thread.class, "ofVirtual");
+    private static final Method NAME = method(builderClass(), "name", String.class, long.class);
+    private static final Method FACTORY = method(builderClass(), "factory");
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR = method(Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null && NAME != null && FACTORY != null && NEW_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * @param prefix prefix of the thread names, followed by a sequence number.
+     * @return an executor starting a new virtual thread for each task.
+     * @throws RssAggregatorException when the Java runtime does not support virtual threads.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor(final String prefix) throws RssAggregatorException {
+        if (!isSupported()) {
+            throw new RssAggregatorException("Virtual threads are not supported by this Java runtime. Please run on Java 21 or later");
+        }
+        try {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), prefix + "-", 1L);
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, FACTORY.invoke(builder));
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new RssAggregatorException("Could not create the virtual thread executor");
+        }
+    }
+
+    private static Class<?> builderClass() {
+        try {
+            return Class.forName("java.lang.Thread$Builder");
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static Method method(final Class<?> type, final String name, final Class<?>... parameterTypes) {
+        if (type == null) {
+            return null;
+        }
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.mystartup.rssaggregator.service.cluster;
+
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+
+import java.util.Set;
+
+/**
+ * Membership of the aggregator nodes sharing the polling of the feeds, see {@link ClusterNode}.
+ * A node joins when it starts and then again at every heartbeat; a node which stops heartbeating is no longer a
+ * member once its membership has expired, so a crashed node is replaced without any action. Implementations must
+ * give every node the same members, e.g. by keeping them in a place shared by all the nodes.
+ */
+public interface ClusterCoordinator {
+
+    /**
+     * Registers the node as a live member, or renews its membership.
+     */
+    void join(String nodeId) throws RssAggregatorException;
+
+    /**
+     * Removes the node from the members right away, so the others take over its feeds without waiting for the
+     * expiry of its membership.
+     */
+    void leave(String nodeId) throws RssAggregatorException;
+
+    /**
+     * @return the ids of the live members.
+     */
+    Set<String> members() throws RssAggregatorException;
+}
@@ -0,0 +1,175 @@
+package com.mystartup.rssaggregator.service.cluster;
+
+import com.mystartup.rssaggregator.model.RssUrl;
+import com.mystartup.rssaggregator.service.ConcurrentRssUrlServiceImpl;
+import com.mystartup.rssaggregator.service.NamedDaemonThreadFactory;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A node of a sharded deployment, where several aggregators split the polling of the configured feeds. Each feed is
+ * owned by one member of the cluster, chosen by consistent hashing of its normalized URL ({@link ConsistentHashRing}),
+ * and only polled by its owner. The members are read from the {@link ClusterCoordinator} at every heartbeat; when
+ * they changed the ring is rebuilt and the rebalance callback is called, so the poller drops the feeds now owned by
+ * another node and picks up the ones it took over. A node joining takes about 1/n of the feeds from the others,
+ * so adding a node divides the load of each node.
+ * The nodes see a membership change at their next heartbeat: until they all have seen it, a feed moving between two
+ * nodes may be polled by both or by none for up to a heartbeat interval. While the coordinator cannot be reached,
+ * the node keeps the last members it has seen.
+ */
+@Slf4j
+public final class ClusterNode {
+
+    public static final long DEFAULT_HEARTBEAT_INTERVAL_MILLIS = 5_000L;
+
+    private final String nodeId;
+    private final ClusterCoordinator coordinator;
+    private final int virtualNodes;
+    private final long heartbeatIntervalMillis;
+    private volatile ConsistentHashRing ring;
+    private ScheduledExecutorService scheduler;
+    private Runnable onRebalance;
+    private boolean running;
+
+    public ClusterNode(final String nodeId, final ClusterCoordinator coordinator) throws RssAggregatorException {
+        this(nodeId, coordinator, ConsistentHashRing.DEFAULT_VIRTUAL_NODES, DEFAULT_HEARTBEAT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * @param nodeId                  the id of this node, unique in the cluster and kept across restarts.
+     * @param virtualNodes            the number of points of each member on the hash ring.
+     * @param heartbeatIntervalMillis interval at which the membership is renewed and the members read, shorter
+     *                                than the member timeout of the coordinator.
+     */
+    public ClusterNode(final String nodeId, final ClusterCoordinator coordinator, final int virtualNodes,
+                       final long heartbeatIntervalMillis) throws RssAggregatorException {
+        if (nodeId == null || nodeId.isEmpty()) {
+            throw new RssAggregatorException("Cluster node id cannot be null or empty!");
+        }
+        if (heartbeatIntervalMillis <= 0) {
+            throw new RssAggregatorException("Invalid heartbeat interval (milliseconds). Please give a value greater than 0");
+        }
+        this.nodeId = nodeId;
+        this.coordinator = coordinator;
+        this.virtualNodes = virtualNodes;
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+        // alone until the first heartbeat
+        this.ring = new ConsistentHashRing(Collections.singleton(nodeId), virtualNodes);
+    }
+
+    /**
+     * Joins the cluster, reads its members and starts the heartbeats. Does nothing when the node is already started.
+     *
+     * @param onRebalance called from the heartbeat thread when the members changed.
+     */
+    public synchronized void start(final Runnable onRebalance) {
+        if (running) {
+            return;
+        }
+        this.onRebalance = onRebalance;
+        running = true;
+        heartbeat();
+        scheduler = Executors.newSingleThreadScheduledExecutor(new NamedDaemonThreadFactory("rss-cluster-heartbeat"));
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatIntervalMillis, heartbeatIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        log.info(String.format("Cluster node %s started, members %s", nodeId, ring.getMembers()));
+    }
+
+    /**
+     * Stops the heartbeats and leaves the cluster, so the other members take over the feeds of this node at their
+     * next heartbeat.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        scheduler.shutdownNow();
+        scheduler = null;
+        try {
+            coordinator.leave(nodeId);
+        } catch (RssAggregatorException e) {
+            log.warn(String.format("Cluster node %s could not leave, its membership will expire", nodeId));
+        }
+        log.info(String.format("Cluster node %s stopped", nodeId));
+    }
+
+    /**
+     * @return true when the feed is polled by this node.
+     */
+    public boolean owns(final URI feedUri) {
+        return nodeId.equals(ring.ownerOf(ConcurrentRssUrlServiceImpl.normalizedKey(feedUri)));
+    }
+
+    /**
+     * @return the RSS URLs polled by this node, in the given order.
+     */
+    public List<RssUrl> ownedFeeds(final List<RssUrl> rssUrls) {
+        ConsistentHashRing currentRing = ring;
+        List<RssUrl> ownedFeeds = new ArrayList<>();
+        for (RssUrl rssUrl : rssUrls) {
+            if (nodeId.equals(currentRing.ownerOf(ConcurrentRssUrlServiceImpl.normalizedKey(rssUrl.getUri())))) {
+                ownedFeeds.add(rssUrl);
+            }
+        }
+        return ownedFeeds;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @return the ids of the members last seen by this node, sorted.
+     */
+    public Set<String> getMembers() {
+        return ring.getMembers();
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    synchronized void heartbeat() {
+        if (!running) {
+            return;
+        }
+        Set<String> members;
+        try {
+            coordinator.join(nodeId);
+            members = coordinator.members();
+        } catch (RssAggregatorException | RuntimeException e) {
+            log.warn(String.format("Cluster coordinator unavailable, node %s keeps the members %s", nodeId,
+                    ring.getMembers()), e);
+            return;
+        }
+        if (members.equals(ring.getMembers())) {
+            return;
+        }
+        try {
+            ConsistentHashRing previous = ring;
+            ring = new ConsistentHashRing(members, virtualNodes);
+            log.info(String.format("Cluster members changed from %s to %s, rebalancing the feeds of node %s",
+                    previous.getMembers(), ring.getMembers(), nodeId));
+        } catch (RssAggregatorException e) {
+            // the number of virtual nodes was checked by the first ring
+            return;
+        }
+        if (onRebalance != null) {
+            try {
+                onRebalance.run();
+            } catch (RuntimeException e) {
+                log.error(String.format("Could not rebalance the feeds of node %s", nodeId), e);
+            }
+        }
+    }
+}
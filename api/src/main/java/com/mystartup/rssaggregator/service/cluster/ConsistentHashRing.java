@@ -0,0 +1,103 @@
+package com.mystartup.rssaggregator.service.cluster;
+
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Consistent hashing of keys to the members of a cluster. Every member is placed on a 64-bit ring at several points
+ * (virtual nodes) hashed from its id, and a key belongs to the member of the first point at or after the hash of
+ * the key. All the nodes build the same ring from the same members, so they agree on the owner of every key without
+ * talking to each other. A member joining takes over about 1/n of the keys, only from the others, and a member
+ * leaving hands its keys over to the others; the other keys keep their owner. The more virtual nodes, the closer
+ * the members get to an even share of the keys. Immutable.
+ */
+public final class ConsistentHashRing {
+
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final Set<String> members;
+    private final long[] points;
+    private final String[] owners;
+
+    /**
+     * @param members      the ids of the members, the ring is empty without member.
+     * @param virtualNodes the number of points of each member on the ring, greater than 0.
+     */
+    public ConsistentHashRing(final Collection<String> members, final int virtualNodes) throws RssAggregatorException {
+        if (virtualNodes <= 0) {
+            throw new RssAggregatorException("Invalid number of virtual nodes. Please give a integer value greater than 0");
+        }
+        this.members = Collections.unmodifiableSet(new TreeSet<>(members));
+        long[][] sortedPoints = new long[this.members.size() * virtualNodes][];
+        int point = 0;
+        int memberIndex = 0;
+        String[] sortedMembers = this.members.toArray(new String[0]);
+        for (String member : sortedMembers) {
+            for (int virtualNode = 0; virtualNode < virtualNodes; virtualNode++) {
+                sortedPoints[point++] = new long[]{hash(member + '#' + virtualNode), memberIndex};
+            }
+            memberIndex++;
+        }
+        // ties between the points of two members are broken by the member ids, the same on every node
+        Arrays.sort(sortedPoints, (first, second) -> first[0] != second[0] ? Long.compare(first[0], second[0])
+                : Long.compare(first[1], second[1]));
+        this.points = new long[sortedPoints.length];
+        this.owners = new String[sortedPoints.length];
+        for (int i = 0; i < sortedPoints.length; i++) {
+            points[i] = sortedPoints[i][0];
+            owners[i] = sortedMembers[(int) sortedPoints[i][1]];
+        }
+    }
+
+    /**
+     * @return the member owning the key, null when the ring is empty.
+     */
+    public String ownerOf(final String key) {
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        } else {
+            // first of equal points
+            while (index > 0 && points[index - 1] == points[index]) {
+                index--;
+            }
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * @return the ids of the members, sorted.
+     */
+    public Set<String> getMembers() {
+        return members;
+    }
+
+    /**
+     * FNV-1a over the chars, spread by the MurmurHash3 finalizer: the same value on every JVM, unlike
+     * String.hashCode it spreads close keys over the whole ring.
+     */
+    static long hash(final String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            hash = ((hash ^ (c & 0xFF)) * FNV_PRIME ^ (c >>> 8)) * FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB93FE1A85EC3L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
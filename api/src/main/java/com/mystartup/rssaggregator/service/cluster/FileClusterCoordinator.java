@@ -0,0 +1,105 @@
+package com.mystartup.rssaggregator.service.cluster;
+
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Cluster membership kept in a directory shared by the nodes, a local directory for nodes running on the same
+ * machine or a network file system. Each member has a file named after its id, touched at every heartbeat; a member
+ * whose file was not touched for longer than the member timeout is considered dead and its file is ignored.
+ * The clocks of the nodes must agree to within a fraction of the timeout for a network file system.
+ */
+@Slf4j
+public final class FileClusterCoordinator implements ClusterCoordinator {
+
+    public static final long DEFAULT_MEMBER_TIMEOUT_MILLIS = 15_000L;
+
+    static final String MEMBER_FILE_SUFFIX = ".member";
+
+    private static final Pattern NODE_ID = Pattern.compile("[A-Za-z0-9._-]+");
+
+    private final Path directory;
+    private final long memberTimeoutMillis;
+
+    public FileClusterCoordinator(final Path directory) throws RssAggregatorException {
+        this(directory, DEFAULT_MEMBER_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param directory           the directory shared by the nodes.
+     * @param memberTimeoutMillis time after its last heartbeat a node is no longer a member, a few heartbeats.
+     */
+    public FileClusterCoordinator(final Path directory, final long memberTimeoutMillis) throws RssAggregatorException {
+        if (memberTimeoutMillis <= 0) {
+            throw new RssAggregatorException("Invalid member timeout (milliseconds). Please give a value greater than 0");
+        }
+        if (directory == null || !Files.isDirectory(directory)) {
+            throw new RssAggregatorException("Cluster directory does not exist!");
+        }
+        this.directory = directory;
+        this.memberTimeoutMillis = memberTimeoutMillis;
+    }
+
+    @Override
+    public void join(final String nodeId) throws RssAggregatorException {
+        Path memberFile = memberFile(nodeId);
+        try {
+            if (!Files.exists(memberFile)) {
+                Files.write(memberFile, new byte[0]);
+            }
+            Files.setLastModifiedTime(memberFile, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.error(String.format("Could not renew the membership of node %s", nodeId), e);
+            throw new RssAggregatorException("Could not join the cluster!");
+        }
+    }
+
+    @Override
+    public void leave(final String nodeId) throws RssAggregatorException {
+        try {
+            Files.deleteIfExists(memberFile(nodeId));
+        } catch (IOException e) {
+            log.error(String.format("Could not remove node %s from the cluster", nodeId), e);
+            throw new RssAggregatorException("Could not leave the cluster!");
+        }
+    }
+
+    @Override
+    public Set<String> members() throws RssAggregatorException {
+        long expiredBefore = System.currentTimeMillis() - memberTimeoutMillis;
+        Set<String> members = new TreeSet<>();
+        try (DirectoryStream<Path> memberFiles = Files.newDirectoryStream(directory, "*" + MEMBER_FILE_SUFFIX)) {
+            for (Path memberFile : memberFiles) {
+                try {
+                    if (Files.getLastModifiedTime(memberFile).toMillis() >= expiredBefore) {
+                        String fileName = memberFile.getFileName().toString();
+                        members.add(fileName.substring(0, fileName.length() - MEMBER_FILE_SUFFIX.length()));
+                    }
+                } catch (NoSuchFileException e) {
+                    // the member left while listing
+                }
+            }
+        } catch (IOException e) {
+            log.error(String.format("Could not list the members of the cluster in %s", directory), e);
+            throw new RssAggregatorException("Could not read the cluster members!");
+        }
+        return members;
+    }
+
+    private Path memberFile(final String nodeId) throws RssAggregatorException {
+        if (nodeId == null || !NODE_ID.matcher(nodeId).matches()) {
+            throw new RssAggregatorException("Invalid node id. Please give letters, digits, '.', '_' or '-' only");
+        }
+        return directory.resolve(nodeId + MEMBER_FILE_SUFFIX);
+    }
+}
@@ -0,0 +1,21 @@
+package com.mystartup.rssaggregator.service.exceptions;
+
+import lombok.Getter;
+
+/**
+ * A feed could not be read because its server is rate limiting the aggregator.
+ */
+@Getter
+public class RateLimitedException extends RssAggregatorException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Delay before retrying asked by the server, -1 when the server did not tell.
+     */
+    private final long retryAfterMillis;
+
+    public RateLimitedException(String errorMessage, long retryAfterMillis) {
+        super(errorMessage);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+}
@@ -0,0 +1,58 @@
+package com.mystartup.rssaggregator.service.fetch;
+
+import com.mystartup.rssaggregator.model.RssFeed;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers, for each RSS URL, the HTTP validators (ETag / Last-Modified) returned with the last full response
+ * together with the feed parsed from it. The validators are sent back as If-None-Match / If-Modified-Since
+ * and, when the publisher answers 304 Not Modified, the previously parsed feed is served again without
+ * downloading or unmarshalling the document.
+ */
+public final class ConditionalGetCache {
+
+    private final ConcurrentMap<URI, CachedFeed> cachedFeeds = new ConcurrentHashMap<>();
+
+    /**
+     * A parsed feed and the validators of the response it was parsed from. Either validator can be null.
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static final class CachedFeed {
+        private final String eTag;
+        private final String lastModified;
+        private final RssFeed feed;
+    }
+
+    public Optional<CachedFeed> get(final URI feedUri) {
+        return Optional.ofNullable(cachedFeeds.get(feedUri));
+    }
+
+    /**
+     * Stores the feed parsed from a full response. Responses without any validator cannot be revalidated
+     * and are not cached.
+     */
+    public void put(final URI feedUri, final String eTag, final String lastModified, final RssFeed feed) {
+        if (eTag == null && lastModified == null) {
+            cachedFeeds.remove(feedUri);
+            return;
+        }
+        cachedFeeds.put(feedUri, new CachedFeed(eTag, lastModified, feed));
+    }
+
+    public void evict(final URI feedUri) {
+        cachedFeeds.remove(feedUri);
+    }
+
+    public int size() {
+        return cachedFeeds.size();
+    }
+}
@@ -0,0 +1,23 @@
+package com.mystartup.rssaggregator.service.fetch;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Downloads feed documents without blocking the calling thread.
+ * Default Implementation is HttpClientFeedFetcher.
+ */
+public interface FeedFetcher {
+
+    /**
+     * Fetches the document of a feed. When validators of a previous response are given, the request is made
+     * conditional and the response can be a Not Modified one.
+     *
+     * @param feedUri      the feed to fetch.
+     * @param eTag         the ETag of the previous response, can be null.
+     * @param lastModified the Last-Modified of the previous response, can be null.
+     * @return the response, or a future failed with an IOException or IllegalArgumentException when the feed
+     * could not be fetched.
+     */
+    CompletableFuture<FetchResponse> fetch(URI feedUri, String eTag, String lastModified);
+}
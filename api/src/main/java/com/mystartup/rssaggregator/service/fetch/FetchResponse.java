@@ -0,0 +1,52 @@
+package com.mystartup.rssaggregator.service.fetch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A fetched feed document, body as received (possibly compressed) together with its validators.
+ */
+@Getter
+@ToString(exclude = "body")
+@AllArgsConstructor
+public final class FetchResponse {
+
+    private static final byte[] NO_BODY = new byte[0];
+
+    private final boolean notModified;
+    private final byte[] body;
+    private final String contentEncoding;
+    private final String eTag;
+    private final String lastModified;
+
+    public static FetchResponse notModified() {
+        return new FetchResponse(true, NO_BODY, null, null, null);
+    }
+
+    /**
+     * @return the body, decompressed according to the gzip or deflate content encoding.
+     */
+    public InputStream openBody() throws IOException {
+        InputStream rawBody = new ByteArrayInputStream(body);
+        if ("gzip".equalsIgnoreCase(contentEncoding) || "x-gzip".equalsIgnoreCase(contentEncoding)) {
+            return new GZIPInputStream(rawBody);
+        }
+        if ("deflate".equalsIgnoreCase(contentEncoding)) {
+            // Some servers send raw deflate data instead of the zlib format the specification asks for
+            return new InflaterInputStream(rawBody, new Inflater(!hasZlibHeader(body)));
+        }
+        return rawBody;
+    }
+
+    private static boolean hasZlibHeader(final byte[] body) {
+        return body.length >= 2 && (body[0] & 0x0F) == 8 && (((body[0] & 0xFF) << 8) | (body[1] & 0xFF)) % 31 == 0;
+    }
+}
@@ -0,0 +1,137 @@
+package com.mystartup.rssaggregator.service.fetch;
+
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import com.mystartup.rssaggregator.service.parsing.FeedDates;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking fetcher built on the JDK HttpClient. Connections are pooled and kept alive between fetches,
+ * HTTP/2 is used when the server supports it, responses are requested gzip or deflate compressed and redirects
+ * are followed. No thread is held while waiting for the server.
+ * Rate limited (429) and overloaded (503) responses with a Retry-After header fail with a {@link RetryAfterException}
+ * so the caller can back off from the server; 429 responses do so even without the header.
+ * URIs with another scheme than http or https (e.g. file:) are read synchronously with a URL connection.
+ */
+@Slf4j
+@Getter
+public final class HttpClientFeedFetcher implements FeedFetcher {
+
+    public static final long DEFAULT_CONNECT_TIMEOUT_MILLIS = 10_000L;
+    public static final long DEFAULT_READ_TIMEOUT_MILLIS = 30_000L;
+
+    private static final String ACCEPTED_ENCODINGS = "gzip, deflate";
+
+    private final long connectTimeoutMillis;
+    private final long readTimeoutMillis;
+    private final HttpClient httpClient;
+
+    public HttpClientFeedFetcher() {
+        this.connectTimeoutMillis = DEFAULT_CONNECT_TIMEOUT_MILLIS;
+        this.readTimeoutMillis = DEFAULT_READ_TIMEOUT_MILLIS;
+        this.httpClient = newHttpClient(DEFAULT_CONNECT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param connectTimeoutMillis maximum time to establish a connection.
+     * @param readTimeoutMillis    maximum time from sending a request until the response headers are received.
+     */
+    public HttpClientFeedFetcher(final long connectTimeoutMillis, final long readTimeoutMillis) throws RssAggregatorException {
+        if (connectTimeoutMillis <= 0) {
+            throw new RssAggregatorException("Invalid connect timeout (milliseconds). Please give a value greater than 0");
+        }
+        if (readTimeoutMillis <= 0) {
+            throw new RssAggregatorException("Invalid read timeout (milliseconds). Please give a value greater than 0");
+        }
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.httpClient = newHttpClient(connectTimeoutMillis);
+    }
+
+    @Override
+    public CompletableFuture<FetchResponse> fetch(final URI feedUri, final String eTag, final String lastModified) {
+        try {
+            if (!"http".equalsIgnoreCase(feedUri.getScheme()) && !"https".equalsIgnoreCase(feedUri.getScheme())) {
+                return CompletableFuture.completedFuture(readUrl(feedUri));
+            }
+            HttpRequest.Builder request = HttpRequest.newBuilder(feedUri)
+                    .timeout(Duration.ofMillis(readTimeoutMillis))
+                    .header("Accept-Encoding", ACCEPTED_ENCODINGS)
+                    .GET();
+            if (eTag != null) {
+                request.header("If-None-Match", eTag);
+            }
+            if (lastModified != null) {
+                request.header("If-Modified-Since", lastModified);
+            }
+            return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                    .thenCompose(response -> toFetchResponse(feedUri, response));
+        } catch (IOException | IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static CompletableFuture<FetchResponse> toFetchResponse(final URI feedUri, final HttpResponse<byte[]> response) {
+        if (response.statusCode() == 304) {
+            log.debug(String.format("Feed %s not modified", feedUri));
+            return CompletableFuture.completedFuture(FetchResponse.notModified());
+        }
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            String message = String.format("Server returned HTTP response code: %d for URL: %s", response.statusCode(), feedUri);
+            String retryAfter = response.headers().firstValue("Retry-After").orElse(null);
+            if (response.statusCode() == 429 || (response.statusCode() == 503 && retryAfter != null)) {
+                return CompletableFuture.failedFuture(new RetryAfterException(message, response.statusCode(),
+                        retryAfterMillis(retryAfter)));
+            }
+            return CompletableFuture.failedFuture(new IOException(message));
+        }
+        return CompletableFuture.completedFuture(new FetchResponse(false, response.body(),
+                response.headers().firstValue("Content-Encoding").orElse(null),
+                response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null)));
+    }
+
+    /**
+     * @param retryAfter a Retry-After header value: a number of seconds or a HTTP date.
+     * @return the delay before retrying, -1 when the value is missing or unreadable.
+     */
+    static long retryAfterMillis(final String retryAfter) {
+        if (retryAfter == null || retryAfter.trim().isEmpty()) {
+            return -1;
+        }
+        String value = retryAfter.trim();
+        if (value.chars().allMatch(Character::isDigit)) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        long retryAt = FeedDates.parse(value);
+        return retryAt == FeedDates.UNKNOWN ? -1 : Math.max(0, retryAt - System.currentTimeMillis());
+    }
+
+    private static FetchResponse readUrl(final URI feedUri) throws IOException {
+        try (InputStream inputStream = feedUri.toURL().openStream()) {
+            return new FetchResponse(false, inputStream.readAllBytes(), null, null, null);
+        }
+    }
+
+    private static HttpClient newHttpClient(final long connectTimeoutMillis) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build();
+    }
+}
@@ -0,0 +1,203 @@
+package com.mystartup.rssaggregator.service.fetch;
+
+import com.mystartup.rssaggregator.model.FeedReadResult;
+import com.mystartup.rssaggregator.model.RssFeed;
+import com.mystartup.rssaggregator.model.RssUrl;
+import com.mystartup.rssaggregator.service.NamedDaemonThreadFactory;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent fetch engine reading several RSS URLs at once.
+ * At most {@code parallelism} feeds are read at the same time and each feed gets {@code feedTimeoutMillis}
+ * from the moment its read starts. A failing or slow feed is reported in the {@link FeedReadResult} and does
+ * not prevent the other feeds from being returned.
+ * Reads can be asynchronous: the next read is started when one completes, the worker threads only run the
+ * parsing and the blocking reads, so no thread waits for the network with an asynchronous fetcher.
+ * The security context of the calling thread is propagated to the worker threads.
+ */
+@Slf4j
+@Getter
+public final class ParallelFeedReader {
+
+    public static final int DEFAULT_PARALLELISM = 16;
+    public static final long DEFAULT_FEED_TIMEOUT_MILLIS = 30_000L;
+
+    private final int parallelism;
+    private final long feedTimeoutMillis;
+    private final ExecutorService workers;
+    private final ScheduledThreadPoolExecutor watchdog;
+
+    /**
+     * Reads a single configured RSS URL. Implemented by the reader service.
+     */
+    @FunctionalInterface
+    public interface SingleFeedReader {
+        RssFeed read(RssUrl rssUrl) throws RssAggregatorException;
+    }
+
+    /**
+     * Reads a single configured RSS URL asynchronously. The CPU bound part of the read (e.g. parsing) is run
+     * with the given executor.
+     */
+    @FunctionalInterface
+    public interface AsyncFeedReader {
+        CompletableFuture<RssFeed> read(RssUrl rssUrl, Executor parseExecutor);
+    }
+
+    public ParallelFeedReader() {
+        this.parallelism = DEFAULT_PARALLELISM;
+        this.feedTimeoutMillis = DEFAULT_FEED_TIMEOUT_MILLIS;
+        this.workers = newWorkerPool(DEFAULT_PARALLELISM);
+        this.watchdog = newWatchdog();
+    }
+
+    public ParallelFeedReader(final int parallelism, final long feedTimeoutMillis) throws RssAggregatorException {
+        if (parallelism <= 0) {
+            throw new RssAggregatorException("Invalid parallelism. Please give a integer value greater than 0");
+        }
+        if (feedTimeoutMillis <= 0) {
+            throw new RssAggregatorException("Invalid feed timeout (milliseconds). Please give a value greater than 0");
+        }
+        this.parallelism = parallelism;
+        this.feedTimeoutMillis = feedTimeoutMillis;
+        this.workers = newWorkerPool(parallelism);
+        this.watchdog = newWatchdog();
+    }
+
+    /**
+     * Reads all the given RSS URLs concurrently and waits for every read to complete or time out.
+     *
+     * @param rssUrls the configurations to read.
+     * @param reader  the function reading one configuration.
+     * @return the feeds read successfully, in the order of the given list, and the failures per RSS URL.
+     */
+    public FeedReadResult readAll(final List<RssUrl> rssUrls, final SingleFeedReader reader) {
+        return readAllAsync(rssUrls, (rssUrl, executor) -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return reader.read(rssUrl);
+            } catch (RssAggregatorException e) {
+                throw new CompletionException(e);
+            }
+        }, executor));
+    }
+
+    /**
+     * Reads all the given RSS URLs with at most {@code parallelism} reads in flight and waits for every read
+     * to complete or time out.
+     *
+     * @param rssUrls the configurations to read.
+     * @param reader  the function starting the read of one configuration.
+     * @return the feeds read successfully, in the order of the given list, and the failures per RSS URL.
+     */
+    public FeedReadResult readAllAsync(final List<RssUrl> rssUrls, final AsyncFeedReader reader) {
+        long start = System.nanoTime();
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        Executor parseExecutor = task -> workers.execute(new DelegatingSecurityContextRunnable(task, securityContext));
+        List<CompletableFuture<RssFeed>> pendingReads = new ArrayList<>(rssUrls.size());
+        for (int i = 0; i < rssUrls.size(); i++) {
+            pendingReads.add(new CompletableFuture<>());
+        }
+        AtomicInteger nextRead = new AtomicInteger();
+        for (int i = 0; i < Math.min(parallelism, rssUrls.size()); i++) {
+            startNextRead(rssUrls, pendingReads, nextRead, reader, parseExecutor);
+        }
+
+        List<RssFeed> feeds = new ArrayList<>(rssUrls.size());
+        Map<RssUrl, RssAggregatorException> failures = new LinkedHashMap<>();
+        for (int i = 0; i < rssUrls.size(); i++) {
+            RssUrl rssUrl = rssUrls.get(i);
+            try {
+                feeds.add(pendingReads.get(i).join());
+            } catch (CompletionException e) {
+                failures.put(rssUrl, toRssAggregatorException(rssUrl, e.getCause()));
+            }
+        }
+        log.debug(String.format("Read %d feeds (%d failed) in %d ms", rssUrls.size(), failures.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        return new FeedReadResult(feeds, failures);
+    }
+
+    /**
+     * Stops the worker threads. Reads already submitted are abandoned.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+        watchdog.shutdownNow();
+    }
+
+    /**
+     * Starts the next read of the list. When the read itself completes the following one is started from a
+     * worker thread so reads failing immediately do not pile up on the stack. A read timing out is reported
+     * at once but keeps its slot until it actually completes, so no more than {@code parallelism} reads are
+     * ever in flight; the fetcher's own timeouts bound how long a slot is held.
+     */
+    private void startNextRead(final List<RssUrl> rssUrls, final List<CompletableFuture<RssFeed>> pendingReads,
+                               final AtomicInteger nextRead, final AsyncFeedReader reader, final Executor parseExecutor) {
+        int index = nextRead.getAndIncrement();
+        if (index >= rssUrls.size()) {
+            return;
+        }
+        RssUrl rssUrl = rssUrls.get(index);
+        CompletableFuture<RssFeed> result = pendingReads.get(index);
+        ScheduledFuture<?> timeout = watchdog.schedule(() -> result.completeExceptionally(
+                new RssAggregatorException(String.format("Timed out after %d ms while reading feed from url %s",
+                        feedTimeoutMillis, rssUrl.getUri()))), feedTimeoutMillis, TimeUnit.MILLISECONDS);
+        CompletableFuture<RssFeed> read;
+        try {
+            read = reader.read(rssUrl, parseExecutor);
+        } catch (RuntimeException e) {
+            read = CompletableFuture.failedFuture(e);
+        }
+        read.whenComplete((feed, error) -> {
+            timeout.cancel(false);
+            if (error == null) {
+                result.complete(feed);
+            } else {
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            }
+        }).whenCompleteAsync((feed, error) -> startNextRead(rssUrls, pendingReads, nextRead, reader, parseExecutor),
+                parseExecutor);
+    }
+
+    private RssAggregatorException toRssAggregatorException(final RssUrl rssUrl, final Throwable cause) {
+        if (cause instanceof RssAggregatorException) {
+            return (RssAggregatorException) cause;
+        }
+        log.error(String.format("Unexpected error while reading feed from url %s", rssUrl), cause);
+        return new RssAggregatorException(String.format("Unexpected error while reading feed from url %s", rssUrl.getUri()));
+    }
+
+    private static ExecutorService newWorkerPool(final int parallelism) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new NamedDaemonThreadFactory("rss-feed-reader"));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static ScheduledThreadPoolExecutor newWatchdog() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new NamedDaemonThreadFactory("rss-feed-reader-watchdog"));
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+}
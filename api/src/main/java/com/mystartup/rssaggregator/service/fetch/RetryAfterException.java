@@ -0,0 +1,26 @@
+package com.mystartup.rssaggregator.service.fetch;
+
+import lombok.Getter;
+
+import java.io.IOException;
+
+/**
+ * The server refused the request because of rate limiting or overload (429 Too Many Requests or
+ * 503 Service Unavailable), optionally telling when to retry with a Retry-After header.
+ */
+@Getter
+public class RetryAfterException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+    /**
+     * Delay before retrying given by the server, -1 when the response had no readable Retry-After header.
+     */
+    private final long retryAfterMillis;
+
+    public RetryAfterException(final String message, final int statusCode, final long retryAfterMillis) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+}
@@ -0,0 +1,156 @@
+package com.mystartup.rssaggregator.service.index;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns a text into the terms of the full-text index. Words are runs of letters and digits; they are folded to lower
+ * case without accents (NFKD decomposition, combining marks dropped), so "Caf&eacute;" and "cafe" give the same term.
+ * Stop words are dropped but still take a position, so the phrase "state of the art" only matches the words in this
+ * order and distance. The optional stemming strips the common English inflections (plurals, -ed, -ing, final e)
+ * so "launches", "launched" and "launching" give the term "launch". It is a light stemmer: it misses irregular forms
+ * and may merge a few unrelated words, the same analysis is applied to the items and to the queries.
+ */
+@Getter
+@ToString
+public final class Analyzer {
+
+    /**
+     * Common English words which carry no meaning for a search.
+     */
+    public static final Set<String> ENGLISH_STOP_WORDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it", "no", "not",
+            "of", "on", "or", "such", "that", "the", "their", "then", "there", "these", "they", "this", "to", "was",
+            "will", "with")));
+
+    private final Set<String> stopWords;
+    private final boolean stemming;
+
+    /**
+     * The English stop words, with stemming.
+     */
+    public Analyzer() {
+        this(ENGLISH_STOP_WORDS, true);
+    }
+
+    /**
+     * @param stopWords the words dropped from the items and the queries, empty to keep every word.
+     * @param stemming  true to strip the English inflections of the words.
+     */
+    public Analyzer(final Set<String> stopWords, final boolean stemming) {
+        Set<String> foldedStopWords = new HashSet<>();
+        for (String stopWord : stopWords) {
+            foldedStopWords.add(stopWord.toLowerCase(Locale.ROOT));
+        }
+        this.stopWords = Collections.unmodifiableSet(foldedStopWords);
+        this.stemming = stemming;
+    }
+
+    /**
+     * Receives the terms of a text with their position, the index of the word in the text.
+     */
+    @FunctionalInterface
+    public interface TermConsumer {
+        void accept(String term, int position);
+    }
+
+    /**
+     * @param text     the text to analyze.
+     * @param consumer receives the terms of the text, in order.
+     * @return the number of words in the text, stop words included.
+     */
+    public int analyze(final String text, final TermConsumer consumer) {
+        String decomposed = Normalizer.isNormalized(text, Normalizer.Form.NFKD) ? text
+                : Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder word = new StringBuilder();
+        int position = 0;
+        for (int i = 0; i <= decomposed.length(); ) {
+            int codePoint = i < decomposed.length() ? decomposed.codePointAt(i) : ' ';
+            i += i < decomposed.length() ? Character.charCount(codePoint) : 1;
+            if (isMark(codePoint)) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(codePoint)) {
+                word.appendCodePoint(Character.toLowerCase(codePoint));
+            } else if (word.length() > 0) {
+                String term = word.toString();
+                word.setLength(0);
+                if (!stopWords.contains(term)) {
+                    consumer.accept(stemming ? stem(term) : term, position);
+                }
+                position++;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * @return the terms of the text, in order.
+     */
+    List<String> terms(final String text) {
+        List<String> terms = new ArrayList<>();
+        analyze(text, (term, position) -> terms.add(term));
+        return terms;
+    }
+
+    static String stem(final String word) {
+        String stem = word;
+        if (stem.length() > 4 && stem.endsWith("ies")) {
+            stem = stem.substring(0, stem.length() - 3) + "y";
+        } else if (stem.endsWith("sses")) {
+            stem = stem.substring(0, stem.length() - 2);
+        } else if (stem.length() > 3 && stem.endsWith("s") && !stem.endsWith("ss") && !stem.endsWith("us")
+                && !stem.endsWith("is")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        if (stem.endsWith("eed")) {
+            return stem;
+        }
+        if (stem.endsWith("ing") && stem.length() >= 6 && hasVowel(stem, stem.length() - 3)) {
+            stem = undouble(stem.substring(0, stem.length() - 3));
+        } else if (stem.endsWith("ed") && stem.length() >= 5 && hasVowel(stem, stem.length() - 2)) {
+            stem = undouble(stem.substring(0, stem.length() - 2));
+        }
+        // "launche" from "launches" and "hope" give the stems of "launched" and "hoping"
+        if (stem.length() > 3 && stem.endsWith("e")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+
+    private static boolean hasVowel(final String word, final int end) {
+        for (int i = 0; i < end; i++) {
+            if ("aeiouy".indexOf(word.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * "runn" from "running" becomes "run", "fall" from "falling" is kept.
+     */
+    private static String undouble(final String stem) {
+        int length = stem.length();
+        char last = stem.charAt(length - 1);
+        if (length >= 3 && last == stem.charAt(length - 2) && "aeioulsz".indexOf(last) < 0) {
+            return stem.substring(0, length - 1);
+        }
+        return stem;
+    }
+
+    private static boolean isMark(final int codePoint) {
+        int type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK || type == Character.ENCLOSING_MARK
+                || type == Character.COMBINING_SPACING_MARK;
+    }
+}
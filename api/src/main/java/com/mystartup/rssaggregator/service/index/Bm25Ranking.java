@@ -0,0 +1,69 @@
+package com.mystartup.rssaggregator.service.index;
+
+import com.mystartup.rssaggregator.model.SearchField;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Parameters of the BM25 ranking of the ranked search. The term frequencies of the fields of an item are weighted by
+ * the boost of each field and normalized by the length of the field (BM25F), so a word of the title weighs more than
+ * the same word in a long description. k1 sets how quickly repeating a word stops increasing the score,
+ * b how much long fields are penalized. Only the fields with a boost are indexed for the ranked search.
+ */
+@Getter
+@ToString
+public final class Bm25Ranking {
+
+    public static final double DEFAULT_K1 = 1.2;
+    public static final double DEFAULT_B = 0.75;
+    public static final Map<SearchField, Double> DEFAULT_FIELD_BOOSTS;
+
+    static {
+        Map<SearchField, Double> fieldBoosts = new EnumMap<>(SearchField.class);
+        fieldBoosts.put(SearchField.TITLE, 3.0);
+        fieldBoosts.put(SearchField.DESCRIPTION, 1.0);
+        fieldBoosts.put(SearchField.CATEGORY, 1.0);
+        fieldBoosts.put(SearchField.AUTHOR, 0.5);
+        fieldBoosts.put(SearchField.CUSTOM_TAGS, 0.5);
+        DEFAULT_FIELD_BOOSTS = Collections.unmodifiableMap(fieldBoosts);
+    }
+
+    private final double k1;
+    private final double b;
+    private final Map<SearchField, Double> fieldBoosts;
+
+    public Bm25Ranking() {
+        this.k1 = DEFAULT_K1;
+        this.b = DEFAULT_B;
+        this.fieldBoosts = DEFAULT_FIELD_BOOSTS;
+    }
+
+    public Bm25Ranking(final double k1, final double b, final Map<SearchField, Double> fieldBoosts)
+            throws RssAggregatorException {
+        if (!(k1 >= 0)) {
+            throw new RssAggregatorException("Invalid k1. Please give a value greater than or equal to 0");
+        }
+        if (!(b >= 0 && b <= 1)) {
+            throw new RssAggregatorException("Invalid b. Please give a value between 0 and 1");
+        }
+        Map<SearchField, Double> boosts = new EnumMap<>(SearchField.class);
+        if (fieldBoosts != null) {
+            fieldBoosts.forEach((field, boost) -> {
+                if (boost != null && boost > 0) {
+                    boosts.put(field, boost);
+                }
+            });
+        }
+        if (boosts.isEmpty()) {
+            throw new RssAggregatorException("Invalid field boosts. Please give at least one field with a boost greater than 0");
+        }
+        this.k1 = k1;
+        this.b = b;
+        this.fieldBoosts = Collections.unmodifiableMap(boosts);
+    }
+}
@@ -0,0 +1,320 @@
+package com.mystartup.rssaggregator.service.index;
+
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.ScoredItem;
+import com.mystartup.rssaggregator.model.SearchField;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Positional inverted index of the ranked search, see {@link ItemIndex#searchRanked(String, int)}.
+ * The postings of a term map each item containing it to the positions of the term in the item. A position holds the
+ * field (its index among the boosted fields) in the high bits and the index of the word in the field in the low bits,
+ * so the positions of an item are sorted by field then by word. The term frequency of each field is counted from the
+ * positions and a phrase is matched by looking up the position expected for each of its following words.
+ * A query is made of words and quoted phrases: every phrase must be found in the item, the words are optional and
+ * every matching word adds to the BM25 score. Only the best items are kept, in a heap bounded by the limit.
+ * Not thread-safe, the {@link ItemIndex} guards it with its lock.
+ */
+final class FullTextIndex {
+
+    private static final int POSITION_BITS = 24;
+    private static final int MAX_POSITION = (1 << POSITION_BITS) - 1;
+
+    /**
+     * Worst result first: lowest score, then the most recently indexed item.
+     */
+    private static final Comparator<ScoredDocument> WORST_FIRST = Comparator
+            .comparingDouble((ScoredDocument scoredDocument) -> scoredDocument.score)
+            .thenComparing((first, second) -> Long.compare(second.document.sequence, first.document.sequence));
+
+    private final Analyzer analyzer;
+    private final double k1;
+    private final double b;
+    private final SearchField[] fields;
+    private final double[] boosts;
+    private final long[] totalFieldLengths;
+    private final Map<String, Map<Document, int[]>> postings = new HashMap<>();
+    private int documentCount;
+
+    /**
+     * An indexed item, with the number of words of each of its fields and its distinct terms.
+     */
+    static final class Document {
+        private final Item item;
+        private final long sequence;
+        private final int[] fieldLengths;
+        private final String[] terms;
+
+        private Document(final Item item, final long sequence, final int[] fieldLengths, final String[] terms) {
+            this.item = item;
+            this.sequence = sequence;
+            this.fieldLengths = fieldLengths;
+            this.terms = terms;
+        }
+    }
+
+    private static final class ScoredDocument {
+        private final Document document;
+        private final double score;
+
+        private ScoredDocument(final Document document, final double score) {
+            this.document = document;
+            this.score = score;
+        }
+    }
+
+    /**
+     * A word of the query, or a phrase with the offset of each of its terms from its first word.
+     */
+    private static final class Clause {
+        private final String[] terms;
+        private final int[] offsets;
+        private final boolean phrase;
+
+        private Clause(final String[] terms, final int[] offsets, final boolean phrase) {
+            this.terms = terms;
+            this.offsets = offsets;
+            this.phrase = phrase;
+        }
+    }
+
+    /**
+     * Sorted positions of a term in the item being indexed.
+     */
+    private static final class Positions {
+        private int[] values = new int[2];
+        private int size;
+
+        private void add(final int position) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = position;
+        }
+    }
+
+    FullTextIndex(final Analyzer analyzer, final Bm25Ranking ranking) {
+        this.analyzer = analyzer;
+        this.k1 = ranking.getK1();
+        this.b = ranking.getB();
+        this.fields = ranking.getFieldBoosts().keySet().toArray(new SearchField[0]);
+        this.boosts = new double[fields.length];
+        for (int field = 0; field < fields.length; field++) {
+            boosts[field] = ranking.getFieldBoosts().get(fields[field]);
+        }
+        this.totalFieldLengths = new long[fields.length];
+    }
+
+    Document add(final Item item, final long sequence) {
+        Map<String, Positions> termPositions = new HashMap<>();
+        int[] fieldLengths = new int[fields.length];
+        StringBuilder text = new StringBuilder();
+        for (int field = 0; field < fields.length; field++) {
+            text.setLength(0);
+            fields[field].appendValues(item, text);
+            int fieldBits = field << POSITION_BITS;
+            int words = analyzer.analyze(text.toString(), (term, position) -> {
+                if (position <= MAX_POSITION) {
+                    termPositions.computeIfAbsent(term, key -> new Positions()).add(fieldBits | position);
+                }
+            });
+            fieldLengths[field] = Math.min(words, MAX_POSITION + 1);
+            totalFieldLengths[field] += fieldLengths[field];
+        }
+        Document document = new Document(item, sequence, fieldLengths, termPositions.keySet().toArray(new String[0]));
+        termPositions.forEach((term, positions) -> postings.computeIfAbsent(term, key -> new HashMap<>())
+                .put(document, Arrays.copyOf(positions.values, positions.size)));
+        documentCount++;
+        return document;
+    }
+
+    void remove(final Document document) {
+        for (String term : document.terms) {
+            Map<Document, int[]> termPostings = postings.get(term);
+            if (termPostings != null && termPostings.remove(document) != null && termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        for (int field = 0; field < fields.length; field++) {
+            totalFieldLengths[field] -= document.fieldLengths[field];
+        }
+        documentCount--;
+    }
+
+    /**
+     * @param query words and quoted phrases.
+     * @param limit the maximum number of items returned, greater than 0.
+     * @return the best matching items, best first. Items with the same score come in indexing order.
+     */
+    List<ScoredItem> search(final String query, final int limit) {
+        List<Clause> clauses = parse(query);
+        Map<String, Map<Document, int[]>> queryPostings = new LinkedHashMap<>();
+        List<Clause> phrases = new ArrayList<>();
+        for (Clause clause : clauses) {
+            for (String term : clause.terms) {
+                queryPostings.put(term, postings.getOrDefault(term, Collections.emptyMap()));
+            }
+            if (clause.phrase) {
+                phrases.add(clause);
+            }
+        }
+        if (queryPostings.isEmpty() || documentCount == 0) {
+            return Collections.emptyList();
+        }
+        double[] averageFieldLengths = new double[fields.length];
+        for (int field = 0; field < fields.length; field++) {
+            averageFieldLengths[field] = (double) totalFieldLengths[field] / documentCount;
+        }
+        Map<String, Double> idfs = new HashMap<>();
+        queryPostings.forEach((term, termPostings) -> idfs.put(term, idf(termPostings.size())));
+
+        PriorityQueue<ScoredDocument> best = new PriorityQueue<>(Math.min(limit, 1024) + 1, WORST_FIRST);
+        if (phrases.isEmpty() && queryPostings.size() == 1) {
+            // a single word: the score of an item is the score of the word, nothing to accumulate
+            queryPostings.forEach((term, termPostings) -> {
+                double idf = idfs.get(term);
+                termPostings.forEach((document, positions) ->
+                        offer(best, document, termScore(idf, document, positions, averageFieldLengths), limit));
+            });
+        } else if (phrases.isEmpty()) {
+            // term at a time: the scores of the items are accumulated over the postings of the words
+            Map<Document, double[]> scores = new HashMap<>();
+            queryPostings.forEach((term, termPostings) -> {
+                double idf = idfs.get(term);
+                termPostings.forEach((document, positions) -> scores.computeIfAbsent(document, key -> new double[1])[0]
+                        += termScore(idf, document, positions, averageFieldLengths));
+            });
+            scores.forEach((document, score) -> offer(best, document, score[0], limit));
+        } else {
+            // every phrase must match, the items are taken from the smallest postings of the phrase terms
+            Map<Document, int[]> candidates = null;
+            for (Clause phrase : phrases) {
+                for (String term : phrase.terms) {
+                    Map<Document, int[]> termPostings = queryPostings.get(term);
+                    if (candidates == null || termPostings.size() < candidates.size()) {
+                        candidates = termPostings;
+                    }
+                }
+            }
+            for (Document document : candidates.keySet()) {
+                if (matchesPhrases(document, phrases, queryPostings)) {
+                    double score = 0;
+                    for (Map.Entry<String, Map<Document, int[]>> termPostings : queryPostings.entrySet()) {
+                        int[] positions = termPostings.getValue().get(document);
+                        if (positions != null) {
+                            score += termScore(idfs.get(termPostings.getKey()), document, positions, averageFieldLengths);
+                        }
+                    }
+                    offer(best, document, score, limit);
+                }
+            }
+        }
+        List<ScoredDocument> ranked = new ArrayList<>(best);
+        ranked.sort(WORST_FIRST.reversed());
+        List<ScoredItem> scoredItems = new ArrayList<>(ranked.size());
+        ranked.forEach(scoredDocument -> scoredItems.add(new ScoredItem(scoredDocument.document.item, scoredDocument.score)));
+        return scoredItems;
+    }
+
+    private List<Clause> parse(final String query) {
+        List<Clause> clauses = new ArrayList<>();
+        // the text between two quotes is a phrase, an unterminated quote runs until the end of the query
+        String[] parts = query.split("\"", -1);
+        for (int part = 0; part < parts.length; part++) {
+            List<String> terms = new ArrayList<>();
+            List<Integer> positions = new ArrayList<>();
+            analyzer.analyze(parts[part], (term, position) -> {
+                terms.add(term);
+                positions.add(position);
+            });
+            if (part % 2 == 1 && !terms.isEmpty()) {
+                int[] offsets = new int[terms.size()];
+                for (int i = 0; i < offsets.length; i++) {
+                    offsets[i] = positions.get(i) - positions.get(0);
+                }
+                clauses.add(new Clause(terms.toArray(new String[0]), offsets, true));
+            } else {
+                terms.forEach(term -> clauses.add(new Clause(new String[]{term}, new int[]{0}, false)));
+            }
+        }
+        return clauses;
+    }
+
+    private boolean matchesPhrases(final Document document, final List<Clause> phrases,
+                                   final Map<String, Map<Document, int[]>> queryPostings) {
+        for (Clause phrase : phrases) {
+            if (!matchesPhrase(document, phrase, queryPostings)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesPhrase(final Document document, final Clause phrase,
+                                         final Map<String, Map<Document, int[]>> queryPostings) {
+        int[][] termPositions = new int[phrase.terms.length][];
+        for (int i = 0; i < phrase.terms.length; i++) {
+            termPositions[i] = queryPostings.get(phrase.terms[i]).get(document);
+            if (termPositions[i] == null) {
+                return false;
+            }
+        }
+        int lastOffset = phrase.offsets[phrase.offsets.length - 1];
+        for (int start : termPositions[0]) {
+            // the whole phrase must be in the same field
+            if ((start & MAX_POSITION) + lastOffset > MAX_POSITION) {
+                continue;
+            }
+            boolean matched = true;
+            for (int i = 1; i < termPositions.length && matched; i++) {
+                matched = Arrays.binarySearch(termPositions[i], start + phrase.offsets[i]) >= 0;
+            }
+            if (matched) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * BM25F: the occurrences are weighted by the boost of their field and normalized by the length of the field,
+     * then saturated by k1.
+     */
+    private double termScore(final double idf, final Document document, final int[] positions,
+                             final double[] averageFieldLengths) {
+        double frequency = 0;
+        for (int position : positions) {
+            int field = position >>> POSITION_BITS;
+            double averageLength = averageFieldLengths[field];
+            double lengthNorm = averageLength > 0 ? 1 - b + b * document.fieldLengths[field] / averageLength : 1;
+            frequency += boosts[field] / lengthNorm;
+        }
+        return idf * frequency * (k1 + 1) / (frequency + k1);
+    }
+
+    private double idf(final int documentFrequency) {
+        return Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static void offer(final PriorityQueue<ScoredDocument> best, final Document document, final double score,
+                              final int limit) {
+        if (best.size() < limit) {
+            best.add(new ScoredDocument(document, score));
+            return;
+        }
+        ScoredDocument worst = best.peek();
+        if (score > worst.score || (score == worst.score && document.sequence < worst.document.sequence)) {
+            best.poll();
+            best.add(new ScoredDocument(document, score));
+        }
+    }
+}
@@ -0,0 +1,617 @@
+package com.mystartup.rssaggregator.service.index;
+
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.Keyphrase;
+import com.mystartup.rssaggregator.model.RssFeed;
+import com.mystartup.rssaggregator.model.ScoredItem;
+import com.mystartup.rssaggregator.model.SearchOrder;
+import com.mystartup.rssaggregator.model.SearchProjection;
+import com.mystartup.rssaggregator.model.SearchPage;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the items of the feeds read so far.
+ * Each item is indexed under the words of its searchable values, the fields selected by the {@link SearchProjection}.
+ * A search keeps the items whose searchable values contain the keyphrase, as a plain substring ignoring case
+ * ({@link Keyphrase}), and only checks the items of the postings of one word of the keyphrase: the words between
+ * two separators of the keyphrase are whole words of the matching items, the first word may be the end of a longer
+ * word, the last word its start and a keyphrase without separator any part of a word. The words starting or ending
+ * with a part of the keyphrase are found in the sorted words of the postings and in the same words spelled
+ * backwards, the word with the fewest items gives the candidates. The case-folded values are projected once when an
+ * item is indexed, a search folds the keyphrase once and matches it against them without allocating per item.
+ * Indexing a feed replaces the items previously indexed for the same RSS URL. The items it shares with them, the
+ * same instances as carried over by an incremental parse, keep their postings: only the new items are indexed.
+ * Searches can be paginated: each page carries a token made of the sort key of its last item, the next page
+ * continues right after that key so the pages stay consistent while feeds are indexed in between.
+ * The items are also kept ordered by publication date, most recent first, to answer the newest items and
+ * the items published in a time range without scanning all the items.
+ * The ranked search is answered from a second, positional index of the analyzed words of the boosted fields
+ * (see {@link Analyzer} and {@link Bm25Ranking}), the best items first.
+ */
+public final class ItemIndex {
+
+    private final SearchProjection searchProjection;
+    private final FullTextIndex fullTextIndex;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<URI, IndexedFeed> feeds = new HashMap<>();
+    private final NavigableMap<String, Set<IndexedItem>> postings = new TreeMap<>();
+    private final NavigableSet<String> reversedWords = new TreeSet<>();
+    private static final Comparator<IndexedItem> NEWEST_FIRST =
+            (first, second) -> compareNewestFirst(first.publishedAt, first.sequence, second.publishedAt, second.sequence);
+
+    private final NavigableSet<IndexedItem> byPublicationDate = new TreeSet<>(NEWEST_FIRST);
+    private long nextSequence;
+
+    public ItemIndex() {
+        this(new SearchProjection());
+    }
+
+    public ItemIndex(final SearchProjection searchProjection) {
+        this(searchProjection, new Analyzer(), new Bm25Ranking());
+    }
+
+    public ItemIndex(final SearchProjection searchProjection, final Analyzer analyzer, final Bm25Ranking bm25Ranking) {
+        this.searchProjection = searchProjection;
+        this.fullTextIndex = new FullTextIndex(analyzer, bm25Ranking);
+    }
+
+    private static final class IndexedFeed {
+        private final RssFeed rssFeed;
+        private final List<IndexedItem> items;
+
+        private IndexedFeed(final RssFeed rssFeed, final List<IndexedItem> items) {
+            this.rssFeed = rssFeed;
+            this.items = items;
+        }
+    }
+
+    private static final class IndexedItem {
+        private final Item item;
+        private final String searchText;
+        private final FullTextIndex.Document document;
+        private final long sequence;
+        private final long publishedAt;
+
+        private IndexedItem(final Item item, final String searchText, final FullTextIndex.Document document,
+                            final long sequence) {
+            this.item = item;
+            this.searchText = searchText;
+            this.document = document;
+            this.sequence = sequence;
+            this.publishedAt = item.getPubDateMillis();
+        }
+
+        /**
+         * Bound of a range of the publication date order.
+         */
+        private IndexedItem(final long publishedAt, final long sequence) {
+            this.item = null;
+            this.searchText = null;
+            this.document = null;
+            this.sequence = sequence;
+            this.publishedAt = publishedAt;
+        }
+    }
+
+    /**
+     * A word of a keyphrase and whether it is a whole word of the items containing the keyphrase on each side,
+     * i.e. whether a separator comes before or after it in the keyphrase.
+     */
+    private static final class KeyphraseWord {
+        private final String word;
+        private final boolean wholeStart;
+        private final boolean wholeEnd;
+
+        private KeyphraseWord(final String word, final boolean wholeStart, final boolean wholeEnd) {
+            this.word = word;
+            this.wholeStart = wholeStart;
+            this.wholeEnd = wholeEnd;
+        }
+    }
+
+    /**
+     * Sort key of the last item of a page, encoded in the next page token.
+     */
+    private static final class PageKey {
+        private final SearchOrder order;
+        private final long publishedAt;
+        private final long sequence;
+
+        private PageKey(final SearchOrder order, final long publishedAt, final long sequence) {
+            this.order = order;
+            this.publishedAt = publishedAt;
+            this.sequence = sequence;
+        }
+
+        private boolean isBefore(final IndexedItem indexedItem) {
+            if (order == SearchOrder.NEWEST_FIRST) {
+                return compareNewestFirst(publishedAt, sequence, indexedItem.publishedAt, indexedItem.sequence) < 0;
+            }
+            return sequence < indexedItem.sequence;
+        }
+
+        private IndexedItem bound() {
+            return new IndexedItem(publishedAt, sequence);
+        }
+
+        private String encode() {
+            String key = order.name() + ":" + publishedAt + ":" + sequence;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static PageKey decode(final String pageToken, final SearchOrder order) throws RssAggregatorException {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8).split(":");
+                if (parts.length == 3 && parts[0].equals(order.name())) {
+                    return new PageKey(order, Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+                }
+            } catch (IllegalArgumentException e) {
+                // reported below
+            }
+            throw new RssAggregatorException("Invalid page token!");
+        }
+    }
+
+    /**
+     * Indexes the items of the given feed, replacing the items previously indexed for the RSS URL.
+     * Indexing the same feed instance again (e.g. served from the conditional GET cache) is a no-op, the item
+     * instances already indexed for the RSS URL are kept as they are.
+     */
+    public void index(final URI feedUri, final RssFeed rssFeed) {
+        lock.writeLock().lock();
+        try {
+            IndexedFeed previous = feeds.get(feedUri);
+            if (previous != null && previous.rssFeed == rssFeed) {
+                return;
+            }
+            Map<Item, IndexedItem> previousItems = new IdentityHashMap<>();
+            List<IndexedItem> droppedItems = new ArrayList<>();
+            if (previous != null) {
+                for (IndexedItem indexedItem : previous.items) {
+                    if (previousItems.putIfAbsent(indexedItem.item, indexedItem) != null) {
+                        droppedItems.add(indexedItem);
+                    }
+                }
+            }
+            List<Item> items = itemsOf(rssFeed);
+            List<IndexedItem> indexedItems = new ArrayList<>(items.size());
+            for (Item item : items) {
+                IndexedItem indexedItem = previousItems.remove(item);
+                indexedItems.add(indexedItem != null ? indexedItem : addPostings(item));
+            }
+            droppedItems.addAll(previousItems.values());
+            removePostings(droppedItems);
+            feeds.put(feedUri, new IndexedFeed(rssFeed, indexedItems));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the items indexed for the given RSS URL.
+     */
+    public void remove(final URI feedUri) {
+        lock.writeLock().lock();
+        try {
+            removePostings(feeds.remove(feedUri));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the items of every RSS URL not contained in the given collection.
+     */
+    public void retainFeeds(final Collection<URI> feedUris) {
+        lock.writeLock().lock();
+        try {
+            List<URI> staleFeeds = new ArrayList<>(feeds.keySet());
+            staleFeeds.removeAll(new HashSet<>(feedUris));
+            staleFeeds.forEach(feedUri -> removePostings(feeds.remove(feedUri)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the indexed items.
+     *
+     * @param keyphrase a non-empty word or phrase, case is ignored.
+     * @return the items containing the keyphrase, in indexing order.
+     */
+    public List<Item> search(final String keyphrase) {
+        Keyphrase foldedKeyphrase = new Keyphrase(keyphrase);
+        List<KeyphraseWord> words = keyphraseWords(foldedKeyphrase.getFolded());
+        lock.readLock().lock();
+        try {
+            Collection<IndexedItem> candidates = words.isEmpty() ? allItems() : candidates(words);
+            List<Item> matches = new ArrayList<>();
+            for (IndexedItem candidate : candidates) {
+                if (foldedKeyphrase.isFoundIn(candidate.searchText)) {
+                    matches.add(candidate.item);
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the indexed items one page at a time. Only the items of the page are collected: in index order the
+     * scan stops as soon as the page is full, newest first keeps the page in a bounded heap and checks the keyphrase
+     * only for the items newer than the oldest item of the page so far.
+     *
+     * @param keyphrase a non-empty word or phrase, case is ignored.
+     * @param order     the order of the items.
+     * @param limit     the maximum number of items in the page, greater than 0.
+     * @param pageToken the next page token of the previous page, or null for the first page.
+     * @return the page of items containing the keyphrase.
+     * @throws RssAggregatorException when the page token was not returned by a search in the same order.
+     */
+    public SearchPage search(final String keyphrase, final SearchOrder order, final int limit, final String pageToken)
+            throws RssAggregatorException {
+        Keyphrase foldedKeyphrase = new Keyphrase(keyphrase);
+        List<KeyphraseWord> words = keyphraseWords(foldedKeyphrase.getFolded());
+        PageKey after = pageToken == null ? null : PageKey.decode(pageToken, order);
+        lock.readLock().lock();
+        try {
+            // one more item than the page tells whether there is a next page
+            int count = limit < Integer.MAX_VALUE ? limit + 1 : limit;
+            List<IndexedItem> matches;
+            if (order == SearchOrder.INDEX_ORDER) {
+                matches = firstMatches(words.isEmpty() ? allItems() : candidates(words), foldedKeyphrase, after, count);
+            } else if (words.isEmpty()) {
+                matches = newestMatchesByDate(null, foldedKeyphrase, after, count);
+            } else {
+                Set<IndexedItem> candidates = candidates(words);
+                // walking the date order visits about count * items / candidates items before the page is full,
+                // it is cheaper than going thru all the candidates when the keyphrase is common
+                matches = (long) count * byPublicationDate.size() < (long) candidates.size() * candidates.size()
+                        ? newestMatchesByDate(candidates, foldedKeyphrase, after, count)
+                        : newestMatches(candidates, foldedKeyphrase, after, count);
+            }
+            String nextPageToken = null;
+            if (matches.size() > limit) {
+                matches = matches.subList(0, limit);
+                IndexedItem last = matches.get(limit - 1);
+                nextPageToken = new PageKey(order, last.publishedAt, last.sequence).encode();
+            }
+            List<Item> items = new ArrayList<>(matches.size());
+            matches.forEach(match -> items.add(match.item));
+            return new SearchPage(items, nextPageToken);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked full-text search: the words of the query are analyzed like the items, so case, accents and the English
+     * inflections are ignored and stop words are dropped. Words match whole words only and are optional, each
+     * matching word adds to the BM25 score of the item; quoted phrases must be found in the item, word after word.
+     *
+     * @param query words and quoted phrases, e.g. {@code "climate change" policy}.
+     * @param limit the maximum number of items returned, greater than 0.
+     * @return the most relevant items with their score, best first.
+     */
+    public List<ScoredItem> searchRanked(final String query, final int limit) {
+        lock.readLock().lock();
+        try {
+            return fullTextIndex.search(query, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param limit the maximum number of items returned, greater than 0.
+     * @return the most recently published items, newest first. Items without a readable pubDate come last.
+     */
+    public List<Item> newest(final int limit) {
+        lock.readLock().lock();
+        try {
+            return firstItems(byPublicationDate, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param fromMillis start of the time range in milliseconds since the epoch, inclusive.
+     * @param toMillis   end of the time range in milliseconds since the epoch, exclusive.
+     * @param limit      the maximum number of items returned, greater than 0.
+     * @return the items published in the time range, newest first.
+     */
+    public List<Item> publishedBetween(final long fromMillis, final long toMillis, final int limit) {
+        if (fromMillis >= toMillis) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            return firstItems(byPublicationDate.subSet(new IndexedItem(toMillis - 1, Long.MAX_VALUE), true,
+                    new IndexedItem(fromMillis, Long.MIN_VALUE), true), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        lock.readLock().lock();
+        try {
+            return feeds.isEmpty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int itemCount() {
+        lock.readLock().lock();
+        try {
+            return feeds.values().stream().mapToInt(feed -> feed.items.size()).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits a text into lower case words made of letters and digits.
+     */
+    static List<String> tokenize(final String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(SearchProjection.fold(text.substring(start, i)));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Splits a case-folded keyphrase into its words, like {@link #tokenize(String)}, noting the separators around them.
+     */
+    private static List<KeyphraseWord> keyphraseWords(final String keyphrase) {
+        List<KeyphraseWord> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= keyphrase.length(); i++) {
+            boolean wordChar = i < keyphrase.length() && Character.isLetterOrDigit(keyphrase.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(new KeyphraseWord(SearchProjection.fold(keyphrase.substring(start, i)), start > 0,
+                        i < keyphrase.length()));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * @return the items which may contain the keyphrase, in indexing order: the items of the word of the keyphrase
+     * found in the fewest items.
+     */
+    private Set<IndexedItem> candidates(final List<KeyphraseWord> words) {
+        List<Set<IndexedItem>> fewest = null;
+        long fewestItems = Long.MAX_VALUE;
+        for (KeyphraseWord word : words) {
+            List<Set<IndexedItem>> wordPostings = postingsOf(word);
+            long items = 0;
+            for (Set<IndexedItem> tokenPostings : wordPostings) {
+                items += tokenPostings.size();
+            }
+            if (items == 0) {
+                return Collections.emptySet();
+            }
+            if (items < fewestItems) {
+                fewest = wordPostings;
+                fewestItems = items;
+            }
+        }
+        if (fewest.size() == 1) {
+            return fewest.get(0);
+        }
+        List<IndexedItem> merged = new ArrayList<>((int) Math.min(fewestItems, Integer.MAX_VALUE));
+        fewest.forEach(merged::addAll);
+        merged.sort(Comparator.comparingLong(indexedItem -> indexedItem.sequence));
+        return new LinkedHashSet<>(merged);
+    }
+
+    /**
+     * @return the postings of the indexed words which may hold the word of the keyphrase.
+     */
+    private List<Set<IndexedItem>> postingsOf(final KeyphraseWord word) {
+        if (word.wholeStart && word.wholeEnd) {
+            Set<IndexedItem> tokenPostings = postings.get(word.word);
+            return tokenPostings == null ? Collections.emptyList() : Collections.singletonList(tokenPostings);
+        }
+        List<Set<IndexedItem>> wordPostings = new ArrayList<>();
+        if (word.wholeStart) {
+            for (Map.Entry<String, Set<IndexedItem>> entry : postings.tailMap(word.word, true).entrySet()) {
+                if (!entry.getKey().startsWith(word.word)) {
+                    break;
+                }
+                wordPostings.add(entry.getValue());
+            }
+        } else if (word.wholeEnd) {
+            String reversed = reverse(word.word);
+            for (String reversedWord : reversedWords.tailSet(reversed, true)) {
+                if (!reversedWord.startsWith(reversed)) {
+                    break;
+                }
+                wordPostings.add(postings.get(reverse(reversedWord)));
+            }
+        } else {
+            for (Map.Entry<String, Set<IndexedItem>> entry : postings.entrySet()) {
+                if (entry.getKey().contains(word.word)) {
+                    wordPostings.add(entry.getValue());
+                }
+            }
+        }
+        return wordPostings;
+    }
+
+    private static String reverse(final String word) {
+        return new StringBuilder(word).reverse().toString();
+    }
+
+    private Collection<IndexedItem> allItems() {
+        List<IndexedItem> allItems = new ArrayList<>();
+        feeds.values().forEach(feed -> allItems.addAll(feed.items));
+        allItems.sort(Comparator.comparingLong(indexedItem -> indexedItem.sequence));
+        return allItems;
+    }
+
+    /**
+     * Postings keep the items in indexing order, the first matches after the page key are the page.
+     */
+    private static List<IndexedItem> firstMatches(final Collection<IndexedItem> candidates, final Keyphrase keyphrase,
+                                                  final PageKey after, final int count) {
+        List<IndexedItem> matches = new ArrayList<>(Math.min(count, candidates.size()));
+        for (IndexedItem candidate : candidates) {
+            if ((after == null || after.isBefore(candidate)) && keyphrase.isFoundIn(candidate.searchText)) {
+                matches.add(candidate);
+                if (matches.size() == count) {
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static List<IndexedItem> newestMatches(final Collection<IndexedItem> candidates, final Keyphrase keyphrase,
+                                                   final PageKey after, final int count) {
+        // the head of the heap is the oldest item kept so far
+        PriorityQueue<IndexedItem> newest = new PriorityQueue<>(Math.min(count, candidates.size()) + 1, NEWEST_FIRST.reversed());
+        for (IndexedItem candidate : candidates) {
+            if (after != null && !after.isBefore(candidate)) {
+                continue;
+            }
+            if (newest.size() == count && NEWEST_FIRST.compare(candidate, newest.peek()) > 0) {
+                continue;
+            }
+            if (keyphrase.isFoundIn(candidate.searchText)) {
+                newest.add(candidate);
+                if (newest.size() > count) {
+                    newest.poll();
+                }
+            }
+        }
+        List<IndexedItem> matches = new ArrayList<>(newest);
+        matches.sort(NEWEST_FIRST);
+        return matches;
+    }
+
+    /**
+     * Walks the items in publication date order, the first matches after the page key are the page.
+     *
+     * @param candidates the items that may match, null when any item may match.
+     */
+    private List<IndexedItem> newestMatchesByDate(final Set<IndexedItem> candidates, final Keyphrase keyphrase,
+                                                  final PageKey after, final int count) {
+        NavigableSet<IndexedItem> newer = after == null ? byPublicationDate : byPublicationDate.tailSet(after.bound(), false);
+        List<IndexedItem> matches = new ArrayList<>();
+        for (IndexedItem indexedItem : newer) {
+            if ((candidates == null || candidates.contains(indexedItem)) && keyphrase.isFoundIn(indexedItem.searchText)) {
+                matches.add(indexedItem);
+                if (matches.size() == count) {
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static List<Item> firstItems(final Collection<IndexedItem> indexedItems, final int limit) {
+        // the size of a sub set of the date order is not known without walking it
+        List<Item> items = new ArrayList<>();
+        for (IndexedItem indexedItem : indexedItems) {
+            if (items.size() == limit) {
+                break;
+            }
+            items.add(indexedItem.item);
+        }
+        return items;
+    }
+
+    private static int compareNewestFirst(final long firstPublishedAt, final long firstSequence,
+                                          final long secondPublishedAt, final long secondSequence) {
+        int byDate = Long.compare(secondPublishedAt, firstPublishedAt);
+        return byDate != 0 ? byDate : Long.compare(secondSequence, firstSequence);
+    }
+
+    private IndexedItem addPostings(final Item item) {
+        long sequence = nextSequence++;
+        IndexedItem indexedItem = new IndexedItem(item, searchProjection.project(item),
+                fullTextIndex.add(item, sequence), sequence);
+        byPublicationDate.add(indexedItem);
+        for (String token : tokenize(indexedItem.searchText)) {
+            Set<IndexedItem> tokenPostings = postings.get(token);
+            if (tokenPostings == null) {
+                tokenPostings = new LinkedHashSet<>();
+                postings.put(token, tokenPostings);
+                reversedWords.add(reverse(token));
+            }
+            tokenPostings.add(indexedItem);
+        }
+        return indexedItem;
+    }
+
+    private void removePostings(final IndexedFeed indexedFeed) {
+        if (indexedFeed != null) {
+            removePostings(indexedFeed.items);
+        }
+    }
+
+    private void removePostings(final Collection<IndexedItem> indexedItems) {
+        for (IndexedItem indexedItem : indexedItems) {
+            byPublicationDate.remove(indexedItem);
+            fullTextIndex.remove(indexedItem.document);
+            for (String token : tokenize(indexedItem.searchText)) {
+                Set<IndexedItem> tokenPostings = postings.get(token);
+                if (tokenPostings != null) {
+                    tokenPostings.remove(indexedItem);
+                    if (tokenPostings.isEmpty()) {
+                        postings.remove(token);
+                        reversedWords.remove(reverse(token));
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<Item> itemsOf(final RssFeed rssFeed) {
+        if (rssFeed == null || rssFeed.getChannel() == null || rssFeed.getChannel().getItems() == null) {
+            return Collections.emptyList();
+        }
+        List<Item> items = new ArrayList<>(rssFeed.getChannel().getItems());
+        items.removeIf(Objects::isNull);
+        return items;
+    }
+}
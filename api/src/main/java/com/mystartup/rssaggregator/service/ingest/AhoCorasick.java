@@ -0,0 +1,143 @@
+package com.mystartup.rssaggregator.service.ingest;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton finding every occurrence of a set of patterns in a text in a single pass.
+ * The patterns form a trie; each state also has a failure link to the longest proper suffix of its path which is
+ * a path of the trie, followed when the next character has no transition, and an output link to the nearest such
+ * suffix ending a pattern. Matching a text costs one transition per character (failure links are followed at most as
+ * many times as characters were consumed) plus one step per occurrence found, whatever the number of patterns.
+ * The transitions of a state are kept as sorted characters and looked up by binary search. Immutable once built.
+ */
+final class AhoCorasick {
+
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    /**
+     * Receives an occurrence of a pattern: its index in the list given to the constructor and the end of the
+     * occurrence in the text, exclusive.
+     */
+    @FunctionalInterface
+    interface MatchConsumer {
+        void accept(int pattern, int end);
+    }
+
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] failures;
+    private final int[] outputLinks;
+    private final int[][] outputs;
+
+    /**
+     * @param patterns non-empty patterns, matched as given (case included).
+     */
+    AhoCorasick(final List<String> patterns) {
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<List<Integer>> ownOutputs = new ArrayList<>();
+        children.add(new TreeMap<>());
+        ownOutputs.add(new ArrayList<>());
+        for (int pattern = 0; pattern < patterns.size(); pattern++) {
+            int state = ROOT;
+            for (char c : patterns.get(pattern).toCharArray()) {
+                Integer next = children.get(state).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.get(state).put(c, next);
+                    children.add(new TreeMap<>());
+                    ownOutputs.add(new ArrayList<>());
+                }
+                state = next;
+            }
+            ownOutputs.get(state).add(pattern);
+        }
+
+        int stateCount = children.size();
+        labels = new char[stateCount][];
+        targets = new int[stateCount][];
+        outputs = new int[stateCount][];
+        for (int state = 0; state < stateCount; state++) {
+            Map<Character, Integer> stateChildren = children.get(state);
+            labels[state] = new char[stateChildren.size()];
+            targets[state] = new int[stateChildren.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> child : stateChildren.entrySet()) {
+                labels[state][i] = child.getKey();
+                targets[state][i++] = child.getValue();
+            }
+            outputs[state] = ownOutputs.get(state).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        // breadth first, the links of a state point to shallower states which are already linked
+        failures = new int[stateCount];
+        outputLinks = new int[stateCount];
+        outputLinks[ROOT] = NONE;
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[ROOT]) {
+            failures[child] = ROOT;
+            outputLinks[child] = NONE;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < labels[state].length; i++) {
+                int child = targets[state][i];
+                int fallback = failures[state];
+                int next = transition(fallback, labels[state][i]);
+                while (next == NONE && fallback != ROOT) {
+                    fallback = failures[fallback];
+                    next = transition(fallback, labels[state][i]);
+                }
+                failures[child] = next == NONE ? ROOT : next;
+                int failure = failures[child];
+                outputLinks[child] = outputs[failure].length > 0 ? failure : outputLinks[failure];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Reports every occurrence of the patterns in the text, overlapping ones included, in order of their end.
+     */
+    void match(final String text, final MatchConsumer consumer) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next = transition(state, c);
+            while (next == NONE && state != ROOT) {
+                state = failures[state];
+                next = transition(state, c);
+            }
+            state = next == NONE ? ROOT : next;
+            for (int output = outputs[state].length > 0 ? state : outputLinks[state]; output != NONE;
+                 output = outputLinks[output]) {
+                for (int pattern : outputs[output]) {
+                    consumer.accept(pattern, i + 1);
+                }
+            }
+        }
+    }
+
+    private int transition(final int state, final char c) {
+        char[] stateLabels = labels[state];
+        int low = 0;
+        int high = stateLabels.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (stateLabels[middle] < c) {
+                low = middle + 1;
+            } else if (stateLabels[middle] > c) {
+                high = middle - 1;
+            } else {
+                return targets[state][middle];
+            }
+        }
+        return NONE;
+    }
+}
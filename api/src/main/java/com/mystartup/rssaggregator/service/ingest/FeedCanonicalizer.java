@@ -0,0 +1,89 @@
+package com.mystartup.rssaggregator.service.ingest;
+
+import com.mystartup.rssaggregator.model.Channel;
+import com.mystartup.rssaggregator.model.CustomTag;
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.RssFeed;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * Ingestion stage shrinking the memory kept for each read feed, applied right after unmarshalling.
+ * The metadata values repeated across feeds and items (channel language, categories and webMaster, item author
+ * and categories, custom tag names and short values) are replaced by their canonical instance from the
+ * {@link StringInterner}. The lists are replaced by compact immutable lists: a shared empty list, a singleton list
+ * for the common single category or custom tag, and an exactly sized list otherwise.
+ * Free text and unique values (titles, descriptions, links, guids) are left as they are.
+ */
+public final class FeedCanonicalizer {
+
+    private final StringInterner interner;
+
+    public FeedCanonicalizer(final StringInterner interner) {
+        this.interner = interner;
+    }
+
+    /**
+     * Canonicalizes the feed in place.
+     *
+     * @return the given feed.
+     */
+    public RssFeed canonicalize(final RssFeed rssFeed) {
+        if (rssFeed == null || rssFeed.getChannel() == null) {
+            return rssFeed;
+        }
+        Channel channel = rssFeed.getChannel();
+        channel.setLanguage(interner.intern(channel.getLanguage()));
+        channel.setWebMaster(interner.intern(channel.getWebMaster()));
+        channel.setCategories(compact(channel.getCategories(), interner::intern));
+        channel.setItems(compact(channel.getItems(), this::canonicalize));
+        return rssFeed;
+    }
+
+    private Item canonicalize(final Item item) {
+        if (item == null) {
+            return null;
+        }
+        item.setAuthor(interner.intern(item.getAuthor()));
+        item.setCategory(compact(item.getCategory(), interner::intern));
+        item.setComments(compact(item.getComments(), UnaryOperator.identity()));
+        item.setCustomTags(compact(item.getCustomTags(), this::canonicalize));
+        return item;
+    }
+
+    private CustomTag canonicalize(final CustomTag customTag) {
+        if (customTag != null) {
+            customTag.setKey(interner.intern(customTag.getKey()));
+            customTag.setValue(interner.intern(customTag.getValue()));
+        }
+        return customTag;
+    }
+
+    /**
+     * @return an immutable list of the canonical elements, or null for a null list.
+     */
+    static <T> List<T> compact(final List<T> list, final UnaryOperator<T> canonical) {
+        if (list == null) {
+            return null;
+        }
+        switch (list.size()) {
+            case 0:
+                return Collections.emptyList();
+            case 1:
+                return Collections.singletonList(canonical.apply(list.get(0)));
+            default:
+                @SuppressWarnings("unchecked")
+                T[] elements = (T[]) list.toArray();
+                for (int i = 0; i < elements.length; i++) {
+                    elements[i] = canonical.apply(elements[i]);
+                }
+                // List.of keeps no spare capacity and stores two elements without an array, but refuses nulls
+                return Arrays.stream(elements).allMatch(Objects::nonNull)
+                        ? List.of(elements) : Collections.unmodifiableList(Arrays.asList(elements));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.mystartup.rssaggregator.service.ingest;
+
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.RssFeed;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import com.mystartup.rssaggregator.service.store.ItemStore;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ingestion pipeline applied to every feed read by the periodic polling.
+ * Items already seen in previous polls of the same feed are dropped, only the new items flow downstream: they
+ * are published to the subscribers of the {@link NewItemPublisher}, matched against the {@link StandingQueries}
+ * and, when an {@link ItemStore} is given, appended to the store to keep the history of the items.
+ */
+@Slf4j
+@Getter
+public final class FeedIngestor implements AutoCloseable {
+
+    private final ItemDeduplicator itemDeduplicator;
+    private final NewItemPublisher newItemPublisher;
+    private final ItemStore itemStore;
+    private final StandingQueries standingQueries;
+
+    public FeedIngestor() {
+        this(new ItemDeduplicator(), new NewItemPublisher());
+    }
+
+    public FeedIngestor(final ItemDeduplicator itemDeduplicator, final NewItemPublisher newItemPublisher) {
+        this(itemDeduplicator, newItemPublisher, null);
+    }
+
+    /**
+     * @param itemStore the store keeping the history of the new items, null to keep no history.
+     */
+    public FeedIngestor(final ItemDeduplicator itemDeduplicator, final NewItemPublisher newItemPublisher,
+                        final ItemStore itemStore) {
+        this(itemDeduplicator, newItemPublisher, itemStore, new StandingQueries());
+    }
+
+    /**
+     * @param itemStore       the store keeping the history of the new items, null to keep no history.
+     * @param standingQueries the standing queries the new items are matched against.
+     */
+    public FeedIngestor(final ItemDeduplicator itemDeduplicator, final NewItemPublisher newItemPublisher,
+                        final ItemStore itemStore, final StandingQueries standingQueries) {
+        this.itemDeduplicator = itemDeduplicator;
+        this.newItemPublisher = newItemPublisher;
+        this.itemStore = itemStore;
+        this.standingQueries = standingQueries;
+    }
+
+    /**
+     * Ingests a feed read from the given RSS URL.
+     *
+     * @return the items of the feed which were not ingested before, also published to the subscribers, matched against
+     * the standing queries and stored.
+     */
+    public List<Item> ingest(final URI feedUri, final RssFeed rssFeed) {
+        if (rssFeed == null || rssFeed.getChannel() == null || rssFeed.getChannel().getItems() == null) {
+            return Collections.emptyList();
+        }
+        List<Item> newItems = itemDeduplicator.newItems(feedUri, rssFeed.getChannel().getItems());
+        if (itemStore != null) {
+            store(feedUri, newItems);
+        }
+        newItemPublisher.publish(newItems);
+        standingQueries.match(feedUri, newItems);
+        return newItems;
+    }
+
+    /**
+     * Records the items of a feed restored from a previous run as seen, without publishing or storing them.
+     */
+    public void restore(final URI feedUri, final RssFeed rssFeed) {
+        if (rssFeed != null && rssFeed.getChannel() != null) {
+            itemDeduplicator.newItems(feedUri, rssFeed.getChannel().getItems());
+        }
+    }
+
+    /**
+     * Drops the state kept for a feed which is no longer configured.
+     */
+    public void forget(final URI feedUri) {
+        itemDeduplicator.forget(feedUri);
+    }
+
+    /**
+     * Closes the item store, if any.
+     */
+    @Override
+    public void close() {
+        if (itemStore != null) {
+            itemStore.close();
+        }
+    }
+
+    private void store(URI feedUri, List<Item> newItems) {
+        for (Item item : newItems) {
+            try {
+                itemStore.append(feedUri, item);
+            } catch (RssAggregatorException e) {
+                log.error(String.format("Could not store item of %s: %s", feedUri, e.getMessage()));
+            }
+        }
+    }
+}
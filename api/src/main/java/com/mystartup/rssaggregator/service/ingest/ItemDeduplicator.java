@@ -0,0 +1,115 @@
+package com.mystartup.rssaggregator.service.ingest;
+
+import com.mystartup.rssaggregator.model.Item;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Ingestion stage telling new items apart from the ones already seen in previous polls of the same feed.
+ * An item is identified by its guid, or its link when it has no guid, or a hash of its title and description
+ * when it has neither. Only a 64-bit fingerprint of this identity is remembered, in a primitive set per feed.
+ */
+public final class ItemDeduplicator {
+
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final ConcurrentMap<URI, LongOpenHashSet> seenItems = new ConcurrentHashMap<>();
+
+    /**
+     * Records the given items as seen for the feed.
+     *
+     * @return the items not seen before for this feed, in their original order.
+     */
+    public List<Item> newItems(final URI feedUri, final List<Item> items) {
+        List<Item> newItems = new ArrayList<>();
+        if (items == null) {
+            return newItems;
+        }
+        LongOpenHashSet seen = seenItems.computeIfAbsent(feedUri, uri -> new LongOpenHashSet(items.size()));
+        synchronized (seen) {
+            for (Item item : items) {
+                if (item != null && seen.add(fingerprint(item))) {
+                    newItems.add(item);
+                }
+            }
+        }
+        return newItems;
+    }
+
+    /**
+     * @return true when the item was already recorded as seen for the feed.
+     */
+    public boolean isSeen(final URI feedUri, final Item item) {
+        LongOpenHashSet seen = seenItems.get(feedUri);
+        if (seen == null) {
+            return false;
+        }
+        synchronized (seen) {
+            return seen.contains(fingerprint(item));
+        }
+    }
+
+    /**
+     * Forgets the items seen for a feed which is no longer configured.
+     */
+    public void forget(final URI feedUri) {
+        seenItems.remove(feedUri);
+    }
+
+    public long seenItemCount() {
+        long count = 0;
+        for (LongOpenHashSet seen : seenItems.values()) {
+            synchronized (seen) {
+                count += seen.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 64-bit fingerprint of the identity of an item. The kind of identity (guid, link or content) is part of
+     * the hash so a guid never collides with an identical link.
+     */
+    public static long fingerprint(final Item item) {
+        if (item.getGuid() != null && !item.getGuid().isEmpty()) {
+            return hash(hash(FNV_OFFSET_BASIS, 'g'), item.getGuid());
+        }
+        if (item.getLink() != null && !item.getLink().isEmpty()) {
+            return hash(hash(FNV_OFFSET_BASIS, 'l'), item.getLink());
+        }
+        long contentHash = hash(FNV_OFFSET_BASIS, 'c');
+        contentHash = hash(contentHash, String.valueOf(item.getTitle()));
+        contentHash = hash(contentHash, '\u0000');
+        return hash(contentHash, String.valueOf(item.getDescription()));
+    }
+
+    private static long hash(final long hash, final String value) {
+        long result = hash;
+        for (int i = 0; i < value.length(); i++) {
+            result = hash(result, value.charAt(i));
+        }
+        return mix(result);
+    }
+
+    private static long hash(final long hash, final char value) {
+        return ((hash ^ (value & 0xFF)) * FNV_PRIME ^ (value >>> 8)) * FNV_PRIME;
+    }
+
+    /**
+     * Finalizer of MurmurHash3, spreads the FNV-1a bits over the whole long.
+     */
+    private static long mix(final long hash) {
+        long result = hash;
+        result ^= result >>> 33;
+        result *= 0xFF51AFD7ED558CCDL;
+        result ^= result >>> 33;
+        result *= 0xC4CEB93FE1A85EC3L;
+        result ^= result >>> 33;
+        return result;
+    }
+}
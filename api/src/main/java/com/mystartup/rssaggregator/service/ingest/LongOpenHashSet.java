@@ -0,0 +1,109 @@
+package com.mystartup.rssaggregator.service.ingest;
+
+/**
+ * Set of primitive longs using open addressing with linear probing.
+ * Values are stored in a single long[] (8 bytes per slot, kept at most half full) instead of one boxed Long and
+ * one hash map entry per value. Zero marks a free slot, so the value 0 itself is tracked by a separate flag.
+ * Not thread safe.
+ */
+public final class LongOpenHashSet {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final long FIBONACCI_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private long[] slots;
+    private int shift;
+    private int size;
+    private boolean containsZero;
+
+    public LongOpenHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize number of values the set should hold without resizing.
+     */
+    public LongOpenHashSet(final int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * @return true when the value was not in the set yet.
+     */
+    public boolean add(final long value) {
+        if (value == 0) {
+            boolean added = !containsZero;
+            containsZero = true;
+            if (added) {
+                size++;
+            }
+            return added;
+        }
+        int mask = slots.length - 1;
+        for (int slot = slotOf(value); ; slot = (slot + 1) & mask) {
+            long current = slots[slot];
+            if (current == value) {
+                return false;
+            }
+            if (current == 0) {
+                slots[slot] = value;
+                if (++size * 2 > slots.length) {
+                    resize(slots.length << 1);
+                }
+                return true;
+            }
+        }
+    }
+
+    public boolean contains(final long value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        int mask = slots.length - 1;
+        for (int slot = slotOf(value); ; slot = (slot + 1) & mask) {
+            long current = slots[slot];
+            if (current == value) {
+                return true;
+            }
+            if (current == 0) {
+                return false;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of slots currently allocated, each one taking 8 bytes.
+     */
+    public int capacity() {
+        return slots.length;
+    }
+
+    private int slotOf(final long value) {
+        return (int) ((value * FIBONACCI_MULTIPLIER) >>> shift);
+    }
+
+    private void allocate(final int capacity) {
+        slots = new long[capacity];
+        shift = Long.numberOfLeadingZeros(capacity - 1);
+    }
+
+    private void resize(final int capacity) {
+        long[] previousSlots = slots;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (long value : previousSlots) {
+            if (value != 0) {
+                int slot = slotOf(value);
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = value;
+            }
+        }
+    }
+}
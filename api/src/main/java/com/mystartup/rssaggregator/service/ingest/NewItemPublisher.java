@@ -0,0 +1,114 @@
+package com.mystartup.rssaggregator.service.ingest;
+
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.service.NamedDaemonThreadFactory;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes the new items found by the ingestion to any number of subscribers, with backpressure.
+ * Every subscriber gets a bounded buffer and receives items as it requests them. When a subscriber falls behind
+ * and its buffer is full, the {@link OverflowPolicy} decides whether the item is dropped for it right away or
+ * after waiting for room; either way a slow subscriber never causes a feed to be polled or scanned again.
+ */
+@Slf4j
+public final class NewItemPublisher implements Flow.Publisher<Item>, AutoCloseable {
+
+    public static final int DEFAULT_BUFFER_CAPACITY = 1024;
+    public static final long DEFAULT_BLOCK_TIMEOUT_MILLIS = 1_000L;
+
+    @Getter
+    private final int bufferCapacity;
+    @Getter
+    private final OverflowPolicy overflowPolicy;
+    @Getter
+    private final long blockTimeoutMillis;
+    private final LongAdder droppedItems = new LongAdder();
+    private final ExecutorService deliveryExecutor;
+    private final SubmissionPublisher<Item> publisher;
+
+    public NewItemPublisher() {
+        this.bufferCapacity = DEFAULT_BUFFER_CAPACITY;
+        this.overflowPolicy = OverflowPolicy.DROP;
+        this.blockTimeoutMillis = DEFAULT_BLOCK_TIMEOUT_MILLIS;
+        this.deliveryExecutor = newDeliveryExecutor();
+        this.publisher = new SubmissionPublisher<>(deliveryExecutor, DEFAULT_BUFFER_CAPACITY);
+    }
+
+    /**
+     * @param bufferCapacity     number of items buffered per subscriber (rounded up to a power of two).
+     * @param overflowPolicy     what to do with an item when the buffer of a subscriber is full.
+     * @param blockTimeoutMillis with the BLOCK policy, maximum time waited for room in a buffer.
+     */
+    public NewItemPublisher(final int bufferCapacity, final OverflowPolicy overflowPolicy,
+                            final long blockTimeoutMillis) throws RssAggregatorException {
+        if (bufferCapacity <= 0) {
+            throw new RssAggregatorException("Invalid buffer capacity. Please give a integer value greater than 0");
+        }
+        if (overflowPolicy == OverflowPolicy.BLOCK && blockTimeoutMillis <= 0) {
+            throw new RssAggregatorException("Invalid block timeout (milliseconds). Please give a value greater than 0");
+        }
+        this.bufferCapacity = bufferCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+        this.deliveryExecutor = newDeliveryExecutor();
+        this.publisher = new SubmissionPublisher<>(deliveryExecutor, bufferCapacity);
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super Item> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Offers the items to every current subscriber.
+     */
+    public void publish(final List<Item> items) {
+        if (!publisher.hasSubscribers()) {
+            return;
+        }
+        for (Item item : items) {
+            if (overflowPolicy == OverflowPolicy.BLOCK) {
+                publisher.offer(item, blockTimeoutMillis, TimeUnit.MILLISECONDS, this::onDrop);
+            } else {
+                publisher.offer(item, this::onDrop);
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return publisher.getNumberOfSubscribers();
+    }
+
+    public long getDroppedItemCount() {
+        return droppedItems.sum();
+    }
+
+    /**
+     * Completes the subscriptions once the buffered items are delivered and stops the delivery threads.
+     */
+    @Override
+    public void close() {
+        publisher.close();
+        deliveryExecutor.shutdown();
+    }
+
+    private boolean onDrop(final Flow.Subscriber<? super Item> subscriber, final Item item) {
+        droppedItems.increment();
+        log.debug(String.format("Subscriber %s is lagging behind, dropped item %s", subscriber, item.getGuid()));
+        return false;
+    }
+
+    private static ExecutorService newDeliveryExecutor() {
+        return Executors.newCachedThreadPool(new NamedDaemonThreadFactory("rss-item-publisher"));
+    }
+}
@@ -0,0 +1,15 @@
+package com.mystartup.rssaggregator.service.ingest;
+
+/**
+ * What happens to a new item when the buffer of a subscriber is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * The item is dropped for that subscriber, the ingestion never waits.
+     */
+    DROP,
+    /**
+     * The ingestion waits for room in the buffer, up to the block timeout of the publisher, then drops the item.
+     */
+    BLOCK
+}
@@ -0,0 +1,165 @@
+package com.mystartup.rssaggregator.service.ingest;
+
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.Keyphrase;
+import com.mystartup.rssaggregator.model.SearchProjection;
+import com.mystartup.rssaggregator.model.StandingQuery;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Standing queries: keywords or phrases registered once and matched against every new item at ingest, instead of
+ * searching all the feeds again and again for the same keyphrases. All the keyphrases are compiled into a single
+ * {@link AhoCorasick} automaton run over the case-folded searchable values of each item ({@link SearchProjection}),
+ * so matching an item costs one pass over its text whatever the number of standing queries. Every occurrence of a
+ * keyphrase found by the automaton is a match, the same rule as searchFeeds ({@link Keyphrase}): case is ignored and
+ * words do not have to be whole, "ai" matches "said".
+ * Registering or unregistering only marks the automaton stale, it is compiled again by the next ingest, so
+ * thousands of queries can be registered in a row. Thread-safe.
+ */
+@Slf4j
+public final class StandingQueries {
+
+    private final SearchProjection searchProjection;
+    private final AtomicLong lastId = new AtomicLong();
+    private final Map<StandingQuery, StandingQueryListener> listeners = new LinkedHashMap<>();
+    private volatile boolean stale;
+    private volatile Matcher matcher;
+
+    private static final class Registration {
+        private final StandingQuery standingQuery;
+        private final StandingQueryListener listener;
+
+        private Registration(final StandingQuery standingQuery, final StandingQueryListener listener) {
+            this.standingQuery = standingQuery;
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * The automaton of the keyphrases registered when it was compiled, with the registrations of each keyphrase.
+     */
+    private static final class Matcher {
+        private final AhoCorasick automaton;
+        private final Registration[][] registrations;
+
+        private Matcher(final Map<String, List<Registration>> registrationsByPattern) {
+            List<String> patterns = new ArrayList<>(registrationsByPattern.keySet());
+            this.registrations = new Registration[patterns.size()][];
+            for (int pattern = 0; pattern < patterns.size(); pattern++) {
+                registrations[pattern] = registrationsByPattern.get(patterns.get(pattern)).toArray(new Registration[0]);
+            }
+            this.automaton = new AhoCorasick(patterns);
+        }
+    }
+
+    public StandingQueries() {
+        this(new SearchProjection());
+    }
+
+    /**
+     * @param searchProjection the fields of the items matched, the same as the search to share the cached values.
+     */
+    public StandingQueries(final SearchProjection searchProjection) {
+        this.searchProjection = searchProjection;
+    }
+
+    /**
+     * @param keyphrase a word or phrase, case is ignored.
+     * @param listener  called with every new item containing the keyphrase.
+     * @return the registered standing query, to unregister it.
+     */
+    public StandingQuery register(final String keyphrase, final StandingQueryListener listener)
+            throws RssAggregatorException {
+        if (keyphrase == null || keyphrase.trim().isEmpty()) {
+            throw new RssAggregatorException("Standing query keyphrase cannot be null or empty!");
+        }
+        if (listener == null) {
+            throw new RssAggregatorException("Standing query listener cannot be null!");
+        }
+        StandingQuery standingQuery = new StandingQuery(lastId.incrementAndGet(), keyphrase);
+        synchronized (listeners) {
+            listeners.put(standingQuery, listener);
+            stale = true;
+        }
+        return standingQuery;
+    }
+
+    /**
+     * @return true when the standing query was registered.
+     */
+    public boolean unregister(final StandingQuery standingQuery) {
+        synchronized (listeners) {
+            boolean removed = listeners.remove(standingQuery) != null;
+            stale |= removed;
+            return removed;
+        }
+    }
+
+    public int size() {
+        synchronized (listeners) {
+            return listeners.size();
+        }
+    }
+
+    /**
+     * Matches the items read from the given RSS URL against every standing query and calls the listeners of the
+     * matching ones, in the order of the items. A failing listener is logged and does not stop the others.
+     *
+     * @return the number of matches delivered, one per matching standing query and item.
+     */
+    public int match(final URI feedUri, final List<Item> items) {
+        Matcher current = currentMatcher();
+        if (current == null || items.isEmpty()) {
+            return 0;
+        }
+        int matches = 0;
+        for (Item item : items) {
+            String text = searchProjection.project(item);
+            Set<Registration> matched = new LinkedHashSet<>();
+            current.automaton.match(text, (pattern, end) -> {
+                for (Registration registration : current.registrations[pattern]) {
+                    matched.add(registration);
+                }
+            });
+            for (Registration registration : matched) {
+                try {
+                    registration.listener.onMatch(registration.standingQuery, feedUri, item);
+                } catch (RuntimeException e) {
+                    log.error(String.format("Listener of standing query %d failed on an item of %s",
+                            registration.standingQuery.getId(), feedUri), e);
+                }
+            }
+            matches += matched.size();
+        }
+        return matches;
+    }
+
+    /**
+     * @return the matcher of the registered keyphrases, compiled again when they changed, null when there is none.
+     */
+    private Matcher currentMatcher() {
+        if (stale) {
+            synchronized (listeners) {
+                if (stale) {
+                    Map<String, List<Registration>> registrationsByPattern = new LinkedHashMap<>();
+                    listeners.forEach((standingQuery, listener) -> registrationsByPattern
+                            .computeIfAbsent(new Keyphrase(standingQuery.getKeyphrase()).getFolded(), key -> new ArrayList<>())
+                            .add(new Registration(standingQuery, listener)));
+                    matcher = registrationsByPattern.isEmpty() ? null : new Matcher(registrationsByPattern);
+                    stale = false;
+                }
+            }
+        }
+        return matcher;
+    }
+}
@@ -0,0 +1,21 @@
+package com.mystartup.rssaggregator.service.ingest;
+
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.StandingQuery;
+
+import java.net.URI;
+
+/**
+ * Receives the new items matching a standing query. Called on the thread ingesting the feed, so it should return
+ * quickly and hand any slow work over to another thread.
+ */
+@FunctionalInterface
+public interface StandingQueryListener {
+
+    /**
+     * @param standingQuery the matching standing query.
+     * @param feedUri       the RSS URL the item was read from.
+     * @param item          the new item, called once per item even if it contains the keyphrase several times.
+     */
+    void onMatch(StandingQuery standingQuery, URI feedUri, Item item);
+}
@@ -0,0 +1,62 @@
+package com.mystartup.rssaggregator.service.ingest;
+
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded, concurrent pool of canonical strings, used to share one instance of the values repeated across
+ * feeds and items (categories, authors, languages, custom tag names...).
+ * Unlike String.intern, the pool is owned by the aggregator and bounded: only strings up to a maximum length
+ * are pooled, and when the pool is full it is cleared and fills up again with the strings currently read.
+ * The strings already shared stay shared.
+ */
+public final class StringInterner {
+
+    public static final int DEFAULT_MAX_SIZE = 100_000;
+    public static final int DEFAULT_MAX_LENGTH = 128;
+
+    private final ConcurrentMap<String, String> pool = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final int maxLength;
+
+    public StringInterner() {
+        this.maxSize = DEFAULT_MAX_SIZE;
+        this.maxLength = DEFAULT_MAX_LENGTH;
+    }
+
+    public StringInterner(final int maxSize, final int maxLength) throws RssAggregatorException {
+        if (maxSize <= 0) {
+            throw new RssAggregatorException("Invalid intern pool size. Please give a integer value greater than 0");
+        }
+        if (maxLength <= 0) {
+            throw new RssAggregatorException("Invalid interned string length. Please give a integer value greater than 0");
+        }
+        this.maxSize = maxSize;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * @return the canonical instance equal to the given string, the string itself when it is not pooled
+     * (null or longer than the maximum length).
+     */
+    public String intern(final String value) {
+        if (value == null || value.length() > maxLength) {
+            return value;
+        }
+        String canonical = pool.get(value);
+        if (canonical != null) {
+            return canonical;
+        }
+        if (pool.size() >= maxSize) {
+            pool.clear();
+        }
+        canonical = pool.putIfAbsent(value, value);
+        return canonical == null ? value : canonical;
+    }
+
+    public int size() {
+        return pool.size();
+    }
+}
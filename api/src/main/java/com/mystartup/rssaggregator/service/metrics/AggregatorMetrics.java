@@ -0,0 +1,53 @@
+package com.mystartup.rssaggregator.service.metrics;
+
+import com.mystartup.rssaggregator.model.MetricsSnapshot;
+
+import java.net.URI;
+import java.util.Collection;
+
+/**
+ * Metrics of the fetch, parse, polling and search hot paths.
+ * Recording methods are called concurrently from the reading threads and must not block.
+ * Default Implementation keeps lock-free counters and histograms in memory.
+ */
+public interface AggregatorMetrics {
+
+    /**
+     * @param feedUri      the feed read.
+     * @param latencyNanos time from sending the request until the response body was fully received.
+     * @param bytes        number of bytes of the response body as received, 0 when the feed was not modified.
+     */
+    void recordFetch(URI feedUri, long latencyNanos, long bytes);
+
+    /**
+     * @param feedUri    the feed parsed.
+     * @param parseNanos time spent unmarshalling the response.
+     * @param itemCount  number of items of the parsed feed.
+     */
+    void recordParse(URI feedUri, long parseNanos, int itemCount);
+
+    /**
+     * @param feedUri   the feed whose read failed.
+     * @param errorType type of the error, e.g. the simple name of the exception class.
+     */
+    void recordError(URI feedUri, String errorType);
+
+    /**
+     * @param lagNanos delay between the planned time of a periodic poll and the time it actually started.
+     */
+    void recordSchedulerLag(long lagNanos);
+
+    /**
+     * @param latencyNanos time taken to answer a search, not counting a refresh of the feeds.
+     * @param resultCount  number of items found.
+     */
+    void recordSearch(long latencyNanos, int resultCount);
+
+    /**
+     * Drops the metrics of the feeds that are not in the given ones.
+     */
+    default void retainFeeds(Collection<URI> feedUris) {
+    }
+
+    MetricsSnapshot snapshot();
+}
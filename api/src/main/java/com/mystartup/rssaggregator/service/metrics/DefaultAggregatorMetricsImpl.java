@@ -0,0 +1,94 @@
+package com.mystartup.rssaggregator.service.metrics;
+
+import com.mystartup.rssaggregator.model.FeedMetricsSnapshot;
+import com.mystartup.rssaggregator.model.MetricsSnapshot;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory metrics made of LongAdder counters and {@link LatencyHistogram}s, all latencies in microseconds.
+ * Recording never locks: the per feed metrics are created once per feed and then only updated.
+ */
+public final class DefaultAggregatorMetricsImpl implements AggregatorMetrics {
+
+    private final ConcurrentHashMap<URI, FeedMetrics> feeds = new ConcurrentHashMap<>();
+    private final LatencyHistogram schedulerLag = new LatencyHistogram();
+    private final LatencyHistogram searchLatency = new LatencyHistogram();
+
+    private static final class FeedMetrics {
+        private final LatencyHistogram fetchLatency = new LatencyHistogram();
+        private final LongAdder bytesDownloaded = new LongAdder();
+        private final LatencyHistogram parseTime = new LatencyHistogram();
+        private final LongAdder itemsParsed = new LongAdder();
+        private final ConcurrentHashMap<String, LongAdder> errorsByType = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void recordFetch(final URI feedUri, final long latencyNanos, final long bytes) {
+        FeedMetrics feedMetrics = feedMetrics(feedUri);
+        feedMetrics.fetchLatency.record(toMicros(latencyNanos));
+        feedMetrics.bytesDownloaded.add(bytes);
+    }
+
+    @Override
+    public void recordParse(final URI feedUri, final long parseNanos, final int itemCount) {
+        FeedMetrics feedMetrics = feedMetrics(feedUri);
+        feedMetrics.parseTime.record(toMicros(parseNanos));
+        feedMetrics.itemsParsed.add(itemCount);
+    }
+
+    @Override
+    public void recordError(final URI feedUri, final String errorType) {
+        feedMetrics(feedUri).errorsByType.computeIfAbsent(errorType, type -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void recordSchedulerLag(final long lagNanos) {
+        schedulerLag.record(toMicros(lagNanos));
+    }
+
+    @Override
+    public void recordSearch(final long latencyNanos, final int resultCount) {
+        searchLatency.record(toMicros(latencyNanos));
+    }
+
+    @Override
+    public void retainFeeds(final Collection<URI> feedUris) {
+        feeds.keySet().retainAll(new HashSet<>(feedUris));
+    }
+
+    @Override
+    public MetricsSnapshot snapshot() {
+        Map<URI, FeedMetricsSnapshot> feedSnapshots = new TreeMap<>();
+        Map<String, Long> errorsByType = new TreeMap<>();
+        feeds.forEach((uri, feedMetrics) -> {
+            Map<String, Long> feedErrors = new TreeMap<>();
+            feedMetrics.errorsByType.forEach((type, errors) -> {
+                feedErrors.put(type, errors.sum());
+                errorsByType.merge(type, errors.sum(), Long::sum);
+            });
+            feedSnapshots.put(uri, new FeedMetricsSnapshot(uri, feedMetrics.fetchLatency.snapshot(),
+                    feedMetrics.bytesDownloaded.sum(), feedMetrics.parseTime.snapshot(),
+                    feedMetrics.itemsParsed.sum(), Collections.unmodifiableMap(feedErrors)));
+        });
+        return new MetricsSnapshot(Collections.unmodifiableMap(feedSnapshots), Collections.unmodifiableMap(errorsByType),
+                schedulerLag.snapshot(), searchLatency.snapshot());
+    }
+
+    private FeedMetrics feedMetrics(final URI feedUri) {
+        FeedMetrics feedMetrics = feeds.get(feedUri);
+        return feedMetrics != null ? feedMetrics : feeds.computeIfAbsent(feedUri, uri -> new FeedMetrics());
+    }
+
+    private static long toMicros(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
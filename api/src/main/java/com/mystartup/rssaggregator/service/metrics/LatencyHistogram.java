@@ -0,0 +1,103 @@
+package com.mystartup.rssaggregator.service.metrics;
+
+import com.mystartup.rssaggregator.model.HistogramSnapshot;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative values with log-linear buckets, in the manner of HdrHistogram.
+ * Values below 32 have a bucket of their own; above, every power of two range is split into 32 buckets, so a
+ * recorded value is reported with a relative error of at most 1/32. Values above {@link #MAX_TRACKABLE_VALUE}
+ * are counted in the last bucket, the maximum is kept exact.
+ */
+public final class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Largest value with a bucket of its own, 2^32 - 1 (a little more than an hour in microseconds).
+     */
+    static final long MAX_TRACKABLE_VALUE = (1L << 32) - 1;
+
+    private static final int BUCKETS = bucketIndex(MAX_TRACKABLE_VALUE) + 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(final long value) {
+        long recordedValue = Math.max(value, 0L);
+        buckets.incrementAndGet(bucketIndex(Math.min(recordedValue, MAX_TRACKABLE_VALUE)));
+        count.increment();
+        sum.add(recordedValue);
+        if (recordedValue > max.get()) {
+            max.accumulateAndGet(recordedValue, Math::max);
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public long getMean() {
+        long recorded = count.sum();
+        return recorded == 0 ? 0 : sum.sum() / recorded;
+    }
+
+    /**
+     * @param percentile a percentile between 0 and 100.
+     * @return the highest value equivalent to the value at the given percentile, never more than the maximum,
+     * 0 when nothing was recorded.
+     */
+    public long valueAtPercentile(final double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == BUCKETS - 1 ? getMax() : Math.min(highestEquivalentValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    public HistogramSnapshot snapshot() {
+        return new HistogramSnapshot(getCount(), getMean(), valueAtPercentile(50), valueAtPercentile(90),
+                valueAtPercentile(99), getMax());
+    }
+
+    static int bucketIndex(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    static long highestEquivalentValue(final int bucketIndex) {
+        if (bucketIndex < SUB_BUCKETS) {
+            return bucketIndex;
+        }
+        int shift = bucketIndex / SUB_BUCKETS - 1;
+        long subBucket = SUB_BUCKETS + bucketIndex % SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
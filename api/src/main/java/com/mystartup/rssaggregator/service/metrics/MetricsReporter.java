@@ -0,0 +1,63 @@
+package com.mystartup.rssaggregator.service.metrics;
+
+import com.mystartup.rssaggregator.model.FeedMetricsSnapshot;
+import com.mystartup.rssaggregator.model.MetricsSnapshot;
+import com.mystartup.rssaggregator.service.NamedDaemonThreadFactory;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dumps the metrics to the log at a fixed interval: the totals at info level, the per feed metrics at debug level.
+ */
+@Slf4j
+public final class MetricsReporter {
+
+    public static final long DEFAULT_REPORT_INTERVAL_MILLIS = 300_000L;
+
+    private final AggregatorMetrics metrics;
+    private final long reportIntervalMillis;
+    private ScheduledExecutorService scheduler;
+
+    public MetricsReporter(final AggregatorMetrics metrics, final long reportIntervalMillis) throws RssAggregatorException {
+        if (reportIntervalMillis <= 0) {
+            throw new RssAggregatorException("Invalid report interval (milliseconds). Please give a value greater than 0");
+        }
+        this.metrics = metrics;
+        this.reportIntervalMillis = reportIntervalMillis;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new NamedDaemonThreadFactory("rss-metrics-reporter"));
+        scheduler.scheduleAtFixedRate(this::report, reportIntervalMillis, reportIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public void report() {
+        try {
+            MetricsSnapshot snapshot = metrics.snapshot();
+            log.info(String.format("Metrics: %d feeds, errors %s, scheduler lag %s, search latency %s",
+                    snapshot.getFeeds().size(), snapshot.getErrorsByType(), snapshot.getSchedulerLag(),
+                    snapshot.getSearchLatency()));
+            if (log.isDebugEnabled()) {
+                for (FeedMetricsSnapshot feedSnapshot : snapshot.getFeeds().values()) {
+                    log.debug(String.format("Metrics of feed %s", feedSnapshot));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not report the metrics", e);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.mystartup.rssaggregator.service.parsing;
+
+/**
+ * Parses the dates found in feeds into epoch milliseconds.
+ * RSS requires RFC 822 dates ("Sat, 07 Sep 2002 00:00:01 GMT") but many feeds use ISO 8601 ("2002-09-07T00:00:01Z"),
+ * both are accepted. The parser is tolerant: the day name, the seconds and the time zone are optional (UTC is assumed),
+ * two digit years are read in 1950-2049, month names may be written in full and anything after the time zone is ignored.
+ * It is stateless and allocation free, so it can be called concurrently without the contention of a shared
+ * SimpleDateFormat or the cost of the java.time formatters.
+ */
+public final class FeedDates {
+
+    /**
+     * Value of a missing or unreadable date, ordered before any readable date.
+     */
+    public static final long UNKNOWN = Long.MIN_VALUE;
+
+    private static final String MONTHS = "janfebmaraprmayjunjulaugsepoctnovdec";
+    private static final int[] DAYS_IN_MONTH = {31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final int FAILED = -1;
+    private static final int INVALID_OFFSET = Integer.MIN_VALUE;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+
+    private FeedDates() {
+    }
+
+    /**
+     * @param date a RFC 822 or ISO 8601 date, may be null.
+     * @return the date in milliseconds since the epoch, or {@link #UNKNOWN} when the date is missing or unreadable.
+     */
+    public static long parse(final String date) {
+        if (date == null) {
+            return UNKNOWN;
+        }
+        int start = skipSpaces(date, 0);
+        if (start + 4 < date.length() && isDigit(date, start) && date.charAt(start + 4) == '-') {
+            return parseIso(date, start);
+        }
+        return parseRfc822(date, start);
+    }
+
+    private static long parseRfc822(final String date, final int start) {
+        int pos = start;
+        if (pos < date.length() && Character.isLetter(date.charAt(pos))) {
+            pos = skipLetters(date, pos);
+            if (pos < date.length() && date.charAt(pos) == ',') {
+                pos++;
+            }
+            pos = skipSpaces(date, pos);
+        }
+        int dayEnd = skipDigits(date, pos, 2);
+        int day = number(date, pos, dayEnd);
+        pos = skipSeparator(date, dayEnd);
+        int month = month(date, pos);
+        pos = skipSeparator(date, skipLetters(date, pos));
+        int yearEnd = skipDigits(date, pos, 4);
+        int year = number(date, pos, yearEnd);
+        if (day == FAILED || month == FAILED || year == FAILED) {
+            return UNKNOWN;
+        }
+        if (yearEnd - pos == 2) {
+            year += year < 50 ? 2000 : 1900;
+        } else if (yearEnd - pos != 4) {
+            return UNKNOWN;
+        }
+        pos = skipSpaces(date, yearEnd);
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        if (pos < date.length() && isDigit(date, pos)) {
+            int hourEnd = skipDigits(date, pos, 2);
+            hour = number(date, pos, hourEnd);
+            if (hourEnd >= date.length() || date.charAt(hourEnd) != ':') {
+                return UNKNOWN;
+            }
+            int minuteEnd = skipDigits(date, hourEnd + 1, 2);
+            minute = number(date, hourEnd + 1, minuteEnd);
+            pos = minuteEnd;
+            if (pos < date.length() && date.charAt(pos) == ':') {
+                int secondEnd = skipDigits(date, pos + 1, 2);
+                second = number(date, pos + 1, secondEnd);
+                pos = secondEnd;
+            }
+            pos = skipSpaces(date, pos);
+        }
+        int offsetMinutes = pos < date.length() ? zoneOffsetMinutes(date, pos) : 0;
+        return toEpochMillis(year, month, day, hour, minute, second, 0, offsetMinutes);
+    }
+
+    private static long parseIso(final String date, final int start) {
+        int year = number(date, start, start + 4);
+        int month = twoDigits(date, start + 5);
+        if (start + 7 >= date.length() || date.charAt(start + 7) != '-') {
+            return UNKNOWN;
+        }
+        int day = twoDigits(date, start + 8);
+        int pos = start + 10;
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int millis = 0;
+        if (pos < date.length() && (date.charAt(pos) == 'T' || date.charAt(pos) == 't' || date.charAt(pos) == ' ')
+                && pos + 1 < date.length() && isDigit(date, pos + 1)) {
+            hour = twoDigits(date, pos + 1);
+            if (pos + 3 >= date.length() || date.charAt(pos + 3) != ':') {
+                return UNKNOWN;
+            }
+            minute = twoDigits(date, pos + 4);
+            pos += 6;
+            if (pos < date.length() && date.charAt(pos) == ':') {
+                second = twoDigits(date, pos + 1);
+                pos += 3;
+                if (pos < date.length() && (date.charAt(pos) == '.' || date.charAt(pos) == ',')) {
+                    int fractionEnd = skipDigits(date, pos + 1, Integer.MAX_VALUE);
+                    millis = fractionMillis(date, pos + 1, fractionEnd);
+                    pos = fractionEnd;
+                }
+            }
+        }
+        int offsetMinutes = pos < date.length() ? zoneOffsetMinutes(date, pos) : 0;
+        return toEpochMillis(year, month, day, hour, minute, second, millis, offsetMinutes);
+    }
+
+    /**
+     * Reads a numeric (+hhmm, +hh:mm, +hh) or named zone. Unknown names, e.g. military zones, are read as UTC.
+     *
+     * @return the offset from UTC in minutes, or {@link #INVALID_OFFSET} when the numeric offset is malformed.
+     */
+    private static int zoneOffsetMinutes(final String date, final int pos) {
+        char sign = date.charAt(pos);
+        if (sign == '+' || sign == '-') {
+            int hours = twoDigits(date, pos + 1);
+            int minutes = 0;
+            int minutesStart = pos + 3;
+            if (minutesStart < date.length() && date.charAt(minutesStart) == ':') {
+                minutesStart++;
+            }
+            if (minutesStart < date.length() && isDigit(date, minutesStart)) {
+                minutes = twoDigits(date, minutesStart);
+            }
+            if (hours == FAILED || hours > 18 || minutes == FAILED || minutes > 59) {
+                return INVALID_OFFSET;
+            }
+            int offset = hours * 60 + minutes;
+            return sign == '-' ? -offset : offset;
+        }
+        int end = skipLetters(date, pos);
+        if (end - pos == 3 && Character.toUpperCase(date.charAt(pos + 2)) == 'T') {
+            char zone = Character.toUpperCase(date.charAt(pos));
+            boolean daylight = Character.toUpperCase(date.charAt(pos + 1)) == 'D';
+            int standardHours = zone == 'E' ? 5 : zone == 'C' ? 6 : zone == 'M' ? 7 : zone == 'P' ? 8 : 0;
+            if (standardHours > 0 && (daylight || Character.toUpperCase(date.charAt(pos + 1)) == 'S')) {
+                return -(daylight ? standardHours - 1 : standardHours) * 60;
+            }
+        }
+        return 0;
+    }
+
+    private static long toEpochMillis(final int year, final int month, final int day, final int hour, final int minute,
+                                      final int second, final int millis, final int offsetMinutes) {
+        if (year == FAILED || month == FAILED || day == FAILED || hour == FAILED || minute == FAILED
+                || second == FAILED || offsetMinutes == INVALID_OFFSET) {
+            return UNKNOWN;
+        }
+        if (month < 1 || month > 12 || day < 1 || day > DAYS_IN_MONTH[month - 1]
+                || (month == 2 && day == 29 && !isLeapYear(year)) || hour > 23 || minute > 59 || second > 60) {
+            return UNKNOWN;
+        }
+        // a leap second is read as the last second of the minute
+        int seconds = Math.min(second, 59);
+        long epochMinutes = epochDay(year, month, day) * 1440L + hour * 60L + minute - offsetMinutes;
+        return epochMinutes * MILLIS_PER_MINUTE + seconds * 1000L + millis;
+    }
+
+    /**
+     * Days since 1970-01-01 of a date of the proleptic Gregorian calendar.
+     */
+    private static long epochDay(final int year, final int month, final int day) {
+        long shiftedYear = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(shiftedYear, 400);
+        long yearOfEra = shiftedYear - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static boolean isLeapYear(final int year) {
+        return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+    }
+
+    private static int month(final String date, final int pos) {
+        if (pos + 3 > date.length()) {
+            return FAILED;
+        }
+        for (int month = 0; month < 12; month++) {
+            if (date.regionMatches(true, pos, MONTHS, month * 3, 3)) {
+                return month + 1;
+            }
+        }
+        return FAILED;
+    }
+
+    private static int fractionMillis(final String date, final int start, final int end) {
+        int millis = 0;
+        for (int i = start; i < start + 3; i++) {
+            millis = millis * 10 + (i < end ? date.charAt(i) - '0' : 0);
+        }
+        return millis;
+    }
+
+    private static int twoDigits(final String date, final int pos) {
+        if (pos + 2 > date.length() || !isDigit(date, pos) || !isDigit(date, pos + 1)) {
+            return FAILED;
+        }
+        return (date.charAt(pos) - '0') * 10 + date.charAt(pos + 1) - '0';
+    }
+
+    /**
+     * @return the value of the digits between start and end, or {@link #FAILED} when there is none.
+     */
+    private static int number(final String date, final int start, final int end) {
+        if (end <= start) {
+            return FAILED;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            if (!isDigit(date, i)) {
+                return FAILED;
+            }
+            value = value * 10 + date.charAt(i) - '0';
+        }
+        return value;
+    }
+
+    private static int skipDigits(final String date, final int start, final int maxDigits) {
+        int pos = start;
+        while (pos < date.length() && pos - start < maxDigits && isDigit(date, pos)) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int skipLetters(final String date, final int start) {
+        int pos = start;
+        while (pos < date.length() && Character.isLetter(date.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int skipSeparator(final String date, final int start) {
+        int pos = start;
+        while (pos < date.length() && (date.charAt(pos) == ' ' || date.charAt(pos) == '-' || date.charAt(pos) == '\t')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int skipSpaces(final String date, final int start) {
+        int pos = start;
+        while (pos < date.length() && Character.isWhitespace(date.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isDigit(final String date, final int pos) {
+        char c = date.charAt(pos);
+        return c >= '0' && c <= '9';
+    }
+}
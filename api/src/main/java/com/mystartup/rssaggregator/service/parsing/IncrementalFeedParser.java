@@ -0,0 +1,331 @@
+package com.mystartup.rssaggregator.service.parsing;
+
+import com.mystartup.rssaggregator.model.Channel;
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.RssFeed;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.oxm.XmlMappingException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Incremental parsing of the polled feeds. Most feeds list their items newest first and only the first few items
+ * are new at each poll, so the document is streamed with the {@link StaxFeedUnmarshaller} and the reading stops
+ * at the first run of items which are the first items of the feed parsed by the previous poll (by guid, or link
+ * when there is no guid), in the same order. The rest of the feed is taken from the previous poll: the parse costs
+ * grow with the number of new items instead of the size of the feed, the decompression of the document stops with it.
+ * The document is parsed in full when the order of the feed cannot be trusted: on the first poll, when the last
+ * full parse found items without guid or link, duplicate items or pubDates out of newest first order, when the
+ * first seen item is not the first item of the previous feed or the run does not follow the previous order (items
+ * removed or moved), and after a number of incremental parses in a row, so edited items and channel elements placed
+ * after the items are picked up.
+ * The feed given by an incremental parse keeps as many items as the previous one, the items falling off the end of
+ * the document are dropped by the next full parse.
+ */
+@Slf4j
+public final class IncrementalFeedParser {
+
+    public static final int DEFAULT_SEEN_RUN_LENGTH = 3;
+    public static final int DEFAULT_FULL_PARSE_INTERVAL = 20;
+
+    private final StaxFeedUnmarshaller unmarshaller = new StaxFeedUnmarshaller();
+    private final int seenRunLength;
+    private final int fullParseInterval;
+    private final ConcurrentMap<URI, ParsedFeed> parsedFeeds = new ConcurrentHashMap<>();
+    private final AtomicLong fullParses = new AtomicLong();
+    private final AtomicLong incrementalParses = new AtomicLong();
+
+    /**
+     * Opens the decompressed document, again for a full parse when an incremental parse is given up.
+     */
+    @FunctionalInterface
+    public interface DocumentSource {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * The state of the last feed parsed from an RSS URL, replaced by each parse. Parses of the same RSS URL are
+     * serialized on it, so a parse always merges with the feed of the parse before.
+     */
+    private static final class ParsedFeed {
+        private FeedState state;
+    }
+
+    /**
+     * The last feed parsed from an RSS URL, the position of each of its items and whether its order can be trusted.
+     */
+    private static final class FeedState {
+        private final RssFeed feed;
+        private final List<Item> items;
+        private final Positions positions;
+        private final boolean newestFirst;
+        private final int incrementalParses;
+
+        private FeedState(final RssFeed feed, final int newItems, final FeedState previous, final int incrementalParses) {
+            this.feed = feed;
+            this.items = feed.getChannel() == null || feed.getChannel().getItems() == null
+                    ? Collections.emptyList() : feed.getChannel().getItems();
+            Map<String, Integer> positions = new HashMap<>(newItems * 2);
+            this.positions = new Positions(positions, newItems, items.size(), previous == null ? null : previous.positions);
+            this.incrementalParses = incrementalParses;
+            // the items taken from a trusted previous feed are in order, only the new items and the first of the
+            // previous ones are checked
+            int checkedItems = previous == null ? items.size() : Math.min(newItems + 1, items.size());
+            boolean ordered = true;
+            long previousPubDate = Long.MAX_VALUE;
+            for (int position = 0; position < checkedItems; position++) {
+                Item item = items.get(position);
+                String identity = identity(item);
+                ordered &= identity != null && (position >= newItems || positions.put(identity, position) == null)
+                        && item.getPubDateMillis() != FeedDates.UNKNOWN && item.getPubDateMillis() <= previousPubDate;
+                previousPubDate = item.getPubDateMillis();
+            }
+            this.newestFirst = ordered;
+        }
+
+        private static FeedState parsed(final RssFeed feed) {
+            int itemCount = feed.getChannel() == null || feed.getChannel().getItems() == null
+                    ? 0 : feed.getChannel().getItems().size();
+            return new FeedState(feed, itemCount, null, 0);
+        }
+    }
+
+    /**
+     * The positions of the items of a feed. The positions of a merged feed only map its new items and find the
+     * others in the positions of the previous feed shifted by the number of new items, so a merge costs nothing for
+     * the items taken from the previous feed. Only the identities of the previous feeds are kept by the chain, not
+     * their items, and the chain is cut by the next full parse.
+     */
+    @AllArgsConstructor
+    private static final class Positions {
+        private final Map<String, Integer> newPositions;
+        private final int newItems;
+        private final int itemCount;
+        private final Positions previous;
+
+        /**
+         * @return the position of the item in the feed, -1 when it is not in the feed.
+         */
+        private int positionOf(final String identity) {
+            Integer position = newPositions.get(identity);
+            if (position != null) {
+                return position;
+            }
+            if (previous == null) {
+                return -1;
+            }
+            int previousPosition = previous.positionOf(identity);
+            return previousPosition >= 0 && previousPosition + newItems < itemCount ? previousPosition + newItems : -1;
+        }
+    }
+
+    /**
+     * Follows the items read by an incremental parse and stops the reading at the end of the run of seen items, or
+     * as soon as the order differs from the previous feed.
+     */
+    private final class SeenRun implements Predicate<Item> {
+        private final FeedState previous;
+        private int index;
+        private int length;
+        private int start;
+        private boolean reordered;
+
+        private SeenRun(final FeedState previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public boolean test(final Item item) {
+            String identity = identity(item);
+            int position = identity == null ? -1 : previous.positions.positionOf(identity);
+            int itemIndex = index++;
+            if (length == 0 && identity != null && position < 0) {
+                return true;
+            }
+            if (length == 0) {
+                start = itemIndex;
+            }
+            // the run must start with the first previous item, any item of the previous feed missing from the top
+            // may still be further in the document
+            if (position != length) {
+                reordered = true;
+                return false;
+            }
+            length++;
+            return length < seenRunLength;
+        }
+
+        private boolean isComplete() {
+            return !reordered && length == seenRunLength;
+        }
+    }
+
+    public IncrementalFeedParser() {
+        this.seenRunLength = DEFAULT_SEEN_RUN_LENGTH;
+        this.fullParseInterval = DEFAULT_FULL_PARSE_INTERVAL;
+    }
+
+    /**
+     * @param seenRunLength     number of seen items in a row which stops the reading.
+     * @param fullParseInterval number of incremental parses of a feed after which it is parsed in full again.
+     */
+    public IncrementalFeedParser(final int seenRunLength, final int fullParseInterval) throws RssAggregatorException {
+        if (seenRunLength <= 0) {
+            throw new RssAggregatorException("Invalid seen run length. Please give a integer value greater than 0");
+        }
+        if (fullParseInterval <= 0) {
+            throw new RssAggregatorException("Invalid full parse interval. Please give a integer value greater than 0");
+        }
+        this.seenRunLength = seenRunLength;
+        this.fullParseInterval = fullParseInterval;
+    }
+
+    /**
+     * Parses the document read from the given RSS URL, incrementally when the previous feed allows it.
+     *
+     * @param canonicalizer applied to the feed read from the document, before it is merged with the previous feed.
+     * @return the feed, complete.
+     */
+    public RssFeed parse(final URI feedUri, final DocumentSource document, final UnaryOperator<RssFeed> canonicalizer)
+            throws IOException, XmlMappingException {
+        ParsedFeed parsedFeed = parsedFeeds.computeIfAbsent(feedUri, uri -> new ParsedFeed());
+        synchronized (parsedFeed) {
+            return parse(feedUri, parsedFeed, document, canonicalizer);
+        }
+    }
+
+    /**
+     * Takes a feed restored from a previous run as the previous feed of the RSS URL.
+     */
+    public void restore(final URI feedUri, final RssFeed rssFeed) {
+        if (rssFeed != null) {
+            ParsedFeed parsedFeed = parsedFeeds.computeIfAbsent(feedUri, uri -> new ParsedFeed());
+            synchronized (parsedFeed) {
+                parsedFeed.state = FeedState.parsed(rssFeed);
+            }
+        }
+    }
+
+    /**
+     * Forgets the previous feed of an RSS URL which is no longer polled.
+     */
+    public void forget(final URI feedUri) {
+        parsedFeeds.remove(feedUri);
+    }
+
+    public long getFullParses() {
+        return fullParses.get();
+    }
+
+    public long getIncrementalParses() {
+        return incrementalParses.get();
+    }
+
+    private RssFeed parse(final URI feedUri, final ParsedFeed parsedFeed, final DocumentSource document,
+                          final UnaryOperator<RssFeed> canonicalizer) throws IOException, XmlMappingException {
+        FeedState previous = parsedFeed.state;
+        if (previous != null && previous.newestFirst && previous.incrementalParses < fullParseInterval) {
+            SeenRun seenRun = new SeenRun(previous);
+            RssFeed rssFeed;
+            try (InputStream inputStream = document.open()) {
+                rssFeed = canonicalizer.apply(unmarshaller.unmarshalWhile(inputStream, seenRun));
+            }
+            if (seenRun.isComplete()) {
+                RssFeed merged = merge(rssFeed, seenRun);
+                parsedFeed.state = new FeedState(merged, seenRun.start, previous, previous.incrementalParses + 1);
+                incrementalParses.incrementAndGet();
+                log.debug(String.format("Feed %s parsed incrementally, %d new items", feedUri, seenRun.start));
+                return merged;
+            }
+            if (!seenRun.reordered) {
+                // the document ended before a whole run, it was read in full
+                return parsed(parsedFeed, rssFeed);
+            }
+            log.debug(String.format("Items of feed %s out of order, parsing it in full", feedUri));
+        }
+        try (InputStream inputStream = document.open()) {
+            return parsed(parsedFeed, canonicalizer.apply(unmarshaller.unmarshalWhile(inputStream, item -> true)));
+        }
+    }
+
+    private RssFeed parsed(final ParsedFeed parsedFeed, final RssFeed rssFeed) {
+        parsedFeed.state = FeedState.parsed(rssFeed);
+        fullParses.incrementAndGet();
+        return rssFeed;
+    }
+
+    /**
+     * The items read before the run followed by the previous items, as many items as the previous feed had. The
+     * channel elements missing because the reading stopped are taken from the previous feed.
+     */
+    private static RssFeed merge(final RssFeed rssFeed, final SeenRun seenRun) {
+        FeedState previous = seenRun.previous;
+        Channel channel = rssFeed.getChannel();
+        Channel previousChannel = previous.feed.getChannel();
+        int size = Math.max(previous.items.size(), seenRun.start + seenRun.length);
+        int previousCount = Math.min(size - seenRun.start, previous.items.size());
+        Item[] items = new Item[seenRun.start + previousCount];
+        for (int i = 0; i < seenRun.start; i++) {
+            items[i] = channel.getItems().get(i);
+        }
+        for (int i = 0; i < previousCount; i++) {
+            items[seenRun.start + i] = previous.items.get(i);
+        }
+        channel.setItems(Collections.unmodifiableList(Arrays.asList(items)));
+        if (channel.getTitle() == null) {
+            channel.setTitle(previousChannel.getTitle());
+        }
+        if (channel.getDescription() == null) {
+            channel.setDescription(previousChannel.getDescription());
+        }
+        if (channel.getLanguage() == null) {
+            channel.setLanguage(previousChannel.getLanguage());
+        }
+        if (channel.getLink() == null) {
+            channel.setLink(previousChannel.getLink());
+        }
+        if (channel.getCopyright() == null) {
+            channel.setCopyright(previousChannel.getCopyright());
+        }
+        if (channel.getCategories() == null || channel.getCategories().isEmpty()) {
+            channel.setCategories(previousChannel.getCategories());
+        }
+        if (channel.getLastBuildDate() == null) {
+            channel.setLastBuildDate(previousChannel.getLastBuildDate());
+        }
+        if (channel.getPubDate() == null) {
+            channel.setPubDate(previousChannel.getPubDate());
+        }
+        if (channel.getWebMaster() == null) {
+            channel.setWebMaster(previousChannel.getWebMaster());
+        }
+        if (channel.getTtl() == null) {
+            channel.setTtl(previousChannel.getTtl());
+        }
+        return rssFeed;
+    }
+
+    private static String identity(final Item item) {
+        if (item.getGuid() != null && !item.getGuid().isEmpty()) {
+            return "g" + item.getGuid();
+        }
+        if (item.getLink() != null && !item.getLink().isEmpty()) {
+            return "l" + item.getLink();
+        }
+        return null;
+    }
+}
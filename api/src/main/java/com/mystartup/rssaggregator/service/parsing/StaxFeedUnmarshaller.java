@@ -0,0 +1,316 @@
+package com.mystartup.rssaggregator.service.parsing;
+
+import com.mystartup.rssaggregator.model.Channel;
+import com.mystartup.rssaggregator.model.CustomTag;
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.RssFeed;
+import org.springframework.oxm.Unmarshaller;
+import org.springframework.oxm.UnmarshallingFailureException;
+import org.springframework.oxm.XmlMappingException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Pull-parser based alternative to the JAXB unmarshaller.
+ * The feed is read from a StAX stream and the RssFeed, Channel, Item and CustomTag objects are filled directly,
+ * without building an intermediate DOM for the custom tags. The mapping follows the JAXB annotations of the
+ * data model: known elements without namespace are mapped to their attributes, any other element found in
+ * an item is mapped to a CustomTag holding its local name and text content.
+ * To use it, override the unmarshaller bean of the configuration and return an instance of this class.
+ */
+public final class StaxFeedUnmarshaller implements Unmarshaller {
+
+    private final XMLInputFactory inputFactory;
+
+    public StaxFeedUnmarshaller() {
+        inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    @Override
+    public boolean supports(final Class<?> clazz) {
+        return RssFeed.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public Object unmarshal(final Source source) throws IOException, XmlMappingException {
+        if (!(source instanceof StreamSource)) {
+            throw new UnmarshallingFailureException("Unsupported source " + source.getClass().getName());
+        }
+        StreamSource streamSource = (StreamSource) source;
+        try {
+            if (streamSource.getInputStream() != null) {
+                return readFeed(inputFactory.createXMLStreamReader(streamSource.getInputStream()));
+            }
+            if (streamSource.getReader() != null) {
+                return readFeed(inputFactory.createXMLStreamReader(streamSource.getReader()));
+            }
+            if (streamSource.getSystemId() != null) {
+                try (InputStream inputStream = new URL(streamSource.getSystemId()).openStream()) {
+                    return readFeed(inputFactory.createXMLStreamReader(inputStream));
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new UnmarshallingFailureException("StAX unmarshalling exception: " + e.getMessage(), e);
+        }
+        throw new UnmarshallingFailureException("Source has neither input stream, reader nor system id");
+    }
+
+    /**
+     * Reads the feed until the given predicate is false for an item of the channel: the rest of the document is
+     * neither read nor parsed, so the elements of the channel following that item are missing from the result.
+     *
+     * @param continueReading called with every item of the channel once it is read, in document order.
+     * @return the feed read so far, with the items up to the one which stopped the reading included.
+     */
+    public RssFeed unmarshalWhile(final InputStream inputStream, final Predicate<Item> continueReading)
+            throws XmlMappingException {
+        try {
+            return readFeed(inputFactory.createXMLStreamReader(inputStream), new Reading(continueReading));
+        } catch (XMLStreamException e) {
+            throw new UnmarshallingFailureException("StAX unmarshalling exception: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The items of a reading stopped by its predicate.
+     */
+    private static final class Reading {
+        private final Predicate<Item> continueReading;
+        private boolean stopped;
+
+        private Reading(final Predicate<Item> continueReading) {
+            this.continueReading = continueReading;
+        }
+    }
+
+    /**
+     * Reads the rss root element. The reader is closed once the feed is read.
+     */
+    RssFeed readFeed(final XMLStreamReader reader) throws XMLStreamException {
+        return readFeed(reader, new Reading(item -> true));
+    }
+
+    private RssFeed readFeed(final XMLStreamReader reader, final Reading reading) throws XMLStreamException {
+        try {
+            if (!nextChildElement(reader) || !"rss".equals(unqualifiedName(reader))) {
+                throw new XMLStreamException("Unexpected root element, expected rss", reader.getLocation());
+            }
+            RssFeed rssFeed = new RssFeed();
+            while (!reading.stopped && nextChildElement(reader)) {
+                if ("channel".equals(unqualifiedName(reader))) {
+                    rssFeed.setChannel(readChannel(reader, reading));
+                } else {
+                    skipElement(reader);
+                }
+            }
+            return rssFeed;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private Channel readChannel(final XMLStreamReader reader, final Reading reading) throws XMLStreamException {
+        Channel channel = new Channel();
+        while (!reading.stopped && nextChildElement(reader)) {
+            String name = unqualifiedName(reader);
+            if (name == null) {
+                skipElement(reader);
+                continue;
+            }
+            switch (name) {
+                case "title":
+                    channel.setTitle(readText(reader));
+                    break;
+                case "description":
+                    channel.setDescription(readText(reader));
+                    break;
+                case "language":
+                    channel.setLanguage(readText(reader));
+                    break;
+                case "link":
+                    channel.setLink(readText(reader));
+                    break;
+                case "copyright":
+                    channel.setCopyright(readText(reader));
+                    break;
+                case "category":
+                    channel.setCategories(append(channel.getCategories(), readText(reader)));
+                    break;
+                case "lastBuildDate":
+                    channel.setLastBuildDate(readText(reader));
+                    break;
+                case "pubDate":
+                    channel.setPubDate(readText(reader));
+                    break;
+                case "webMaster":
+                    channel.setWebMaster(readText(reader));
+                    break;
+                case "ttl":
+                    channel.setTtl(parseInteger(readText(reader)));
+                    break;
+                case "item":
+                    Item item = readItem(reader);
+                    channel.setItems(append(channel.getItems(), item));
+                    reading.stopped = !reading.continueReading.test(item);
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+        return channel;
+    }
+
+    private Item readItem(final XMLStreamReader reader) throws XMLStreamException {
+        Item item = new Item();
+        while (nextChildElement(reader)) {
+            String name = unqualifiedName(reader);
+            if (name == null) {
+                item.setCustomTags(append(item.getCustomTags(), readCustomTag(reader)));
+                continue;
+            }
+            switch (name) {
+                case "title":
+                    item.setTitle(readText(reader));
+                    break;
+                case "description":
+                    item.setDescription(readText(reader));
+                    break;
+                case "guid":
+                    item.setGuid(readText(reader));
+                    break;
+                case "link":
+                    item.setLink(readText(reader));
+                    break;
+                case "author":
+                    item.setAuthor(readText(reader));
+                    break;
+                case "category":
+                    item.setCategory(append(item.getCategory(), readText(reader)));
+                    break;
+                case "pubDate":
+                    item.setPubDate(readText(reader));
+                    break;
+                case "enclosure":
+                    item.setEnclosure(readText(reader));
+                    break;
+                case "comments":
+                    item.setComments(append(item.getComments(), readText(reader)));
+                    break;
+                case "channel":
+                    item.setChannel(readChannel(reader, new Reading(nestedItem -> true)));
+                    break;
+                default:
+                    item.setCustomTags(append(item.getCustomTags(), readCustomTag(reader)));
+            }
+        }
+        return item;
+    }
+
+    private CustomTag readCustomTag(final XMLStreamReader reader) throws XMLStreamException {
+        String key = reader.getLocalName();
+        return new CustomTag(key, readText(reader));
+    }
+
+    /**
+     * Moves to the next child start element of the current element.
+     *
+     * @return false when the end of the current element is reached instead.
+     */
+    static boolean nextChildElement(final XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the text content of the current element, including the text of nested elements,
+     * and leaves the reader on its end element.
+     */
+    static String readText(final XMLStreamReader reader) throws XMLStreamException {
+        String firstChunk = "";
+        StringBuilder text = null;
+        int depth = 1;
+        while (depth > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    if (text != null) {
+                        text.append(reader.getText());
+                    } else if (firstChunk.isEmpty()) {
+                        firstChunk = reader.getText();
+                    } else {
+                        text = new StringBuilder(firstChunk).append(reader.getText());
+                    }
+                    break;
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                default:
+            }
+        }
+        return text == null ? firstChunk : text.toString();
+    }
+
+    /**
+     * Skips the current element and its content, leaving the reader on its end element.
+     */
+    static void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * @return the local name of the current element when it has no namespace, null otherwise.
+     */
+    static String unqualifiedName(final XMLStreamReader reader) {
+        String namespaceUri = reader.getNamespaceURI();
+        return namespaceUri == null || namespaceUri.isEmpty() ? reader.getLocalName() : null;
+    }
+
+    private static Integer parseInteger(final String value) {
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static <T> List<T> append(final List<T> list, final T value) {
+        List<T> result = list == null ? new ArrayList<>() : list;
+        result.add(value);
+        return result;
+    }
+}
@@ -0,0 +1,529 @@
+package com.mystartup.rssaggregator.service.persistence;
+
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.RssFeed;
+import com.mystartup.rssaggregator.model.RssUrl;
+import com.mystartup.rssaggregator.service.NamedDaemonThreadFactory;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Local persistence of the RSS URL configurations and of the last known state of each feed (HTTP validators and
+ * parsed items), so a restarted aggregator can serve searches right away instead of fetching every feed again.
+ * Every change is appended to a journal file. When the journal grows over the compaction threshold, it is sealed
+ * and the changes go on in a new journal while a background thread writes the state of the sealed journal to a
+ * snapshot file, which replaces the previous one atomically, and deletes the sealed journal: the writers never wait
+ * for a snapshot. When the store is closed, the whole state is written to a snapshot and the journal is emptied.
+ * On startup the snapshot is read and the sealed journal, if any, then the journal are replayed on top of it.
+ * Each record carries a CRC32 of its content: a record torn by a crash ends the replay and is cut from the journal.
+ * Each record also carries a sequence number and a snapshot starts with the sequence number of the last record it
+ * holds, so the records of a journal which a crash left behind a newer snapshot are skipped instead of applied twice.
+ * A feed keeping the first items of the feed saved before, the same instances as carried over by an incremental
+ * parse, is journaled as its channel, its new items and the number of items kept.
+ * Journal records are written to the file system without forcing them to the disk, the snapshots are forced.
+ * The state is also kept in memory, it refers to the same parsed feeds as the rest of the aggregator.
+ */
+@Slf4j
+public final class LocalStateStore implements AutoCloseable {
+
+    public static final long DEFAULT_COMPACT_THRESHOLD_BYTES = 64L * 1024 * 1024;
+
+    static final String SNAPSHOT_FILE = "state.snapshot";
+    static final String JOURNAL_FILE = "state.journal";
+    static final String SEALED_JOURNAL_FILE = "state.journal.sealed";
+
+    private static final int MAGIC = 0x52535331;
+    private static final int HEADER_BYTES = Integer.BYTES;
+    private static final int SNAPSHOT_HEADER_BYTES = Integer.BYTES + Long.BYTES;
+    private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+
+    private final Path directory;
+    private final long compactThresholdBytes;
+    private final Object lock = new Object();
+    // held while a snapshot is written, taken before the lock
+    private final Object snapshotLock = new Object();
+    private final Map<URI, RssUrl> rssUrls = new LinkedHashMap<>();
+    private final Map<URI, StoredFeed> feeds = new LinkedHashMap<>();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(new NamedDaemonThreadFactory("rss-state-compactor"));
+    private FileChannel journal;
+    private long journalBytes;
+    // sequence number of the last record applied or appended
+    private long sequence;
+    // the compaction of the sealed journal, null when there is no sealed journal
+    private Compaction pendingCompaction;
+    private boolean closed;
+
+    /**
+     * The last known state of a feed. Either validator can be null.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class StoredFeed {
+        private final URI uri;
+        private final String eTag;
+        private final String lastModified;
+        private final RssFeed feed;
+    }
+
+    /**
+     * The state at the time the journal was sealed, written to a snapshot by the background thread.
+     */
+    @AllArgsConstructor
+    private final class Compaction implements Runnable {
+        private final List<RssUrl> rssUrls;
+        private final List<StoredFeed> feeds;
+        private final long sequence;
+
+        @Override
+        public void run() {
+            synchronized (snapshotLock) {
+                synchronized (lock) {
+                    if (pendingCompaction != this) {
+                        // a snapshot of a later state was written in the meantime
+                        return;
+                    }
+                }
+                try {
+                    writeSnapshot(rssUrls, feeds, sequence);
+                    Files.deleteIfExists(directory.resolve(SEALED_JOURNAL_FILE));
+                } catch (IOException e) {
+                    log.error("Could not write the state snapshot, the sealed journal is kept until the next snapshot", e);
+                    return;
+                }
+                synchronized (lock) {
+                    pendingCompaction = null;
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordBody {
+        void write(DataOutput output) throws IOException;
+    }
+
+    public LocalStateStore(final Path directory) throws RssAggregatorException {
+        this(directory, DEFAULT_COMPACT_THRESHOLD_BYTES);
+    }
+
+    /**
+     * Opens the store kept in the given directory and reads the state saved by a previous run, if any.
+     *
+     * @param compactThresholdBytes size of the journal over which the state is compacted into a new snapshot.
+     */
+    public LocalStateStore(final Path directory, final long compactThresholdBytes) throws RssAggregatorException {
+        if (compactThresholdBytes <= 0) {
+            throw new RssAggregatorException("Invalid compaction threshold (bytes). Please give a integer value greater than 0");
+        }
+        if (directory == null || !Files.isDirectory(directory)) {
+            throw new RssAggregatorException("State store directory does not exist!");
+        }
+        this.directory = directory;
+        this.compactThresholdBytes = compactThresholdBytes;
+        long start = System.nanoTime();
+        try {
+            replay(directory.resolve(SNAPSHOT_FILE), true);
+            Path sealedJournalFile = directory.resolve(SEALED_JOURNAL_FILE);
+            replay(sealedJournalFile, false);
+            Path journalFile = directory.resolve(JOURNAL_FILE);
+            long validBytes = replay(journalFile, false);
+            journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (validBytes < HEADER_BYTES) {
+                journal.truncate(0);
+                write(journal, ByteBuffer.allocate(HEADER_BYTES).putInt(0, MAGIC));
+            } else if (journal.size() > validBytes) {
+                log.warn(String.format("Dropping %d bytes of torn records at the end of the journal", journal.size() - validBytes));
+                journal.truncate(validBytes);
+            }
+            journalBytes = journal.size();
+            journal.position(journalBytes);
+            if (Files.exists(sealedJournalFile)) {
+                // the previous run stopped during a compaction
+                compact();
+            }
+        } catch (IOException e) {
+            log.error("Could not read the stored state", e);
+            throw new RssAggregatorException("Could not read the stored state!");
+        }
+        log.info(String.format("Restored %d RSS URLs and %d feeds from %s in %d ms", rssUrls.size(), feeds.size(),
+                directory, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
+
+    /**
+     * @return the configurations saved, in the order they were first added.
+     */
+    public List<RssUrl> getRssUrls() {
+        synchronized (lock) {
+            return new ArrayList<>(rssUrls.values());
+        }
+    }
+
+    /**
+     * @return the last known state of the feeds read.
+     */
+    public List<StoredFeed> getFeeds() {
+        synchronized (lock) {
+            return new ArrayList<>(feeds.values());
+        }
+    }
+
+    public void saveRssUrl(final RssUrl rssUrl) throws RssAggregatorException {
+        synchronized (lock) {
+            rssUrls.put(rssUrl.getUri(), rssUrl);
+            append(StateCodec.RSS_URL_SAVED, output -> StateCodec.writeRssUrl(output, rssUrl));
+        }
+    }
+
+    /**
+     * Deletes a configuration and the state of its feed.
+     */
+    public void deleteRssUrl(final URI feedUri) throws RssAggregatorException {
+        synchronized (lock) {
+            rssUrls.remove(feedUri);
+            feeds.remove(feedUri);
+            append(StateCodec.RSS_URL_DELETED, output -> StateCodec.writeString(output, feedUri.toString()));
+        }
+    }
+
+    /**
+     * Saves the feed parsed from a full response and the validators of the response.
+     */
+    public void saveFeed(final URI feedUri, final String eTag, final String lastModified,
+                         final RssFeed rssFeed) throws RssAggregatorException {
+        StoredFeed feed = new StoredFeed(feedUri, eTag, lastModified, rssFeed);
+        synchronized (lock) {
+            int newItems = newItems(feeds.put(feedUri, feed), rssFeed);
+            if (newItems >= 0) {
+                append(StateCodec.FEED_UPDATED, output -> {
+                    writeFeedHeader(output, feed);
+                    StateCodec.writeFeedUpdate(output, rssFeed, newItems);
+                });
+            } else {
+                append(StateCodec.FEED_SAVED, output -> writeFeed(output, feed));
+            }
+        }
+    }
+
+    /**
+     * Writes the whole state to a new snapshot and empties the journal, waits for a compaction in progress.
+     */
+    public void snapshot() throws RssAggregatorException {
+        synchronized (snapshotLock) {
+            synchronized (lock) {
+                checkOpen();
+                try {
+                    compact();
+                } catch (IOException e) {
+                    log.error("Could not write the state snapshot", e);
+                    throw new RssAggregatorException("Could not save the state!");
+                }
+            }
+        }
+    }
+
+    public long getJournalBytes() {
+        synchronized (lock) {
+            return journalBytes;
+        }
+    }
+
+    /**
+     * @return true while the snapshot of a sealed journal is not written.
+     */
+    boolean isCompacting() {
+        synchronized (lock) {
+            return pendingCompaction != null;
+        }
+    }
+
+    /**
+     * Writes a last snapshot and closes the journal, waits for a compaction in progress.
+     */
+    @Override
+    public void close() {
+        synchronized (snapshotLock) {
+            synchronized (lock) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                try {
+                    compact();
+                } catch (IOException e) {
+                    log.error("Could not write the state snapshot, the journal is kept", e);
+                }
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    log.error("Could not close the journal", e);
+                }
+            }
+        }
+        compactor.shutdown();
+    }
+
+    private void append(final byte type, final RecordBody body) throws RssAggregatorException {
+        checkOpen();
+        try {
+            byte[] record = record(type, ++sequence, body);
+            write(journal, ByteBuffer.wrap(record));
+            journalBytes += record.length;
+            if (journalBytes > compactThresholdBytes && pendingCompaction == null) {
+                sealJournal();
+            }
+        } catch (IOException e) {
+            log.error("Could not append to the journal", e);
+            throw new RssAggregatorException("Could not save the state!");
+        }
+    }
+
+    /**
+     * Renames the journal to the sealed journal, starts a new journal and hands the state to the background thread.
+     * Only the maps are copied under the lock, the records are encoded and written by the background thread.
+     */
+    private void sealJournal() throws IOException {
+        journal.close();
+        Files.move(directory.resolve(JOURNAL_FILE), directory.resolve(SEALED_JOURNAL_FILE), StandardCopyOption.ATOMIC_MOVE);
+        journal = FileChannel.open(directory.resolve(JOURNAL_FILE), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        write(journal, ByteBuffer.allocate(HEADER_BYTES).putInt(0, MAGIC));
+        journalBytes = HEADER_BYTES;
+        pendingCompaction = new Compaction(new ArrayList<>(rssUrls.values()), new ArrayList<>(feeds.values()), sequence);
+        compactor.execute(pendingCompaction);
+    }
+
+    /**
+     * Writes the whole state to a snapshot and empties the journal, in the calling thread. Called with the snapshot
+     * lock and the lock held, the sealed journal is deleted and its pending compaction skipped.
+     */
+    private void compact() throws IOException {
+        writeSnapshot(rssUrls.values(), feeds.values(), sequence);
+        // the records of the journals are in the snapshot, after a crash right here their sequence numbers skip them
+        Files.deleteIfExists(directory.resolve(SEALED_JOURNAL_FILE));
+        pendingCompaction = null;
+        journal.truncate(HEADER_BYTES);
+        journal.position(HEADER_BYTES);
+        journalBytes = HEADER_BYTES;
+    }
+
+    /**
+     * @param savedSequence the sequence number of the last record applied to the saved state.
+     */
+    private void writeSnapshot(final Collection<RssUrl> savedRssUrls, final Collection<StoredFeed> savedFeeds,
+                               final long savedSequence) throws IOException {
+        long start = System.nanoTime();
+        Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        Path temporaryFile = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temporaryFile.toFile());
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(file))) {
+            output.writeInt(MAGIC);
+            output.writeLong(savedSequence);
+            for (RssUrl rssUrl : savedRssUrls) {
+                output.write(record(StateCodec.RSS_URL_SAVED, savedSequence, body -> StateCodec.writeRssUrl(body, rssUrl)));
+            }
+            for (StoredFeed feed : savedFeeds) {
+                output.write(record(StateCodec.FEED_SAVED, savedSequence, body -> writeFeed(body, feed)));
+            }
+            output.flush();
+            file.getFD().sync();
+        }
+        Files.move(temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info(String.format("State snapshot of %d RSS URLs and %d feeds written in %d ms", savedRssUrls.size(),
+                savedFeeds.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
+
+    /**
+     * Applies the records of a snapshot or journal file to the state.
+     *
+     * @param snapshot true for the snapshot, which starts with the sequence number of its last record and fails on
+     *                 a corrupted record; false for a journal, which stops at the first incomplete or corrupted
+     *                 record and skips the records already applied, i.e. up to the sequence number of the snapshot.
+     * @return the number of bytes of the file holding valid records, 0 when the file does not exist.
+     */
+    private long replay(final Path file, final boolean snapshot) throws IOException {
+        boolean tolerateTornRecords = !snapshot;
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        long fileBytes = Files.size(file);
+        long position = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int headerBytes = snapshot ? SNAPSHOT_HEADER_BYTES : HEADER_BYTES;
+            if (fileBytes < headerBytes || input.readInt() != MAGIC) {
+                return torn(file, tolerateTornRecords, 0);
+            }
+            if (snapshot) {
+                sequence = input.readLong();
+            }
+            position = headerBytes;
+            CRC32 crc = new CRC32();
+            while (position < fileBytes) {
+                if (fileBytes - position < RECORD_HEADER_BYTES) {
+                    return torn(file, tolerateTornRecords, position);
+                }
+                int length = input.readInt();
+                int checksum = input.readInt();
+                if (length <= 0 || length > fileBytes - position - RECORD_HEADER_BYTES) {
+                    return torn(file, tolerateTornRecords, position);
+                }
+                byte[] payload = new byte[length];
+                input.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    return torn(file, tolerateTornRecords, position);
+                }
+                apply(payload, snapshot);
+                position += RECORD_HEADER_BYTES + length;
+            }
+            return position;
+        } catch (EOFException e) {
+            return torn(file, tolerateTornRecords, position);
+        }
+    }
+
+    private static long torn(final Path file, final boolean tolerateTornRecords, final long validBytes) throws IOException {
+        if (!tolerateTornRecords) {
+            throw new IOException(String.format("Corrupted state file %s", file));
+        }
+        return validBytes;
+    }
+
+    private void apply(final byte[] payload, final boolean snapshot) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+        long recordSequence = input.readLong();
+        if (!snapshot) {
+            if (recordSequence <= sequence) {
+                return;
+            }
+            sequence = recordSequence;
+        }
+        byte type = input.readByte();
+        switch (type) {
+            case StateCodec.RSS_URL_SAVED:
+                RssUrl rssUrl = StateCodec.readRssUrl(input);
+                rssUrls.put(rssUrl.getUri(), rssUrl);
+                break;
+            case StateCodec.RSS_URL_DELETED:
+                URI deletedUri = URI.create(StateCodec.readString(input));
+                rssUrls.remove(deletedUri);
+                feeds.remove(deletedUri);
+                break;
+            case StateCodec.FEED_SAVED:
+                URI feedUri = URI.create(StateCodec.readString(input));
+                String eTag = StateCodec.readString(input);
+                String lastModified = StateCodec.readString(input);
+                feeds.put(feedUri, new StoredFeed(feedUri, eTag, lastModified, StateCodec.readFeed(input)));
+                break;
+            case StateCodec.FEED_UPDATED:
+                URI updatedUri = URI.create(StateCodec.readString(input));
+                String updatedETag = StateCodec.readString(input);
+                String updatedLastModified = StateCodec.readString(input);
+                StoredFeed savedFeed = feeds.get(updatedUri);
+                RssFeed updatedFeed = StateCodec.readFeedUpdate(input, savedFeed == null ? null : savedFeed.getFeed());
+                feeds.put(updatedUri, new StoredFeed(updatedUri, updatedETag, updatedLastModified, updatedFeed));
+                break;
+            default:
+                throw new IOException("Unknown record type " + type);
+        }
+    }
+
+    /**
+     * @return the record framed with the length and the CRC32 of its content, its sequence number and its type.
+     */
+    private static byte[] record(final byte type, final long recordSequence, final RecordBody body) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(buffer);
+        output.writeLong(0);
+        output.writeLong(recordSequence);
+        output.writeByte(type);
+        body.write(output);
+        byte[] record = buffer.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(record, RECORD_HEADER_BYTES, record.length - RECORD_HEADER_BYTES);
+        ByteBuffer.wrap(record).putInt(0, record.length - RECORD_HEADER_BYTES).putInt(Integer.BYTES, (int) crc.getValue());
+        return record;
+    }
+
+    private static void writeFeed(final DataOutput output, final StoredFeed feed) throws IOException {
+        writeFeedHeader(output, feed);
+        StateCodec.writeFeed(output, feed.getFeed());
+    }
+
+    private static void writeFeedHeader(final DataOutput output, final StoredFeed feed) throws IOException {
+        StateCodec.writeString(output, feed.getUri().toString());
+        StateCodec.writeString(output, feed.getETag());
+        StateCodec.writeString(output, feed.getLastModified());
+    }
+
+    /**
+     * @return the number of items the feed starts with when its other items are the first items of the saved feed,
+     * the same instances; -1 when the feed is saved whole.
+     */
+    private static int newItems(final StoredFeed saved, final RssFeed rssFeed) {
+        List<Item> items = itemsOf(rssFeed);
+        List<Item> savedItems = saved == null ? null : itemsOf(saved.getFeed());
+        if (items == null || savedItems == null || savedItems.isEmpty() || savedItems.get(0) == null) {
+            return -1;
+        }
+        int newItems = 0;
+        while (newItems < items.size() && items.get(newItems) != savedItems.get(0)) {
+            newItems++;
+        }
+        int keptItems = items.size() - newItems;
+        if (keptItems == 0 || keptItems > savedItems.size()) {
+            return -1;
+        }
+        for (int i = 1; i < keptItems; i++) {
+            if (items.get(newItems + i) != savedItems.get(i)) {
+                return -1;
+            }
+        }
+        return newItems;
+    }
+
+    private static List<Item> itemsOf(final RssFeed rssFeed) {
+        return rssFeed == null || rssFeed.getChannel() == null ? null : rssFeed.getChannel().getItems();
+    }
+
+    private static void write(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void checkOpen() throws RssAggregatorException {
+        if (closed) {
+            throw new RssAggregatorException("State store is closed!");
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.mystartup.rssaggregator.service.persistence;
+
+import com.mystartup.rssaggregator.model.Channel;
+import com.mystartup.rssaggregator.model.CustomTag;
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.RssFeed;
+import com.mystartup.rssaggregator.model.RssUrl;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary encoding of the records of the {@link LocalStateStore}: strings are written as a length and their UTF-8
+ * bytes, lists as a count and their elements, -1 standing for null. Only the values read from the feeds are
+ * written, the parsed dates are computed again when the records are read.
+ */
+final class StateCodec {
+
+    static final byte RSS_URL_SAVED = 1;
+    static final byte RSS_URL_DELETED = 2;
+    static final byte FEED_SAVED = 3;
+    static final byte FEED_UPDATED = 4;
+
+    private static final int NULL = -1;
+
+    private StateCodec() {
+    }
+
+    static void writeRssUrl(final DataOutput output, final RssUrl rssUrl) throws IOException {
+        writeString(output, rssUrl.getUri().toString());
+        writeInteger(output, rssUrl.getRefreshIntervalMinutes());
+        writeInteger(output, rssUrl.getMinRefreshIntervalMinutes());
+        writeInteger(output, rssUrl.getMaxRefreshIntervalMinutes());
+    }
+
+    static RssUrl readRssUrl(final DataInput input) throws IOException {
+        URI uri = URI.create(readString(input));
+        Integer refreshIntervalMinutes = readInteger(input);
+        Integer minRefreshIntervalMinutes = readInteger(input);
+        Integer maxRefreshIntervalMinutes = readInteger(input);
+        try {
+            return new RssUrl(uri, refreshIntervalMinutes, minRefreshIntervalMinutes, maxRefreshIntervalMinutes);
+        } catch (RssAggregatorException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    static void writeFeed(final DataOutput output, final RssFeed rssFeed) throws IOException {
+        Channel channel = rssFeed == null ? null : rssFeed.getChannel();
+        output.writeBoolean(channel != null);
+        if (channel != null) {
+            writeChannel(output, channel);
+        }
+    }
+
+    static RssFeed readFeed(final DataInput input) throws IOException {
+        RssFeed rssFeed = new RssFeed();
+        if (input.readBoolean()) {
+            rssFeed.setChannel(readChannel(input));
+        }
+        return rssFeed;
+    }
+
+    /**
+     * Writes a feed whose items, after the given number of new items, are the first items of the feed saved before
+     * for the same RSS URL: the channel and the new items, then the number of items kept from the saved feed.
+     */
+    static void writeFeedUpdate(final DataOutput output, final RssFeed rssFeed, final int newItems) throws IOException {
+        Channel channel = rssFeed.getChannel();
+        writeChannelFields(output, channel);
+        List<Item> items = channel.getItems();
+        writeItems(output, items.subList(0, newItems));
+        output.writeInt(items.size() - newItems);
+    }
+
+    /**
+     * @param savedFeed the feed saved before for the same RSS URL, whose first items are kept.
+     */
+    static RssFeed readFeedUpdate(final DataInput input, final RssFeed savedFeed) throws IOException {
+        Channel channel = new Channel();
+        readChannelFields(input, channel);
+        List<Item> newItems = readItems(input);
+        int keptItems = input.readInt();
+        List<Item> savedItems = savedFeed == null || savedFeed.getChannel() == null
+                || savedFeed.getChannel().getItems() == null ? null : savedFeed.getChannel().getItems();
+        if (newItems == null || savedItems == null || keptItems < 0 || keptItems > savedItems.size()) {
+            throw new IOException("Invalid feed update");
+        }
+        List<Item> items = new ArrayList<>(newItems.size() + keptItems);
+        items.addAll(newItems);
+        items.addAll(savedItems.subList(0, keptItems));
+        channel.setItems(items);
+        RssFeed rssFeed = new RssFeed();
+        rssFeed.setChannel(channel);
+        return rssFeed;
+    }
+
+    static void writeString(final DataOutput output, final String value) throws IOException {
+        if (value == null) {
+            output.writeInt(NULL);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    static String readString(final DataInput input) throws IOException {
+        int length = input.readInt();
+        if (length == NULL) {
+            return null;
+        }
+        if (length < 0) {
+            throw new IOException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeChannel(final DataOutput output, final Channel channel) throws IOException {
+        writeChannelFields(output, channel);
+        writeItems(output, channel.getItems());
+    }
+
+    private static Channel readChannel(final DataInput input) throws IOException {
+        Channel channel = new Channel();
+        readChannelFields(input, channel);
+        channel.setItems(readItems(input));
+        return channel;
+    }
+
+    private static void writeChannelFields(final DataOutput output, final Channel channel) throws IOException {
+        writeString(output, channel.getTitle());
+        writeString(output, channel.getDescription());
+        writeString(output, channel.getLanguage());
+        writeString(output, channel.getLink());
+        writeString(output, channel.getCopyright());
+        writeStrings(output, channel.getCategories());
+        writeString(output, channel.getLastBuildDate());
+        writeString(output, channel.getPubDate());
+        writeString(output, channel.getWebMaster());
+        writeInteger(output, channel.getTtl());
+    }
+
+    private static void readChannelFields(final DataInput input, final Channel channel) throws IOException {
+        channel.setTitle(readString(input));
+        channel.setDescription(readString(input));
+        channel.setLanguage(readString(input));
+        channel.setLink(readString(input));
+        channel.setCopyright(readString(input));
+        channel.setCategories(readStrings(input));
+        channel.setLastBuildDate(readString(input));
+        channel.setPubDate(readString(input));
+        channel.setWebMaster(readString(input));
+        channel.setTtl(readInteger(input));
+    }
+
+    private static void writeItems(final DataOutput output, final List<Item> items) throws IOException {
+        output.writeInt(items == null ? NULL : items.size());
+        if (items != null) {
+            for (Item item : items) {
+                output.writeBoolean(item != null);
+                if (item != null) {
+                    writeItem(output, item);
+                }
+            }
+        }
+    }
+
+    private static List<Item> readItems(final DataInput input) throws IOException {
+        int itemCount = input.readInt();
+        if (itemCount == NULL) {
+            return null;
+        }
+        List<Item> items = new ArrayList<>(initialCapacity(itemCount));
+        for (int i = 0; i < itemCount; i++) {
+            items.add(input.readBoolean() ? readItem(input) : null);
+        }
+        return items;
+    }
+
+    private static void writeItem(final DataOutput output, final Item item) throws IOException {
+        writeString(output, item.getTitle());
+        writeString(output, item.getDescription());
+        writeString(output, item.getGuid());
+        writeString(output, item.getLink());
+        writeString(output, item.getAuthor());
+        writeStrings(output, item.getCategory());
+        writeString(output, item.getPubDate());
+        writeString(output, item.getEnclosure());
+        writeStrings(output, item.getComments());
+        output.writeBoolean(item.getChannel() != null);
+        if (item.getChannel() != null) {
+            writeChannel(output, item.getChannel());
+        }
+        List<CustomTag> customTags = item.getCustomTags();
+        output.writeInt(customTags == null ? NULL : customTags.size());
+        if (customTags != null) {
+            for (CustomTag customTag : customTags) {
+                writeString(output, customTag == null ? null : customTag.getKey());
+                writeString(output, customTag == null ? null : customTag.getValue());
+            }
+        }
+    }
+
+    private static Item readItem(final DataInput input) throws IOException {
+        Item item = new Item();
+        item.setTitle(readString(input));
+        item.setDescription(readString(input));
+        item.setGuid(readString(input));
+        item.setLink(readString(input));
+        item.setAuthor(readString(input));
+        item.setCategory(readStrings(input));
+        item.setPubDate(readString(input));
+        item.setEnclosure(readString(input));
+        item.setComments(readStrings(input));
+        if (input.readBoolean()) {
+            item.setChannel(readChannel(input));
+        }
+        int customTagCount = input.readInt();
+        if (customTagCount != NULL) {
+            List<CustomTag> customTags = new ArrayList<>(initialCapacity(customTagCount));
+            for (int i = 0; i < customTagCount; i++) {
+                customTags.add(new CustomTag(readString(input), readString(input)));
+            }
+            item.setCustomTags(customTags);
+        }
+        return item;
+    }
+
+    private static void writeStrings(final DataOutput output, final List<String> values) throws IOException {
+        output.writeInt(values == null ? NULL : values.size());
+        if (values != null) {
+            for (String value : values) {
+                writeString(output, value);
+            }
+        }
+    }
+
+    private static List<String> readStrings(final DataInput input) throws IOException {
+        int count = input.readInt();
+        if (count == NULL) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(initialCapacity(count));
+        for (int i = 0; i < count; i++) {
+            values.add(readString(input));
+        }
+        return values;
+    }
+
+    private static void writeInteger(final DataOutput output, final Integer value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(final DataInput input) throws IOException {
+        return input.readBoolean() ? input.readInt() : null;
+    }
+
+    private static int initialCapacity(final int count) throws IOException {
+        if (count < 0) {
+            throw new IOException("Invalid element count " + count);
+        }
+        return Math.min(count, 1024);
+    }
+}
@@ -0,0 +1,120 @@
+package com.mystartup.rssaggregator.service.scheduling;
+
+import com.mystartup.rssaggregator.model.RssUrl;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adapts the refresh interval of each feed to how often it changes.
+ * <ul>
+ * <li>A poll finding new items brings the interval back to the minimum of the feed.</li>
+ * <li>After {@code unchangedPollsBeforeBackoff} polls in a row without new items, every further unchanged poll
+ * multiplies the interval by {@code backoffFactor}.</li>
+ * <li>The interval stays within the bounds of the feed. The minimum is the minRefreshIntervalMinutes of
+ * the RssUrl, or its refreshIntervalMinutes when not set. The maximum is the maxRefreshIntervalMinutes of the
+ * RssUrl, or the greater of its refresh interval and {@code defaultMaxIntervalMinutes} when not set.</li>
+ * <li>The ttl announced by the channel is a hard lower bound, above the maximum of the feed if need be: the feed
+ * is never polled before its ttl expired.</li>
+ * </ul>
+ * A failed poll leaves the interval unchanged.
+ */
+@Slf4j
+public final class AdaptiveRefreshPolicy implements RefreshPolicy {
+
+    public static final int DEFAULT_UNCHANGED_POLLS_BEFORE_BACKOFF = 3;
+    public static final double DEFAULT_BACKOFF_FACTOR = 2.0;
+    public static final int DEFAULT_MAX_INTERVAL_MINUTES = 60;
+
+    private final int unchangedPollsBeforeBackoff;
+    private final double backoffFactor;
+    private final int defaultMaxIntervalMinutes;
+    private final TimeUnit refreshIntervalUnit;
+    private final ConcurrentMap<URI, FeedState> states = new ConcurrentHashMap<>();
+
+    private static final class FeedState {
+        private long intervalMillis;
+        private int unchangedPolls;
+
+        private FeedState(final long intervalMillis) {
+            this.intervalMillis = intervalMillis;
+        }
+    }
+
+    public AdaptiveRefreshPolicy() {
+        this(DEFAULT_UNCHANGED_POLLS_BEFORE_BACKOFF, DEFAULT_BACKOFF_FACTOR, DEFAULT_MAX_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    public AdaptiveRefreshPolicy(final int unchangedPollsBeforeBackoff, final double backoffFactor,
+                                 final int defaultMaxIntervalMinutes) throws RssAggregatorException {
+        this(unchangedPollsBeforeBackoff, backoffFactor, defaultMaxIntervalMinutes, TimeUnit.MINUTES);
+        if (unchangedPollsBeforeBackoff < 0) {
+            throw new RssAggregatorException("Invalid number of unchanged polls. Please give a integer value greater or equal to 0");
+        }
+        if (backoffFactor < 1.0) {
+            throw new RssAggregatorException("Invalid backoff factor. Please give a value greater or equal to 1");
+        }
+        if (defaultMaxIntervalMinutes <= 0) {
+            throw new RssAggregatorException("Invalid maximum refresh interval (minutes). Please give a integer value greater than 0");
+        }
+    }
+
+    AdaptiveRefreshPolicy(final int unchangedPollsBeforeBackoff, final double backoffFactor,
+                          final int defaultMaxIntervalMinutes, final TimeUnit refreshIntervalUnit) {
+        this.unchangedPollsBeforeBackoff = unchangedPollsBeforeBackoff;
+        this.backoffFactor = backoffFactor;
+        this.defaultMaxIntervalMinutes = defaultMaxIntervalMinutes;
+        this.refreshIntervalUnit = refreshIntervalUnit;
+    }
+
+    @Override
+    public long nextPollDelayMillis(final RssUrl rssUrl, final PollOutcome outcome) {
+        long minMillis = toMillis(minIntervalMinutes(rssUrl));
+        long maxMillis = toMillis(maxIntervalMinutes(rssUrl));
+        FeedState state = states.computeIfAbsent(rssUrl.getUri(),
+                uri -> new FeedState(toMillis(rssUrl.getRefreshIntervalMinutes())));
+        synchronized (state) {
+            long interval = state.intervalMillis;
+            if (outcome.isSucceeded() && outcome.isChanged()) {
+                state.unchangedPolls = 0;
+                interval = minMillis;
+            } else if (outcome.isSucceeded()) {
+                state.unchangedPolls++;
+                if (state.unchangedPolls > unchangedPollsBeforeBackoff) {
+                    interval = (long) (interval * backoffFactor);
+                }
+            }
+            interval = Math.max(minMillis, Math.min(maxMillis, interval));
+            state.intervalMillis = interval;
+            if (outcome.getTtlMinutes() != null && outcome.getTtlMinutes() > 0) {
+                interval = Math.max(interval, toMillis(outcome.getTtlMinutes()));
+            }
+            log.debug(String.format("Next poll of %s in %d ms (%d unchanged polls)", rssUrl.getUri(), interval, state.unchangedPolls));
+            return interval;
+        }
+    }
+
+    @Override
+    public void forget(final URI feedUri) {
+        states.remove(feedUri);
+    }
+
+    private static int minIntervalMinutes(final RssUrl rssUrl) {
+        return rssUrl.getMinRefreshIntervalMinutes() != null ? rssUrl.getMinRefreshIntervalMinutes() : rssUrl.getRefreshIntervalMinutes();
+    }
+
+    private int maxIntervalMinutes(final RssUrl rssUrl) {
+        if (rssUrl.getMaxRefreshIntervalMinutes() != null) {
+            return rssUrl.getMaxRefreshIntervalMinutes();
+        }
+        return Math.max(Math.max(rssUrl.getRefreshIntervalMinutes(), defaultMaxIntervalMinutes), minIntervalMinutes(rssUrl));
+    }
+
+    private long toMillis(final long interval) {
+        return refreshIntervalUnit.toMillis(interval);
+    }
+}
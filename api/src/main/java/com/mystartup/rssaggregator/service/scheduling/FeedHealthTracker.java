@@ -0,0 +1,171 @@
+package com.mystartup.rssaggregator.service.scheduling;
+
+import com.mystartup.rssaggregator.model.CircuitState;
+import com.mystartup.rssaggregator.model.FeedHealth;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the health of the polled feeds with a circuit breaker per feed.
+ * <ul>
+ * <li>Every failed poll delays the next poll of the feed with an exponential backoff: {@code initialBackoffMillis},
+ * doubled for every further failure in a row, up to {@code maxBackoffMillis}.</li>
+ * <li>After {@code failuresBeforeOpen} failures in a row the circuit opens: the feed is not polled until its backoff
+ * is over, then a single trial poll is made in the half-open state. A failed trial opens the circuit again
+ * with a longer backoff.</li>
+ * <li>A successful poll closes the circuit and forgets the failures.</li>
+ * </ul>
+ * Only the feeds which failed since their last success are tracked, so a dead feed costs one poll per backoff
+ * and healthy feeds cost nothing.
+ */
+@Slf4j
+public final class FeedHealthTracker {
+
+    public static final int DEFAULT_FAILURES_BEFORE_OPEN = 5;
+    public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 30_000L;
+    public static final long DEFAULT_MAX_BACKOFF_MILLIS = 3_600_000L;
+
+    private final int failuresBeforeOpen;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final LongSupplier clock;
+    private final ConcurrentMap<URI, FeedState> states = new ConcurrentHashMap<>();
+
+    private static final class FeedState {
+        private CircuitState state = CircuitState.CLOSED;
+        private int consecutiveFailures;
+        private String lastError;
+        private long lastFailureAtMillis;
+        private long nextAttemptAtMillis;
+    }
+
+    public FeedHealthTracker() {
+        this(DEFAULT_FAILURES_BEFORE_OPEN, DEFAULT_INITIAL_BACKOFF_MILLIS, DEFAULT_MAX_BACKOFF_MILLIS, System::currentTimeMillis);
+    }
+
+    public FeedHealthTracker(final int failuresBeforeOpen, final long initialBackoffMillis,
+                             final long maxBackoffMillis) throws RssAggregatorException {
+        this(failuresBeforeOpen, initialBackoffMillis, maxBackoffMillis, System::currentTimeMillis);
+        if (failuresBeforeOpen <= 0) {
+            throw new RssAggregatorException("Invalid number of failures before opening the circuit. Please give a integer value greater than 0");
+        }
+        if (initialBackoffMillis <= 0) {
+            throw new RssAggregatorException("Invalid initial backoff (milliseconds). Please give a value greater than 0");
+        }
+        if (maxBackoffMillis < initialBackoffMillis) {
+            throw new RssAggregatorException("Invalid maximum backoff (milliseconds). Please give a value greater or equal to the initial backoff");
+        }
+    }
+
+    FeedHealthTracker(final int failuresBeforeOpen, final long initialBackoffMillis, final long maxBackoffMillis,
+                      final LongSupplier clock) {
+        this.failuresBeforeOpen = failuresBeforeOpen;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Called when a poll of the feed is due. An open circuit whose backoff is over goes to half-open.
+     *
+     * @return the time the feed must still wait before being polled, in milliseconds, 0 when it can be polled now.
+     */
+    public long beforePoll(final URI feedUri) {
+        FeedState state = states.get(feedUri);
+        if (state == null) {
+            return 0;
+        }
+        synchronized (state) {
+            long remaining = state.nextAttemptAtMillis - clock.getAsLong();
+            if (remaining > 0) {
+                return remaining;
+            }
+            if (state.state == CircuitState.OPEN) {
+                state.state = CircuitState.HALF_OPEN;
+                log.info(String.format("Circuit half-open for feed %s, trying a poll", feedUri));
+            }
+            return 0;
+        }
+    }
+
+    public void recordSuccess(final URI feedUri) {
+        FeedState state = states.remove(feedUri);
+        if (state != null && state.state != CircuitState.CLOSED) {
+            log.info(String.format("Circuit closed for feed %s", feedUri));
+        }
+    }
+
+    /**
+     * @return the backoff before the next poll of the feed, in milliseconds.
+     */
+    public long recordFailure(final URI feedUri, final String error) {
+        FeedState state = states.computeIfAbsent(feedUri, uri -> new FeedState());
+        synchronized (state) {
+            long now = clock.getAsLong();
+            state.consecutiveFailures++;
+            state.lastError = error;
+            state.lastFailureAtMillis = now;
+            long backoff = backoffMillis(state.consecutiveFailures);
+            state.nextAttemptAtMillis = now + backoff;
+            if (state.state == CircuitState.HALF_OPEN
+                    || (state.state == CircuitState.CLOSED && state.consecutiveFailures >= failuresBeforeOpen)) {
+                state.state = CircuitState.OPEN;
+                log.warn(String.format("Circuit open for feed %s after %d failures in a row, next attempt in %d ms",
+                        feedUri, state.consecutiveFailures, backoff));
+            }
+            return backoff;
+        }
+    }
+
+    /**
+     * @return the health of the feeds which failed since their last successful poll, most failures first.
+     */
+    public List<FeedHealth> unhealthyFeeds() {
+        List<FeedHealth> unhealthyFeeds = new ArrayList<>();
+        states.forEach((uri, state) -> {
+            synchronized (state) {
+                unhealthyFeeds.add(new FeedHealth(uri, state.state, state.consecutiveFailures, state.lastError,
+                        Instant.ofEpochMilli(state.lastFailureAtMillis), Instant.ofEpochMilli(state.nextAttemptAtMillis)));
+            }
+        });
+        unhealthyFeeds.sort(Comparator.comparingInt(FeedHealth::getConsecutiveFailures).reversed());
+        return unhealthyFeeds;
+    }
+
+    /**
+     * @return the number of feeds whose circuit is open or half-open.
+     */
+    public int trippedFeeds() {
+        int tripped = 0;
+        for (FeedState state : states.values()) {
+            synchronized (state) {
+                tripped += state.state == CircuitState.CLOSED ? 0 : 1;
+            }
+        }
+        return tripped;
+    }
+
+    /**
+     * Drops the state kept for a feed which is no longer configured.
+     */
+    public void forget(final URI feedUri) {
+        states.remove(feedUri);
+    }
+
+    private long backoffMillis(final int consecutiveFailures) {
+        long backoff = initialBackoffMillis;
+        for (int i = 1; i < consecutiveFailures && backoff < maxBackoffMillis; i++) {
+            backoff = backoff > maxBackoffMillis / 2 ? maxBackoffMillis : backoff * 2;
+        }
+        return backoff;
+    }
+}
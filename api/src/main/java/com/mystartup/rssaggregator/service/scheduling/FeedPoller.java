@@ -0,0 +1,659 @@
+package com.mystartup.rssaggregator.service.scheduling;
+
+import com.mystartup.rssaggregator.model.FeedHealth;
+import com.mystartup.rssaggregator.model.PollingStatus;
+import com.mystartup.rssaggregator.model.RssUrl;
+import com.mystartup.rssaggregator.service.NamedDaemonThreadFactory;
+import com.mystartup.rssaggregator.service.VirtualThreads;
+import com.mystartup.rssaggregator.service.exceptions.RateLimitedException;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import com.mystartup.rssaggregator.service.metrics.AggregatorMetrics;
+import com.mystartup.rssaggregator.service.metrics.DefaultAggregatorMetricsImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Polling engine reading any number of configured feeds with a small, fixed pool of worker threads or, in
+ * {@link PollExecutionMode#VIRTUAL_THREADS} mode, with a virtual thread per poll.
+ * Polls are kept in a priority queue ordered by due time. A single dispatcher thread hands the due polls to
+ * the workers, one per free worker, and each feed is polled again after its previous poll completed, with the
+ * delay given by the {@link RefreshPolicy}. The configured feeds are reconciled periodically so added, updated and deleted RSS URLs are
+ * picked up without restarting the poller.
+ * The security context of the thread starting the poller is used by the dispatcher and the workers.
+ * The lag of every poll behind its planned time is recorded in the metrics.
+ * In both modes a semaphore caps the polls in flight: to the number of worker threads with platform threads,
+ * to the maximum number of concurrent polls with virtual threads, so tens of thousands of feeds can wait for
+ * their server at once on a few carrier threads.
+ * The servers are polled politely, as set by the {@link HostPoliteness}: feeds are grouped by host and a due poll
+ * of a host already at its connection cap waits for a poll of the same host to complete, the start times and the
+ * refresh delays are jittered and a host answering with a rate limit is left alone until its Retry-After delay
+ * has passed, so the other hosts keep being polled at full speed.
+ * Failing feeds are backed off exponentially and tripped by the circuit breaker of the {@link FeedHealthTracker},
+ * so a dead feed only costs a poll per backoff instead of a worker at every refresh.
+ */
+@Slf4j
+public final class FeedPoller {
+
+    public static final int DEFAULT_WORKER_THREADS = 4;
+    public static final long DEFAULT_RECONCILE_INTERVAL_MILLIS = 30_000L;
+    public static final int DEFAULT_MAX_CONCURRENT_VIRTUAL_POLLS = 10_000;
+
+    private final int workerThreads;
+    private final long reconcileIntervalNanos;
+    private final RefreshPolicy refreshPolicy;
+    private final AggregatorMetrics metrics;
+    private final PollExecutionMode executionMode;
+    private final HostPoliteness politeness;
+    private final FeedHealthTracker healthTracker;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition wakeUp = lock.newCondition();
+    private final PriorityQueue<ScheduledPoll> dueQueue = new PriorityQueue<>(Comparator.comparingLong(poll -> poll.dueAtNanos));
+    private final Map<URI, ScheduledPoll> scheduledPolls = new HashMap<>();
+    private final Map<String, HostState> hosts = new HashMap<>();
+    private final AtomicLong pollsCompleted = new AtomicLong();
+    private final AtomicLong pollsFailed = new AtomicLong();
+
+    private Supplier<List<RssUrl>> configuredFeeds;
+    private FeedPollTask pollTask;
+    private Consumer<URI> removedFeeds;
+    private ExecutorService workers;
+    private Semaphore freeWorkers;
+    private Thread dispatcher;
+    private volatile boolean running;
+    private boolean reconcileRequested;
+
+    /**
+     * Polls a single feed. Implemented by the reader service.
+     */
+    @FunctionalInterface
+    public interface FeedPollTask {
+        PollOutcome poll(RssUrl rssUrl) throws RssAggregatorException;
+    }
+
+    private static final class ScheduledPoll {
+        private RssUrl rssUrl;
+        private final long dueAtNanos;
+        // connection of the host taken when dispatched, null when the URI has no host
+        private HostState host;
+
+        private ScheduledPoll(final RssUrl rssUrl, final long dueAtNanos) {
+            this.rssUrl = rssUrl;
+            this.dueAtNanos = dueAtNanos;
+        }
+    }
+
+    /**
+     * Polls in flight, polls waiting for a connection and rate limit of one host. Guarded by the lock.
+     */
+    private static final class HostState {
+        private final ArrayDeque<ScheduledPoll> waiting = new ArrayDeque<>();
+        private int inFlight;
+        private boolean rateLimited;
+        private long rateLimitedUntilNanos;
+
+        private boolean isRateLimited(final long now) {
+            if (rateLimited && rateLimitedUntilNanos - now <= 0) {
+                rateLimited = false;
+            }
+            return rateLimited;
+        }
+
+        private void rateLimit(final long untilNanos) {
+            if (!rateLimited || untilNanos - rateLimitedUntilNanos > 0) {
+                rateLimited = true;
+                rateLimitedUntilNanos = untilNanos;
+            }
+        }
+
+        private boolean isIdle(final long now) {
+            return inFlight == 0 && waiting.isEmpty() && !isRateLimited(now);
+        }
+    }
+
+    public FeedPoller() {
+        this(builder());
+    }
+
+    public FeedPoller(final AggregatorMetrics metrics) {
+        this(builder().metrics(metrics));
+    }
+
+    private FeedPoller(final Builder builder) {
+        this.workerThreads = builder.maxConcurrentPolls;
+        this.reconcileIntervalNanos = TimeUnit.MILLISECONDS.toNanos(builder.reconcileIntervalMillis);
+        this.refreshPolicy = builder.refreshPolicy;
+        this.metrics = builder.metrics;
+        this.executionMode = builder.executionMode;
+        this.politeness = builder.politeness;
+        this.healthTracker = builder.healthTracker;
+    }
+
+    /**
+     * @return a builder of a poller, every value not given keeps the default of {@link #FeedPoller()}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builds a poller. By default it runs {@link #DEFAULT_WORKER_THREADS} platform threads, reconciles the
+     * configured feeds every {@link #DEFAULT_RECONCILE_INTERVAL_MILLIS} and uses the default refresh policy,
+     * politeness and health tracker.
+     */
+    public static final class Builder {
+        private int maxConcurrentPolls = DEFAULT_WORKER_THREADS;
+        private long reconcileIntervalMillis = DEFAULT_RECONCILE_INTERVAL_MILLIS;
+        private RefreshPolicy refreshPolicy = new FixedRefreshPolicy();
+        private AggregatorMetrics metrics = new DefaultAggregatorMetricsImpl();
+        private PollExecutionMode executionMode = PollExecutionMode.PLATFORM_THREADS;
+        private HostPoliteness politeness = new HostPoliteness();
+        private FeedHealthTracker healthTracker = new FeedHealthTracker();
+
+        private Builder() {
+        }
+
+        /**
+         * @param maxConcurrentPolls number of worker threads with platform threads, maximum number of polls in
+         *                           flight with virtual threads.
+         */
+        public Builder maxConcurrentPolls(final int maxConcurrentPolls) {
+            this.maxConcurrentPolls = maxConcurrentPolls;
+            return this;
+        }
+
+        /**
+         * @param reconcileIntervalMillis interval at which the configured feeds are reconciled.
+         */
+        public Builder reconcileIntervalMillis(final long reconcileIntervalMillis) {
+            this.reconcileIntervalMillis = reconcileIntervalMillis;
+            return this;
+        }
+
+        public Builder refreshPolicy(final RefreshPolicy refreshPolicy) {
+            this.refreshPolicy = refreshPolicy;
+            return this;
+        }
+
+        public Builder metrics(final AggregatorMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * @param executionMode how the polls are run.
+         */
+        public Builder executionMode(final PollExecutionMode executionMode) {
+            this.executionMode = executionMode;
+            return this;
+        }
+
+        /**
+         * @param politeness connections per host, jitter and rate limit handling.
+         */
+        public Builder politeness(final HostPoliteness politeness) {
+            this.politeness = politeness;
+            return this;
+        }
+
+        /**
+         * @param healthTracker backoff and circuit breaker of the failing feeds.
+         */
+        public Builder healthTracker(final FeedHealthTracker healthTracker) {
+            this.healthTracker = healthTracker;
+            return this;
+        }
+
+        /**
+         * @throws RssAggregatorException when the values are invalid or virtual threads are not supported.
+         */
+        public FeedPoller build() throws RssAggregatorException {
+            if (executionMode == PollExecutionMode.VIRTUAL_THREADS && !VirtualThreads.isSupported()) {
+                throw new RssAggregatorException("Virtual threads are not supported by this Java runtime. Please run on Java 21 or later");
+            }
+            validateWorkerThreads(maxConcurrentPolls);
+            if (reconcileIntervalMillis <= 0) {
+                throw new RssAggregatorException("Invalid reconcile interval (milliseconds). Please give a integer value greater than 0");
+            }
+            if (executionMode == null) {
+                throw new RssAggregatorException("Poll execution mode cannot be null!");
+            }
+            if (refreshPolicy == null) {
+                throw new RssAggregatorException("Refresh policy cannot be null!");
+            }
+            if (metrics == null) {
+                throw new RssAggregatorException("Aggregator metrics cannot be null!");
+            }
+            if (politeness == null) {
+                throw new RssAggregatorException("Host politeness cannot be null!");
+            }
+            if (healthTracker == null) {
+                throw new RssAggregatorException("Feed health tracker cannot be null!");
+            }
+            return new FeedPoller(this);
+        }
+    }
+
+    /**
+     * Starts polling the configured feeds. When the poller is already running, the configured feeds are
+     * reconciled immediately instead.
+     *
+     * @param configuredFeeds supplies the RSS URLs to poll, called on start and on every reconciliation.
+     * @param pollTask        the task reading one feed.
+     */
+    public void start(final Supplier<List<RssUrl>> configuredFeeds, final FeedPollTask pollTask) {
+        start(configuredFeeds, pollTask, uri -> { });
+    }
+
+    /**
+     * Starts polling the configured feeds. When the poller is already running, the configured feeds are
+     * reconciled immediately instead.
+     *
+     * @param configuredFeeds supplies the RSS URLs to poll, called on start and on every reconciliation.
+     * @param pollTask        the task reading one feed.
+     * @param removedFeeds    called by the reconciliation with each polled feed no longer supplied, so the state
+     *                        kept for it can be dropped.
+     */
+    public void start(final Supplier<List<RssUrl>> configuredFeeds, final FeedPollTask pollTask,
+                      final Consumer<URI> removedFeeds) {
+        lock.lock();
+        try {
+            if (running) {
+                log.info("Feed poller already running, reconciling configured feeds");
+                reconcileRequested = true;
+                wakeUp.signalAll();
+                return;
+            }
+            ExecutorService pollers;
+            try {
+                pollers = newPollers();
+            } catch (RssAggregatorException e) {
+                log.error("Could not start the feed poller", e);
+                return;
+            }
+            this.configuredFeeds = configuredFeeds;
+            this.pollTask = pollTask;
+            this.removedFeeds = removedFeeds;
+            SecurityContext securityContext = SecurityContextHolder.getContext();
+            Semaphore freePollers = new Semaphore(workerThreads);
+            workers = pollers;
+            freeWorkers = freePollers;
+            reconcileRequested = true;
+            running = true;
+            dispatcher = new NamedDaemonThreadFactory("rss-feed-poller-dispatcher")
+                    .newThread(new DelegatingSecurityContextRunnable(() -> dispatch(pollers, freePollers), securityContext));
+            dispatcher.start();
+            log.info(executionMode == PollExecutionMode.VIRTUAL_THREADS
+                    ? String.format("Feed poller started with virtual threads, at most %d polls in flight", workerThreads)
+                    : String.format("Feed poller started with %d worker threads", workerThreads));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reconciles the configured feeds right away instead of at the next reconciliation interval, e.g. when the feeds
+     * to poll changed. Does nothing when the poller is not running.
+     */
+    public void reconcileNow() {
+        lock.lock();
+        try {
+            if (running) {
+                reconcileRequested = true;
+                wakeUp.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops polling. Polls in flight are interrupted and no new poll is started.
+     */
+    public void stop() {
+        lock.lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+            dispatcher.interrupt();
+            workers.shutdownNow();
+            dueQueue.clear();
+            scheduledPolls.clear();
+            hosts.clear();
+            log.info("Feed poller stopped");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public PollingStatus status() {
+        lock.lock();
+        try {
+            int inFlight = running ? workerThreads - freeWorkers.availablePermits() : 0;
+            long now = System.nanoTime();
+            int waitingForHost = 0;
+            int rateLimitedHosts = 0;
+            for (HostState host : hosts.values()) {
+                waitingForHost += host.waiting.size();
+                rateLimitedHosts += host.isRateLimited(now) ? 1 : 0;
+            }
+            return new PollingStatus(running, workerThreads, scheduledPolls.size(), inFlight,
+                    pollsCompleted.get(), pollsFailed.get(), executionMode == PollExecutionMode.VIRTUAL_THREADS,
+                    waitingForHost, rateLimitedHosts, healthTracker.trippedFeeds());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the health of the feeds which failed since their last successful poll, most failures first.
+     */
+    public List<FeedHealth> feedHealth() {
+        return healthTracker.unhealthyFeeds();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private ExecutorService newPollers() throws RssAggregatorException {
+        if (executionMode == PollExecutionMode.VIRTUAL_THREADS) {
+            return VirtualThreads.newVirtualThreadPerTaskExecutor("rss-feed-poller");
+        }
+        return Executors.newFixedThreadPool(workerThreads, new NamedDaemonThreadFactory("rss-feed-poller"));
+    }
+
+    /**
+     * Dispatcher loop. The worker pool and its permits are the ones created by the start call that launched
+     * this dispatcher, so a dispatcher outliving a stop never uses the pool of a later start.
+     */
+    private void dispatch(final ExecutorService pollers, final Semaphore freePollers) {
+        long nextReconcile = System.nanoTime();
+        try {
+            while (running && !Thread.currentThread().isInterrupted()) {
+                if (reconcileDue(nextReconcile)) {
+                    reconcile();
+                    nextReconcile = System.nanoTime() + reconcileIntervalNanos;
+                }
+                freePollers.acquire();
+                ScheduledPoll duePoll = awaitDuePoll(nextReconcile);
+                if (duePoll == null) {
+                    freePollers.release();
+                } else {
+                    submit(duePoll, pollers, freePollers);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean reconcileDue(final long nextReconcile) {
+        lock.lock();
+        try {
+            boolean due = reconcileRequested || System.nanoTime() - nextReconcile >= 0;
+            reconcileRequested = false;
+            return due;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the head of the queue is due and its host has a free connection, a reconciliation is due or
+     * the poller is stopped.
+     *
+     * @return the due poll, or null when the wait ended for another reason.
+     */
+    private ScheduledPoll awaitDuePoll(final long nextReconcile) throws InterruptedException {
+        lock.lock();
+        try {
+            while (running && !reconcileRequested) {
+                long now = System.nanoTime();
+                ScheduledPoll head = dueQueue.peek();
+                if (head != null && scheduledPolls.get(head.rssUrl.getUri()) != head) {
+                    dueQueue.poll();
+                    continue;
+                }
+                if (head != null && now - head.dueAtNanos >= 0) {
+                    dueQueue.poll();
+                    long backoffMillis = healthTracker.beforePoll(head.rssUrl.getUri());
+                    if (backoffMillis > 0) {
+                        schedule(head.rssUrl, now + TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+                        continue;
+                    }
+                    if (acquireHost(head, now)) {
+                        return head;
+                    }
+                    continue;
+                }
+                long waitNanos = nextReconcile - now;
+                if (waitNanos <= 0) {
+                    return null;
+                }
+                if (head != null) {
+                    waitNanos = Math.min(waitNanos, head.dueAtNanos - now);
+                }
+                wakeUp.awaitNanos(waitNanos);
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void submit(final ScheduledPoll duePoll, final ExecutorService pollers, final Semaphore freePollers) {
+        RssUrl rssUrl = duePoll.rssUrl;
+        Runnable poll = () -> {
+            metrics.recordSchedulerLag(System.nanoTime() - duePoll.dueAtNanos);
+            PollOutcome outcome = PollOutcome.FAILED;
+            long rateLimitMillis = -1;
+            String failure = null;
+            try {
+                outcome = pollTask.poll(rssUrl);
+                pollsCompleted.incrementAndGet();
+            } catch (RateLimitedException e) {
+                pollsFailed.incrementAndGet();
+                rateLimitMillis = e.getRetryAfterMillis() >= 0 ? e.getRetryAfterMillis() : politeness.getRateLimitedDelayMillis();
+                log.warn(String.format("Rate limited reading URL: %s, not polling its host for %d ms", rssUrl, rateLimitMillis));
+            } catch (RssAggregatorException | RuntimeException e) {
+                pollsFailed.incrementAndGet();
+                failure = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+                log.error(String.format("Error reading URL: %s", rssUrl), e);
+            } finally {
+                freePollers.release();
+                reschedule(duePoll, outcome, rateLimitMillis, failure);
+            }
+        };
+        pollers.execute(DelegatingSecurityContextRunnable.create(poll, SecurityContextHolder.getContext()));
+    }
+
+    /**
+     * @param rateLimitMillis time the host of the feed must be left alone, -1 when the poll was not rate limited.
+     * @param failure         error of a failed poll, null when the poll succeeded or was rate limited.
+     */
+    private void reschedule(final ScheduledPoll completedPoll, final PollOutcome outcome, final long rateLimitMillis,
+                            final String failure) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            long notBefore = now + TimeUnit.MILLISECONDS.toNanos(Math.max(rateLimitMillis, 0));
+            HostState host = completedPoll.host;
+            if (host != null && rateLimitMillis >= 0) {
+                host.rateLimit(notBefore);
+            }
+            releaseHost(completedPoll);
+            URI uri = completedPoll.rssUrl.getUri();
+            if (!running || scheduledPolls.get(uri) != completedPoll) {
+                return;
+            }
+            if (outcome.isSucceeded()) {
+                healthTracker.recordSuccess(uri);
+            } else if (failure != null) {
+                long backoffUntil = now + TimeUnit.MILLISECONDS.toNanos(healthTracker.recordFailure(uri, failure));
+                notBefore = backoffUntil - notBefore > 0 ? backoffUntil : notBefore;
+            }
+            long delay = jittered(TimeUnit.MILLISECONDS.toNanos(refreshPolicy.nextPollDelayMillis(completedPoll.rssUrl, outcome)),
+                    outcome.getTtlMinutes());
+            long dueAt = now + delay;
+            if (host != null && host.isRateLimited(now) && host.rateLimitedUntilNanos - notBefore > 0) {
+                notBefore = host.rateLimitedUntilNanos;
+            }
+            schedule(completedPoll.rssUrl, notBefore - dueAt > 0 ? notBefore : dueAt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a connection of the host of a due poll. A poll of a host at its connection cap waits for a poll of the
+     * same host to complete, a poll of a rate limited host is moved after the end of the limit.
+     *
+     * @return true when the poll can be run now.
+     */
+    private boolean acquireHost(final ScheduledPoll duePoll, final long now) {
+        String hostName = hostOf(duePoll.rssUrl);
+        if (hostName == null) {
+            return true;
+        }
+        HostState host = hosts.computeIfAbsent(hostName, name -> new HostState());
+        if (host.isRateLimited(now)) {
+            schedule(duePoll.rssUrl, host.rateLimitedUntilNanos + startJitterNanos());
+            return false;
+        }
+        if (host.inFlight >= politeness.getMaxConnectionsPerHost()) {
+            host.waiting.add(duePoll);
+            return false;
+        }
+        host.inFlight++;
+        duePoll.host = host;
+        return true;
+    }
+
+    /**
+     * Gives back the connection of a completed poll and hands it to the oldest poll waiting for the same host.
+     */
+    private void releaseHost(final ScheduledPoll completedPoll) {
+        HostState host = completedPoll.host;
+        if (host == null) {
+            return;
+        }
+        host.inFlight--;
+        ScheduledPoll waiting;
+        while ((waiting = host.waiting.poll()) != null) {
+            if (scheduledPolls.get(waiting.rssUrl.getUri()) == waiting) {
+                dueQueue.add(waiting);
+                wakeUp.signalAll();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Shifts a refresh delay by up to the delay jitter ratio of the politeness settings. The jitter never brings
+     * the poll before the expiry of the ttl announced by the channel.
+     */
+    long jittered(final long delayNanos, final Integer ttlMinutes) {
+        double ratio = politeness.getDelayJitterRatio();
+        if (ratio == 0 || delayNanos <= 0) {
+            return delayNanos;
+        }
+        long jittered = (long) (delayNanos * (1 + ratio * ThreadLocalRandom.current().nextDouble(-1, 1)));
+        long ttlNanos = ttlMinutes == null || ttlMinutes <= 0 ? 0 : TimeUnit.MINUTES.toNanos(ttlMinutes);
+        return Math.max(jittered, Math.min(delayNanos, ttlNanos));
+    }
+
+    private long startJitterNanos() {
+        long jitter = TimeUnit.MILLISECONDS.toNanos(politeness.getStartJitterMillis());
+        return jitter == 0 ? 0 : ThreadLocalRandom.current().nextLong(jitter);
+    }
+
+    private static String hostOf(final RssUrl rssUrl) {
+        String host = rssUrl.getUri().getHost();
+        return host == null ? null : host.toLowerCase(Locale.ROOT);
+    }
+
+    private void reconcile() {
+        List<RssUrl> rssUrls;
+        try {
+            rssUrls = configuredFeeds.get();
+        } catch (RuntimeException e) {
+            log.error("Could not retrieve the configured feeds, keeping the current schedule", e);
+            return;
+        }
+        List<URI> removedUris = new ArrayList<>();
+        lock.lock();
+        try {
+            Set<URI> configuredUris = new HashSet<>();
+            long now = System.nanoTime();
+            for (RssUrl rssUrl : rssUrls) {
+                configuredUris.add(rssUrl.getUri());
+                ScheduledPoll scheduledPoll = scheduledPolls.get(rssUrl.getUri());
+                if (scheduledPoll == null) {
+                    schedule(rssUrl, now + startJitterNanos());
+                } else {
+                    scheduledPoll.rssUrl = rssUrl;
+                }
+            }
+            scheduledPolls.keySet().removeIf(uri -> {
+                if (configuredUris.contains(uri)) {
+                    return false;
+                }
+                refreshPolicy.forget(uri);
+                healthTracker.forget(uri);
+                removedUris.add(uri);
+                return true;
+            });
+            hosts.values().removeIf(host -> host.isIdle(now));
+            wakeUp.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (URI uri : removedUris) {
+            try {
+                removedFeeds.accept(uri);
+            } catch (RuntimeException e) {
+                log.error(String.format("Could not drop the state of removed feed %s", uri), e);
+            }
+        }
+    }
+
+    private void schedule(final RssUrl rssUrl, final long dueAtNanos) {
+        ScheduledPoll scheduledPoll = new ScheduledPoll(rssUrl, dueAtNanos);
+        scheduledPolls.put(rssUrl.getUri(), scheduledPoll);
+        dueQueue.add(scheduledPoll);
+        wakeUp.signalAll();
+    }
+
+    private static void validateWorkerThreads(final int workerThreads) throws RssAggregatorException {
+        if (workerThreads <= 0) {
+            throw new RssAggregatorException("Invalid number of worker threads. Please give a integer value greater than 0");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.mystartup.rssaggregator.service.scheduling;
+
+import com.mystartup.rssaggregator.model.RssUrl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls every feed at the refresh interval configured in its RssUrl, whatever the poll observed.
+ */
+public final class FixedRefreshPolicy implements RefreshPolicy {
+
+    private final TimeUnit refreshIntervalUnit;
+
+    public FixedRefreshPolicy() {
+        this(TimeUnit.MINUTES);
+    }
+
+    FixedRefreshPolicy(final TimeUnit refreshIntervalUnit) {
+        this.refreshIntervalUnit = refreshIntervalUnit;
+    }
+
+    @Override
+    public long nextPollDelayMillis(final RssUrl rssUrl, final PollOutcome outcome) {
+        return refreshIntervalUnit.toMillis(rssUrl.getRefreshIntervalMinutes());
+    }
+}
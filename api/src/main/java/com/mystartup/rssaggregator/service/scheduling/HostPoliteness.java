@@ -0,0 +1,54 @@
+package com.mystartup.rssaggregator.service.scheduling;
+
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * How politely the {@link FeedPoller} treats the servers it polls. Feeds are grouped by host: at most
+ * maxConnectionsPerHost polls of the same host are in flight, the first polls are spread over startJitterMillis
+ * and every refresh delay is shifted by up to delayJitterRatio of its value, so feeds of one server do not fire together.
+ * A host answering with a rate limit is not polled again before the delay of its Retry-After header,
+ * or rateLimitedDelayMillis when it did not give one.
+ */
+@Getter
+@ToString
+public final class HostPoliteness {
+
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 2;
+    public static final long DEFAULT_START_JITTER_MILLIS = 1_000L;
+    public static final double DEFAULT_DELAY_JITTER_RATIO = 0.1;
+    public static final long DEFAULT_RATE_LIMITED_DELAY_MILLIS = 60_000L;
+
+    private final int maxConnectionsPerHost;
+    private final long startJitterMillis;
+    private final double delayJitterRatio;
+    private final long rateLimitedDelayMillis;
+
+    public HostPoliteness() {
+        this.maxConnectionsPerHost = DEFAULT_MAX_CONNECTIONS_PER_HOST;
+        this.startJitterMillis = DEFAULT_START_JITTER_MILLIS;
+        this.delayJitterRatio = DEFAULT_DELAY_JITTER_RATIO;
+        this.rateLimitedDelayMillis = DEFAULT_RATE_LIMITED_DELAY_MILLIS;
+    }
+
+    public HostPoliteness(final int maxConnectionsPerHost, final long startJitterMillis, final double delayJitterRatio,
+                          final long rateLimitedDelayMillis) throws RssAggregatorException {
+        if (maxConnectionsPerHost <= 0) {
+            throw new RssAggregatorException("Invalid number of connections per host. Please give a integer value greater than 0");
+        }
+        if (startJitterMillis < 0) {
+            throw new RssAggregatorException("Invalid start jitter (milliseconds). Please give a value greater than or equal to 0");
+        }
+        if (!(delayJitterRatio >= 0 && delayJitterRatio < 1)) {
+            throw new RssAggregatorException("Invalid delay jitter ratio. Please give a value between 0 and 1");
+        }
+        if (rateLimitedDelayMillis <= 0) {
+            throw new RssAggregatorException("Invalid rate limited delay (milliseconds). Please give a value greater than 0");
+        }
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.startJitterMillis = startJitterMillis;
+        this.delayJitterRatio = delayJitterRatio;
+        this.rateLimitedDelayMillis = rateLimitedDelayMillis;
+    }
+}
@@ -0,0 +1,16 @@
+package com.mystartup.rssaggregator.service.scheduling;
+
+/**
+ * How the feed poller runs the polls.
+ */
+public enum PollExecutionMode {
+    /**
+     * A fixed pool of platform threads, one poll in flight per thread.
+     */
+    PLATFORM_THREADS,
+    /**
+     * A new virtual thread per poll, the number of polls in flight is only bounded by the poller cap.
+     * Needs a Java 21 or later runtime.
+     */
+    VIRTUAL_THREADS
+}
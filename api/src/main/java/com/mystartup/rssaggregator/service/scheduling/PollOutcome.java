@@ -0,0 +1,30 @@
+package com.mystartup.rssaggregator.service.scheduling;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * What a poll of a feed observed, used to decide when the feed is polled next.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PollOutcome {
+
+    public static final PollOutcome FAILED = new PollOutcome(false, false, null);
+
+    private final boolean succeeded;
+    /**
+     * True when the poll found items that were not there in the previous poll.
+     */
+    private final boolean changed;
+    /**
+     * The ttl (minutes) announced by the channel, null when absent.
+     */
+    private final Integer ttlMinutes;
+
+    public static PollOutcome of(final boolean changed, final Integer ttlMinutes) {
+        return new PollOutcome(true, changed, ttlMinutes);
+    }
+}
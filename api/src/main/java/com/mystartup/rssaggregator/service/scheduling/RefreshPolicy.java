@@ -0,0 +1,24 @@
+package com.mystartup.rssaggregator.service.scheduling;
+
+import com.mystartup.rssaggregator.model.RssUrl;
+
+import java.net.URI;
+
+/**
+ * Decides how long the feed poller waits before polling a feed again.
+ */
+public interface RefreshPolicy {
+
+    /**
+     * @param rssUrl  the configuration of the feed just polled.
+     * @param outcome what the poll observed.
+     * @return the delay before the next poll of the feed, in milliseconds.
+     */
+    long nextPollDelayMillis(RssUrl rssUrl, PollOutcome outcome);
+
+    /**
+     * Drops any state kept for a feed which is no longer configured.
+     */
+    default void forget(URI feedUri) {
+    }
+}
@@ -0,0 +1,427 @@
+package com.mystartup.rssaggregator.service.store;
+
+import com.mystartup.rssaggregator.model.CustomTag;
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.Keyphrase;
+import com.mystartup.rssaggregator.model.SearchProjection;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Item store keeping the items outside of the Java heap, in columnar segments: each field of the items is a column
+ * made of an offsets array (one long per item) and of the UTF-8 bytes of the values, each value prefixed with its
+ * length. Lists (categories, comments, custom tags) are stored as one value holding the count and the elements.
+ * The RSS URL of each item is stored as the id of the URL in a small dictionary, the only per feed data on the heap.
+ * The case-folded searchable values of each item ({@link SearchProjection}) are stored as one more column, so a search
+ * matches the UTF-8 bytes of the keyphrase in place ({@link Keyphrase}) and only creates the Item objects of the
+ * matching items.
+ * Item objects are only created when items are read, so the heap does not grow with the number of stored items.
+ * The segments are either direct memory buffers ({@link #offHeap}) or memory-mapped files ({@link #memoryMapped}),
+ * in which case the operating system pages the items in and out and the store can be much larger than the memory.
+ * The mapped files are working storage only, they are deleted on close and are not read back by another store.
+ * A single thread appends at a time, reads are lock-free and can run concurrently with the appends.
+ */
+@Slf4j
+public final class ColumnarItemStore implements ItemStore {
+
+    public static final int DEFAULT_CHUNK_BYTES = 16 << 20;
+
+    private static final int OFFSETS_PER_CHUNK = 1 << 20;
+    private static final long NULL_VALUE = -1L;
+
+    private enum Field {
+        FEED_URI, TITLE, DESCRIPTION, GUID, LINK, AUTHOR, CATEGORIES, PUB_DATE, ENCLOSURE, COMMENTS, CUSTOM_TAGS, SEARCH_TEXT
+    }
+
+    /**
+     * Source of the fixed size buffers the columns are made of.
+     */
+    private interface ChunkAllocator {
+        ByteBuffer allocate(String name, int bytes) throws IOException;
+
+        void release();
+    }
+
+    private final ChunkAllocator allocator;
+    private final int chunkBytes;
+    private final SearchProjection searchProjection;
+    private final Column[] columns = new Column[Field.values().length];
+    private final Object appendLock = new Object();
+    private final List<URI> feedUris = new CopyOnWriteArrayList<>();
+    private final Map<URI, Integer> feedIds = new HashMap<>();
+    private volatile long size;
+    private volatile boolean closed;
+
+    private ColumnarItemStore(final ChunkAllocator allocator, final int chunkBytes, final SearchProjection searchProjection)
+            throws RssAggregatorException {
+        if (chunkBytes <= 8) {
+            throw new RssAggregatorException("Invalid chunk size (bytes). Please give a integer value greater than 8");
+        }
+        this.allocator = allocator;
+        this.chunkBytes = chunkBytes;
+        this.searchProjection = searchProjection;
+        for (Field field : Field.values()) {
+            columns[field.ordinal()] = new Column(field.name().toLowerCase());
+        }
+    }
+
+    /**
+     * @param chunkBytes the size of the buffers holding the values, a single value cannot be larger.
+     * @return a store keeping the items in direct memory buffers, released when the store is garbage collected.
+     */
+    public static ColumnarItemStore offHeap(final int chunkBytes) throws RssAggregatorException {
+        return offHeap(chunkBytes, new SearchProjection());
+    }
+
+    /**
+     * @param chunkBytes       the size of the buffers holding the values, a single value cannot be larger.
+     * @param searchProjection the fields of the items matched by the searches.
+     * @return a store keeping the items in direct memory buffers, released when the store is garbage collected.
+     */
+    public static ColumnarItemStore offHeap(final int chunkBytes, final SearchProjection searchProjection)
+            throws RssAggregatorException {
+        return new ColumnarItemStore(new ChunkAllocator() {
+            @Override
+            public ByteBuffer allocate(final String name, final int bytes) {
+                return ByteBuffer.allocateDirect(bytes);
+            }
+
+            @Override
+            public void release() {
+                // direct buffers are freed once unreachable
+            }
+        }, chunkBytes, searchProjection);
+    }
+
+    /**
+     * @param directory  an existing directory where the files of the segments are created.
+     * @param chunkBytes the size of the mapped files holding the values, a single value cannot be larger.
+     * @return a store keeping the items in memory-mapped files of the given directory.
+     */
+    public static ColumnarItemStore memoryMapped(final Path directory, final int chunkBytes) throws RssAggregatorException {
+        return memoryMapped(directory, chunkBytes, new SearchProjection());
+    }
+
+    /**
+     * @param directory        an existing directory where the files of the segments are created.
+     * @param chunkBytes       the size of the mapped files holding the values, a single value cannot be larger.
+     * @param searchProjection the fields of the items matched by the searches.
+     * @return a store keeping the items in memory-mapped files of the given directory.
+     */
+    public static ColumnarItemStore memoryMapped(final Path directory, final int chunkBytes,
+                                                 final SearchProjection searchProjection) throws RssAggregatorException {
+        if (directory == null || !Files.isDirectory(directory)) {
+            throw new RssAggregatorException("Item store directory does not exist!");
+        }
+        return new ColumnarItemStore(new ChunkAllocator() {
+            private final List<Path> files = new CopyOnWriteArrayList<>();
+
+            @Override
+            public ByteBuffer allocate(final String name, final int bytes) throws IOException {
+                Path file = Files.createTempFile(directory, "items-" + name + "-", ".seg");
+                files.add(file);
+                try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw")) {
+                    // the mapping stays valid once the channel is closed
+                    return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+                }
+            }
+
+            @Override
+            public void release() {
+                for (Path file : files) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        log.warn(String.format("Could not delete item store segment %s", file), e);
+                    }
+                }
+                files.clear();
+            }
+        }, chunkBytes, searchProjection);
+    }
+
+    @Override
+    public long append(final URI feedUri, final Item item) throws RssAggregatorException {
+        byte[][] values = new byte[columns.length][];
+        values[Field.TITLE.ordinal()] = utf8(item.getTitle());
+        values[Field.DESCRIPTION.ordinal()] = utf8(item.getDescription());
+        values[Field.GUID.ordinal()] = utf8(item.getGuid());
+        values[Field.LINK.ordinal()] = utf8(item.getLink());
+        values[Field.AUTHOR.ordinal()] = utf8(item.getAuthor());
+        values[Field.CATEGORIES.ordinal()] = encodeStrings(item.getCategory());
+        values[Field.PUB_DATE.ordinal()] = utf8(item.getPubDate());
+        values[Field.ENCLOSURE.ordinal()] = utf8(item.getEnclosure());
+        values[Field.COMMENTS.ordinal()] = encodeStrings(item.getComments());
+        values[Field.CUSTOM_TAGS.ordinal()] = encodeCustomTags(item.getCustomTags());
+        values[Field.SEARCH_TEXT.ordinal()] = utf8(searchProjection.project(item));
+        for (byte[] value : values) {
+            if (value != null && value.length > chunkBytes - Integer.BYTES) {
+                throw new RssAggregatorException(String.format("Item value larger than the chunk size of %d bytes", chunkBytes));
+            }
+        }
+        synchronized (appendLock) {
+            checkOpen();
+            long id = size;
+            if (feedUri != null) {
+                values[Field.FEED_URI.ordinal()] = ByteBuffer.allocate(Integer.BYTES).putInt(feedId(feedUri)).array();
+            }
+            try {
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i].write(id, values[i]);
+                }
+            } catch (IOException e) {
+                log.error("Could not store item", e);
+                throw new RssAggregatorException("Could not store item!");
+            }
+            // publishes the values written above to the readers
+            size = id + 1;
+            return id;
+        }
+    }
+
+    @Override
+    public Item get(final long id) throws RssAggregatorException {
+        checkReadable(id);
+        Item item = new Item();
+        item.setTitle(readString(Field.TITLE, id));
+        item.setDescription(readString(Field.DESCRIPTION, id));
+        item.setGuid(readString(Field.GUID, id));
+        item.setLink(readString(Field.LINK, id));
+        item.setAuthor(readString(Field.AUTHOR, id));
+        item.setCategory(decodeStrings(columns[Field.CATEGORIES.ordinal()].read(id)));
+        item.setPubDate(readString(Field.PUB_DATE, id));
+        item.setEnclosure(readString(Field.ENCLOSURE, id));
+        item.setComments(decodeStrings(columns[Field.COMMENTS.ordinal()].read(id)));
+        item.setCustomTags(decodeCustomTags(columns[Field.CUSTOM_TAGS.ordinal()].read(id)));
+        return item;
+    }
+
+    @Override
+    public URI getFeedUri(final long id) throws RssAggregatorException {
+        checkReadable(id);
+        byte[] feedId = columns[Field.FEED_URI.ordinal()].read(id);
+        return feedId == null ? null : feedUris.get(ByteBuffer.wrap(feedId).getInt());
+    }
+
+    /**
+     * Scans the searchable values of the stored items from the most recent one, until the limit is reached.
+     * Only the matching items are read.
+     */
+    @Override
+    public List<Item> search(final String keyphrase, final int limit) throws RssAggregatorException {
+        checkOpen();
+        Keyphrase foldedKeyphrase = new Keyphrase(keyphrase);
+        Column searchText = columns[Field.SEARCH_TEXT.ordinal()];
+        List<Item> matches = new ArrayList<>();
+        for (long id = size - 1; id >= 0 && matches.size() < limit; id--) {
+            if (searchText.contains(id, foldedKeyphrase)) {
+                matches.add(get(id));
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void close() {
+        synchronized (appendLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // the buffers are left to the garbage collector, a read racing with the close still sees valid memory
+            allocator.release();
+        }
+    }
+
+    private int feedId(final URI feedUri) {
+        return feedIds.computeIfAbsent(feedUri, uri -> {
+            feedUris.add(uri);
+            return feedUris.size() - 1;
+        });
+    }
+
+    private void checkOpen() throws RssAggregatorException {
+        if (closed) {
+            throw new RssAggregatorException("Item store is closed!");
+        }
+    }
+
+    private void checkReadable(final long id) throws RssAggregatorException {
+        checkOpen();
+        if (id < 0 || id >= size) {
+            throw new RssAggregatorException(String.format("No stored item with id %d", id));
+        }
+    }
+
+    private String readString(final Field field, final long id) {
+        byte[] value = columns[field.ordinal()].read(id);
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(final String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encodeStrings(final List<String> values) {
+        if (values == null) {
+            return null;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(values.size());
+            for (String value : values) {
+                writeString(output, value);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeCustomTags(final List<CustomTag> customTags) {
+        if (customTags == null) {
+            return null;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(customTags.size());
+            for (CustomTag customTag : customTags) {
+                writeString(output, customTag == null ? null : customTag.getKey());
+                writeString(output, customTag == null ? null : customTag.getValue());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(final DataOutputStream output, final String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(utf8.length);
+        output.write(utf8);
+    }
+
+    private static List<String> decodeStrings(final byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        ByteBuffer input = ByteBuffer.wrap(value);
+        int count = input.getInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(input));
+        }
+        return values;
+    }
+
+    private static List<CustomTag> decodeCustomTags(final byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        ByteBuffer input = ByteBuffer.wrap(value);
+        int count = input.getInt();
+        List<CustomTag> customTags = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String key = readString(input);
+            String tagValue = readString(input);
+            customTags.add(key == null && tagValue == null ? null : new CustomTag(key, tagValue));
+        }
+        return customTags;
+    }
+
+    private static String readString(final ByteBuffer input) {
+        int length = input.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(input.array(), input.arrayOffset() + input.position(), length, StandardCharsets.UTF_8);
+        input.position(input.position() + length);
+        return value;
+    }
+
+    /**
+     * One field of the items: the offsets of the values, indexed by item id, and the values.
+     * An offset is the address of the value in the column: chunk index * chunk size + position in the chunk.
+     * The chunk lists are only appended to, the buffers are read with absolute reads or thru duplicates so
+     * the readers never move the position of the writer.
+     */
+    private final class Column {
+        private final String name;
+        private final List<ByteBuffer> offsetChunks = new CopyOnWriteArrayList<>();
+        private final List<ByteBuffer> dataChunks = new CopyOnWriteArrayList<>();
+        private ByteBuffer currentData;
+
+        private Column(final String name) {
+            this.name = name;
+        }
+
+        private void write(final long id, final byte[] value) throws IOException {
+            int offsetChunk = (int) (id / OFFSETS_PER_CHUNK);
+            if (offsetChunk == offsetChunks.size()) {
+                offsetChunks.add(allocator.allocate(name + "-offsets", OFFSETS_PER_CHUNK * Long.BYTES));
+            }
+            long address = NULL_VALUE;
+            if (value != null) {
+                if (currentData == null || currentData.remaining() < Integer.BYTES + value.length) {
+                    currentData = allocator.allocate(name, chunkBytes);
+                    dataChunks.add(currentData);
+                }
+                address = (long) (dataChunks.size() - 1) * chunkBytes + currentData.position();
+                currentData.putInt(value.length);
+                currentData.put(value);
+            }
+            offsetChunks.get(offsetChunk).putLong((int) (id % OFFSETS_PER_CHUNK) * Long.BYTES, address);
+        }
+
+        private byte[] read(final long id) {
+            long address = offsetChunks.get((int) (id / OFFSETS_PER_CHUNK)).getLong((int) (id % OFFSETS_PER_CHUNK) * Long.BYTES);
+            if (address == NULL_VALUE) {
+                return null;
+            }
+            ByteBuffer chunk = dataChunks.get((int) (address / chunkBytes)).duplicate();
+            int position = (int) (address % chunkBytes);
+            byte[] value = new byte[chunk.getInt(position)];
+            chunk.position(position + Integer.BYTES);
+            chunk.get(value);
+            return value;
+        }
+
+        /**
+         * Looks for a sequence of bytes in a value with absolute reads, nothing is copied.
+         */
+        private boolean contains(final long id, final Keyphrase keyphrase) {
+            long address = offsetChunks.get((int) (id / OFFSETS_PER_CHUNK)).getLong((int) (id % OFFSETS_PER_CHUNK) * Long.BYTES);
+            if (address == NULL_VALUE) {
+                return false;
+            }
+            ByteBuffer chunk = dataChunks.get((int) (address / chunkBytes));
+            int start = (int) (address % chunkBytes) + Integer.BYTES;
+            return keyphrase.isFoundIn(chunk, start, chunk.getInt(start - Integer.BYTES));
+        }
+    }
+}
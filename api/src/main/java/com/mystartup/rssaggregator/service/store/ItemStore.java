@@ -0,0 +1,55 @@
+package com.mystartup.rssaggregator.service.store;
+
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Append-only store of the ingested items, meant to keep a long history of items searchable outside of the
+ * in-memory index of the current feeds. Items are identified by their position in the store, starting at 0.
+ */
+public interface ItemStore extends AutoCloseable {
+
+    /**
+     * Appends an item read from the given RSS URL.
+     *
+     * @return the id of the stored item.
+     * @throws RssAggregatorException when the item could not be stored or the store is closed.
+     */
+    long append(URI feedUri, Item item) throws RssAggregatorException;
+
+    /**
+     * @return a new Item object holding the values of the stored item.
+     * @throws RssAggregatorException when there is no item with this id or the store is closed.
+     */
+    Item get(long id) throws RssAggregatorException;
+
+    /**
+     * @return the RSS URL the stored item was read from.
+     * @throws RssAggregatorException when there is no item with this id or the store is closed.
+     */
+    URI getFeedUri(long id) throws RssAggregatorException;
+
+    /**
+     * Searches the stored items for a keyphrase contained in their searchable values, ignoring case.
+     *
+     * @param keyphrase a non-empty word or phrase.
+     * @param limit     the maximum number of items returned.
+     * @return the matching items, most recently stored first.
+     * @throws RssAggregatorException when the store is closed.
+     */
+    List<Item> search(String keyphrase, int limit) throws RssAggregatorException;
+
+    /**
+     * @return the number of stored items.
+     */
+    long size();
+
+    /**
+     * Releases the storage of the items, the store cannot be used anymore.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,121 @@
+package com.mystartup.rssaggregator.service;
+
+import com.mystartup.rssaggregator.model.RssUrl;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentRssUrlServiceImplTest {
+
+    RssUrlService rssUrlService;
+    RssUrl rssUrl;
+
+    @BeforeEach
+    void init() throws RssAggregatorException, URISyntaxException {
+        rssUrl = new RssUrl(new URI("http://www.valid.com/rss/feed"), 5);
+        rssUrlService = new ConcurrentRssUrlServiceImpl(Arrays.asList(rssUrl, null));
+    }
+
+    @Test
+    @DisplayName("Retrieve all configured RSS Urls, nominal case")
+    void getAllNominalCase() {
+        assertEquals(Collections.singletonList(rssUrl), rssUrlService.getAll());
+        assertThrows(UnsupportedOperationException.class, () -> rssUrlService.getAll().clear());
+    }
+
+    @Test
+    @DisplayName("Retrieve a RSS Url configuration by an equivalent url string")
+    void getNormalizedUrl() throws RssAggregatorException {
+        assertSame(rssUrl, rssUrlService.get("http://www.valid.com/rss/feed"));
+        assertSame(rssUrl, rssUrlService.get("HTTP://WWW.Valid.com:80/rss/other/../feed"));
+        Exception thrownException = assertThrows(RssAggregatorException.class, () -> rssUrlService.get("http://nonexistent"));
+        assertEquals("URL could not be found in current configuration.", thrownException.getMessage());
+    }
+
+    @Test
+    @DisplayName("Adding keeps the insertion order, updating keeps the position of the configuration")
+    void addAndUpdate() throws URISyntaxException, RssAggregatorException {
+        RssUrl added = new RssUrl(new URI("http://www.another.com/valid/rss"));
+        rssUrlService.addOrUpdate(added);
+        RssUrl modified = new RssUrl(new URI("http://www.valid.com:80/rss/feed"), 15);
+        rssUrlService.addOrUpdate(modified);
+
+        assertEquals(Arrays.asList(modified, added), rssUrlService.getAll());
+        assertEquals(Integer.valueOf(15), rssUrlService.get(rssUrl.getUri().toString()).getRefreshIntervalMinutes());
+        Exception thrownException = assertThrows(RssAggregatorException.class, () -> rssUrlService.addOrUpdate(null));
+        assertEquals("Add RSS url configuration cannot be called with null!", thrownException.getMessage());
+    }
+
+    @Test
+    @DisplayName("Deleting configurations, nominal and error cases")
+    void delete() throws RssAggregatorException {
+        List<RssUrl> before = rssUrlService.getAll();
+        rssUrlService.delete("http://WWW.VALID.COM/rss/feed");
+
+        assertTrue(rssUrlService.getAll().isEmpty());
+        assertEquals(Collections.singletonList(rssUrl), before);
+        Exception thrownException = assertThrows(RssAggregatorException.class, () -> rssUrlService.delete("http://nonexistent"));
+        assertEquals("Error while deleting http://nonexistent, it is not a known configuration", thrownException.getMessage());
+        thrownException = assertThrows(RssAggregatorException.class, () -> rssUrlService.delete("invalid url"));
+        Assertions.assertEquals("Invalid URL! The provided url invalid url is invalid", thrownException.getMessage());
+    }
+
+    @Test
+    @DisplayName("Concurrent admin writes are all applied while readers take snapshots")
+    void concurrentWrites() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int writer = 0; writer < 3; writer++) {
+                int offset = writer * 1000;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = offset; i < offset + 1000; i++) {
+                        rssUrlService.addOrUpdate(new RssUrl(URI.create("http://www.host.com/feeds/" + i)));
+                    }
+                    return null;
+                }));
+            }
+            Future<?> reader = executor.submit(() -> {
+                start.await();
+                int previousSize = 0;
+                for (int i = 0; i < 1000; i++) {
+                    List<RssUrl> snapshot = rssUrlService.getAll();
+                    assertTrue(snapshot.size() >= previousSize);
+                    previousSize = snapshot.size();
+                }
+                return null;
+            });
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(10, TimeUnit.SECONDS);
+            }
+            reader.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(3001, rssUrlService.getAll().size());
+        assertEquals(URI.create("http://www.host.com/feeds/2999"), rssUrlService.get("http://www.host.com/feeds/2999").getUri());
+    }
+}
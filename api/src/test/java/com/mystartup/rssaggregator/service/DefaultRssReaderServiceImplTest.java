@@ -2,10 +2,17 @@ package com.mystartup.rssaggregator.service;
 
 import com.mystartup.rssaggregator.model.Channel;
 import com.mystartup.rssaggregator.model.CustomTag;
+import com.mystartup.rssaggregator.model.FeedMetricsSnapshot;
+import com.mystartup.rssaggregator.model.FeedReadResult;
 import com.mystartup.rssaggregator.model.Item;
 import com.mystartup.rssaggregator.model.RssFeed;
 import com.mystartup.rssaggregator.model.RssUrl;
+import com.mystartup.rssaggregator.model.ScoredItem;
+import com.mystartup.rssaggregator.model.SearchOrder;
+import com.mystartup.rssaggregator.model.SearchPage;
 import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import com.mystartup.rssaggregator.service.persistence.LocalStateStore;
+import com.sun.net.httpserver.HttpServer;
 import lombok.SneakyThrows;
 import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Assertions;
@@ -24,15 +31,26 @@ import javax.activation.DataSource;
 import javax.activation.URLDataSource;
 import javax.xml.transform.stream.StreamSource;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -80,6 +98,7 @@ class DefaultRssReaderServiceImplTest {
         when(rssUrlService.get("badUri")).thenReturn(new RssUrl(new URI("badUri")));
         Exception thrownException = Assertions.assertThrows(RssAggregatorException.class, () -> rssReaderService.readFeed(new URI("badUri")));
         assertEquals("Provided invalid URL!", thrownException.getMessage());
+        assertEquals(Long.valueOf(1), rssReaderService.getMetrics().getErrorsByType().get("IllegalArgumentException"));
     }
 
     @Test
@@ -96,7 +115,6 @@ class DefaultRssReaderServiceImplTest {
     void readFeedsNominalCase() throws URISyntaxException, RssAggregatorException, IOException {
         List<RssUrl> rssUrlList = Collections.singletonList(new RssUrl(new URI("http://www.valid.com/rss/feed"), 2));
         when(rssUrlService.getAll()).thenReturn(rssUrlList);
-        when(rssUrlService.get("http://www.valid.com/rss/feed")).thenReturn(rssUrlList.get(0));
         StreamSource streamSource = buildStreamSource("http://www.valid.com/rss/feed");
         when(unmarshaller.unmarshal(ArgumentMatchers.argThat(new SourceMatcher(streamSource)))).thenReturn(rssFeed);
 
@@ -118,7 +136,6 @@ class DefaultRssReaderServiceImplTest {
     void readFeedsThrowExceptionWhenEmptyRssAddress() throws URISyntaxException, RssAggregatorException {
         List<RssUrl> rssUrlList = Collections.singletonList(new RssUrl(new URI(""), 2));
         when(rssUrlService.getAll()).thenReturn(rssUrlList);
-        when(rssUrlService.get("")).thenReturn(rssUrlList.get(0));
         Exception thrownException = Assertions.assertThrows(RssAggregatorException.class, () -> rssReaderService.readFeeds());
         assertEquals("Provided invalid URL!", thrownException.getMessage());
     }
@@ -128,7 +145,6 @@ class DefaultRssReaderServiceImplTest {
     void readFeedsThrowExceptionWhenBadRssAddress() throws URISyntaxException, RssAggregatorException {
         List<RssUrl> rssUrlList = Collections.singletonList(new RssUrl(new URI("badURL"), 2));
         when(rssUrlService.getAll()).thenReturn(rssUrlList);
-        when(rssUrlService.get("badURL")).thenReturn(rssUrlList.get(0));
         Exception thrownException = Assertions.assertThrows(RssAggregatorException.class, () -> rssReaderService.readFeeds());
         assertEquals("Provided invalid URL!", thrownException.getMessage());
     }
@@ -138,7 +154,6 @@ class DefaultRssReaderServiceImplTest {
     void searchFeedsNominalCase() throws IOException, RssAggregatorException, URISyntaxException {
         List<RssUrl> rssUrlList = Collections.singletonList(new RssUrl(new URI("http://www.valid.com/rss/feed"), 2));
         when(rssUrlService.getAll()).thenReturn(rssUrlList);
-        when(rssUrlService.get("http://www.valid.com/rss/feed")).thenReturn(rssUrlList.get(0));
         StreamSource streamSource = buildStreamSource("http://www.valid.com/rss/feed");
         when(unmarshaller.unmarshal(ArgumentMatchers.argThat(new SourceMatcher(streamSource)))).thenReturn(rssFeed);
         List<Item> retrievedItems = rssReaderService.searchFeeds("customValue");
@@ -150,7 +165,6 @@ class DefaultRssReaderServiceImplTest {
     void searchFeedsNotPresentValue() throws IOException, RssAggregatorException, URISyntaxException {
         List<RssUrl> rssUrlList = Collections.singletonList(new RssUrl(new URI("http://www.valid.com/rss/feed"), 2));
         when(rssUrlService.getAll()).thenReturn(rssUrlList);
-        when(rssUrlService.get("http://www.valid.com/rss/feed")).thenReturn(rssUrlList.get(0));
         StreamSource streamSource = buildStreamSource("http://www.valid.com/rss/feed");
         when(unmarshaller.unmarshal(ArgumentMatchers.argThat(new SourceMatcher(streamSource)))).thenReturn(rssFeed);
         List<Item> retrievedItems = rssReaderService.searchFeeds("not existing value");
@@ -166,6 +180,150 @@ class DefaultRssReaderServiceImplTest {
         assertEquals("Search string cannot be null or empty!", emptyCaseException.getMessage());
     }
 
+    @Test
+    @DisplayName("Attempting a paginated search without order or with an invalid page size")
+    void searchFeedsPageInvalidValues() {
+        Exception orderException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> rssReaderService.searchFeeds("customValue", null, 20, null));
+        assertEquals("Search order cannot be null!", orderException.getMessage());
+        Exception limitException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> rssReaderService.searchFeeds("customValue", SearchOrder.NEWEST_FIRST, 0, null));
+        assertEquals("Invalid page size. Please give a integer value greater than 0", limitException.getMessage());
+    }
+
+    @Test
+    @DisplayName("Attempting a ranked search with an empty query or an invalid number of items")
+    void searchRankedInvalidValues() {
+        Exception queryException = Assertions.assertThrows(RssAggregatorException.class, () -> rssReaderService.searchRanked("", 20));
+        assertEquals("Search string cannot be null or empty!", queryException.getMessage());
+        Exception limitException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> rssReaderService.searchRanked("customValue", 0));
+        assertEquals("Invalid number of items. Please give a integer value greater than 0", limitException.getMessage());
+    }
+
+    @Test
+    @DisplayName("Attempting to retrieve items with an invalid time range or number of items")
+    void itemsByDateInvalidValues() {
+        Instant now = Instant.now();
+        Exception rangeException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> rssReaderService.getItemsPublishedBetween(now, now, 20));
+        assertEquals("Invalid time range. Please give a start before the end", rangeException.getMessage());
+        Exception limitException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> rssReaderService.getNewestItems(0));
+        assertEquals("Invalid number of items. Please give a integer value greater than 0", limitException.getMessage());
+    }
+
+    @Test
+    @DisplayName("Reading an unchanged feed twice, the second read is revalidated and served from the cache")
+    void readFeedNotModifiedServedFromCache() throws IOException, RssAggregatorException {
+        AtomicInteger fullResponses = new AtomicInteger();
+        HttpServer server = startFeedServer("\"v1\"", fullResponses);
+        try {
+            URI feedUri = URI.create("http://localhost:" + server.getAddress().getPort() + "/rss");
+            when(rssUrlService.get(feedUri.toString())).thenReturn(new RssUrl(feedUri));
+            when(unmarshaller.unmarshal(any())).thenReturn(rssFeed);
+
+            RssFeed firstRead = rssReaderService.readFeed(feedUri);
+            RssFeed secondRead = rssReaderService.readFeed(feedUri);
+
+            assertEquals(rssFeed, firstRead);
+            assertEquals(firstRead, secondRead);
+            assertEquals(1, fullResponses.get());
+            verify(unmarshaller, times(1)).unmarshal(any());
+            FeedMetricsSnapshot feedMetrics = rssReaderService.getMetrics().getFeeds().get(feedUri);
+            assertEquals(2, feedMetrics.getFetchLatency().getCount());
+            assertEquals(1, feedMetrics.getParseTime().getCount());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Searching after a read, the search is answered from the index without reading the feeds again")
+    void searchFeedsAnsweredFromIndex() throws IOException, RssAggregatorException {
+        HttpServer server = startFeedServer("\"v1\"", new AtomicInteger());
+        try {
+            URI feedUri = URI.create("http://localhost:" + server.getAddress().getPort() + "/rss");
+            when(rssUrlService.get(feedUri.toString())).thenReturn(new RssUrl(feedUri));
+            when(unmarshaller.unmarshal(any())).thenReturn(rssFeed);
+            rssReaderService.readFeed(feedUri);
+
+            List<Item> retrievedItems = rssReaderService.searchFeeds("customValue");
+            SearchPage page = rssReaderService.searchFeeds("customValue", SearchOrder.NEWEST_FIRST, 20, null);
+            List<ScoredItem> rankedItems = rssReaderService.searchRanked("customValue", 20);
+
+            assertEquals(rssFeed.getChannel().getItems(), retrievedItems);
+            assertEquals(retrievedItems, page.getItems());
+            Assertions.assertFalse(page.hasNextPage());
+            assertEquals(retrievedItems.size(), rankedItems.size());
+            assertEquals(3, rssReaderService.getMetrics().getSearchLatency().getCount());
+            verify(rssUrlService, never()).getAll();
+            verify(unmarshaller, times(1)).unmarshal(any());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("After a restart the saved feeds are searchable at once, then refreshed with conditional requests")
+    void warmStartFromSavedState() throws IOException, RssAggregatorException {
+        AtomicInteger fullResponses = new AtomicInteger();
+        HttpServer server = startFeedServer("\"v1\"", fullResponses);
+        Path directory = Files.createTempDirectory("state-store");
+        try {
+            URI feedUri = URI.create("http://localhost:" + server.getAddress().getPort() + "/rss");
+            when(rssUrlService.get(feedUri.toString())).thenReturn(new RssUrl(feedUri));
+            when(unmarshaller.unmarshal(any())).thenReturn(rssFeed);
+            LocalStateStore stateStore = new LocalStateStore(directory);
+            stateStore.saveRssUrl(new RssUrl(feedUri));
+            persistentReaderService(stateStore).readFeed(feedUri);
+            stateStore.close();
+
+            LocalStateStore restoredStore = new LocalStateStore(directory);
+            DefaultRssReaderServiceImpl restartedService = persistentReaderService(restoredStore);
+            CompletableFuture<FeedReadResult> refresh = restartedService.warmStart();
+            assertEquals(1, restartedService.searchFeeds("customValue").size());
+
+            FeedReadResult refreshed = refresh.join();
+            Assertions.assertFalse(refreshed.hasFailures());
+            assertEquals(1, fullResponses.get());
+            verify(unmarshaller, times(1)).unmarshal(any());
+            restoredStore.close();
+        } finally {
+            server.stop(0);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private DefaultRssReaderServiceImpl persistentReaderService(LocalStateStore stateStore) {
+        return DefaultRssReaderServiceImpl.builder(rssUrlService, unmarshaller).stateStore(stateStore).build();
+    }
+
+    private HttpServer startFeedServer(String eTag, AtomicInteger fullResponses) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/rss", exchange -> {
+            if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                byte[] body = "<rss><channel><title>channel title</title></channel></rss>".getBytes("UTF-8");
+                exchange.getResponseHeaders().add("ETag", eTag);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream responseBody = exchange.getResponseBody()) {
+                    responseBody.write(body);
+                }
+                fullResponses.incrementAndGet();
+            }
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+
     public static class SourceMatcher implements ArgumentMatcher<StreamSource> {
 
         private final StreamSource actualSource;
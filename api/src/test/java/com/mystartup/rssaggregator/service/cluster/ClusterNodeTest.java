@@ -0,0 +1,158 @@
+package com.mystartup.rssaggregator.service.cluster;
+
+import com.mystartup.rssaggregator.model.RssUrl;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterNodeTest {
+
+    Path directory;
+    List<RssUrl> rssUrls;
+
+    @BeforeEach
+    void init() throws IOException, RssAggregatorException {
+        directory = Files.createTempDirectory("cluster");
+        rssUrls = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            rssUrls.add(new RssUrl(URI.create("http://www.host" + (i % 50) + ".com/rss/feed" + i), 60));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    @DisplayName("Every key has one owner, the members get an even share and a new member only takes keys")
+    void consistentHashing() throws RssAggregatorException {
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("node-a", "node-b", "node-c"),
+                ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+        ConsistentHashRing grownRing = new ConsistentHashRing(Arrays.asList("node-c", "node-a", "node-b", "node-d"),
+                ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+        Map<String, Integer> keysPerMember = new HashMap<>();
+        int keys = 100_000;
+        for (int key = 0; key < keys; key++) {
+            String owner = ring.ownerOf("http://www.valid.com/rss/" + key);
+            String newOwner = grownRing.ownerOf("http://www.valid.com/rss/" + key);
+            assertTrue(newOwner.equals(owner) || newOwner.equals("node-d"), "Key moved between old members: " + key);
+            keysPerMember.merge(newOwner, 1, Integer::sum);
+        }
+        assertEquals(new TreeSet<>(Arrays.asList("node-a", "node-b", "node-c", "node-d")), grownRing.getMembers());
+        for (int memberKeys : keysPerMember.values()) {
+            assertTrue(Math.abs(memberKeys - keys / 4) < keys / 4 * 0.2, "Uneven share: " + keysPerMember);
+        }
+        assertEquals(null, new ConsistentHashRing(Collections.emptySet(), 10).ownerOf("key"));
+    }
+
+    @Test
+    @DisplayName("The nodes of a cluster split the feeds and take over the feeds of a node leaving")
+    void splitFeeds() throws RssAggregatorException {
+        FileClusterCoordinator coordinator = new FileClusterCoordinator(directory);
+        AtomicInteger rebalances = new AtomicInteger();
+        ClusterNode first = new ClusterNode("node-1", coordinator, ConsistentHashRing.DEFAULT_VIRTUAL_NODES, 20);
+        ClusterNode second = new ClusterNode("node-2", coordinator, ConsistentHashRing.DEFAULT_VIRTUAL_NODES, 20);
+        try {
+            first.start(rebalances::incrementAndGet);
+            assertEquals(rssUrls, first.ownedFeeds(rssUrls));
+            second.start(() -> { });
+            await(() -> first.getMembers().size() == 2 && rebalances.get() == 1);
+            assertEquals(new TreeSet<>(Arrays.asList("node-1", "node-2")), second.getMembers());
+
+            List<RssUrl> firstFeeds = first.ownedFeeds(rssUrls);
+            List<RssUrl> secondFeeds = second.ownedFeeds(rssUrls);
+            Set<RssUrl> allFeeds = new HashSet<>(firstFeeds);
+            allFeeds.addAll(secondFeeds);
+            assertEquals(rssUrls.size(), firstFeeds.size() + secondFeeds.size());
+            assertEquals(new HashSet<>(rssUrls), allFeeds);
+            assertTrue(firstFeeds.size() > 400 && secondFeeds.size() > 400, firstFeeds.size() + "/" + secondFeeds.size());
+            assertEquals(first.owns(rssUrls.get(0).getUri()), first.owns(URI.create("HTTP://WWW.HOST0.COM:80/rss/../rss/feed0")));
+
+            second.stop();
+            await(() -> first.getMembers().size() == 1 && rebalances.get() == 2);
+            assertEquals(rssUrls, first.ownedFeeds(rssUrls));
+        } finally {
+            first.stop();
+            second.stop();
+        }
+        assertFalse(first.isRunning());
+    }
+
+    @Test
+    @DisplayName("A member which stopped heartbeating expires")
+    void expiredMember() throws RssAggregatorException, IOException {
+        FileClusterCoordinator coordinator = new FileClusterCoordinator(directory, 1_000);
+        coordinator.join("node-1");
+        coordinator.join("node-2");
+        Files.setLastModifiedTime(directory.resolve("node-2" + FileClusterCoordinator.MEMBER_FILE_SUFFIX),
+                FileTime.fromMillis(System.currentTimeMillis() - 5_000));
+        assertEquals(Collections.singleton("node-1"), coordinator.members());
+
+        coordinator.join("node-2");
+        assertEquals(new TreeSet<>(Arrays.asList("node-1", "node-2")), coordinator.members());
+        coordinator.leave("node-1");
+        assertEquals(Collections.singleton("node-2"), coordinator.members());
+    }
+
+    @Test
+    @DisplayName("Attempt to create cluster nodes with invalid values")
+    void invalidValues() {
+        Exception nodeIdException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> new FileClusterCoordinator(directory).join("../node"));
+        assertEquals("Invalid node id. Please give letters, digits, '.', '_' or '-' only", nodeIdException.getMessage());
+        Exception directoryException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> new FileClusterCoordinator(directory.resolve("missing")));
+        assertEquals("Cluster directory does not exist!", directoryException.getMessage());
+        Exception virtualNodesException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> new ClusterNode("node-1", new FileClusterCoordinator(directory), 0, 1_000));
+        assertEquals("Invalid number of virtual nodes. Please give a integer value greater than 0",
+                virtualNodesException.getMessage());
+        Exception heartbeatException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> new ClusterNode("node-1", new FileClusterCoordinator(directory), 10, 0));
+        assertEquals("Invalid heartbeat interval (milliseconds). Please give a value greater than 0",
+                heartbeatException.getMessage());
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition not met in time");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
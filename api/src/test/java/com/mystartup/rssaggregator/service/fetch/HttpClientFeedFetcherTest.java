@@ -0,0 +1,192 @@
+package com.mystartup.rssaggregator.service.fetch;
+
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpClientFeedFetcherTest {
+
+    static final String FEED = "<rss><channel><title>channel title</title></channel></rss>";
+
+    HttpServer server;
+    HttpClientFeedFetcher feedFetcher;
+    AtomicReference<String> receivedIfNoneMatch = new AtomicReference<>();
+
+    @BeforeEach
+    void init() throws IOException, RssAggregatorException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/gzip", exchange -> {
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            respond(exchange, 200, compress(true));
+        });
+        server.createContext("/deflate", exchange -> {
+            exchange.getResponseHeaders().add("Content-Encoding", "deflate");
+            respond(exchange, 200, compress(false));
+        });
+        server.createContext("/conditional", exchange -> {
+            receivedIfNoneMatch.set(exchange.getRequestHeaders().getFirst("If-None-Match"));
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+        });
+        server.createContext("/missing", exchange -> respond(exchange, 404, new byte[0]));
+        server.createContext("/limited", exchange -> {
+            exchange.getResponseHeaders().add("Retry-After", "120");
+            respond(exchange, 429, new byte[0]);
+        });
+        server.createContext("/unavailable", exchange -> respond(exchange, 503, new byte[0]));
+        server.createContext("/slow", exchange -> {
+            sleep(3_000);
+            respond(exchange, 200, FEED.getBytes(StandardCharsets.UTF_8));
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        feedFetcher = new HttpClientFeedFetcher(2_000, 1_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Compressed responses are requested and decoded, gzip and deflate")
+    void compressedResponses() throws IOException {
+        FetchResponse gzipResponse = feedFetcher.fetch(uri("/gzip"), null, null).join();
+        FetchResponse deflateResponse = feedFetcher.fetch(uri("/deflate"), null, null).join();
+
+        assertFalse(gzipResponse.isNotModified());
+        assertEquals("\"v1\"", gzipResponse.getETag());
+        assertEquals(FEED, read(gzipResponse.openBody()));
+        assertEquals(FEED, read(deflateResponse.openBody()));
+        assertTrue(gzipResponse.getBody().length != FEED.length());
+    }
+
+    @Test
+    @DisplayName("Validators are sent back and a 304 answer is a not modified response")
+    void conditionalRequest() {
+        FetchResponse response = feedFetcher.fetch(uri("/conditional"), "\"v1\"", "Mon, 01 Mar 2021 10:00:00 GMT").join();
+
+        assertTrue(response.isNotModified());
+        assertEquals("\"v1\"", receivedIfNoneMatch.get());
+    }
+
+    @Test
+    @DisplayName("Error status and timeouts fail the fetch with an IOException")
+    void failedFetches() {
+        CompletionException missing = Assertions.assertThrows(CompletionException.class, () -> feedFetcher.fetch(uri("/missing"), null, null).join());
+        assertTrue(missing.getCause() instanceof IOException, String.valueOf(missing.getCause()));
+        assertTrue(missing.getCause().getMessage().startsWith("Server returned HTTP response code: 404"));
+
+        CompletionException slow = Assertions.assertThrows(CompletionException.class, () -> feedFetcher.fetch(uri("/slow"), null, null).join());
+        assertTrue(slow.getCause() instanceof HttpTimeoutException, String.valueOf(slow.getCause()));
+
+        CompletionException relative = Assertions.assertThrows(CompletionException.class, () -> feedFetcher.fetch(URI.create("badUri"), null, null).join());
+        assertTrue(relative.getCause() instanceof IllegalArgumentException, String.valueOf(relative.getCause()));
+    }
+
+    @Test
+    @DisplayName("Rate limited responses fail with the Retry-After delay, seconds or HTTP date")
+    void rateLimitedFetches() {
+        CompletionException limited = Assertions.assertThrows(CompletionException.class, () -> feedFetcher.fetch(uri("/limited"), null, null).join());
+        assertTrue(limited.getCause() instanceof RetryAfterException, String.valueOf(limited.getCause()));
+        RetryAfterException retryAfter = (RetryAfterException) limited.getCause();
+        assertEquals(429, retryAfter.getStatusCode());
+        assertEquals(120_000, retryAfter.getRetryAfterMillis());
+        assertTrue(retryAfter.getMessage().startsWith("Server returned HTTP response code: 429"));
+
+        CompletionException unavailable = Assertions.assertThrows(CompletionException.class, () -> feedFetcher.fetch(uri("/unavailable"), null, null).join());
+        assertFalse(unavailable.getCause() instanceof RetryAfterException, String.valueOf(unavailable.getCause()));
+
+        assertEquals(-1, HttpClientFeedFetcher.retryAfterMillis(null));
+        assertEquals(-1, HttpClientFeedFetcher.retryAfterMillis("soon"));
+        assertEquals(0, HttpClientFeedFetcher.retryAfterMillis("Mon, 01 Mar 2021 10:00:00 GMT"));
+        long inAMinute = HttpClientFeedFetcher.retryAfterMillis(DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(1)));
+        assertTrue(inAMinute > 55_000 && inAMinute <= 60_000, "Retry after: " + inAMinute);
+    }
+
+    @Test
+    @DisplayName("Feeds that are not served over http are read from their URL")
+    void fileFeed() throws IOException {
+        Path feedFile = Files.createTempFile("feed", ".xml");
+        try {
+            Files.write(feedFile, FEED.getBytes(StandardCharsets.UTF_8));
+            assertEquals(FEED, read(feedFetcher.fetch(feedFile.toUri(), null, null).join().openBody()));
+        } finally {
+            Files.delete(feedFile);
+        }
+    }
+
+    @Test
+    @DisplayName("Attempt to initialize with invalid values")
+    void initInvalidValues() {
+        Exception connectException = Assertions.assertThrows(RssAggregatorException.class, () -> new HttpClientFeedFetcher(0, 500));
+        assertEquals("Invalid connect timeout (milliseconds). Please give a value greater than 0", connectException.getMessage());
+        Exception readException = Assertions.assertThrows(RssAggregatorException.class, () -> new HttpClientFeedFetcher(500, -1));
+        assertEquals("Invalid read timeout (milliseconds). Please give a value greater than 0", readException.getMessage());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + path);
+    }
+
+    private static byte[] compress(boolean gzip) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (DeflaterOutputStream output = gzip ? new GZIPOutputStream(compressed) : new DeflaterOutputStream(compressed)) {
+            output.write(FEED.getBytes(StandardCharsets.UTF_8));
+        }
+        return compressed.toByteArray();
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        }
+        exchange.close();
+    }
+
+    private static String read(InputStream inputStream) throws IOException {
+        try (InputStream body = inputStream) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
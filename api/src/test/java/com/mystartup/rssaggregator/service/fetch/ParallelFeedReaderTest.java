@@ -0,0 +1,190 @@
+package com.mystartup.rssaggregator.service.fetch;
+
+import com.mystartup.rssaggregator.model.FeedReadResult;
+import com.mystartup.rssaggregator.model.RssFeed;
+import com.mystartup.rssaggregator.model.RssUrl;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelFeedReaderTest {
+
+    ParallelFeedReader parallelFeedReader;
+    List<RssUrl> rssUrls;
+    Map<RssUrl, RssFeed> feedsByUrl;
+
+    @BeforeEach
+    void init() throws RssAggregatorException {
+        parallelFeedReader = new ParallelFeedReader(4, 500);
+        rssUrls = Arrays.asList(new RssUrl(URI.create("http://www.valid.com/rss/1")),
+                new RssUrl(URI.create("http://www.valid.com/rss/2")),
+                new RssUrl(URI.create("http://www.valid.com/rss/3")),
+                new RssUrl(URI.create("http://www.valid.com/rss/4")));
+        feedsByUrl = new HashMap<>();
+        rssUrls.forEach(rssUrl -> feedsByUrl.put(rssUrl, new RssFeed()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelFeedReader.shutdown();
+    }
+
+    @Test
+    @DisplayName("Reading several feeds, result keeps the configuration order")
+    void readAllNominalCase() {
+        FeedReadResult result = parallelFeedReader.readAll(rssUrls, feedsByUrl::get);
+        Assertions.assertFalse(result.hasFailures());
+        assertEquals(4, result.getFeeds().size());
+        for (int i = 0; i < rssUrls.size(); i++) {
+            assertEquals(feedsByUrl.get(rssUrls.get(i)), result.getFeeds().get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("A failing feed is reported without discarding the other feeds")
+    void readAllPartialFailure() {
+        RssUrl broken = rssUrls.get(1);
+        FeedReadResult result = parallelFeedReader.readAll(rssUrls, rssUrl -> {
+            if (rssUrl.equals(broken)) {
+                throw new RssAggregatorException("Provided invalid URL!");
+            }
+            return feedsByUrl.get(rssUrl);
+        });
+        assertEquals(3, result.getFeeds().size());
+        assertEquals(1, result.getFailures().size());
+        assertEquals("Provided invalid URL!", result.getFailures().get(broken).getMessage());
+    }
+
+    @Test
+    @DisplayName("Unexpected runtime errors are converted to RssAggregatorException")
+    void readAllRuntimeFailure() {
+        FeedReadResult result = parallelFeedReader.readAll(rssUrls.subList(0, 1), rssUrl -> {
+            throw new IllegalStateException("boom");
+        });
+        assertTrue(result.getFeeds().isEmpty());
+        assertEquals("Unexpected error while reading feed from url http://www.valid.com/rss/1",
+                result.getFailures().get(rssUrls.get(0)).getMessage());
+    }
+
+    @Test
+    @DisplayName("A feed slower than the timeout is reported as failed and does not delay the result")
+    void readAllSlowFeedTimesOut() {
+        RssUrl slow = rssUrls.get(2);
+        long start = System.currentTimeMillis();
+        FeedReadResult result = parallelFeedReader.readAll(rssUrls, rssUrl -> {
+            if (rssUrl.equals(slow)) {
+                sleep(5_000);
+            }
+            return feedsByUrl.get(rssUrl);
+        });
+        long elapsed = System.currentTimeMillis() - start;
+        assertEquals(3, result.getFeeds().size());
+        assertEquals("Timed out after 500 ms while reading feed from url http://www.valid.com/rss/3",
+                result.getFailures().get(slow).getMessage());
+        assertTrue(elapsed < 2_000, "Read took " + elapsed + " ms");
+    }
+
+    @Test
+    @DisplayName("Feeds are read in parallel, wall clock time tracks the slowest feed")
+    void readAllInParallel() {
+        long start = System.currentTimeMillis();
+        FeedReadResult result = parallelFeedReader.readAll(rssUrls, rssUrl -> {
+            sleep(300);
+            return feedsByUrl.get(rssUrl);
+        });
+        long elapsed = System.currentTimeMillis() - start;
+        assertEquals(4, result.getFeeds().size());
+        assertTrue(elapsed < 1_000, "Read took " + elapsed + " ms");
+    }
+
+    @Test
+    @DisplayName("Asynchronous reads are started as others complete, never more than the parallelism in flight")
+    void readAllAsyncBoundsReadsInFlight() {
+        List<RssUrl> manyUrls = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            manyUrls.add(new RssUrl(URI.create("http://www.valid.com/rss/" + i)));
+        }
+        ScheduledExecutorService network = Executors.newSingleThreadScheduledExecutor();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        try {
+            FeedReadResult result = parallelFeedReader.readAllAsync(manyUrls, (rssUrl, parseExecutor) -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                CompletableFuture<RssFeed> read = new CompletableFuture<>();
+                network.schedule(() -> {
+                    inFlight.decrementAndGet();
+                    read.complete(new RssFeed());
+                }, 20, TimeUnit.MILLISECONDS);
+                return read.thenApplyAsync(feed -> feed, parseExecutor);
+            });
+            assertEquals(20, result.getFeeds().size());
+            Assertions.assertFalse(result.hasFailures());
+            assertTrue(maxInFlight.get() <= 4, "Reads in flight: " + maxInFlight.get());
+        } finally {
+            network.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("A timed out read keeps its slot until it completes, the next read is not started on the timeout")
+    void readAllAsyncTimedOutReadKeepsItsSlot() throws RssAggregatorException {
+        ParallelFeedReader singleSlotReader = new ParallelFeedReader(1, 100);
+        ScheduledExecutorService network = Executors.newSingleThreadScheduledExecutor();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        RssUrl slow = rssUrls.get(0);
+        try {
+            FeedReadResult result = singleSlotReader.readAllAsync(rssUrls.subList(0, 2), (rssUrl, parseExecutor) -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                CompletableFuture<RssFeed> read = new CompletableFuture<>();
+                network.schedule(() -> {
+                    inFlight.decrementAndGet();
+                    read.complete(new RssFeed());
+                }, rssUrl.equals(slow) ? 400 : 20, TimeUnit.MILLISECONDS);
+                return read;
+            });
+            assertEquals(1, result.getFeeds().size());
+            assertEquals("Timed out after 100 ms while reading feed from url http://www.valid.com/rss/1",
+                    result.getFailures().get(slow).getMessage());
+            assertEquals(1, maxInFlight.get());
+        } finally {
+            network.shutdownNow();
+            singleSlotReader.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Attempt to initialize with invalid values")
+    void initInvalidValues() {
+        Exception parallelismException = Assertions.assertThrows(RssAggregatorException.class, () -> new ParallelFeedReader(0, 500));
+        assertEquals("Invalid parallelism. Please give a integer value greater than 0", parallelismException.getMessage());
+        Exception timeoutException = Assertions.assertThrows(RssAggregatorException.class, () -> new ParallelFeedReader(1, 0));
+        assertEquals("Invalid feed timeout (milliseconds). Please give a value greater than 0", timeoutException.getMessage());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.mystartup.rssaggregator.service.index;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AnalyzerTest {
+
+    @Test
+    @DisplayName("Words are folded to lower case without accents, stop words keep their position")
+    void analyzeFoldsAndDropsStopWords() {
+        Analyzer analyzer = new Analyzer(Analyzer.ENGLISH_STOP_WORDS, false);
+        List<String> terms = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        int words = analyzer.analyze("The \u00c9COLE of Rock'n'roll, 2024!", (term, position) -> {
+            terms.add(term);
+            positions.add(position);
+        });
+        assertEquals(Arrays.asList("ecole", "rock", "n", "roll", "2024"), terms);
+        assertEquals(Arrays.asList(1, 3, 4, 5, 6), positions);
+        assertEquals(7, words);
+        assertEquals(Arrays.asList("the", "cafe"), new Analyzer(Collections.emptySet(), false).terms("THE cafe\u0301"));
+    }
+
+    @Test
+    @DisplayName("Stemming strips plurals, -ed, -ing and the final e")
+    void stem() {
+        Analyzer analyzer = new Analyzer();
+        assertEquals(Arrays.asList("launch", "launch", "launch", "launch"),
+                analyzer.terms("launches launched launching launch"));
+        assertEquals(Arrays.asList("run", "run", "fall", "fall"), analyzer.terms("running runs falling falls"));
+        assertEquals(Arrays.asList("study", "study", "hop", "hop", "speed", "bus"),
+                analyzer.terms("studies study hoping hope speed bus"));
+        assertEquals(Arrays.asList("king", "string"), analyzer.terms("king string"));
+    }
+}
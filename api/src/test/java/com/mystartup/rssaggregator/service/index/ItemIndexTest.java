@@ -0,0 +1,398 @@
+package com.mystartup.rssaggregator.service.index;
+
+import com.mystartup.rssaggregator.model.Channel;
+import com.mystartup.rssaggregator.model.CustomTag;
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.Keyphrase;
+import com.mystartup.rssaggregator.model.RssFeed;
+import com.mystartup.rssaggregator.model.ScoredItem;
+import com.mystartup.rssaggregator.model.SearchField;
+import com.mystartup.rssaggregator.model.SearchOrder;
+import com.mystartup.rssaggregator.model.SearchPage;
+import com.mystartup.rssaggregator.model.SearchProjection;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemIndexTest {
+
+    static final URI FEED_URI = URI.create("http://www.valid.com/rss/feed");
+    static final URI OTHER_FEED_URI = URI.create("http://www.another.com/valid/rss");
+
+    ItemIndex itemIndex;
+    Item scienceItem;
+    Item politicsItem;
+
+    @BeforeEach
+    void init() {
+        itemIndex = new ItemIndex();
+        scienceItem = item("New Telescope Images", "Astronomers said the images were sharp");
+        scienceItem.setCustomTags(Collections.singletonList(new CustomTag("creator", "Jane Doe")));
+        politicsItem = item("Election results", "A new government was formed");
+        itemIndex.index(FEED_URI, feed(scienceItem, politicsItem));
+    }
+
+    @Test
+    @DisplayName("Searching a word, case is ignored")
+    void searchWord() {
+        assertEquals(Collections.singletonList(scienceItem), itemIndex.search("TELESCOPE"));
+        assertEquals(Arrays.asList(scienceItem, politicsItem), itemIndex.search("new"));
+    }
+
+    @Test
+    @DisplayName("Searching a phrase requires the whole phrase in the item")
+    void searchPhrase() {
+        assertEquals(Collections.singletonList(politicsItem), itemIndex.search("new government"));
+        assertTrue(itemIndex.search("government new").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Searching matches any part of the words, like a scan of the items, and custom tag values")
+    void searchSubstringsAndCustomTags() throws RssAggregatorException {
+        Item feedsItem = item("He said the feeds are customValue fine", "");
+        itemIndex.index(OTHER_FEED_URI, feed(feedsItem));
+
+        for (String keyphrase : new String[]{"feed", "custom", "aid the fe", "eeds are customvalue f", "e f"}) {
+            assertEquals(Collections.singletonList(feedsItem), itemIndex.search(keyphrase), keyphrase);
+            assertEquals(Collections.singletonList(feedsItem),
+                    itemIndex.search(keyphrase, SearchOrder.NEWEST_FIRST, 10, null).getItems(), keyphrase);
+        }
+        assertEquals(Arrays.asList(scienceItem, feedsItem), itemIndex.search("ai"));
+        assertTrue(itemIndex.search("aid  the").isEmpty());
+        assertEquals(Collections.singletonList(scienceItem), itemIndex.search("jane doe"));
+    }
+
+    @Test
+    @DisplayName("Any part of the indexed values finds the same items as a scan of the items")
+    void searchSameAsScan() {
+        Random random = new Random(7);
+        String[] words = {"Feed", "feeds", "fee", "seed", "Ed", "said", "aid", "a", "c++", "x-ray", "ray"};
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            StringBuilder title = new StringBuilder();
+            for (int word = random.nextInt(6); word >= 0; word--) {
+                title.append(words[random.nextInt(words.length)]).append(random.nextBoolean() ? " " : ", ");
+            }
+            items.add(item(title.toString(), ""));
+        }
+        itemIndex = new ItemIndex();
+        itemIndex.index(FEED_URI, feed(items.toArray(new Item[0])));
+
+        SearchProjection searchProjection = new SearchProjection();
+        for (int i = 0; i < 500; i++) {
+            String text = searchProjection.project(items.get(random.nextInt(items.size())));
+            int start = random.nextInt(text.length());
+            String keyphrase = text.substring(start, start + 1 + random.nextInt(Math.min(12, text.length() - start)));
+            List<Item> scanned = items.stream()
+                    .filter(item -> searchProjection.matches(item, new Keyphrase(keyphrase)))
+                    .collect(Collectors.toList());
+            assertEquals(scanned, itemIndex.search(keyphrase), keyphrase);
+        }
+    }
+
+    @Test
+    @DisplayName("Indexing a feed again replaces its previous items")
+    void indexReplacesFeedItems() {
+        Item updatedItem = item("Telescope launch delayed", "");
+        itemIndex.index(FEED_URI, feed(updatedItem));
+        itemIndex.index(OTHER_FEED_URI, feed(item("Telescope for sale", "")));
+
+        assertEquals(2, itemIndex.itemCount());
+        assertEquals(2, itemIndex.search("telescope").size());
+        assertTrue(itemIndex.search("election").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Indexing a feed sharing items with the previous one keeps them and only indexes the new items")
+    void indexKeepsCarriedOverItems() throws RssAggregatorException {
+        Item newItem = item("New telescope launched", "");
+        itemIndex.index(FEED_URI, feed(newItem, scienceItem));
+
+        assertEquals(2, itemIndex.itemCount());
+        // the kept item was indexed before the new one
+        assertEquals(Arrays.asList(scienceItem, newItem), itemIndex.search("telescope"));
+        assertTrue(itemIndex.search("election").isEmpty());
+        assertEquals(Arrays.asList(scienceItem, newItem),
+                itemIndex.search("new", SearchOrder.INDEX_ORDER, 10, null).getItems());
+    }
+
+    @Test
+    @DisplayName("Removing feeds removes their items from the search")
+    void removeFeeds() {
+        itemIndex.index(OTHER_FEED_URI, feed(item("Telescope for sale", "")));
+        itemIndex.retainFeeds(Collections.singletonList(OTHER_FEED_URI));
+        assertEquals(1, itemIndex.search("telescope").size());
+
+        itemIndex.remove(OTHER_FEED_URI);
+        assertTrue(itemIndex.isEmpty());
+        assertTrue(itemIndex.search("telescope").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Keyphrase without any word falls back to a scan of the indexed items")
+    void searchWithoutWords() {
+        itemIndex.index(OTHER_FEED_URI, feed(item("C++ tips", "")));
+        assertEquals(1, itemIndex.search("++").size());
+    }
+
+    @Test
+    @DisplayName("Only the fields of the search projection are searchable and a keyphrase does not match across fields")
+    void searchProjectedFields() throws RssAggregatorException {
+        Channel nestedChannel = new Channel();
+        nestedChannel.setTitle("Observatory news");
+        scienceItem.setChannel(nestedChannel);
+        ItemIndex titleIndex = new ItemIndex(new SearchProjection(EnumSet.of(SearchField.TITLE, SearchField.CHANNEL)));
+        titleIndex.index(FEED_URI, feed(scienceItem, politicsItem));
+
+        assertEquals(Collections.singletonList(scienceItem), titleIndex.search("telescope"));
+        assertEquals(Collections.singletonList(scienceItem), titleIndex.search("observatory"));
+        assertTrue(titleIndex.search("astronomers").isEmpty());
+        assertTrue(titleIndex.search("jane doe").isEmpty());
+        assertTrue(itemIndex.search("observatory").isEmpty());
+        assertTrue(itemIndex.search("images astronomers").isEmpty());
+    }
+
+    @Test
+    @DisplayName("The searchable values are case-folded once and cached on the item")
+    void searchProjectionCached() throws RssAggregatorException {
+        SearchProjection searchProjection = new SearchProjection();
+        String searchText = searchProjection.project(scienceItem);
+        assertEquals("new telescope images\nastronomers said the images were sharp\njane doe", searchText);
+        assertSame(searchText, searchProjection.project(scienceItem));
+        assertSame(searchText, new SearchProjection(SearchProjection.DEFAULT_FIELDS).project(scienceItem));
+        assertTrue(searchProjection.matches(scienceItem, new Keyphrase("Telescope Images")));
+        assertEquals("new telescope images", new SearchProjection(EnumSet.of(SearchField.TITLE)).project(scienceItem));
+
+        Exception fieldsException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> new SearchProjection(EnumSet.noneOf(SearchField.class)));
+        assertEquals("Invalid search fields. Please give at least one field", fieldsException.getMessage());
+    }
+
+    @Test
+    @DisplayName("Ranked search matches whole words only and ranks the title above the description")
+    void searchRankedByRelevance() {
+        Item aiItem = item("AI regulation", "Lawmakers agreed on new rules");
+        Item mentionItem = item("Weather report", "Rain tomorrow, the telescope team said");
+        itemIndex.index(OTHER_FEED_URI, feed(aiItem, mentionItem));
+
+        assertEquals(Arrays.asList(scienceItem, mentionItem), items(itemIndex.searchRanked("telescope", 10)));
+        assertEquals(Collections.singletonList(aiItem), items(itemIndex.searchRanked("AI", 10)));
+        List<ScoredItem> scoredItems = itemIndex.searchRanked("new telescope", 10);
+        assertEquals(scienceItem, scoredItems.get(0).getItem());
+        assertEquals(4, scoredItems.size());
+        assertTrue(scoredItems.get(0).getScore() > scoredItems.get(1).getScore());
+    }
+
+    @Test
+    @DisplayName("Ranked search ignores case, accents, stop words and English inflections")
+    void searchRankedAnalysis() {
+        Item cafeItem = item("Caf\u00e9 owners launched protests", "");
+        itemIndex.index(OTHER_FEED_URI, feed(cafeItem));
+
+        assertEquals(Collections.singletonList(cafeItem), items(itemIndex.searchRanked("CAFE launches", 10)));
+        assertEquals(Collections.singletonList(cafeItem), items(itemIndex.searchRanked("protesting owner", 10)));
+        assertTrue(itemIndex.searchRanked("the", 10).isEmpty());
+        assertTrue(itemIndex.searchRanked("doe jane", 10).size() == 1);
+    }
+
+    @Test
+    @DisplayName("Quoted phrases must be found word after word, stop words included in the distance")
+    void searchRankedPhrases() {
+        Item climateItem = item("Climate change policy", "State of the art models");
+        Item reversedItem = item("Change in climate policy", "The art of the state");
+        itemIndex.index(OTHER_FEED_URI, feed(climateItem, reversedItem));
+
+        assertEquals(Collections.singletonList(climateItem), items(itemIndex.searchRanked("\"climate change\"", 10)));
+        assertEquals(Collections.singletonList(climateItem), items(itemIndex.searchRanked("\"state of the art\"", 10)));
+        assertEquals(Arrays.asList(reversedItem), items(itemIndex.searchRanked("policy \"change in climate", 10)));
+        assertEquals(2, itemIndex.searchRanked("climate policy", 10).size());
+    }
+
+    @Test
+    @DisplayName("Ranked search keeps the best items up to the limit and follows the indexed feeds")
+    void searchRankedTopItems() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            items.add(item("Item " + i, String.join(" ", Collections.nCopies(i % 13 + 1, "storm")) + " warning " + i));
+        }
+        itemIndex.index(OTHER_FEED_URI, feed(items.toArray(new Item[0])));
+
+        List<ScoredItem> all = itemIndex.searchRanked("storm", 1000);
+        assertEquals(200, all.size());
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).getScore() >= all.get(i).getScore());
+        }
+        assertEquals(items(all.subList(0, 5)), items(itemIndex.searchRanked("storm", 5)));
+
+        itemIndex.remove(OTHER_FEED_URI);
+        assertTrue(itemIndex.searchRanked("storm", 5).isEmpty());
+        assertEquals(1, itemIndex.searchRanked("telescope", 5).size());
+    }
+
+    @Test
+    @DisplayName("Only the boosted fields are searched by the ranked search")
+    void searchRankedBoostedFields() throws RssAggregatorException {
+        Map<SearchField, Double> boosts = new EnumMap<>(SearchField.class);
+        boosts.put(SearchField.TITLE, 1.0);
+        ItemIndex titleIndex = new ItemIndex(new SearchProjection(), new Analyzer(), new Bm25Ranking(1.2, 0.75, boosts));
+        titleIndex.index(FEED_URI, feed(scienceItem, politicsItem));
+
+        assertEquals(1, titleIndex.searchRanked("telescope", 10).size());
+        assertTrue(titleIndex.searchRanked("astronomers", 10).isEmpty());
+
+        Exception k1Exception = Assertions.assertThrows(RssAggregatorException.class, () -> new Bm25Ranking(-1, 0.75, boosts));
+        assertEquals("Invalid k1. Please give a value greater than or equal to 0", k1Exception.getMessage());
+        Exception bException = Assertions.assertThrows(RssAggregatorException.class, () -> new Bm25Ranking(1.2, 2, boosts));
+        assertEquals("Invalid b. Please give a value between 0 and 1", bException.getMessage());
+        Exception boostsException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> new Bm25Ranking(1.2, 0.75, Collections.singletonMap(SearchField.TITLE, 0.0)));
+        assertEquals("Invalid field boosts. Please give at least one field with a boost greater than 0",
+                boostsException.getMessage());
+    }
+
+    @Test
+    @DisplayName("Paginating in index order returns every match once, page after page")
+    void searchPagesInIndexOrder() throws RssAggregatorException {
+        List<Item> newsItems = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            newsItems.add(item("News " + i, ""));
+        }
+        itemIndex.index(OTHER_FEED_URI, feed(newsItems.toArray(new Item[0])));
+
+        SearchPage firstPage = itemIndex.search("news", SearchOrder.INDEX_ORDER, 2, null);
+        assertEquals(newsItems.subList(0, 2), firstPage.getItems());
+        assertTrue(firstPage.hasNextPage());
+        SearchPage secondPage = itemIndex.search("news", SearchOrder.INDEX_ORDER, 2, firstPage.getNextPageToken());
+        assertEquals(newsItems.subList(2, 4), secondPage.getItems());
+        SearchPage lastPage = itemIndex.search("news", SearchOrder.INDEX_ORDER, 2, secondPage.getNextPageToken());
+        assertEquals(newsItems.subList(4, 5), lastPage.getItems());
+        assertFalse(lastPage.hasNextPage());
+        assertNull(lastPage.getNextPageToken());
+    }
+
+    @Test
+    @DisplayName("Newest first orders by RFC 822 or ISO 8601 pubDate, items without a date come last")
+    void searchNewestFirst() throws RssAggregatorException {
+        Item oldest = item("Storm warning", "", "Mon, 01 Feb 2021 08:00:00 GMT");
+        Item newest = item("Storm passed", "", "2021-02-03T10:15:30+01:00");
+        Item middle = item("Storm arrives", "", "Tue, 2 Feb 2021 18:30:00 +0200");
+        Item undated = item("Storm chasers", "", "some day");
+        itemIndex.index(OTHER_FEED_URI, feed(oldest, undated, newest, middle));
+
+        SearchPage firstPage = itemIndex.search("storm", SearchOrder.NEWEST_FIRST, 2, null);
+        assertEquals(Arrays.asList(newest, middle), firstPage.getItems());
+        SearchPage secondPage = itemIndex.search("storm", SearchOrder.NEWEST_FIRST, 2, firstPage.getNextPageToken());
+        assertEquals(Arrays.asList(oldest, undated), secondPage.getItems());
+        assertFalse(secondPage.hasNextPage());
+    }
+
+    @Test
+    @DisplayName("Newest first pages of a common word, read from the publication date order")
+    void searchNewestFirstCommonWord() throws RssAggregatorException {
+        List<Item> dailyItems = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100; i++) {
+            dailyItems.add(item("Daily digest " + i, "", Instant.ofEpochSecond(1_600_000_000L + random.nextInt(1_000_000)).toString()));
+        }
+        itemIndex.index(OTHER_FEED_URI, feed(dailyItems.toArray(new Item[0])));
+        dailyItems.sort(Comparator.comparingLong(Item::getPubDateMillis).reversed());
+
+        List<Item> pagedItems = new ArrayList<>();
+        String pageToken = null;
+        do {
+            SearchPage page = itemIndex.search("daily", SearchOrder.NEWEST_FIRST, 7, pageToken);
+            pagedItems.addAll(page.getItems());
+            pageToken = page.getNextPageToken();
+        } while (pageToken != null);
+        assertEquals(dailyItems, pagedItems);
+    }
+
+    @Test
+    @DisplayName("Newest items and items published in a time range, from the publication date order")
+    void newestAndPublishedBetween() {
+        Item first = item("First", "", "Mon, 01 Feb 2021 08:00:00 GMT");
+        Item second = item("Second", "", "Mon, 01 Feb 2021 09:00:00 GMT");
+        Item third = item("Third", "", "Mon, 01 Feb 2021 10:00:00 GMT");
+        itemIndex.index(OTHER_FEED_URI, feed(second, first, third));
+
+        assertEquals(Arrays.asList(third, second), itemIndex.newest(2));
+        assertEquals(5, itemIndex.newest(10).size());
+        long eight = Instant.parse("2021-02-01T08:00:00Z").toEpochMilli();
+        long ten = Instant.parse("2021-02-01T10:00:00Z").toEpochMilli();
+        assertEquals(Arrays.asList(second, first), itemIndex.publishedBetween(eight, ten, 10));
+        assertEquals(Collections.singletonList(second), itemIndex.publishedBetween(eight, ten, 1));
+        assertTrue(itemIndex.publishedBetween(ten, eight, 10).isEmpty());
+
+        itemIndex.remove(OTHER_FEED_URI);
+        assertTrue(itemIndex.publishedBetween(eight, ten + 1, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Items indexed between two pages do not shift the following page")
+    void searchPagesStableWhileIndexing() throws RssAggregatorException {
+        SearchPage firstPage = itemIndex.search("new", SearchOrder.INDEX_ORDER, 1, null);
+        assertEquals(Collections.singletonList(scienceItem), firstPage.getItems());
+
+        itemIndex.index(OTHER_FEED_URI, feed(item("New comet", "")));
+        SearchPage secondPage = itemIndex.search("new", SearchOrder.INDEX_ORDER, 1, firstPage.getNextPageToken());
+        assertEquals(Collections.singletonList(politicsItem), secondPage.getItems());
+    }
+
+    @Test
+    @DisplayName("A page token is only accepted for the order it was returned for")
+    void searchInvalidPageToken() throws RssAggregatorException {
+        String pageToken = itemIndex.search("new", SearchOrder.INDEX_ORDER, 1, null).getNextPageToken();
+        Exception orderException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> itemIndex.search("new", SearchOrder.NEWEST_FIRST, 1, pageToken));
+        assertEquals("Invalid page token!", orderException.getMessage());
+        Exception garbageException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> itemIndex.search("new", SearchOrder.INDEX_ORDER, 1, "not a token"));
+        assertEquals("Invalid page token!", garbageException.getMessage());
+    }
+
+    private static List<Item> items(List<ScoredItem> scoredItems) {
+        return scoredItems.stream().map(ScoredItem::getItem).collect(Collectors.toList());
+    }
+
+    private static Item item(String title, String description, String pubDate) {
+        Item item = item(title, description);
+        item.setPubDate(pubDate);
+        return item;
+    }
+
+    private static Item item(String title, String description) {
+        Item item = new Item();
+        item.setTitle(title);
+        item.setDescription(description);
+        return item;
+    }
+
+    private static RssFeed feed(Item... items) {
+        Channel channel = new Channel();
+        channel.setItems(Arrays.asList(items));
+        RssFeed rssFeed = new RssFeed();
+        rssFeed.setChannel(channel);
+        return rssFeed;
+    }
+}
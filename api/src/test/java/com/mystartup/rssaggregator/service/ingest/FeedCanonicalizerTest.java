@@ -0,0 +1,91 @@
+package com.mystartup.rssaggregator.service.ingest;
+
+import com.mystartup.rssaggregator.model.Channel;
+import com.mystartup.rssaggregator.model.CustomTag;
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.RssFeed;
+import com.mystartup.rssaggregator.model.SearchProjection;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FeedCanonicalizerTest {
+
+    FeedCanonicalizer feedCanonicalizer = new FeedCanonicalizer(new StringInterner());
+
+    @Test
+    @DisplayName("Repeated metadata of different feeds share one instance, the search values are unchanged")
+    void canonicalizeSharesMetadata() {
+        RssFeed firstFeed = feed(item("Jane Doe", "Science"), item("John Roe", "Science", "Space"));
+        RssFeed secondFeed = feed(item("Jane Doe", "Science"));
+        // projected from an equal item, the projection of the canonicalized item is built after the canonicalization
+        SearchProjection searchProjection = new SearchProjection();
+        String searchValues = searchProjection.project(item("John Roe", "Science", "Space"));
+
+        feedCanonicalizer.canonicalize(firstFeed);
+        feedCanonicalizer.canonicalize(secondFeed);
+
+        Item firstItem = firstFeed.getChannel().getItems().get(0);
+        Item secondItem = secondFeed.getChannel().getItems().get(0);
+        assertSame(firstItem.getAuthor(), secondItem.getAuthor());
+        assertSame(firstItem.getCategory().get(0), secondItem.getCategory().get(0));
+        assertSame(firstItem.getCategory().get(0), firstFeed.getChannel().getItems().get(1).getCategory().get(0));
+        assertSame(firstItem.getCustomTags().get(0).getKey(), secondItem.getCustomTags().get(0).getKey());
+        assertSame(firstFeed.getChannel().getLanguage(), secondFeed.getChannel().getLanguage());
+        assertEquals(searchValues, searchProjection.project(firstFeed.getChannel().getItems().get(1)));
+    }
+
+    @Test
+    @DisplayName("Lists are replaced by compact immutable lists, null lists stay null")
+    void canonicalizeCompactsLists() {
+        Item item = item("Jane Doe", "Science", "Space", "Telescope");
+        item.setComments(new ArrayList<>());
+        RssFeed rssFeed = feedCanonicalizer.canonicalize(feed(item));
+
+        assertSame(Collections.emptyList(), item.getComments());
+        assertEquals(Arrays.asList("Science", "Space", "Telescope"), item.getCategory());
+        assertEquals(Collections.singletonList(item), rssFeed.getChannel().getItems());
+        assertNull(rssFeed.getChannel().getCategories());
+        assertThrows(UnsupportedOperationException.class, () -> item.getCategory().add("Other"));
+        assertThrows(UnsupportedOperationException.class, () -> item.getCustomTags().add(new CustomTag("rating", "5")));
+    }
+
+    @Test
+    @DisplayName("Lists containing null elements are compacted as well")
+    void compactWithNullElements() {
+        List<String> values = FeedCanonicalizer.compact(new ArrayList<>(Arrays.asList("a", null, "b")), value -> value);
+        assertEquals(Arrays.asList("a", null, "b"), values);
+        assertThrows(UnsupportedOperationException.class, () -> values.set(0, "c"));
+    }
+
+    private static Item item(String author, String... categories) {
+        Item item = new Item();
+        item.setTitle("Title of " + author);
+        item.setAuthor(new String(author));
+        List<String> categoryList = new ArrayList<>();
+        for (String category : categories) {
+            categoryList.add(new String(category));
+        }
+        item.setCategory(categoryList);
+        item.setCustomTags(new ArrayList<>(Collections.singletonList(new CustomTag(new String("creator"), new String(author)))));
+        return item;
+    }
+
+    private static RssFeed feed(Item... items) {
+        Channel channel = new Channel();
+        channel.setLanguage(new String("en"));
+        channel.setItems(new ArrayList<>(Arrays.asList(items)));
+        RssFeed rssFeed = new RssFeed();
+        rssFeed.setChannel(channel);
+        return rssFeed;
+    }
+}
@@ -0,0 +1,73 @@
+package com.mystartup.rssaggregator.service.ingest;
+
+import com.mystartup.rssaggregator.model.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemDeduplicatorTest {
+
+    static final URI FEED_URI = URI.create("http://www.valid.com/rss/feed");
+    static final URI OTHER_FEED_URI = URI.create("http://www.another.com/valid/rss");
+
+    ItemDeduplicator itemDeduplicator;
+
+    @BeforeEach
+    void init() {
+        itemDeduplicator = new ItemDeduplicator();
+    }
+
+    @Test
+    @DisplayName("Only items not seen in previous polls of the feed are new")
+    void newItemsAcrossPolls() {
+        Item first = item("guid-1", "http://www.valid.com/1", "First");
+        Item second = item("guid-2", "http://www.valid.com/2", "Second");
+        assertEquals(Arrays.asList(first, second), itemDeduplicator.newItems(FEED_URI, Arrays.asList(first, second)));
+
+        Item third = item("guid-3", "http://www.valid.com/3", "Third");
+        Item firstAgain = item("guid-1", "http://www.valid.com/1", "First, edited title");
+        assertEquals(Collections.singletonList(third), itemDeduplicator.newItems(FEED_URI, Arrays.asList(third, firstAgain, second)));
+        assertEquals(3, itemDeduplicator.seenItemCount());
+    }
+
+    @Test
+    @DisplayName("Items are deduplicated per feed")
+    void dedupPerFeed() {
+        Item shared = item("guid-1", null, "Shared");
+        itemDeduplicator.newItems(FEED_URI, Collections.singletonList(shared));
+        assertEquals(1, itemDeduplicator.newItems(OTHER_FEED_URI, Collections.singletonList(shared)).size());
+        assertTrue(itemDeduplicator.isSeen(OTHER_FEED_URI, shared));
+
+        itemDeduplicator.forget(FEED_URI);
+        assertEquals(1, itemDeduplicator.newItems(FEED_URI, Collections.singletonList(shared)).size());
+    }
+
+    @Test
+    @DisplayName("Identity falls back to the link, then to the content")
+    void fingerprintFallbacks() {
+        assertEquals(ItemDeduplicator.fingerprint(item(null, "http://www.valid.com/1", "A")),
+                ItemDeduplicator.fingerprint(item(null, "http://www.valid.com/1", "B")));
+        assertNotEquals(ItemDeduplicator.fingerprint(item("http://www.valid.com/1", null, "A")),
+                ItemDeduplicator.fingerprint(item(null, "http://www.valid.com/1", "A")));
+        assertNotEquals(ItemDeduplicator.fingerprint(item(null, null, "A")),
+                ItemDeduplicator.fingerprint(item(null, null, "B")));
+        assertEquals(ItemDeduplicator.fingerprint(item(null, null, "A")),
+                ItemDeduplicator.fingerprint(item(null, null, "A")));
+    }
+
+    private static Item item(String guid, String link, String title) {
+        Item item = new Item();
+        item.setGuid(guid);
+        item.setLink(link);
+        item.setTitle(title);
+        return item;
+    }
+}
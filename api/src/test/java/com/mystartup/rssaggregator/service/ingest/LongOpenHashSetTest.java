@@ -0,0 +1,54 @@
+package com.mystartup.rssaggregator.service.ingest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongOpenHashSetTest {
+
+    @Test
+    @DisplayName("Adding values, duplicates are reported and not counted twice")
+    void addNominalCase() {
+        LongOpenHashSet set = new LongOpenHashSet();
+        assertTrue(set.add(42L));
+        assertFalse(set.add(42L));
+        assertTrue(set.add(-1L));
+        assertTrue(set.contains(42L));
+        assertTrue(set.contains(-1L));
+        assertFalse(set.contains(43L));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    @DisplayName("Zero, used internally as the free slot marker, can be stored")
+    void addZero() {
+        LongOpenHashSet set = new LongOpenHashSet();
+        assertFalse(set.contains(0L));
+        assertTrue(set.add(0L));
+        assertFalse(set.add(0L));
+        assertTrue(set.contains(0L));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    @DisplayName("The set grows while staying at most half full, and agrees with a HashSet")
+    void growsAndMatchesHashSet() {
+        LongOpenHashSet set = new LongOpenHashSet(4);
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            long value = i % 3 == 0 ? random.nextInt(1000) : random.nextLong();
+            assertEquals(expected.add(value), set.add(value));
+        }
+        assertEquals(expected.size(), set.size());
+        assertTrue(set.capacity() >= set.size() * 2);
+        expected.forEach(value -> assertTrue(set.contains(value)));
+    }
+}
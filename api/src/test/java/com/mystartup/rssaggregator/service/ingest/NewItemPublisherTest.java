@@ -0,0 +1,184 @@
+package com.mystartup.rssaggregator.service.ingest;
+
+import com.mystartup.rssaggregator.model.Channel;
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.RssFeed;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NewItemPublisherTest {
+
+    static final URI FEED_URI = URI.create("http://www.valid.com/rss/feed");
+
+    NewItemPublisher newItemPublisher;
+
+    @AfterEach
+    void tearDown() {
+        newItemPublisher.close();
+    }
+
+    @Test
+    @DisplayName("Ingesting feeds publishes only the new items, in order")
+    void ingestionPublishesNewItems() {
+        newItemPublisher = new NewItemPublisher();
+        FeedIngestor feedIngestor = new FeedIngestor(new ItemDeduplicator(), newItemPublisher);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        newItemPublisher.subscribe(subscriber);
+        await(() -> subscriber.subscription != null);
+
+        Item first = item("guid-1");
+        Item second = item("guid-2");
+        Item third = item("guid-3");
+        feedIngestor.ingest(FEED_URI, feed(first, second));
+        feedIngestor.ingest(FEED_URI, feed(second, third));
+
+        await(() -> subscriber.received.size() == 3);
+        assertEquals(Arrays.asList(first, second, third), subscriber.received);
+        assertEquals(1, newItemPublisher.getSubscriberCount());
+    }
+
+    @Test
+    @DisplayName("A subscriber not requesting items gets a bounded buffer, overflowing items are dropped")
+    void dropPolicy() throws RssAggregatorException {
+        newItemPublisher = new NewItemPublisher(4, OverflowPolicy.DROP, 1);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        newItemPublisher.subscribe(subscriber);
+        await(() -> subscriber.subscription != null);
+
+        newItemPublisher.publish(items(20));
+
+        assertEquals(16, newItemPublisher.getDroppedItemCount());
+        subscriber.subscription.request(Long.MAX_VALUE);
+        await(() -> subscriber.received.size() == 4);
+        assertEquals("guid-0", subscriber.received.get(0).getGuid());
+    }
+
+    @Test
+    @DisplayName("With the block policy the ingestion waits for a slow subscriber instead of dropping")
+    void blockPolicy() throws RssAggregatorException {
+        newItemPublisher = new NewItemPublisher(2, OverflowPolicy.BLOCK, 5_000);
+        RecordingSubscriber subscriber = new RecordingSubscriber(1) {
+            @Override
+            public void onNext(final Item item) {
+                sleep(5);
+                super.onNext(item);
+                subscription.request(1);
+            }
+        };
+        newItemPublisher.subscribe(subscriber);
+        await(() -> subscriber.subscription != null);
+
+        newItemPublisher.publish(items(50));
+
+        await(() -> subscriber.received.size() == 50);
+        assertEquals(0, newItemPublisher.getDroppedItemCount());
+    }
+
+    @Test
+    @DisplayName("Closing the publisher completes the subscriptions")
+    void closeCompletes() {
+        newItemPublisher = new NewItemPublisher();
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        newItemPublisher.subscribe(subscriber);
+
+        newItemPublisher.close();
+
+        await(() -> subscriber.completed);
+    }
+
+    @Test
+    @DisplayName("Attempt to initialize with invalid values")
+    void initInvalidValues() {
+        newItemPublisher = new NewItemPublisher();
+        Exception capacityException = Assertions.assertThrows(RssAggregatorException.class, () -> new NewItemPublisher(0, OverflowPolicy.DROP, 1));
+        assertEquals("Invalid buffer capacity. Please give a integer value greater than 0", capacityException.getMessage());
+        Exception timeoutException = Assertions.assertThrows(RssAggregatorException.class, () -> new NewItemPublisher(8, OverflowPolicy.BLOCK, 0));
+        assertEquals("Invalid block timeout (milliseconds). Please give a value greater than 0", timeoutException.getMessage());
+    }
+
+    static class RecordingSubscriber implements Flow.Subscriber<Item> {
+
+        final long initialRequest;
+        final List<Item> received = new CopyOnWriteArrayList<>();
+        volatile Flow.Subscription subscription;
+        volatile boolean completed;
+
+        RecordingSubscriber(final long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(final Item item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    private static List<Item> items(int count) {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(item("guid-" + i));
+        }
+        return items;
+    }
+
+    private static Item item(String guid) {
+        Item item = new Item();
+        item.setGuid(guid);
+        return item;
+    }
+
+    private static RssFeed feed(Item... items) {
+        Channel channel = new Channel();
+        channel.setItems(Arrays.asList(items));
+        RssFeed rssFeed = new RssFeed();
+        rssFeed.setChannel(channel);
+        return rssFeed;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition not met in time");
+            sleep(10);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
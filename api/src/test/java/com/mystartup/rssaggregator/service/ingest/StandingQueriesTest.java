@@ -0,0 +1,147 @@
+package com.mystartup.rssaggregator.service.ingest;
+
+import com.mystartup.rssaggregator.model.Channel;
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.RssFeed;
+import com.mystartup.rssaggregator.model.StandingQuery;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StandingQueriesTest {
+
+    static final URI FEED_URI = URI.create("http://www.valid.com/rss/feed");
+
+    StandingQueries standingQueries;
+    List<String> matches;
+
+    @BeforeEach
+    void init() {
+        standingQueries = new StandingQueries();
+        matches = new ArrayList<>();
+    }
+
+    @Test
+    @DisplayName("The automaton reports every occurrence of the patterns, overlapping ones included")
+    void automatonFindsOverlappingPatterns() {
+        AhoCorasick automaton = new AhoCorasick(Arrays.asList("he", "she", "his", "hers"));
+        List<String> occurrences = new ArrayList<>();
+        automaton.match("ushers and his", (pattern, end) -> occurrences.add(pattern + "@" + end));
+        assertEquals(Arrays.asList("1@4", "0@4", "3@6", "2@14"), occurrences);
+    }
+
+    @Test
+    @DisplayName("Keyphrases are matched ignoring case, anywhere in the words like searchFeeds, once per item")
+    void matchOncePerItem() throws RssAggregatorException {
+        StandingQuery ai = standingQueries.register("AI", this::record);
+        standingQueries.register("climate change", this::record);
+        StandingQuery sameKeyphrase = standingQueries.register("Climate Change", this::record);
+
+        Item aiItem = item("AI rules: ai everywhere", "Lawmakers said the rules apply");
+        Item saidItem = item("Weather", "Experts said climate changes slowly");
+        Item climateItem = item("Climate change summit", "");
+        Item otherItem = item("Weather", "Storm expected");
+        assertEquals(6, standingQueries.match(FEED_URI, Arrays.asList(aiItem, saidItem, climateItem, otherItem)));
+
+        assertEquals(Arrays.asList(ai.getId() + ":AI rules: ai everywhere",
+                ai.getId() + ":Weather",
+                (sameKeyphrase.getId() - 1) + ":Weather",
+                sameKeyphrase.getId() + ":Weather",
+                (sameKeyphrase.getId() - 1) + ":Climate change summit",
+                sameKeyphrase.getId() + ":Climate change summit"), matches);
+    }
+
+    @Test
+    @DisplayName("Thousands of standing queries are matched in one pass, unregistered ones are left out")
+    void matchManyStandingQueries() throws RssAggregatorException {
+        List<StandingQuery> registered = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            registered.add(standingQueries.register("#topic" + i + "#", this::record));
+        }
+        assertEquals(5_000, standingQueries.size());
+
+        standingQueries.match(FEED_URI, Collections.singletonList(item("News on #topic42# and #topic4999#", "#topic420")));
+        assertEquals(Arrays.asList(registered.get(42).getId() + ":News on #topic42# and #topic4999#",
+                registered.get(4999).getId() + ":News on #topic42# and #topic4999#"), matches);
+
+        assertTrue(standingQueries.unregister(registered.get(42)));
+        assertFalse(standingQueries.unregister(registered.get(42)));
+        matches.clear();
+        standingQueries.match(FEED_URI, Collections.singletonList(item("#topic42# again", "")));
+        assertTrue(matches.isEmpty());
+    }
+
+    @Test
+    @DisplayName("A failing listener does not stop the other listeners")
+    void failingListener() throws RssAggregatorException {
+        standingQueries.register("storm", (standingQuery, feedUri, item) -> {
+            throw new IllegalStateException("boom");
+        });
+        standingQueries.register("storm", this::record);
+        assertEquals(2, standingQueries.match(FEED_URI, Collections.singletonList(item("Storm warning", ""))));
+        assertEquals(1, matches.size());
+    }
+
+    @Test
+    @DisplayName("Only the new items of the ingested feeds are matched")
+    void ingestMatchesNewItems() throws RssAggregatorException {
+        NewItemPublisher newItemPublisher = new NewItemPublisher();
+        try (FeedIngestor feedIngestor = new FeedIngestor(new ItemDeduplicator(), newItemPublisher, null, standingQueries)) {
+            standingQueries.register("storm", this::record);
+            Item first = item("Storm warning", "");
+            first.setGuid("1");
+            Item second = item("Storm passed", "");
+            second.setGuid("2");
+            feedIngestor.ingest(FEED_URI, feed(first));
+            feedIngestor.ingest(FEED_URI, feed(first, second));
+
+            assertEquals(2, matches.size());
+            assertTrue(matches.get(1).endsWith("Storm passed"));
+        } finally {
+            newItemPublisher.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Attempt to register invalid standing queries")
+    void registerInvalidValues() {
+        Exception keyphraseException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> standingQueries.register(" ", this::record));
+        assertEquals("Standing query keyphrase cannot be null or empty!", keyphraseException.getMessage());
+        Exception listenerException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> standingQueries.register("storm", null));
+        assertEquals("Standing query listener cannot be null!", listenerException.getMessage());
+    }
+
+    private void record(StandingQuery standingQuery, URI feedUri, Item item) {
+        assertEquals(FEED_URI, feedUri);
+        matches.add(standingQuery.getId() + ":" + item.getTitle());
+    }
+
+    private static Item item(String title, String description) {
+        Item item = new Item();
+        item.setTitle(title);
+        item.setDescription(description);
+        return item;
+    }
+
+    private static RssFeed feed(Item... items) {
+        Channel channel = new Channel();
+        channel.setItems(Arrays.asList(items));
+        RssFeed rssFeed = new RssFeed();
+        rssFeed.setChannel(channel);
+        return rssFeed;
+    }
+}
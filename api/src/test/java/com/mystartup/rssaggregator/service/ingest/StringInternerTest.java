@@ -0,0 +1,54 @@
+package com.mystartup.rssaggregator.service.ingest;
+
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class StringInternerTest {
+
+    @Test
+    @DisplayName("Equal strings are replaced by the first instance seen")
+    void internSharesEqualStrings() throws RssAggregatorException {
+        StringInterner interner = new StringInterner(10, 20);
+        String first = new String("Technology");
+        String second = new String("Technology");
+
+        assertSame(first, interner.intern(first));
+        assertSame(first, interner.intern(second));
+        assertNull(interner.intern(null));
+        assertEquals(1, interner.size());
+    }
+
+    @Test
+    @DisplayName("Long strings are not pooled, a full pool is cleared and fills up again")
+    void internBounded() throws RssAggregatorException {
+        StringInterner interner = new StringInterner(3, 5);
+        String longValue = new String("Technology");
+        assertSame(longValue, interner.intern(longValue));
+        assertNotSame(longValue, interner.intern(new String("Technology")));
+        assertEquals(0, interner.size());
+
+        for (int i = 0; i < 3; i++) {
+            interner.intern("tag" + i);
+        }
+        assertEquals(3, interner.size());
+        String newValue = interner.intern("tag3");
+        assertEquals(1, interner.size());
+        assertSame(newValue, interner.intern(new String("tag3")));
+    }
+
+    @Test
+    @DisplayName("Attempt to initialize with invalid values")
+    void initInvalidValues() {
+        Exception sizeException = Assertions.assertThrows(RssAggregatorException.class, () -> new StringInterner(0, 10));
+        assertEquals("Invalid intern pool size. Please give a integer value greater than 0", sizeException.getMessage());
+        Exception lengthException = Assertions.assertThrows(RssAggregatorException.class, () -> new StringInterner(10, 0));
+        assertEquals("Invalid interned string length. Please give a integer value greater than 0", lengthException.getMessage());
+    }
+}
@@ -0,0 +1,78 @@
+package com.mystartup.rssaggregator.service.metrics;
+
+import com.mystartup.rssaggregator.model.FeedMetricsSnapshot;
+import com.mystartup.rssaggregator.model.MetricsSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DefaultAggregatorMetricsImplTest {
+
+    static final URI FEED_URI = URI.create("http://www.valid.com/rss/feed");
+    static final URI OTHER_FEED_URI = URI.create("http://www.another.com/valid/rss");
+
+    AggregatorMetrics metrics;
+
+    @BeforeEach
+    void init() {
+        metrics = new DefaultAggregatorMetricsImpl();
+    }
+
+    @Test
+    @DisplayName("Fetches, parses and errors are aggregated per feed and errors by type across feeds")
+    void feedMetrics() {
+        metrics.recordFetch(FEED_URI, TimeUnit.MILLISECONDS.toNanos(20), 1000);
+        metrics.recordFetch(FEED_URI, TimeUnit.MILLISECONDS.toNanos(40), 0);
+        metrics.recordParse(FEED_URI, TimeUnit.MILLISECONDS.toNanos(5), 12);
+        metrics.recordError(FEED_URI, "SocketTimeoutException");
+        metrics.recordError(OTHER_FEED_URI, "SocketTimeoutException");
+        metrics.recordError(OTHER_FEED_URI, "UnknownHostException");
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+
+        FeedMetricsSnapshot feedSnapshot = snapshot.getFeeds().get(FEED_URI);
+        assertEquals(2, feedSnapshot.getFetchLatency().getCount());
+        assertEquals(40_000, feedSnapshot.getFetchLatency().getMaxMicros());
+        assertEquals(30_000, feedSnapshot.getFetchLatency().getMeanMicros());
+        assertEquals(1000, feedSnapshot.getBytesDownloaded());
+        assertEquals(1, feedSnapshot.getParseTime().getCount());
+        assertEquals(12, feedSnapshot.getItemsParsed());
+        assertEquals(Collections.singletonMap("SocketTimeoutException", 1L), feedSnapshot.getErrorsByType());
+        assertEquals(Long.valueOf(2), snapshot.getErrorsByType().get("SocketTimeoutException"));
+        assertEquals(Long.valueOf(1), snapshot.getErrorsByType().get("UnknownHostException"));
+    }
+
+    @Test
+    @DisplayName("Scheduler lag and search latency are recorded in microseconds")
+    void schedulerLagAndSearchLatency() {
+        metrics.recordSchedulerLag(TimeUnit.MILLISECONDS.toNanos(3));
+        metrics.recordSearch(TimeUnit.MICROSECONDS.toNanos(150), 4);
+        metrics.recordSearch(TimeUnit.MICROSECONDS.toNanos(250), 0);
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+
+        assertEquals(1, snapshot.getSchedulerLag().getCount());
+        assertEquals(3_000, snapshot.getSchedulerLag().getMaxMicros());
+        assertEquals(2, snapshot.getSearchLatency().getCount());
+        assertEquals(200, snapshot.getSearchLatency().getMeanMicros());
+        assertTrue(snapshot.getFeeds().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Metrics of feeds no longer configured are dropped")
+    void retainFeeds() {
+        metrics.recordFetch(FEED_URI, 1000, 10);
+        metrics.recordFetch(OTHER_FEED_URI, 1000, 10);
+
+        metrics.retainFeeds(Collections.singletonList(OTHER_FEED_URI));
+
+        assertEquals(Collections.singleton(OTHER_FEED_URI), metrics.snapshot().getFeeds().keySet());
+    }
+}
@@ -0,0 +1,80 @@
+package com.mystartup.rssaggregator.service.metrics;
+
+import com.mystartup.rssaggregator.model.HistogramSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Every value falls in a bucket whose highest equivalent value is within 1/32 of it")
+    void bucketsAreLogLinear() {
+        for (long value = 0; value < 1_000_000; value += value / 7 + 1) {
+            int bucketIndex = LatencyHistogram.bucketIndex(value);
+            long highestEquivalentValue = LatencyHistogram.highestEquivalentValue(bucketIndex);
+            assertTrue(highestEquivalentValue >= value);
+            assertTrue(highestEquivalentValue - value <= value / 32, "value " + value);
+            assertEquals(bucketIndex, LatencyHistogram.bucketIndex(highestEquivalentValue));
+        }
+    }
+
+    @Test
+    @DisplayName("Percentiles, mean and maximum of recorded values")
+    void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertEquals(10_000, snapshot.getCount());
+        assertEquals(5_000, snapshot.getMeanMicros());
+        assertEquals(10_000, snapshot.getMaxMicros());
+        assertEquals(5_000, snapshot.getP50Micros(), 5_000 / 32.0);
+        assertEquals(9_000, snapshot.getP90Micros(), 9_000 / 32.0);
+        assertEquals(9_900, snapshot.getP99Micros(), 9_900 / 32.0);
+    }
+
+    @Test
+    @DisplayName("Values above the trackable range are counted and keep an exact maximum")
+    void valuesAboveRange() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(LatencyHistogram.MAX_TRACKABLE_VALUE * 4);
+        histogram.record(-5);
+
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.valueAtPercentile(50));
+        assertEquals(LatencyHistogram.MAX_TRACKABLE_VALUE * 4, histogram.valueAtPercentile(100));
+        assertEquals(0, new LatencyHistogram().valueAtPercentile(99));
+    }
+
+    @Test
+    @DisplayName("Recording from several threads at once loses no value")
+    void concurrentRecording() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                for (int value = 0; value < 50_000; value++) {
+                    histogram.record(value);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(200_000, histogram.getCount());
+        assertEquals(49_999, histogram.getMax());
+        assertTrue(histogram.valueAtPercentile(100) >= 49_999);
+    }
+}
@@ -0,0 +1,73 @@
+package com.mystartup.rssaggregator.service.parsing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FeedDatesTest {
+
+    @Test
+    @DisplayName("Parsing RFC 822 dates, with numeric and named time zones")
+    void parseRfc822() {
+        assertEquals(millis("2002-09-07T00:00:01Z"), FeedDates.parse("Sat, 07 Sep 2002 00:00:01 GMT"));
+        assertEquals(millis("2021-03-16T12:00:00Z"), FeedDates.parse("Tue, 16 Mar 2021 14:00:00 +0200"));
+        assertEquals(millis("2021-03-16T17:30:00Z"), FeedDates.parse("Tue, 16 Mar 2021 12:30:00 EST"));
+        assertEquals(millis("2021-07-04T16:00:00Z"), FeedDates.parse("Sun, 04 Jul 2021 09:00:00 PDT"));
+        assertEquals(millis("2021-07-04T09:00:00Z"), FeedDates.parse("Sun, 04 Jul 2021 09:00:00 UT"));
+    }
+
+    @Test
+    @DisplayName("Parsing sloppy RFC 822 dates: no day name, one digit day, full month, no seconds, no zone, two digit year")
+    void parseTolerantRfc822() {
+        assertEquals(millis("2021-03-06T14:05:00Z"), FeedDates.parse("  6 March 2021 14:05"));
+        assertEquals(millis("2021-03-06T00:00:00Z"), FeedDates.parse("Sat,06 mar 21"));
+        assertEquals(millis("1999-12-31T23:59:59Z"), FeedDates.parse("Fri, 31 Dec 99 23:59:59 Z"));
+        assertEquals(millis("2016-12-31T23:59:59Z"), FeedDates.parse("Sat, 31 Dec 2016 23:59:60 GMT"));
+        assertEquals(millis("2021-03-16T12:00:00Z"), FeedDates.parse("Tue, 16 Mar 2021 14:00:00 +02:00 (CEST)"));
+    }
+
+    @Test
+    @DisplayName("Parsing ISO 8601 dates, with fractions of seconds and offsets")
+    void parseIso8601() {
+        assertEquals(millis("2002-09-07T00:00:01Z"), FeedDates.parse("2002-09-07T00:00:01Z"));
+        assertEquals(millis("2021-03-16T12:00:00.123Z"), FeedDates.parse("2021-03-16T13:00:00.123456+01:00"));
+        assertEquals(millis("2021-03-16T18:30:00Z"), FeedDates.parse("2021-03-16 13:00-0530"));
+        assertEquals(millis("2021-03-16T00:00:00Z"), FeedDates.parse("2021-03-16"));
+    }
+
+    @Test
+    @DisplayName("Missing and unreadable dates are unknown")
+    void parseInvalid() {
+        String[] invalidDates = {null, "", "   ", "yesterday", "Tue, 32 Mar 2021 10:00:00 GMT", "Tue, 16 Foo 2021",
+                "Sat, 29 Feb 2021 10:00:00 GMT", "Tue, 16 Mar 2021 25:00:00 GMT", "Tue, 16 Mar 2021 10:00:00 +2500",
+                "2021-13-01T00:00:00Z", "2021-03-16T10", "16 Mar 202"};
+        for (String invalidDate : invalidDates) {
+            assertEquals(FeedDates.UNKNOWN, FeedDates.parse(invalidDate), "Date: " + invalidDate);
+        }
+    }
+
+    @Test
+    @DisplayName("Random dates are parsed as java.time parses them")
+    void parseSameAsJavaTime() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            ZonedDateTime date = Instant.ofEpochSecond(random.nextInt(Integer.MAX_VALUE) * 2L - 1_000_000_000L)
+                    .atZone(ZoneOffset.ofTotalSeconds((random.nextInt(28 * 4 + 1) - 14 * 4) * 900));
+            long expected = date.toInstant().toEpochMilli();
+            assertEquals(expected, FeedDates.parse(DateTimeFormatter.RFC_1123_DATE_TIME.format(date)));
+            assertEquals(expected, FeedDates.parse(OffsetDateTime.from(date).toString()));
+        }
+    }
+
+    private static long millis(String isoInstant) {
+        return Instant.parse(isoInstant).toEpochMilli();
+    }
+}
@@ -0,0 +1,188 @@
+package com.mystartup.rssaggregator.service.parsing;
+
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.RssFeed;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IncrementalFeedParserTest {
+
+    static final URI FEED_URI = URI.create("http://www.valid.com/rss/feed");
+
+    IncrementalFeedParser parser;
+
+    @BeforeEach
+    void init() throws RssAggregatorException {
+        parser = new IncrementalFeedParser(IncrementalFeedParser.DEFAULT_SEEN_RUN_LENGTH, 3);
+    }
+
+    @Test
+    @DisplayName("The reading stops at the run of seen items, the rest of the feed is taken from the previous poll")
+    void parseNewItemsOnly() throws IOException {
+        parse(feed("", 10, 9, 8, 7, 6, 5, 4, 3, 2, 1));
+        assertEquals(1, parser.getFullParses());
+
+        // the document is broken after the run of seen items, it is not read that far
+        RssFeed rssFeed = parse(feed("<item><broken", 12, 11, 10, 9, 8));
+        assertEquals(Arrays.asList("12", "11", "10", "9", "8", "7", "6", "5", "4", "3"), guids(rssFeed));
+        assertEquals("Channel", rssFeed.getChannel().getTitle());
+        assertEquals(Integer.valueOf(30), rssFeed.getChannel().getTtl());
+        assertEquals(1, parser.getIncrementalParses());
+
+        // nothing new
+        assertEquals(guids(rssFeed), guids(parse(feed("<broken", 12, 11, 10))));
+        assertEquals(2, parser.getIncrementalParses());
+    }
+
+    @Test
+    @DisplayName("Incremental parses in a row give the feeds of full parses")
+    void parseIncrementallyInARow() throws IOException, RssAggregatorException {
+        parser = new IncrementalFeedParser(IncrementalFeedParser.DEFAULT_SEEN_RUN_LENGTH, 100);
+        StaxFeedUnmarshaller unmarshaller = new StaxFeedUnmarshaller();
+        int newestItem = 10;
+        for (int poll = 0; poll < 30; poll++) {
+            // 0, 1 or 2 new items at each poll
+            newestItem += poll % 3;
+            int[] guids = new int[10];
+            for (int i = 0; i < guids.length; i++) {
+                guids[i] = newestItem - i;
+            }
+            String document = feed("", guids);
+            RssFeed expected = unmarshaller.unmarshalWhile(
+                    new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)), item -> true);
+            assertEquals(guids(expected), guids(parse(document)));
+        }
+        assertEquals(1, parser.getFullParses());
+        assertEquals(29, parser.getIncrementalParses());
+    }
+
+    @Test
+    @DisplayName("A feed out of order is parsed in full")
+    void parseReorderedFeed() throws IOException {
+        parse(feed("", 10, 9, 8, 7, 6, 5));
+        // the first item of the previous feed was removed
+        assertEquals(Arrays.asList("9", "8", "7", "6", "5"), guids(parse(feed("", 9, 8, 7, 6, 5))));
+        parse(feed("", 10, 9, 8, 7, 6, 5));
+        // a run not in the previous order, its pubDates are not in order either
+        assertEquals(Arrays.asList("11", "9", "10", "8"), guids(parse(feed("", 11, 9, 10, 8))));
+        // the previous feed is not trusted
+        parse(feed("", 11, 10, 9, 8));
+        assertEquals(1, parser.getIncrementalParses());
+        assertEquals(4, parser.getFullParses());
+
+        parse(feed("<broken", 12, 11, 10, 9));
+        assertEquals(2, parser.getIncrementalParses());
+        // a new item after a seen one
+        assertEquals(Arrays.asList("13", "12", "14", "11"), guids(parse(feed("", 13, 12, 14, 11))));
+        assertEquals(5, parser.getFullParses());
+    }
+
+    @Test
+    @DisplayName("A feed is parsed in full again after a number of incremental parses")
+    void fullParseInterval() throws IOException {
+        parse(feed("", 5, 4, 3, 2, 1));
+        for (int poll = 0; poll < 4; poll++) {
+            parse(feed("", 5, 4, 3, 2, 1));
+        }
+        assertEquals(3, parser.getIncrementalParses());
+        assertEquals(2, parser.getFullParses());
+    }
+
+    @Test
+    @DisplayName("A forgotten feed is parsed in full")
+    void forgetFeed() throws IOException {
+        parse(feed("", 5, 4, 3, 2, 1));
+        parser.forget(FEED_URI);
+        assertEquals(Arrays.asList("6", "5", "4", "3", "2"), guids(parse(feed("", 6, 5, 4, 3, 2))));
+        assertEquals(0, parser.getIncrementalParses());
+        assertEquals(2, parser.getFullParses());
+    }
+
+    @Test
+    @DisplayName("Parses of the same feed run one at a time, each one merges with the feed of the previous one")
+    void parseSameFeedConcurrently() throws Exception {
+        parser = new IncrementalFeedParser(IncrementalFeedParser.DEFAULT_SEEN_RUN_LENGTH, 100);
+        parse(feed("", 10, 9, 8, 7, 6, 5));
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        byte[] bytes = feed("", 11, 10, 9, 8, 7, 6).getBytes(StandardCharsets.UTF_8);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<RssFeed>> parses = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                parses.add(executor.submit(() -> parser.parse(FEED_URI, () -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+                    inFlight.decrementAndGet();
+                    return new ByteArrayInputStream(bytes);
+                }, UnaryOperator.identity())));
+            }
+            for (Future<RssFeed> rssFeed : parses) {
+                assertEquals(Arrays.asList("11", "10", "9", "8", "7", "6"), guids(rssFeed.get()));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, maxInFlight.get());
+        assertEquals(4, parser.getIncrementalParses());
+    }
+
+    @Test
+    @DisplayName("Attempt to create an incremental parser with invalid values")
+    void invalidValues() {
+        Exception runException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> new IncrementalFeedParser(0, 10));
+        assertEquals("Invalid seen run length. Please give a integer value greater than 0", runException.getMessage());
+        Exception intervalException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> new IncrementalFeedParser(3, 0));
+        assertEquals("Invalid full parse interval. Please give a integer value greater than 0",
+                intervalException.getMessage());
+    }
+
+    private RssFeed parse(String document) throws IOException {
+        byte[] bytes = document.getBytes(StandardCharsets.UTF_8);
+        return parser.parse(FEED_URI, () -> new ByteArrayInputStream(bytes), UnaryOperator.identity());
+    }
+
+    /**
+     * A feed of items with the given guids, published at the hour of their guid, followed by the given text.
+     */
+    private static String feed(String trailer, int... guids) {
+        StringBuilder feed = new StringBuilder("<rss version=\"2.0\"><channel><title>Channel</title><ttl>30</ttl>");
+        for (int guid : guids) {
+            String pubDate = DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                    Instant.parse("2021-03-16T00:00:00Z").plusSeconds(3600L * guid).atOffset(ZoneOffset.UTC));
+            feed.append("<item><title>Item ").append(guid).append("</title><guid>").append(guid)
+                    .append("</guid><pubDate>").append(pubDate).append("</pubDate></item>");
+        }
+        return feed.append(trailer.isEmpty() ? "</channel></rss>" : trailer).toString();
+    }
+
+    private static List<String> guids(RssFeed rssFeed) {
+        return rssFeed.getChannel().getItems().stream().map(Item::getGuid).collect(Collectors.toList());
+    }
+}
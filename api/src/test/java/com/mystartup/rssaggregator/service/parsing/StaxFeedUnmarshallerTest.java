@@ -0,0 +1,81 @@
+package com.mystartup.rssaggregator.service.parsing;
+
+import com.mystartup.rssaggregator.configuration.RssAggregatorConfig;
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.RssFeed;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.oxm.Unmarshaller;
+import org.springframework.oxm.UnmarshallingFailureException;
+
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StaxFeedUnmarshallerTest {
+
+    Unmarshaller staxUnmarshaller = new StaxFeedUnmarshaller();
+
+    @Test
+    @DisplayName("Unmarshalling a feed gives the same object graph as the JAXB unmarshaller")
+    void unmarshalSameAsJaxb() throws IOException {
+        RssFeed jaxbFeed = read(new RssAggregatorConfig().unmarshaller(), "/feeds/sample-feed.xml");
+        RssFeed staxFeed = read(staxUnmarshaller, "/feeds/sample-feed.xml");
+        assertEquals(jaxbFeed.toString(), staxFeed.toString());
+    }
+
+    @Test
+    @DisplayName("Unmarshalling a feed, nominal case")
+    void unmarshalNominalCase() throws IOException {
+        RssFeed rssFeed = read(staxUnmarshaller, "/feeds/sample-feed.xml");
+        assertEquals("Science Latest", rssFeed.getChannel().getTitle());
+        assertEquals(Integer.valueOf(30), rssFeed.getChannel().getTtl());
+        assertEquals(2, rssFeed.getChannel().getCategories().size());
+        assertEquals(3, rssFeed.getChannel().getItems().size());
+        assertEquals(Instant.parse("2021-03-16T14:00:00Z").toEpochMilli(), rssFeed.getChannel().getLastBuildDateMillis());
+
+        Item item = rssFeed.getChannel().getItems().get(0);
+        assertEquals(Instant.parse("2021-03-16T12:00:00Z").toEpochMilli(), item.getPubDateMillis());
+        assertEquals("<p>Astronomers said the <b>images</b> were sharp &amp; clear.</p>", item.getDescription());
+        assertEquals(3, item.getCustomTags().size());
+        assertEquals("creator", item.getCustomTags().get(0).getKey());
+        assertEquals("Jane Doe", item.getCustomTags().get(0).getValue());
+        assertEquals("Telescope", item.getCustomTags().get(1).getValue());
+        assertEquals("Election results & analysis", rssFeed.getChannel().getItems().get(1).getTitle());
+        assertNull(rssFeed.getChannel().getItems().get(1).getCustomTags());
+    }
+
+    @Test
+    @DisplayName("Unmarshalling a document which is not a RSS feed")
+    void unmarshalNotRss() {
+        Assertions.assertThrows(UnmarshallingFailureException.class,
+                () -> staxUnmarshaller.unmarshal(source("<feed><title>atom</title></feed>")));
+        Assertions.assertThrows(UnmarshallingFailureException.class,
+                () -> staxUnmarshaller.unmarshal(source("<rss><channel><title>broken</channel></rss>")));
+    }
+
+    @Test
+    @DisplayName("Only RssFeed is supported")
+    void supports() {
+        assertTrue(staxUnmarshaller.supports(RssFeed.class));
+        Assertions.assertFalse(staxUnmarshaller.supports(Item.class));
+    }
+
+    private RssFeed read(Unmarshaller unmarshaller, String resource) throws IOException {
+        try (InputStream inputStream = getClass().getResourceAsStream(resource)) {
+            return (RssFeed) unmarshaller.unmarshal(new StreamSource(inputStream));
+        }
+    }
+
+    private static StreamSource source(String xml) {
+        return new StreamSource(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,278 @@
+package com.mystartup.rssaggregator.service.persistence;
+
+import com.mystartup.rssaggregator.model.Channel;
+import com.mystartup.rssaggregator.model.CustomTag;
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.RssFeed;
+import com.mystartup.rssaggregator.model.RssUrl;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalStateStoreTest {
+
+    static final URI FEED = URI.create("http://www.valid.com/rss/feed");
+    static final URI OTHER_FEED = URI.create("http://www.another.com/valid/rss");
+
+    Path directory;
+    LocalStateStore stateStore;
+
+    @BeforeEach
+    void init() throws IOException, RssAggregatorException {
+        directory = Files.createTempDirectory("state-store");
+        stateStore = new LocalStateStore(directory);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        stateStore.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    @DisplayName("Configurations and feeds saved in the journal are restored by the next run")
+    void restoreFromJournal() throws RssAggregatorException, IOException {
+        stateStore.saveRssUrl(new RssUrl(FEED, 5, 2, 30));
+        stateStore.saveRssUrl(new RssUrl(OTHER_FEED, 10));
+        stateStore.saveFeed(FEED, "\"v1\"", "Mon, 01 Mar 2021 10:00:00 GMT", feed("first"));
+        stateStore.saveFeed(FEED, "\"v2\"", null, feed("second"));
+        stateStore.saveFeed(OTHER_FEED, null, null, feed("other"));
+        stateStore.deleteRssUrl(OTHER_FEED);
+        long journalBytes = stateStore.getJournalBytes();
+        Files.copy(directory.resolve(LocalStateStore.JOURNAL_FILE), directory.resolve("copy"));
+        stateStore.close();
+        Files.delete(directory.resolve(LocalStateStore.SNAPSHOT_FILE));
+        Files.move(directory.resolve("copy"), directory.resolve(LocalStateStore.JOURNAL_FILE), StandardCopyOption.REPLACE_EXISTING);
+
+        stateStore = new LocalStateStore(directory);
+        assertEquals(journalBytes, stateStore.getJournalBytes());
+        assertEquals(Collections.singletonList(new RssUrl(FEED, 5, 2, 30)), stateStore.getRssUrls());
+        List<LocalStateStore.StoredFeed> feeds = stateStore.getFeeds();
+        assertEquals(1, feeds.size());
+        assertEquals("\"v2\"", feeds.get(0).getETag());
+        assertNull(feeds.get(0).getLastModified());
+        assertFeed("second", feeds.get(0).getFeed());
+    }
+
+    @Test
+    @DisplayName("A feed keeping the items of the saved feed is journaled as its new items and restored whole")
+    void restoreFeedUpdates() throws RssAggregatorException, IOException {
+        RssFeed first = feed("first");
+        first.getChannel().setItems(Arrays.asList(firstItem("a"), firstItem("b"), firstItem("c")));
+        stateStore.saveFeed(FEED, "\"v1\"", null, first);
+        long fullRecordBytes = stateStore.getJournalBytes() - 4;
+        RssFeed second = feed("second");
+        List<Item> kept = first.getChannel().getItems();
+        second.getChannel().setItems(Arrays.asList(firstItem("second"), kept.get(0), kept.get(1), kept.get(2)));
+        stateStore.saveFeed(FEED, "\"v2\"", null, second);
+        long updateRecordBytes = stateStore.getJournalBytes() - 4 - fullRecordBytes;
+        // the feed of 4 items is journaled in fewer bytes than the feed of 3 items saved before
+        assertTrue(updateRecordBytes < fullRecordBytes, "Update record bytes: " + updateRecordBytes);
+        Files.copy(directory.resolve(LocalStateStore.JOURNAL_FILE), directory.resolve("copy"));
+        stateStore.close();
+        Files.delete(directory.resolve(LocalStateStore.SNAPSHOT_FILE));
+        Files.move(directory.resolve("copy"), directory.resolve(LocalStateStore.JOURNAL_FILE), StandardCopyOption.REPLACE_EXISTING);
+
+        stateStore = new LocalStateStore(directory);
+        RssFeed restored = stateStore.getFeeds().get(0).getFeed();
+        assertEquals("\"v2\"", stateStore.getFeeds().get(0).getETag());
+        assertEquals("channel second", restored.getChannel().getTitle());
+        assertEquals(Arrays.asList("second", "a", "b", "c"), titles(restored));
+    }
+
+    @Test
+    @DisplayName("Journal records left behind a snapshot by a crash are not applied twice")
+    void skipsRecordsInSnapshot() throws RssAggregatorException, IOException {
+        RssFeed first = feed("first");
+        first.getChannel().setItems(Arrays.asList(firstItem("a"), firstItem("b"), firstItem("c")));
+        stateStore.saveFeed(FEED, "\"v1\"", null, first);
+        stateStore.snapshot();
+        RssFeed second = feed("second");
+        List<Item> kept = first.getChannel().getItems();
+        second.getChannel().setItems(Arrays.asList(firstItem("x"), kept.get(0), kept.get(1)));
+        stateStore.saveFeed(FEED, "\"v2\"", null, second);
+        Files.copy(directory.resolve(LocalStateStore.JOURNAL_FILE), directory.resolve("copy"));
+        stateStore.close();
+
+        // crash after the snapshot was moved in place, before the journal was emptied
+        Files.copy(directory.resolve("copy"), directory.resolve(LocalStateStore.JOURNAL_FILE), StandardCopyOption.REPLACE_EXISTING);
+        stateStore = new LocalStateStore(directory);
+        assertEquals(Arrays.asList("x", "a", "b"), titles(stateStore.getFeeds().get(0).getFeed()));
+        stateStore.saveRssUrl(new RssUrl(FEED, 5));
+        stateStore.close();
+
+        // crash after the snapshot of a sealed journal was moved in place, before the sealed journal was deleted
+        Files.move(directory.resolve("copy"), directory.resolve(LocalStateStore.SEALED_JOURNAL_FILE));
+        stateStore = new LocalStateStore(directory);
+        assertEquals(Arrays.asList("x", "a", "b"), titles(stateStore.getFeeds().get(0).getFeed()));
+        assertEquals(Collections.singletonList(new RssUrl(FEED, 5)), stateStore.getRssUrls());
+    }
+
+    @Test
+    @DisplayName("Closing writes a snapshot and empties the journal, the snapshot is restored")
+    void restoreFromSnapshot() throws RssAggregatorException {
+        stateStore.saveRssUrl(new RssUrl(FEED, 5));
+        stateStore.saveFeed(FEED, "\"v1\"", null, feed("first"));
+        stateStore.close();
+
+        stateStore = new LocalStateStore(directory);
+        assertEquals(4, stateStore.getJournalBytes());
+        assertEquals(1, stateStore.getRssUrls().size());
+        assertFeed("first", stateStore.getFeeds().get(0).getFeed());
+    }
+
+    @Test
+    @DisplayName("A journal growing over the threshold is sealed and compacted into a snapshot in the background")
+    void compactsJournal() throws RssAggregatorException, InterruptedException {
+        stateStore.close();
+        stateStore = new LocalStateStore(directory, 2_000);
+        stateStore.saveRssUrl(new RssUrl(FEED, 5));
+        long journalBytes = stateStore.getJournalBytes();
+        stateStore.saveFeed(FEED, "\"v0\"", null, feed("poll 0"));
+        long recordBytes = stateStore.getJournalBytes() - journalBytes;
+        for (int i = 1; i < 20; i++) {
+            stateStore.saveFeed(FEED, "\"v" + i + "\"", null, feed("poll " + i));
+        }
+        await(() -> !stateStore.isCompacting());
+        assertTrue(stateStore.getJournalBytes() < 20 * recordBytes, "Journal bytes: " + stateStore.getJournalBytes());
+        assertTrue(Files.notExists(directory.resolve(LocalStateStore.SEALED_JOURNAL_FILE)));
+
+        LocalStateStore restored = new LocalStateStore(directory);
+        try {
+            assertEquals(1, restored.getFeeds().size());
+            assertFeed("poll 19", restored.getFeeds().get(0).getFeed());
+        } finally {
+            restored.close();
+        }
+    }
+
+    @Test
+    @DisplayName("A journal sealed by a compaction interrupted by a crash is restored and compacted on startup")
+    void restoreSealedJournal() throws RssAggregatorException, IOException {
+        stateStore.saveRssUrl(new RssUrl(FEED, 5));
+        stateStore.saveFeed(FEED, "\"v1\"", null, feed("first"));
+        Files.copy(directory.resolve(LocalStateStore.JOURNAL_FILE), directory.resolve("copy"));
+        stateStore.close();
+        Files.delete(directory.resolve(LocalStateStore.SNAPSHOT_FILE));
+        Path sealed = directory.resolve(LocalStateStore.SEALED_JOURNAL_FILE);
+        Files.move(directory.resolve("copy"), sealed);
+
+        stateStore = new LocalStateStore(directory);
+        assertEquals(Collections.singletonList(new RssUrl(FEED, 5)), stateStore.getRssUrls());
+        assertFeed("first", stateStore.getFeeds().get(0).getFeed());
+        assertTrue(Files.notExists(sealed));
+        assertTrue(Files.exists(directory.resolve(LocalStateStore.SNAPSHOT_FILE)));
+    }
+
+    @Test
+    @DisplayName("A record torn by a crash is dropped, the records before it are restored")
+    void dropsTornRecord() throws RssAggregatorException, IOException {
+        stateStore.saveRssUrl(new RssUrl(FEED, 5));
+        long validBytes = stateStore.getJournalBytes();
+        stateStore.saveRssUrl(new RssUrl(OTHER_FEED, 5));
+        Path journal = directory.resolve(LocalStateStore.JOURNAL_FILE);
+        Path crashed = directory.resolve("crashed");
+        Files.copy(journal, crashed);
+        stateStore.close();
+        Files.delete(directory.resolve(LocalStateStore.SNAPSHOT_FILE));
+        try (FileChannel channel = FileChannel.open(crashed, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(crashed) - 3);
+        }
+        Files.move(crashed, journal, StandardCopyOption.REPLACE_EXISTING);
+
+        stateStore = new LocalStateStore(directory);
+        assertEquals(Collections.singletonList(new RssUrl(FEED, 5)), stateStore.getRssUrls());
+        assertEquals(validBytes, stateStore.getJournalBytes());
+        assertEquals(validBytes, Files.size(journal));
+    }
+
+    @Test
+    @DisplayName("Attempt to use invalid values or a closed store")
+    void invalidValues() throws RssAggregatorException {
+        Exception thresholdException = Assertions.assertThrows(RssAggregatorException.class, () -> new LocalStateStore(directory, 0));
+        assertEquals("Invalid compaction threshold (bytes). Please give a integer value greater than 0", thresholdException.getMessage());
+        Exception directoryException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> new LocalStateStore(directory.resolve("missing")));
+        assertEquals("State store directory does not exist!", directoryException.getMessage());
+
+        stateStore.close();
+        RssUrl rssUrl = new RssUrl(FEED, 5);
+        Exception closedException = Assertions.assertThrows(RssAggregatorException.class, () -> stateStore.saveRssUrl(rssUrl));
+        assertEquals("State store is closed!", closedException.getMessage());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private static List<String> titles(RssFeed rssFeed) {
+        return rssFeed.getChannel().getItems().stream().map(Item::getTitle).collect(Collectors.toList());
+    }
+
+    private static Item firstItem(String title) {
+        return feed(title).getChannel().getItems().get(0);
+    }
+
+    private static RssFeed feed(String title) {
+        Item item = new Item();
+        item.setTitle(title);
+        item.setGuid("guid-" + title);
+        item.setPubDate("Mon, 01 Mar 2021 10:00:00 GMT");
+        item.setCategory(Arrays.asList("news", null));
+        item.setCustomTags(Collections.singletonList(new CustomTag("dc:creator", "\u00e9crivain")));
+        Channel channel = new Channel();
+        channel.setTitle("channel " + title);
+        channel.setTtl(60);
+        channel.setItems(Arrays.asList(item, null));
+        RssFeed rssFeed = new RssFeed();
+        rssFeed.setChannel(channel);
+        return rssFeed;
+    }
+
+    private static void assertFeed(String title, RssFeed rssFeed) {
+        Channel channel = rssFeed.getChannel();
+        assertEquals("channel " + title, channel.getTitle());
+        assertEquals(Integer.valueOf(60), channel.getTtl());
+        assertNull(channel.getDescription());
+        assertEquals(2, channel.getItems().size());
+        assertNull(channel.getItems().get(1));
+        Item item = channel.getItems().get(0);
+        assertEquals(title, item.getTitle());
+        assertEquals("guid-" + title, item.getGuid());
+        assertEquals(1614592800000L, item.getPubDateMillis());
+        assertEquals(Arrays.asList("news", null), item.getCategory());
+        assertNull(item.getComments());
+        assertEquals("dc:creator", item.getCustomTags().get(0).getKey());
+        assertEquals("\u00e9crivain", item.getCustomTags().get(0).getValue());
+    }
+}
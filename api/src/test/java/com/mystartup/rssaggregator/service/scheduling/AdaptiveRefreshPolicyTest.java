@@ -0,0 +1,76 @@
+package com.mystartup.rssaggregator.service.scheduling;
+
+import com.mystartup.rssaggregator.model.RssUrl;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdaptiveRefreshPolicyTest {
+
+    static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    RefreshPolicy refreshPolicy;
+    RssUrl rssUrl;
+
+    @BeforeEach
+    void init() throws RssAggregatorException {
+        refreshPolicy = new AdaptiveRefreshPolicy(2, 2.0, 60);
+        rssUrl = new RssUrl(URI.create("http://www.valid.com/rss/feed"), 5, 2, 30);
+    }
+
+    @Test
+    @DisplayName("Unchanged feeds back off after several polls, up to the maximum")
+    void backOffWhenUnchanged() {
+        assertEquals(5 * MINUTE, refreshPolicy.nextPollDelayMillis(rssUrl, PollOutcome.of(false, null)));
+        assertEquals(5 * MINUTE, refreshPolicy.nextPollDelayMillis(rssUrl, PollOutcome.of(false, null)));
+        assertEquals(10 * MINUTE, refreshPolicy.nextPollDelayMillis(rssUrl, PollOutcome.of(false, null)));
+        assertEquals(20 * MINUTE, refreshPolicy.nextPollDelayMillis(rssUrl, PollOutcome.of(false, null)));
+        assertEquals(30 * MINUTE, refreshPolicy.nextPollDelayMillis(rssUrl, PollOutcome.of(false, null)));
+        assertEquals(30 * MINUTE, refreshPolicy.nextPollDelayMillis(rssUrl, PollOutcome.of(false, null)));
+    }
+
+    @Test
+    @DisplayName("New items tighten the interval to the minimum")
+    void tightenWhenChanged() {
+        for (int i = 0; i < 5; i++) {
+            refreshPolicy.nextPollDelayMillis(rssUrl, PollOutcome.of(false, null));
+        }
+        assertEquals(2 * MINUTE, refreshPolicy.nextPollDelayMillis(rssUrl, PollOutcome.of(true, null)));
+        assertEquals(2 * MINUTE, refreshPolicy.nextPollDelayMillis(rssUrl, PollOutcome.of(false, null)));
+    }
+
+    @Test
+    @DisplayName("The channel ttl is respected, even above the maximum")
+    void respectTtl() {
+        assertEquals(15 * MINUTE, refreshPolicy.nextPollDelayMillis(rssUrl, PollOutcome.of(true, 15)));
+        assertEquals(120 * MINUTE, refreshPolicy.nextPollDelayMillis(rssUrl, PollOutcome.of(true, 120)));
+        assertEquals(2 * MINUTE, refreshPolicy.nextPollDelayMillis(rssUrl, PollOutcome.of(true, null)));
+    }
+
+    @Test
+    @DisplayName("Failed polls keep the current interval, default bounds come from the refresh interval")
+    void failedPollsAndDefaultBounds() throws RssAggregatorException {
+        RssUrl withoutBounds = new RssUrl(URI.create("http://www.another.com/valid/rss"), 10);
+        assertEquals(10 * MINUTE, refreshPolicy.nextPollDelayMillis(withoutBounds, PollOutcome.FAILED));
+        for (int i = 0; i < 10; i++) {
+            refreshPolicy.nextPollDelayMillis(withoutBounds, PollOutcome.of(false, null));
+        }
+        assertEquals(60 * MINUTE, refreshPolicy.nextPollDelayMillis(withoutBounds, PollOutcome.FAILED));
+        assertEquals(10 * MINUTE, refreshPolicy.nextPollDelayMillis(withoutBounds, PollOutcome.of(true, null)));
+    }
+
+    @Test
+    @DisplayName("Attempt to configure invalid refresh interval bounds")
+    void invalidBounds() {
+        Exception thrownException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> new RssUrl(URI.create("http://www.valid.com/rss/feed"), 5, 30, 2));
+        assertEquals("Invalid refresh interval bounds. The minimum cannot be greater than the maximum", thrownException.getMessage());
+    }
+}
@@ -0,0 +1,105 @@
+package com.mystartup.rssaggregator.service.scheduling;
+
+import com.mystartup.rssaggregator.model.CircuitState;
+import com.mystartup.rssaggregator.model.FeedHealth;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeedHealthTrackerTest {
+
+    static final URI FEED = URI.create("http://www.valid.com/rss/feed");
+
+    AtomicLong clock;
+    FeedHealthTracker healthTracker;
+
+    @BeforeEach
+    void init() {
+        clock = new AtomicLong(1_000_000);
+        healthTracker = new FeedHealthTracker(3, 1_000, 10_000, clock::get);
+    }
+
+    @Test
+    @DisplayName("Failures back off exponentially up to the maximum and open the circuit after the threshold")
+    void backOffAndOpen() {
+        assertEquals(1_000, healthTracker.recordFailure(FEED, "Provided invalid URL!"));
+        assertEquals(2_000, healthTracker.recordFailure(FEED, "Provided invalid URL!"));
+        assertEquals(CircuitState.CLOSED, health().getState());
+        assertEquals(4_000, healthTracker.recordFailure(FEED, "Provided invalid URL!"));
+        assertEquals(CircuitState.OPEN, health().getState());
+        assertEquals(1, healthTracker.trippedFeeds());
+        assertEquals(8_000, healthTracker.recordFailure(FEED, "Provided invalid URL!"));
+        assertEquals(10_000, healthTracker.recordFailure(FEED, "Provided invalid URL!"));
+        assertEquals(10_000, healthTracker.recordFailure(FEED, "Provided invalid URL!"));
+
+        FeedHealth health = health();
+        assertEquals(6, health.getConsecutiveFailures());
+        assertEquals("Provided invalid URL!", health.getLastError());
+        assertEquals(Instant.ofEpochMilli(1_010_000), health.getNextAttemptAt());
+    }
+
+    @Test
+    @DisplayName("An open circuit refuses polls until its backoff is over, then allows a trial poll")
+    void halfOpenTrial() {
+        for (int i = 0; i < 3; i++) {
+            healthTracker.recordFailure(FEED, "Could not read correctly from URL!");
+        }
+        assertEquals(4_000, healthTracker.beforePoll(FEED));
+        clock.addAndGet(4_000);
+        assertEquals(0, healthTracker.beforePoll(FEED));
+        assertEquals(CircuitState.HALF_OPEN, health().getState());
+
+        assertEquals(8_000, healthTracker.recordFailure(FEED, "Could not read correctly from URL!"));
+        assertEquals(CircuitState.OPEN, health().getState());
+
+        clock.addAndGet(8_000);
+        assertEquals(0, healthTracker.beforePoll(FEED));
+        healthTracker.recordSuccess(FEED);
+        assertTrue(healthTracker.unhealthyFeeds().isEmpty());
+        assertEquals(0, healthTracker.trippedFeeds());
+        assertEquals(1_000, healthTracker.recordFailure(FEED, "Could not read correctly from URL!"));
+    }
+
+    @Test
+    @DisplayName("Healthy and forgotten feeds are not tracked, the most failing feeds come first")
+    void unhealthyFeeds() {
+        URI other = URI.create("http://www.another.com/valid/rss");
+        assertEquals(0, healthTracker.beforePoll(FEED));
+        healthTracker.recordSuccess(FEED);
+        healthTracker.recordFailure(FEED, "Provided invalid URL!");
+        healthTracker.recordFailure(other, "Provided invalid URL!");
+        healthTracker.recordFailure(other, "Provided invalid URL!");
+
+        List<FeedHealth> unhealthyFeeds = healthTracker.unhealthyFeeds();
+        assertEquals(2, unhealthyFeeds.size());
+        assertEquals(other, unhealthyFeeds.get(0).getUri());
+
+        healthTracker.forget(other);
+        assertEquals(1, healthTracker.unhealthyFeeds().size());
+    }
+
+    @Test
+    @DisplayName("Attempt to initialize with invalid values")
+    void initInvalidValues() {
+        Exception failuresException = Assertions.assertThrows(RssAggregatorException.class, () -> new FeedHealthTracker(0, 1_000, 10_000));
+        assertEquals("Invalid number of failures before opening the circuit. Please give a integer value greater than 0", failuresException.getMessage());
+        Exception initialException = Assertions.assertThrows(RssAggregatorException.class, () -> new FeedHealthTracker(1, 0, 10_000));
+        assertEquals("Invalid initial backoff (milliseconds). Please give a value greater than 0", initialException.getMessage());
+        Exception maxException = Assertions.assertThrows(RssAggregatorException.class, () -> new FeedHealthTracker(1, 1_000, 999));
+        assertEquals("Invalid maximum backoff (milliseconds). Please give a value greater or equal to the initial backoff", maxException.getMessage());
+    }
+
+    private FeedHealth health() {
+        return healthTracker.unhealthyFeeds().get(0);
+    }
+}
@@ -0,0 +1,330 @@
+package com.mystartup.rssaggregator.service.scheduling;
+
+import com.mystartup.rssaggregator.model.CircuitState;
+import com.mystartup.rssaggregator.model.FeedHealth;
+import com.mystartup.rssaggregator.model.PollingStatus;
+import com.mystartup.rssaggregator.model.RssUrl;
+import com.mystartup.rssaggregator.service.VirtualThreads;
+import com.mystartup.rssaggregator.service.exceptions.RateLimitedException;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeedPollerTest {
+
+    FeedPoller feedPoller;
+    List<RssUrl> configuredFeeds;
+    Map<URI, AtomicInteger> pollsPerFeed;
+
+    @BeforeEach
+    void init() throws RssAggregatorException {
+        feedPoller = testPoller(2).build();
+        configuredFeeds = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            configuredFeeds.add(new RssUrl(URI.create("http://www.valid.com/rss/" + i), 100));
+        }
+        pollsPerFeed = new ConcurrentHashMap<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        feedPoller.stop();
+    }
+
+    @Test
+    @DisplayName("All configured feeds are polled repeatedly by the small worker pool")
+    void pollsAllFeeds() {
+        feedPoller.start(() -> configuredFeeds, this::countPoll);
+
+        await(() -> configuredFeeds.stream().allMatch(rssUrl -> pollCount(rssUrl) >= 2));
+        PollingStatus status = feedPoller.status();
+        assertTrue(status.isRunning());
+        assertEquals(2, status.getWorkerThreads());
+        assertEquals(20, status.getScheduledFeeds());
+        assertTrue(status.getPollsCompleted() >= 40);
+    }
+
+    @Test
+    @DisplayName("Added and deleted configurations are picked up while polling")
+    void reconcilesConfiguration() throws RssAggregatorException {
+        feedPoller.start(() -> configuredFeeds, this::countPoll);
+        await(() -> feedPoller.status().getPollsCompleted() >= 20);
+
+        RssUrl added = new RssUrl(URI.create("http://www.another.com/valid/rss"), 100);
+        RssUrl deleted = configuredFeeds.remove(0);
+        configuredFeeds.add(added);
+        await(() -> pollCount(added) >= 1 && feedPoller.status().getScheduledFeeds() == 20);
+
+        int deletedPolls = pollCount(deleted);
+        sleep(300);
+        assertEquals(deletedPolls, pollCount(deleted));
+    }
+
+    @Test
+    @DisplayName("Deleted configurations are reported once so their state can be dropped")
+    void reportsRemovedFeeds() {
+        List<URI> removedFeeds = new CopyOnWriteArrayList<>();
+        feedPoller.start(() -> configuredFeeds, this::countPoll, removedFeeds::add);
+        await(() -> feedPoller.status().getPollsCompleted() >= 20);
+
+        RssUrl deleted = configuredFeeds.remove(0);
+        await(() -> !removedFeeds.isEmpty());
+        sleep(200);
+        assertEquals(List.of(deleted.getUri()), removedFeeds);
+    }
+
+    @Test
+    @DisplayName("Failing polls are counted and the feed is polled again after its backoff")
+    void failingPollsKeepPolling() throws RssAggregatorException {
+        feedPoller = testPoller(2).healthTracker(new FeedHealthTracker(10, 10, 40)).build();
+        feedPoller.start(() -> configuredFeeds.subList(0, 1), rssUrl -> {
+            countPoll(rssUrl);
+            throw new RssAggregatorException("Provided invalid URL!");
+        });
+        await(() -> feedPoller.status().getPollsFailed() >= 3);
+        assertEquals(0, feedPoller.status().getPollsCompleted());
+    }
+
+    @Test
+    @DisplayName("A dead feed is tripped and backed off while the healthy feeds keep their refresh rate")
+    void tripsFailingFeeds() throws RssAggregatorException {
+        feedPoller = testPoller(2).politeness(new HostPoliteness(2, 0, 0, 1000))
+                .healthTracker(new FeedHealthTracker(2, 200, 60_000)).build();
+        RssUrl dead = new RssUrl(URI.create("http://www.dead.com/rss"), 10);
+        RssUrl healthy = new RssUrl(URI.create("http://www.healthy.com/rss"), 10);
+        List<RssUrl> feeds = List.of(dead, healthy);
+        feedPoller.start(() -> feeds, rssUrl -> {
+            countPoll(rssUrl);
+            if (rssUrl.equals(dead)) {
+                throw new RssAggregatorException("Provided invalid URL!");
+            }
+            return PollOutcome.of(false, null);
+        });
+
+        await(() -> feedPoller.status().getTrippedFeeds() == 1);
+        List<FeedHealth> feedHealth = feedPoller.feedHealth();
+        assertEquals(1, feedHealth.size());
+        assertEquals(dead.getUri(), feedHealth.get(0).getUri());
+        assertEquals(CircuitState.OPEN, feedHealth.get(0).getState());
+        assertEquals("Provided invalid URL!", feedHealth.get(0).getLastError());
+        int deadPolls = pollCount(dead);
+        int healthyPolls = pollCount(healthy);
+        sleep(300);
+        assertEquals(2, deadPolls);
+        assertTrue(pollCount(dead) <= deadPolls + 1, "Polls of the dead feed: " + pollCount(dead));
+        assertTrue(pollCount(healthy) >= healthyPolls + 5, "Polls of the healthy feed: " + pollCount(healthy));
+    }
+
+    @Test
+    @DisplayName("Starting twice reuses the running poller, stopping ends the polling")
+    void startTwiceAndStop() {
+        feedPoller.start(() -> configuredFeeds, this::countPoll);
+        feedPoller.start(() -> configuredFeeds, this::countPoll);
+        await(() -> feedPoller.status().getPollsCompleted() >= 20);
+
+        feedPoller.stop();
+        PollingStatus status = feedPoller.status();
+        assertFalse(status.isRunning());
+        assertEquals(0, status.getScheduledFeeds());
+        long completed = status.getPollsCompleted();
+        sleep(300);
+        assertTrue(feedPoller.status().getPollsCompleted() <= completed + 2);
+    }
+
+    @Test
+    @DisplayName("Attempt to initialize with invalid number of worker threads")
+    void initInvalidWorkerThreads() {
+        Exception thrownException = Assertions.assertThrows(RssAggregatorException.class, () -> testPoller(0).build());
+        assertEquals("Invalid number of worker threads. Please give a integer value greater than 0", thrownException.getMessage());
+    }
+
+    @Test
+    @DisplayName("Attempt to initialize with an invalid reconcile interval or without a collaborator")
+    void initInvalidValues() {
+        Exception intervalException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> testPoller(2).reconcileIntervalMillis(0).build());
+        assertEquals("Invalid reconcile interval (milliseconds). Please give a integer value greater than 0",
+                intervalException.getMessage());
+        Exception policyException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> testPoller(2).refreshPolicy(null).build());
+        assertEquals("Refresh policy cannot be null!", policyException.getMessage());
+        Exception metricsException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> testPoller(2).metrics(null).build());
+        assertEquals("Aggregator metrics cannot be null!", metricsException.getMessage());
+        Exception politenessException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> testPoller(2).politeness(null).build());
+        assertEquals("Host politeness cannot be null!", politenessException.getMessage());
+        Exception healthTrackerException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> testPoller(2).healthTracker(null).build());
+        assertEquals("Feed health tracker cannot be null!", healthTrackerException.getMessage());
+    }
+
+    @Test
+    @DisplayName("Virtual threads mode is refused on a Java runtime without virtual threads")
+    void virtualThreadsUnsupported() {
+        Assumptions.assumeFalse(VirtualThreads.isSupported());
+        Exception thrownException = Assertions.assertThrows(RssAggregatorException.class, () -> testPoller(100)
+                .executionMode(PollExecutionMode.VIRTUAL_THREADS).build());
+        assertEquals("Virtual threads are not supported by this Java runtime. Please run on Java 21 or later", thrownException.getMessage());
+    }
+
+    @Test
+    @DisplayName("With virtual threads many blocking polls are in flight at once, within the cap and with the security context")
+    void virtualThreadsPollConcurrently() throws RssAggregatorException {
+        Assumptions.assumeTrue(VirtualThreads.isSupported());
+        feedPoller = testPoller(500).executionMode(PollExecutionMode.VIRTUAL_THREADS)
+                .politeness(new HostPoliteness(1000, 0, 0, 1000)).build();
+        configuredFeeds.clear();
+        for (int i = 0; i < 1000; i++) {
+            configuredFeeds.add(new RssUrl(URI.create("http://www.valid.com/rss/" + i), 60_000));
+        }
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger withoutSecurityContext = new AtomicInteger();
+        TestingAuthenticationToken authentication = new TestingAuthenticationToken("admin", "password", "ROLE_ADMIN");
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        try {
+            feedPoller.start(() -> configuredFeeds, rssUrl -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                if (SecurityContextHolder.getContext().getAuthentication() != authentication) {
+                    withoutSecurityContext.incrementAndGet();
+                }
+                sleep(200);
+                inFlight.decrementAndGet();
+                return countPoll(rssUrl);
+            });
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        await(() -> configuredFeeds.stream().allMatch(rssUrl -> pollCount(rssUrl) >= 1));
+        assertTrue(feedPoller.status().isVirtualThreads());
+        assertTrue(maxInFlight.get() <= 500, "Polls in flight: " + maxInFlight.get());
+        assertTrue(maxInFlight.get() > 100, "Polls in flight: " + maxInFlight.get());
+        assertEquals(0, withoutSecurityContext.get());
+    }
+
+    @Test
+    @DisplayName("Polls of the same host are capped while the other hosts are polled at full speed")
+    void capsConnectionsPerHost() throws RssAggregatorException {
+        feedPoller = testPoller(8).politeness(new HostPoliteness(2, 0, 0.1, 1000)).build();
+        for (int i = 0; i < 4; i++) {
+            configuredFeeds.add(new RssUrl(URI.create("http://www.other.com/rss/" + i), 100));
+        }
+        Map<String, AtomicInteger> inFlightPerHost = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> maxInFlightPerHost = new ConcurrentHashMap<>();
+        feedPoller.start(() -> configuredFeeds, rssUrl -> {
+            String host = rssUrl.getUri().getHost();
+            int inFlight = inFlightPerHost.computeIfAbsent(host, name -> new AtomicInteger()).incrementAndGet();
+            maxInFlightPerHost.computeIfAbsent(host, name -> new AtomicInteger()).accumulateAndGet(inFlight, Math::max);
+            sleep(20);
+            inFlightPerHost.get(host).decrementAndGet();
+            return countPoll(rssUrl);
+        });
+
+        await(() -> configuredFeeds.stream().allMatch(rssUrl -> pollCount(rssUrl) >= 2));
+        assertEquals(2, maxInFlightPerHost.get("www.valid.com").get());
+        assertEquals(2, maxInFlightPerHost.get("www.other.com").get());
+    }
+
+    @Test
+    @DisplayName("A rate limited host is not polled before its Retry-After delay, the other hosts keep being polled")
+    void honorsRetryAfter() throws RssAggregatorException {
+        feedPoller = testPoller(2).politeness(new HostPoliteness(2, 0, 0, 1000)).build();
+        RssUrl limited = new RssUrl(URI.create("http://www.limited.com/rss"), 10);
+        RssUrl sameHost = new RssUrl(URI.create("http://www.limited.com/other/rss"), 10);
+        List<RssUrl> feeds = List.of(limited, sameHost, configuredFeeds.get(0));
+        AtomicInteger limitedHostPolls = new AtomicInteger();
+        feedPoller.start(() -> feeds, rssUrl -> {
+            if (rssUrl.getUri().getHost().equals("www.limited.com")) {
+                limitedHostPolls.incrementAndGet();
+                throw new RateLimitedException("Rate limited by the server of url " + rssUrl.getUri(), 60_000);
+            }
+            return countPoll(rssUrl);
+        });
+
+        await(() -> feedPoller.status().getRateLimitedHosts() == 1 && pollCount(configuredFeeds.get(0)) >= 5);
+        int polls = limitedHostPolls.get();
+        sleep(300);
+        assertTrue(polls <= 2, "Polls of the rate limited host: " + polls);
+        assertEquals(polls, limitedHostPolls.get());
+        assertTrue(pollCount(configuredFeeds.get(0)) >= 5);
+    }
+
+    @Test
+    @DisplayName("The delay jitter never brings a poll before the channel ttl expired")
+    void jitterRespectsTtl() throws RssAggregatorException {
+        feedPoller = testPoller(2).politeness(new HostPoliteness(2, 0, 0.5, 1000)).build();
+        long ttlNanos = TimeUnit.MINUTES.toNanos(15);
+        boolean shortened = false;
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(feedPoller.jittered(ttlNanos, 15) >= ttlNanos);
+            shortened |= feedPoller.jittered(ttlNanos, null) < ttlNanos;
+        }
+        assertTrue(shortened);
+    }
+
+    @Test
+    @DisplayName("Attempt to initialize the host politeness with invalid values")
+    void initInvalidHostPoliteness() {
+        Exception connectionsException = Assertions.assertThrows(RssAggregatorException.class, () -> new HostPoliteness(0, 0, 0, 1000));
+        assertEquals("Invalid number of connections per host. Please give a integer value greater than 0", connectionsException.getMessage());
+        Exception startJitterException = Assertions.assertThrows(RssAggregatorException.class, () -> new HostPoliteness(1, -1, 0, 1000));
+        assertEquals("Invalid start jitter (milliseconds). Please give a value greater than or equal to 0", startJitterException.getMessage());
+        Exception ratioException = Assertions.assertThrows(RssAggregatorException.class, () -> new HostPoliteness(1, 0, 1, 1000));
+        assertEquals("Invalid delay jitter ratio. Please give a value between 0 and 1", ratioException.getMessage());
+        Exception delayException = Assertions.assertThrows(RssAggregatorException.class, () -> new HostPoliteness(1, 0, 0, 0));
+        assertEquals("Invalid rate limited delay (milliseconds). Please give a value greater than 0", delayException.getMessage());
+    }
+
+    // refresh intervals are read as milliseconds to keep the tests short
+    private static FeedPoller.Builder testPoller(int maxConcurrentPolls) {
+        return FeedPoller.builder().maxConcurrentPolls(maxConcurrentPolls).reconcileIntervalMillis(50)
+                .refreshPolicy(new FixedRefreshPolicy(TimeUnit.MILLISECONDS));
+    }
+
+    private PollOutcome countPoll(RssUrl rssUrl) {
+        pollsPerFeed.computeIfAbsent(rssUrl.getUri(), uri -> new AtomicInteger()).incrementAndGet();
+        return PollOutcome.of(true, null);
+    }
+
+    private int pollCount(RssUrl rssUrl) {
+        AtomicInteger count = pollsPerFeed.get(rssUrl.getUri());
+        return count == null ? 0 : count.get();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition not met in time");
+            sleep(10);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.mystartup.rssaggregator.service.store;
+
+import com.mystartup.rssaggregator.model.Channel;
+import com.mystartup.rssaggregator.model.CustomTag;
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.RssFeed;
+import com.mystartup.rssaggregator.model.SearchField;
+import com.mystartup.rssaggregator.model.SearchProjection;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import com.mystartup.rssaggregator.service.ingest.FeedIngestor;
+import com.mystartup.rssaggregator.service.ingest.ItemDeduplicator;
+import com.mystartup.rssaggregator.service.ingest.NewItemPublisher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarItemStoreTest {
+
+    static final URI FEED_URI = URI.create("http://www.valid.com/rss/feed");
+    static final URI OTHER_FEED_URI = URI.create("http://www.another.com/valid/rss");
+
+    Path directory;
+    ColumnarItemStore itemStore;
+
+    @BeforeEach
+    void init() throws IOException, RssAggregatorException {
+        directory = Files.createTempDirectory("item-store");
+        itemStore = ColumnarItemStore.memoryMapped(directory, 256);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        itemStore.close();
+        Files.delete(directory);
+    }
+
+    @Test
+    @DisplayName("Stored items are read back with all their values, nulls included")
+    void appendAndGet() throws RssAggregatorException {
+        Item item = item("Telescope images \u00e9t\u00e9", "Mon, 15 Mar 2021 08:30:00 GMT");
+        item.setDescription("Astronomers said the images were sharp");
+        item.setGuid("guid-1");
+        item.setAuthor("Jane Doe");
+        item.setCategory(Arrays.asList("Science", null, "Space"));
+        item.setCustomTags(Arrays.asList(new CustomTag("creator", "Jane Doe"), new CustomTag("rating", null)));
+        item.setComments(Collections.emptyList());
+
+        assertEquals(0, itemStore.append(FEED_URI, item));
+        assertEquals(1, itemStore.append(OTHER_FEED_URI, new Item()));
+
+        Item stored = itemStore.get(0);
+        assertEquals(item.toString(), stored.toString());
+        assertEquals(item.getPubDateMillis(), stored.getPubDateMillis());
+        assertEquals(FEED_URI, itemStore.getFeedUri(0));
+        assertEquals(new Item().toString(), itemStore.get(1).toString());
+        assertEquals(OTHER_FEED_URI, itemStore.getFeedUri(1));
+        assertEquals(2, itemStore.size());
+    }
+
+    @Test
+    @DisplayName("Values are spread over new chunks as the chunks fill up, in memory-mapped files and off-heap")
+    void appendManyItems() throws RssAggregatorException, IOException {
+        ColumnarItemStore offHeapStore = ColumnarItemStore.offHeap(256);
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                Item item = item("Item number " + i, null);
+                item.setCategory(Collections.singletonList("category " + (i % 7)));
+                itemStore.append(FEED_URI, item);
+                offHeapStore.append(FEED_URI, item);
+            }
+            for (int i = 0; i < 2_000; i += 97) {
+                assertEquals("Item number " + i, itemStore.get(i).getTitle());
+                assertEquals("category " + (i % 7), offHeapStore.get(i).getCategory().get(0));
+            }
+            try (Stream<Path> files = Files.list(directory)) {
+                assertTrue(files.count() > 11);
+            }
+        } finally {
+            offHeapStore.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Searching scans from the most recent item and stops at the limit")
+    void searchNewestFirst() throws RssAggregatorException {
+        itemStore.append(FEED_URI, item("Storm warning", null));
+        itemStore.append(FEED_URI, item("Election results", null));
+        itemStore.append(OTHER_FEED_URI, item("STORM passed", null));
+        itemStore.append(OTHER_FEED_URI, item("Storm chasers", null));
+
+        assertEquals(Arrays.asList("Storm chasers", "STORM passed"),
+                itemStore.search("storm", 2).stream().map(Item::getTitle).collect(Collectors.toList()));
+        assertEquals(3, itemStore.search("storm", 10).size());
+        assertTrue(itemStore.search("telescope", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Searching matches the fields of the search projection, ignoring case")
+    void searchProjectedFields() throws RssAggregatorException {
+        ColumnarItemStore titleStore = ColumnarItemStore.offHeap(256, new SearchProjection(EnumSet.of(SearchField.TITLE)));
+        try {
+            Item item = item("Storm warning \u00c9T\u00c9", null);
+            item.setDescription("Heavy rain expected");
+            titleStore.append(FEED_URI, item);
+            itemStore.append(FEED_URI, item);
+
+            assertEquals(1, titleStore.search("\u00e9t\u00e9", 10).size());
+            assertEquals(1, titleStore.search("orm warn", 10).size());
+            assertTrue(titleStore.search("heavy rain", 10).isEmpty());
+            assertEquals("Heavy rain expected", itemStore.search("HEAVY RAIN", 10).get(0).getDescription());
+            assertTrue(itemStore.search("expected storm", 10).isEmpty());
+        } finally {
+            titleStore.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Values larger than a chunk, unknown ids and closed stores are refused")
+    void invalidOperations() throws RssAggregatorException {
+        char[] description = new char[300];
+        Arrays.fill(description, 'a');
+        Item largeItem = item("Large", null);
+        largeItem.setDescription(new String(description));
+        Exception largeException = Assertions.assertThrows(RssAggregatorException.class, () -> itemStore.append(FEED_URI, largeItem));
+        assertEquals("Item value larger than the chunk size of 256 bytes", largeException.getMessage());
+        assertEquals(0, itemStore.size());
+
+        Exception idException = Assertions.assertThrows(RssAggregatorException.class, () -> itemStore.get(0));
+        assertEquals("No stored item with id 0", idException.getMessage());
+
+        itemStore.close();
+        Exception closedException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> itemStore.append(FEED_URI, item("Storm", null)));
+        assertEquals("Item store is closed!", closedException.getMessage());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        } catch (IOException e) {
+            Assertions.fail(e);
+        }
+    }
+
+    @Test
+    @DisplayName("The ingestion appends only the new items to the store")
+    void ingestionStoresNewItems() throws RssAggregatorException {
+        NewItemPublisher newItemPublisher = new NewItemPublisher();
+        try (FeedIngestor feedIngestor = new FeedIngestor(new ItemDeduplicator(), newItemPublisher, itemStore)) {
+            Item first = item("First", null);
+            first.setGuid("1");
+            Item second = item("Second", null);
+            second.setGuid("2");
+            feedIngestor.ingest(FEED_URI, feed(first));
+            feedIngestor.ingest(FEED_URI, feed(first, second));
+
+            assertEquals(2, itemStore.size());
+            assertEquals("Second", itemStore.get(1).getTitle());
+        } finally {
+            newItemPublisher.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Attempt to initialize with invalid values")
+    void initInvalidValues() {
+        Exception chunkException = Assertions.assertThrows(RssAggregatorException.class, () -> ColumnarItemStore.offHeap(8));
+        assertEquals("Invalid chunk size (bytes). Please give a integer value greater than 8", chunkException.getMessage());
+        Exception directoryException = Assertions.assertThrows(RssAggregatorException.class,
+                () -> ColumnarItemStore.memoryMapped(directory.resolve("missing"), 256));
+        assertEquals("Item store directory does not exist!", directoryException.getMessage());
+    }
+
+    private static Item item(String title, String pubDate) {
+        Item item = new Item();
+        item.setTitle(title);
+        item.setPubDate(pubDate);
+        return item;
+    }
+
+    private static RssFeed feed(Item... items) {
+        Channel channel = new Channel();
+        channel.setItems(Arrays.asList(items));
+        RssFeed rssFeed = new RssFeed();
+        rssFeed.setChannel(channel);
+        return rssFeed;
+    }
+}
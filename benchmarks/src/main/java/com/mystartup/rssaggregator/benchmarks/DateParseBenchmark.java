@@ -0,0 +1,46 @@
+package com.mystartup.rssaggregator.benchmarks;
+
+import com.mystartup.rssaggregator.service.parsing.FeedDates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of a RFC 822 and an ISO 8601 pubDate with FeedDates and with the java.time formatters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DateParseBenchmark {
+
+    @Param({"Tue, 16 Mar 2021 14:00:00 +0200", "2021-03-16T13:00:00.123+01:00"})
+    String pubDate;
+
+    @Benchmark
+    public long feedDates() {
+        return FeedDates.parse(pubDate);
+    }
+
+    @Benchmark
+    public long javaTime() {
+        if (Character.isDigit(pubDate.charAt(0))) {
+            return OffsetDateTime.parse(pubDate).toInstant().toEpochMilli();
+        }
+        return ZonedDateTime.parse(pubDate, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,131 @@
+package com.mystartup.rssaggregator.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+/**
+ * Feed documents used by the benchmarks. Everything is built from the bundled fixture or generated in memory,
+ * no network access is needed.
+ */
+final class Fixtures {
+
+    static final String SMALL_FEED = "/feeds/small-feed.xml";
+
+    /**
+     * Number of copies of the small feed items making up the large feed (20 items each).
+     */
+    static final int LARGE_FEED_COPIES = 100;
+
+    private static final String[] WORDS = ("astronomers telescope images climate ocean energy battery vaccine genome "
+            + "robot quantum computer election market policy research study data privacy network cloud startup "
+            + "funding science space planet rocket launch satellite mission model language learning the a of and "
+            + "said report new first year people government company").split(" ");
+
+    private static final Instant FIRST_PUB_DATE = Instant.parse("2021-01-01T00:00:00Z");
+
+    private Fixtures() {
+    }
+
+    static byte[] smallFeed() {
+        return resource(SMALL_FEED);
+    }
+
+    /**
+     * The small feed with its items repeated {@link #LARGE_FEED_COPIES} times.
+     */
+    static byte[] largeFeed() {
+        String smallFeed = new String(smallFeed(), StandardCharsets.UTF_8);
+        int itemsStart = smallFeed.indexOf("<item>");
+        int itemsEnd = smallFeed.lastIndexOf("</item>") + "</item>".length();
+        String items = smallFeed.substring(itemsStart, itemsEnd);
+        StringBuilder largeFeed = new StringBuilder(smallFeed.length() * LARGE_FEED_COPIES);
+        largeFeed.append(smallFeed, 0, itemsStart);
+        for (int i = 0; i < LARGE_FEED_COPIES; i++) {
+            largeFeed.append(items).append('\n');
+        }
+        largeFeed.append(smallFeed.substring(itemsEnd));
+        return largeFeed.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Generates a feed of random items made of a small vocabulary, with custom tags and categories.
+     */
+    static String syntheticFeed(final String name, final int itemCount, final Random random) {
+        StringBuilder feed = new StringBuilder(itemCount * 600);
+        appendChannelStart(feed, name);
+        for (int i = 0; i < itemCount; i++) {
+            appendItem(feed, name, i, pubDate(random), random);
+        }
+        return feed.append("</channel></rss>").toString();
+    }
+
+    /**
+     * Generates a feed listing the items newest first, as most feeds do: the items numbered from lastItem down to
+     * lastItem - itemCount + 1, item i published i hours after the first pubDate.
+     */
+    static String newestFirstFeed(final String name, final int lastItem, final int itemCount, final Random random) {
+        StringBuilder feed = new StringBuilder(itemCount * 600);
+        appendChannelStart(feed, name);
+        for (int i = lastItem; i > lastItem - itemCount; i--) {
+            String pubDate = DateTimeFormatter.RFC_1123_DATE_TIME.format(FIRST_PUB_DATE.plusSeconds(3600L * i)
+                    .atZone(ZoneOffset.UTC));
+            appendItem(feed, name, i, pubDate, random);
+        }
+        return feed.append("</channel></rss>").toString();
+    }
+
+    private static void appendChannelStart(final StringBuilder feed, final String name) {
+        feed.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<rss version=\"2.0\" xmlns:dc=\"http://purl.org/dc/elements/1.1/\"><channel>")
+                .append("<title>").append(name).append("</title><language>en</language>");
+    }
+
+    private static void appendItem(final StringBuilder feed, final String name, final int i, final String pubDate,
+                                   final Random random) {
+        feed.append("<item><title>").append(words(random, 8)).append("</title>")
+                .append("<description>").append(words(random, 40)).append("</description>")
+                .append("<guid>").append(name).append('-').append(i).append("</guid>")
+                .append("<link>https://www.example.com/").append(name).append('/').append(i).append("</link>")
+                .append("<category>").append(words(random, 1)).append("</category>")
+                .append("<pubDate>").append(pubDate).append("</pubDate>")
+                .append("<dc:creator>Author ").append(random.nextInt(50)).append("</dc:creator>")
+                .append("<rating>").append(words(random, 2)).append("</rating></item>");
+    }
+
+    private static String pubDate(final Random random) {
+        Instant published = FIRST_PUB_DATE.plusSeconds(random.nextInt(365 * 24 * 3600));
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(published.atZone(ZoneOffset.UTC));
+    }
+
+    private static String words(final Random random, final int count) {
+        StringBuilder words = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                words.append(' ');
+            }
+            words.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return words.toString();
+    }
+
+    private static byte[] resource(final String name) {
+        try (InputStream inputStream = Fixtures.class.getResourceAsStream(name)) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) > 0) {
+                content.write(buffer, 0, read);
+            }
+            return content.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.mystartup.rssaggregator.benchmarks;
+
+import com.mystartup.rssaggregator.configuration.RssAggregatorConfig;
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.RssFeed;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import com.mystartup.rssaggregator.service.ingest.FeedCanonicalizer;
+import com.mystartup.rssaggregator.service.ingest.StringInterner;
+import com.mystartup.rssaggregator.service.store.ColumnarItemStore;
+import org.springframework.oxm.Unmarshaller;
+
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the heap retained by unmarshalled synthetic feeds, as read and after the FeedCanonicalizer, and the heap
+ * retained when the items are kept in an off-heap ColumnarItemStore instead.
+ * Not a JMH benchmark: it prints the retained bytes per item, measured after full GCs.
+ * Usage: java -cp RSSAggregator-benchmarks.jar com.mystartup.rssaggregator.benchmarks.HeapFootprint [itemCount]
+ */
+public final class HeapFootprint {
+
+    private static final int ITEMS_PER_FEED = 1000;
+
+    private HeapFootprint() {
+    }
+
+    public static void main(final String[] args) throws IOException, RssAggregatorException {
+        int itemCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Unmarshaller unmarshaller = new RssAggregatorConfig().unmarshaller();
+        List<byte[]> documents = new ArrayList<>();
+        Random random = new Random(42);
+        for (int feed = 0; feed * ITEMS_PER_FEED < itemCount; feed++) {
+            int feedItems = Math.min(ITEMS_PER_FEED, itemCount - feed * ITEMS_PER_FEED);
+            documents.add(Fixtures.syntheticFeed("feed" + feed, feedItems, random).getBytes(StandardCharsets.UTF_8));
+        }
+        long raw = retainedBytes(documents, unmarshaller, null);
+        long canonical = retainedBytes(documents, unmarshaller, new FeedCanonicalizer(new StringInterner()));
+        ColumnarItemStore itemStore = ColumnarItemStore.offHeap(ColumnarItemStore.DEFAULT_CHUNK_BYTES);
+        long stored = retainedHeapBytes(documents, unmarshaller, itemStore);
+        System.out.printf("Items: %d%n", itemCount);
+        System.out.printf("Retained as read:          %,d bytes (%d bytes per item)%n", raw, raw / itemCount);
+        System.out.printf("Retained canonicalized:    %,d bytes (%d bytes per item)%n", canonical, canonical / itemCount);
+        System.out.printf("Saved:                     %.1f%%%n", 100.0 * (raw - canonical) / raw);
+        System.out.printf("Heap retained by the store: %,d bytes (%d bytes per item, %d items stored off-heap)%n",
+                stored, stored / itemCount, itemStore.size());
+        itemStore.close();
+    }
+
+    private static long retainedBytes(final List<byte[]> documents, final Unmarshaller unmarshaller,
+                                      final FeedCanonicalizer feedCanonicalizer) throws IOException {
+        long before = usedHeapAfterGc();
+        List<RssFeed> feeds = new ArrayList<>(documents.size());
+        for (byte[] document : documents) {
+            RssFeed rssFeed = (RssFeed) unmarshaller.unmarshal(new StreamSource(new ByteArrayInputStream(document)));
+            feeds.add(feedCanonicalizer == null ? rssFeed : feedCanonicalizer.canonicalize(rssFeed));
+        }
+        long retained = usedHeapAfterGc() - before;
+        if (feeds.isEmpty()) {
+            throw new IllegalStateException("No feed read");
+        }
+        return retained;
+    }
+
+    private static long retainedHeapBytes(final List<byte[]> documents, final Unmarshaller unmarshaller,
+                                          final ColumnarItemStore itemStore) throws IOException, RssAggregatorException {
+        long before = usedHeapAfterGc();
+        URI feedUri = URI.create("https://www.example.com/rss");
+        for (byte[] document : documents) {
+            RssFeed rssFeed = (RssFeed) unmarshaller.unmarshal(new StreamSource(new ByteArrayInputStream(document)));
+            for (Item item : rssFeed.getChannel().getItems()) {
+                itemStore.append(feedUri, item);
+            }
+        }
+        return usedHeapAfterGc() - before;
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            memory.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,75 @@
+package com.mystartup.rssaggregator.benchmarks;
+
+import com.mystartup.rssaggregator.model.RssFeed;
+import com.mystartup.rssaggregator.service.parsing.IncrementalFeedParser;
+import com.mystartup.rssaggregator.service.parsing.StaxFeedUnmarshaller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * A poll of a newest first feed of 20 and 2000 synthetic items, 2 of them new since the previous poll: the full
+ * parse with the StAX unmarshaller and the incremental parse stopping at the run of seen items. The previous feed
+ * is restored before every incremental parse, outside of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IncrementalParseBenchmark {
+
+    private static final URI FEED_URI = URI.create("http://www.valid.com/rss/feed");
+    private static final int NEW_ITEMS = 2;
+
+    @Param({"20", "2000"})
+    int itemCount;
+
+    byte[] document;
+    RssFeed previousFeed;
+    StaxFeedUnmarshaller unmarshaller = new StaxFeedUnmarshaller();
+    IncrementalFeedParser incrementalFeedParser = new IncrementalFeedParser();
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] previousDocument = Fixtures.newestFirstFeed("feed", itemCount, itemCount, new Random(42))
+                .getBytes(StandardCharsets.UTF_8);
+        previousFeed = (RssFeed) unmarshaller.unmarshal(new StreamSource(new ByteArrayInputStream(previousDocument)));
+        document = Fixtures.newestFirstFeed("feed", itemCount + NEW_ITEMS, itemCount, new Random(43))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Invocation)
+    public void restorePreviousFeed() {
+        incrementalFeedParser.restore(FEED_URI, previousFeed);
+    }
+
+    @Benchmark
+    public Object fullParse() throws IOException {
+        return unmarshaller.unmarshal(new StreamSource(new ByteArrayInputStream(document)));
+    }
+
+    @Benchmark
+    public RssFeed incrementalParse() throws IOException {
+        return incrementalFeedParser.parse(FEED_URI, () -> new ByteArrayInputStream(document), UnaryOperator.identity());
+    }
+}
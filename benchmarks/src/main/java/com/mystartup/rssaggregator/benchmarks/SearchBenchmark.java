@@ -0,0 +1,145 @@
+package com.mystartup.rssaggregator.benchmarks;
+
+import com.mystartup.rssaggregator.configuration.RssAggregatorConfig;
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.Keyphrase;
+import com.mystartup.rssaggregator.model.RssFeed;
+import com.mystartup.rssaggregator.model.RssUrl;
+import com.mystartup.rssaggregator.model.ScoredItem;
+import com.mystartup.rssaggregator.model.SearchOrder;
+import com.mystartup.rssaggregator.model.SearchPage;
+import com.mystartup.rssaggregator.model.SearchProjection;
+import com.mystartup.rssaggregator.service.DefaultRssReaderServiceImpl;
+import com.mystartup.rssaggregator.service.DefaultRssUrlServiceImpl;
+import com.mystartup.rssaggregator.service.RssReaderService;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Search over synthetic item sets: building the searchable values of every item, the linear
+ * lower-case/contains filter over them, the same two over the cached search projection, searchFeeds answering
+ * from the index, the first page of 20 items of the paginated search, in index order and newest first, and the
+ * 20 best items of the ranked search ("the" is a stop word there, it finds nothing).
+ * The synthetic feeds are written to temporary files and read through file: URLs, so no network is needed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    private static final int ITEMS_PER_FEED = 1000;
+
+    @Param({"1000", "100000"})
+    int itemCount;
+
+    @Param({"quantum", "the"})
+    String keyphrase;
+
+    Path feedDirectory;
+    RssReaderService rssReaderService;
+    List<Item> items;
+    SearchProjection searchProjection = new SearchProjection();
+
+    @Setup
+    public void setUp() throws IOException, RssAggregatorException {
+        feedDirectory = Files.createTempDirectory("rss-benchmark");
+        Random random = new Random(42);
+        ArrayList<RssUrl> rssUrls = new ArrayList<>();
+        for (int feed = 0; feed * ITEMS_PER_FEED < itemCount; feed++) {
+            Path feedFile = feedDirectory.resolve("feed-" + feed + ".xml");
+            int feedItems = Math.min(ITEMS_PER_FEED, itemCount - feed * ITEMS_PER_FEED);
+            Files.write(feedFile, Fixtures.syntheticFeed("feed" + feed, feedItems, random).getBytes(StandardCharsets.UTF_8));
+            rssUrls.add(new RssUrl(feedFile.toUri()));
+        }
+        rssReaderService = new DefaultRssReaderServiceImpl(new DefaultRssUrlServiceImpl(rssUrls),
+                new RssAggregatorConfig().unmarshaller());
+        List<RssFeed> feeds = rssReaderService.readFeeds();
+        items = feeds.stream().flatMap(feed -> feed.getChannel().getItems().stream()).collect(Collectors.toList());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (java.util.stream.Stream<Path> files = Files.list(feedDirectory)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(feedDirectory);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public void searchValues(final Blackhole blackhole) {
+        for (Item item : items) {
+            blackhole.consume(item.getSearchValues());
+        }
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public List<Item> linearFilter() {
+        return items.stream()
+                .filter(item -> item.getSearchValues().toLowerCase().contains(keyphrase.toLowerCase()))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void searchProjection(final Blackhole blackhole) {
+        for (Item item : items) {
+            blackhole.consume(searchProjection.project(item));
+        }
+    }
+
+    @Benchmark
+    public List<Item> projectedLinearFilter() {
+        Keyphrase foldedKeyphrase = new Keyphrase(keyphrase);
+        return items.stream()
+                .filter(item -> searchProjection.matches(item, foldedKeyphrase))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Item> searchFeeds() throws RssAggregatorException {
+        return rssReaderService.searchFeeds(keyphrase);
+    }
+
+    @Benchmark
+    public SearchPage searchFirstPage() throws RssAggregatorException {
+        return rssReaderService.searchFeeds(keyphrase, SearchOrder.INDEX_ORDER, 20, null);
+    }
+
+    @Benchmark
+    public List<ScoredItem> searchRanked() throws RssAggregatorException {
+        return rssReaderService.searchRanked(keyphrase, 20);
+    }
+
+    @Benchmark
+    public SearchPage searchNewestPage() throws RssAggregatorException {
+        return rssReaderService.searchFeeds(keyphrase, SearchOrder.NEWEST_FIRST, 20, null);
+    }
+}
@@ -0,0 +1,86 @@
+package com.mystartup.rssaggregator.benchmarks;
+
+import com.mystartup.rssaggregator.model.Item;
+import com.mystartup.rssaggregator.model.RssFeed;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import com.mystartup.rssaggregator.service.ingest.StandingQueries;
+import com.mystartup.rssaggregator.service.parsing.StaxFeedUnmarshaller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.xml.transform.stream.StreamSource;
+
+/**
+ * Matching of a feed of 1000 synthetic items against 10, 1k and 100k standing queries, most of them never matching,
+ * and for comparison the naive match of every keyphrase against the searchable values of every item.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StandingQueryBenchmark {
+
+    private static final URI FEED_URI = URI.create("http://www.valid.com/rss/feed");
+    private static final String[] MATCHING_KEYPHRASES = {"quantum computer", "climate", "rocket launch", "privacy"};
+
+    @Param({"10", "1000", "100000"})
+    int queryCount;
+
+    List<Item> items;
+    StandingQueries standingQueries;
+    String[] keyphrases;
+    LongAdder delivered = new LongAdder();
+
+    @Setup
+    public void setUp() throws IOException, RssAggregatorException {
+        String feed = Fixtures.syntheticFeed("standing", 1000, new Random(42));
+        items = ((RssFeed) new StaxFeedUnmarshaller().unmarshal(new StreamSource(new StringReader(feed))))
+                .getChannel().getItems();
+        standingQueries = new StandingQueries();
+        keyphrases = new String[queryCount];
+        for (int query = 0; query < queryCount; query++) {
+            keyphrases[query] = query < MATCHING_KEYPHRASES.length ? MATCHING_KEYPHRASES[query] : "topic" + query;
+            standingQueries.register(keyphrases[query], (standingQuery, feedUri, item) -> delivered.increment());
+        }
+        // compiles the automaton outside of the measurement
+        standingQueries.match(FEED_URI, items);
+    }
+
+    @Benchmark
+    public int automaton() {
+        return standingQueries.match(FEED_URI, items);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public int naive() {
+        int matches = 0;
+        for (Item item : items) {
+            String searchValues = item.getSearchValues().toLowerCase();
+            for (String keyphrase : keyphrases) {
+                if (searchValues.contains(keyphrase)) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,54 @@
+package com.mystartup.rssaggregator.benchmarks;
+
+import com.mystartup.rssaggregator.configuration.RssAggregatorConfig;
+import com.mystartup.rssaggregator.service.parsing.StaxFeedUnmarshaller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.oxm.Unmarshaller;
+
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unmarshalling of the bundled fixture feed (20 items) and of a large feed (2000 items) with the JAXB
+ * unmarshaller of the configuration and with the StAX unmarshaller.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnmarshalBenchmark {
+
+    @Param({"small", "large"})
+    String feedSize;
+
+    @Param({"jaxb", "stax"})
+    String parser;
+
+    byte[] document;
+    Unmarshaller unmarshaller;
+
+    @Setup
+    public void setUp() {
+        document = "small".equals(feedSize) ? Fixtures.smallFeed() : Fixtures.largeFeed();
+        unmarshaller = "jaxb".equals(parser) ? new RssAggregatorConfig().unmarshaller() : new StaxFeedUnmarshaller();
+    }
+
+    @Benchmark
+    public Object unmarshal() throws IOException {
+        return unmarshaller.unmarshal(new StreamSource(new ByteArrayInputStream(document)));
+    }
+}
@@ -0,0 +1,83 @@
+package com.mystartup.rssaggregator.benchmarks;
+
+import com.mystartup.rssaggregator.model.RssUrl;
+import com.mystartup.rssaggregator.service.ConcurrentRssUrlServiceImpl;
+import com.mystartup.rssaggregator.service.DefaultRssUrlServiceImpl;
+import com.mystartup.rssaggregator.service.RssUrlService;
+import com.mystartup.rssaggregator.service.exceptions.RssAggregatorException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups and updates of RSS URL configurations with 10, 1k and 100k configured URLs, with the list based
+ * DefaultRssUrlServiceImpl and the hash indexed ConcurrentRssUrlServiceImpl.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UrlServiceBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int urlCount;
+
+    @Param({"default", "concurrent"})
+    String implementation;
+
+    RssUrlService rssUrlService;
+    String[] urls;
+    RssUrl[] updatedUrls;
+    RssUrl addedUrl;
+    int next;
+
+    @Setup
+    public void setUp() throws RssAggregatorException {
+        ArrayList<RssUrl> rssUrls = new ArrayList<>(urlCount);
+        urls = new String[urlCount];
+        updatedUrls = new RssUrl[urlCount];
+        for (int i = 0; i < urlCount; i++) {
+            urls[i] = "https://www.host" + (i % 100) + ".com/feeds/" + i + "/rss";
+            rssUrls.add(new RssUrl(URI.create(urls[i]), 5));
+            updatedUrls[i] = new RssUrl(URI.create(urls[i]), 10);
+        }
+        rssUrlService = "default".equals(implementation) ? new DefaultRssUrlServiceImpl(rssUrls)
+                : new ConcurrentRssUrlServiceImpl(rssUrls);
+        addedUrl = new RssUrl(URI.create("https://www.added.com/rss"), 5);
+    }
+
+    @Benchmark
+    public RssUrl get() throws RssAggregatorException {
+        return rssUrlService.get(urls[nextIndex()]);
+    }
+
+    @Benchmark
+    public void addOrUpdateExisting() throws RssAggregatorException {
+        rssUrlService.addOrUpdate(updatedUrls[nextIndex()]);
+    }
+
+    @Benchmark
+    public void addThenDelete() throws RssAggregatorException {
+        rssUrlService.addOrUpdate(addedUrl);
+        rssUrlService.delete(addedUrl.getUri().toString());
+    }
+
+    private int nextIndex() {
+        next = next + 1 == urlCount ? 0 : next + 1;
+        return next;
+    }
+}